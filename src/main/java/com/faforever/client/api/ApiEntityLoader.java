@@ -0,0 +1,84 @@
+package com.faforever.client.api;
+
+import com.faforever.client.config.CacheNames;
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.config.ClientProperties.Api;
+import com.faforever.commons.api.dto.MapVersion;
+import com.faforever.commons.api.dto.Player;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Loads entities that are looked up one by one, e.g. for each replay of a page, in batches. Lookups that are made
+ * within a short window are sent as one {@code =in=} query per entity type.
+ */
+@Lazy
+@Service
+@RequiredArgsConstructor
+public class ApiEntityLoader implements InitializingBean {
+
+  private final FafApiAccessor fafApiAccessor;
+  private final ClientProperties clientProperties;
+  private final ExecutorService executorService;
+  private final CacheManager cacheManager;
+
+  private BatchLoader<String, MapVersion> mapVersionsByFolderName;
+  private BatchLoader<Integer, Player> playersById;
+
+  @Override
+  public void afterPropertiesSet() {
+    Api api = clientProperties.getApi();
+    mapVersionsByFolderName = new BatchLoader<>(this::findMapsByFolderNames,
+        cacheManager.getCache(CacheNames.MAP_VERSIONS_BY_FOLDER_NAME), cacheManager.getCache(CacheNames.MISSING_MAP_VERSIONS_BY_FOLDER_NAME),
+        executorService, api.getBatchWindowMillis(), api.getMaxBatchSize());
+    playersById = new BatchLoader<>(this::getPlayersByIds,
+        cacheManager.getCache(CacheNames.PLAYERS_BY_ID), cacheManager.getCache(CacheNames.MISSING_PLAYERS_BY_ID),
+        executorService, api.getBatchWindowMillis(), api.getMaxBatchSize());
+  }
+
+  public CompletableFuture<Optional<MapVersion>> loadMapVersionByFolderName(String folderName) {
+    return mapVersionsByFolderName.load(folderName);
+  }
+
+  /**
+   * Loads the specified players, leaving out the ones that don't exist, in the order of their IDs.
+   */
+  public CompletableFuture<List<Player>> loadPlayersByIds(Collection<Integer> playerIds) {
+    return playersById.loadAll(playerIds);
+  }
+
+  private Map<String, MapVersion> findMapsByFolderNames(Set<String> folderNames) {
+    Map<String, MapVersion> mapVersionsByLowerCaseFolderName = new HashMap<>();
+    fafApiAccessor.findMapsByFolderNames(folderNames).stream()
+        .filter(mapVersion -> mapVersion.getFolderName() != null)
+        .forEach(mapVersion -> mapVersionsByLowerCaseFolderName.put(mapVersion.getFolderName().toLowerCase(Locale.ROOT), mapVersion));
+
+    Map<String, MapVersion> mapVersions = new HashMap<>();
+    folderNames.forEach(folderName -> {
+      MapVersion mapVersion = mapVersionsByLowerCaseFolderName.get(folderName.toLowerCase(Locale.ROOT));
+      if (mapVersion != null) {
+        mapVersions.put(folderName, mapVersion);
+      }
+    });
+    return mapVersions;
+  }
+
+  private Map<Integer, Player> getPlayersByIds(Set<Integer> playerIds) {
+    Map<Integer, Player> players = new HashMap<>();
+    fafApiAccessor.getPlayersByIds(playerIds).forEach(player -> players.put(Integer.parseInt(player.getId()), player));
+    return players;
+  }
+}
@@ -0,0 +1,118 @@
+package com.faforever.client.api;
+
+import com.google.common.collect.Iterables;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects the keys that are requested within a short window and loads them with one call of a batch function, like
+ * a data loader. Keys that are requested again while they are waiting share the same future, and loaded values are
+ * put into a cache, which is asked before a key is queued.
+ * <p>
+ * Keys the batch function doesn't return a value for complete with an empty optional and are put into a separate
+ * cache of missing keys, which should expire sooner, so that e.g. a map uploaded in the meantime is found again.
+ */
+@Slf4j
+public class BatchLoader<K, V> {
+
+  private final Function<Set<K>, Map<K, V>> batchFunction;
+  private final Cache cache;
+  private final Cache missingKeyCache;
+  private final Executor delayedExecutor;
+  private final int maxBatchSize;
+
+  private Map<K, CompletableFuture<Optional<V>>> pendingLoads = new LinkedHashMap<>();
+
+  /**
+   * @param batchFunction loads the values of the specified keys, called on the executor
+   * @param missingKeyCache remembers the keys the batch function hasn't returned a value for
+   * @param windowMillis how long keys are collected before they are loaded
+   * @param maxBatchSize how many keys are passed to one call of the batch function at most
+   */
+  public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction, Cache cache, Cache missingKeyCache, Executor executor,
+                     long windowMillis, int maxBatchSize) {
+    this.batchFunction = batchFunction;
+    this.cache = cache;
+    this.missingKeyCache = missingKeyCache;
+    this.delayedExecutor = CompletableFuture.delayedExecutor(windowMillis, TimeUnit.MILLISECONDS, executor);
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+  }
+
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<Optional<V>> load(K key) {
+    ValueWrapper cachedValue = cache.get(key);
+    if (cachedValue != null) {
+      return CompletableFuture.completedFuture(Optional.ofNullable((V) cachedValue.get()));
+    }
+    if (missingKeyCache.get(key) != null) {
+      return CompletableFuture.completedFuture(Optional.empty());
+    }
+
+    synchronized (this) {
+      CompletableFuture<Optional<V>> pendingLoad = pendingLoads.get(key);
+      if (pendingLoad != null) {
+        return pendingLoad;
+      }
+      CompletableFuture<Optional<V>> future = new CompletableFuture<>();
+      pendingLoads.put(key, future);
+      if (pendingLoads.size() == 1) {
+        delayedExecutor.execute(this::dispatch);
+      }
+      return future;
+    }
+  }
+
+  /**
+   * Loads the specified keys, leaving out the ones without a value, in the order of the keys.
+   */
+  public CompletableFuture<List<V>> loadAll(Iterable<K> keys) {
+    List<CompletableFuture<Optional<V>>> futures = new ArrayList<>();
+    keys.forEach(key -> futures.add(load(key)));
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .thenApply(ignored -> {
+          List<V> values = new ArrayList<>(futures.size());
+          futures.forEach(future -> future.join().ifPresent(values::add));
+          return values;
+        });
+  }
+
+  private void dispatch() {
+    Map<K, CompletableFuture<Optional<V>>> loads;
+    synchronized (this) {
+      loads = pendingLoads;
+      pendingLoads = new LinkedHashMap<>();
+    }
+
+    for (List<K> batch : Iterables.partition(loads.keySet(), maxBatchSize)) {
+      log.trace("Loading batch of {} keys", batch.size());
+      try {
+        Map<K, V> values = batchFunction.apply(new LinkedHashSet<>(batch));
+        batch.forEach(key -> {
+          V value = values.get(key);
+          if (value != null) {
+            cache.put(key, value);
+          } else {
+            missingKeyCache.put(key, Boolean.TRUE);
+          }
+          loads.get(key).complete(Optional.ofNullable(value));
+        });
+      } catch (Throwable throwable) {
+        // Anything left pending here would never complete; completing an already completed future has no effect
+        batch.forEach(key -> loads.get(key).completeExceptionally(throwable));
+      }
+    }
+  }
+}
@@ -28,13 +28,14 @@ import com.faforever.commons.api.dto.PlayerAchievement;
 import com.faforever.commons.api.dto.PlayerEvent;
 import com.faforever.commons.api.dto.Tournament;
 import com.faforever.commons.api.dto.TutorialCategory;
-import com.faforever.commons.io.ByteCountListener;
+import org.springframework.core.io.Resource;
 
 import java.io.IOException;
-import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Flow;
 
 /**
  * Provides access to the FAF REST API. Services should not access this class directly, but use {@link
@@ -58,7 +59,11 @@ public interface FafApiAccessor {
 
   List<Leaderboard> getLeaderboards();
 
-  List<LeaderboardEntry> getAllLeaderboardEntries(String leaderboardTechnicalName);
+  /**
+   * Publishes the entries of the leaderboard that have been updated since the specified time page by page as they
+   * arrive. Only the player of each entry is included.
+   */
+  Flow.Publisher<List<LeaderboardEntry>> streamLeaderboardEntriesUpdatedSince(String leaderboardTechnicalName, Instant since);
 
   Tuple<List<LeaderboardEntry>, java.util.Map<String, ?>> getLeaderboardEntriesWithMeta(String leaderboardTechnicalName, int count, int page);
 
@@ -76,9 +81,9 @@ public interface FafApiAccessor {
 
   List<Game> getLastGamesOnMap(int playerId, String mapVersionId, int count);
 
-  void uploadMod(Path file, ByteCountListener listener);
+  void uploadMod(Resource file);
 
-  void uploadMap(Path file, boolean isRanked, ByteCountListener listener) throws IOException;
+  void uploadMap(Resource file, boolean isRanked);
 
   List<CoopMission> getCoopMissions();
 
@@ -96,7 +101,7 @@ public interface FafApiAccessor {
 
   Tuple<List<Game>, java.util.Map<String, ?>> findReplaysByQueryWithMeta(String query, int maxResults, int page, SortConfig sortConfig);
 
-  Optional<MapVersion> findMapByFolderName(String folderName);
+  List<MapVersion> findMapsByFolderNames(Collection<String> folderNames);
 
   Optional<MapVersion> getMapLatestVersion(String mapFolderName);
 
@@ -3,7 +3,6 @@ package com.faforever.client.api;
 import com.faforever.client.config.CacheNames;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.config.ClientProperties.Api;
-import com.faforever.client.io.CountingFileSystemResource;
 import com.faforever.client.mod.FeaturedMod;
 import com.faforever.client.user.event.LoggedOutEvent;
 import com.faforever.client.user.event.LoginSuccessEvent;
@@ -37,7 +36,6 @@ import com.faforever.commons.api.dto.PlayerAchievement;
 import com.faforever.commons.api.dto.PlayerEvent;
 import com.faforever.commons.api.dto.Tournament;
 import com.faforever.commons.api.dto.TutorialCategory;
-import com.faforever.commons.io.ByteCountListener;
 import com.github.jasminb.jsonapi.JSONAPIDocument;
 import com.github.rutledgepaulv.qbuilders.builders.QBuilder;
 import com.github.rutledgepaulv.qbuilders.conditions.Condition;
@@ -53,8 +51,11 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 import org.springframework.security.oauth2.client.token.grant.password.ResourceOwnerPasswordResourceDetails;
 import org.springframework.security.oauth2.common.AuthenticationScheme;
@@ -68,19 +69,26 @@ import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.Serializable;
-import java.nio.file.Path;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -132,11 +140,18 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   private final ClientProperties clientProperties;
   private final JsonApiMessageConverter jsonApiMessageConverter;
   private final JsonApiErrorHandler jsonApiErrorHandler;
+  private final ExecutorService executorService;
+  private final HttpResponseCache httpResponseCache;
+  private final RequestCoalescer requestCoalescer;
   private final HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+  private final HttpComponentsClientHttpRequestFactory uploadRequestFactory = new HttpComponentsClientHttpRequestFactory();
 
   private RestTemplateBuilder templateBuilder;
+  private RestTemplateBuilder uploadTemplateBuilder;
   private CountDownLatch authorizedLatch = new CountDownLatch(1);
   private RestOperations restOperations;
+  /** Streams request bodies, which is why it must not have interceptors; they need the whole body in memory. */
+  private RestOperations uploadRestOperations;
 
   private static String rsql(Condition<?> eq) {
     return eq.query(new RSQLVisitor());
@@ -152,6 +167,13 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
     templateBuilder = unconfiguredTemplateBuilder
         .requestFactory(() -> requestFactory)
         .additionalMessageConverters(jsonApiMessageConverter)
+        .additionalInterceptors(httpResponseCache)
+        .errorHandler(jsonApiErrorHandler);
+
+    uploadRequestFactory.setBufferRequestBody(false);
+    uploadTemplateBuilder = unconfiguredTemplateBuilder
+        .requestFactory(() -> uploadRequestFactory)
+        .additionalMessageConverters(jsonApiMessageConverter)
         .errorHandler(jsonApiErrorHandler);
   }
 
@@ -159,6 +181,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   public void onLoggedOutEvent(LoggedOutEvent event) {
     authorizedLatch = new CountDownLatch(1);
     restOperations = null;
+    uploadRestOperations = null;
   }
 
   @Subscribe
@@ -183,7 +206,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   @Override
   @Cacheable(value = CacheNames.ACHIEVEMENTS, sync = true)
   public List<AchievementDefinition> getAchievementDefinitions() {
-    return getAll(ACHIEVEMENT_ENDPOINT, java.util.Map.of(
+    return getAllInParallel(ACHIEVEMENT_ENDPOINT, java.util.Map.of(
         SORT, "order"
     ));
   }
@@ -197,7 +220,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   @Override
   @Cacheable(value = CacheNames.MODS, sync = true)
   public List<Mod> getMods() {
-    return getAll(MOD_ENDPOINT, java.util.Map.of(
+    return getAllInParallel(MOD_ENDPOINT, java.util.Map.of(
         INCLUDE, MOD_INCLUDES));
   }
 
@@ -222,12 +245,11 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   }
 
   @Override
-  @Cacheable(value = CacheNames.LEADERBOARD, sync = true)
-  public List<LeaderboardEntry> getAllLeaderboardEntries(String leaderboardTechnicalName) {
-    return getAll(LEADERBOARD_ENTRY_ENDPOINT, java.util.Map.of(
+  public Flow.Publisher<List<LeaderboardEntry>> streamLeaderboardEntriesUpdatedSince(String leaderboardTechnicalName, Instant since) {
+    return streamAll(LEADERBOARD_ENTRY_ENDPOINT, java.util.Map.of(
         FILTER, rsql(qBuilder().string("leaderboard.technicalName").eq(leaderboardTechnicalName)
-            .and().instant("updateTime").after(LocalDateTime.now().minusMonths(1).toInstant(ZoneOffset.UTC), false)),
-        INCLUDE, LEADERBOARD_ENTRY_INCLUDES,
+            .and().instant("updateTime").after(since, false)),
+        INCLUDE, "player",
         SORT, "-rating"));
   }
 
@@ -305,16 +327,16 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   }
 
   @Override
-  public void uploadMod(Path file, ByteCountListener listener) {
-    MultiValueMap<String, Object> multipartContent = createFileMultipart(file, listener);
-    post("/mods/upload", multipartContent, false);
+  public void uploadMod(Resource file) {
+    MultiValueMap<String, Object> multipartContent = createFileMultipart(file);
+    upload("/mods/upload", multipartContent);
   }
 
   @Override
-  public void uploadMap(Path file, boolean isRanked, ByteCountListener listener) {
-    MultiValueMap<String, Object> multipartContent = createFileMultipart(file, listener);
+  public void uploadMap(Resource file, boolean isRanked) {
+    MultiValueMap<String, Object> multipartContent = createFileMultipart(file);
     multipartContent.add("metadata", java.util.Map.of("isRanked", isRanked));
-    post("/maps/upload", multipartContent, false);
+    upload("/maps/upload", multipartContent);
   }
 
   @Override
@@ -324,7 +346,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
         "newPassword", newPasswordHash
     );
 
-    post("/users/changePassword", body, true);
+    post("/users/changePassword", body);
   }
 
   @Override
@@ -378,14 +400,13 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   }
 
   @Override
-  public Optional<MapVersion> findMapByFolderName(String folderName) {
-    List<MapVersion> maps = getMany(MAP_VERSION_ENDPOINT, 1, java.util.Map.of(
-        FILTER, rsql(qBuilder().string("filename").eq(format(FILENAME_TEMPLATE, folderName))),
+  public List<MapVersion> findMapsByFolderNames(Collection<String> folderNames) {
+    List<String> fileNames = folderNames.stream()
+        .map(folderName -> format(FILENAME_TEMPLATE, folderName))
+        .collect(Collectors.toList());
+    return getMany(MAP_VERSION_ENDPOINT, fileNames.size(), java.util.Map.of(
+        FILTER, rsql(qBuilder().string("filename").in(fileNames)),
         INCLUDE, MAP_VERSION_INCLUDES));
-    if (maps.isEmpty()) {
-      return Optional.empty();
-    }
-    return Optional.ofNullable(maps.get(0));
   }
 
   @Override
@@ -622,7 +643,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
         "type", "moderationReport",
         "attributes", java.util.Map.of("gameIncidentTimecode", report.getGameIncidentTimeCode(), "reportDescription", report.getReportDescription()),
         "relationships", relationships)));
-    post(REPORT_ENDPOINT, body, false);
+    post(REPORT_ENDPOINT, body);
   }
 
   @Override
@@ -638,32 +659,40 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
     details.setUsername(username);
     details.setPassword(password);
 
+    // Both templates use the same access token
+    OAuth2ClientContext oAuth2ClientContext = new DefaultOAuth2ClientContext();
     restOperations = templateBuilder
         // Base URL can be changed in login window
         .rootUri(apiProperties.getBaseUrl())
-        .configure(new OAuth2RestTemplate(details));
+        .configure(new OAuth2RestTemplate(details, oAuth2ClientContext));
+    uploadRestOperations = uploadTemplateBuilder
+        .rootUri(apiProperties.getBaseUrl())
+        .configure(new OAuth2RestTemplate(details, oAuth2ClientContext));
 
     authorizedLatch.countDown();
   }
 
   @NotNull
-  private MultiValueMap<String, Object> createFileMultipart(Path file, ByteCountListener listener) {
+  private MultiValueMap<String, Object> createFileMultipart(Resource file) {
     MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
-    form.add("file", new CountingFileSystemResource(file, listener));
+    form.add("file", file);
     return form;
   }
 
   @SneakyThrows
-  private void post(String endpointPath, Object request, boolean bufferRequestBody) {
+  private void post(String endpointPath, Object request) {
     authorizedLatch.await();
-    requestFactory.setBufferRequestBody(bufferRequestBody);
+    // Don't use Void.class here, otherwise Spring won't even try to deserialize error messages in the body
+    restOperations.postForEntity(endpointPath, request, String.class);
+  }
 
-    try {
-      // Don't use Void.class here, otherwise Spring won't even try to deserialize error messages in the body
-      restOperations.postForEntity(endpointPath, request, String.class);
-    } finally {
-      requestFactory.setBufferRequestBody(true);
-    }
+  /**
+   * Posts the multipart content without buffering it in memory, so that files are streamed from disk.
+   */
+  @SneakyThrows
+  private void upload(String endpointPath, MultiValueMap<String, Object> multipartContent) {
+    authorizedLatch.await();
+    uploadRestOperations.postForEntity(endpointPath, multipartContent, String.class);
   }
 
   @SneakyThrows
@@ -685,7 +714,8 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   }
 
   private <T> T getOne(String endpointPath, Class<T> type) {
-    T object = restOperations.getForObject(endpointPath, type, Collections.emptyMap());
+    T object = requestCoalescer.execute(toRequestKey(endpointPath, type),
+        () -> restOperations.getForObject(endpointPath, type, Collections.emptyMap()));
     log.debug("Retrieved {} from {} with type {}", object, endpointPath, type);
     return object;
   }
@@ -725,6 +755,87 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
     return result;
   }
 
+  private <T> List<T> getAllInParallel(String endpointPath, java.util.Map<String, Serializable> params) {
+    List<T> result = new ArrayList<>();
+    this.<T>fetchAllPages(endpointPath, params, result::addAll, () -> false);
+    return result;
+  }
+
+  /**
+   * Like {@link #getAllInParallel(String, java.util.Map)}, but publishes each page as soon as it and all pages before
+   * it have arrived. Pages are only fetched once subscribed to, and no longer once the subscription is cancelled.
+   */
+  private <T> Flow.Publisher<List<T>> streamAll(String endpointPath, java.util.Map<String, Serializable> params) {
+    return subscriber -> {
+      SubmissionPublisher<List<T>> publisher = new SubmissionPublisher<>(executorService, Flow.defaultBufferSize());
+      publisher.subscribe(subscriber);
+      executorService.execute(() -> {
+        try {
+          this.<T>fetchAllPages(endpointPath, params, publisher::submit, () -> !publisher.hasSubscribers());
+          publisher.close();
+        } catch (Exception e) {
+          publisher.closeExceptionally(e);
+        }
+      });
+    };
+  }
+
+  /**
+   * Fetches all pages of an endpoint and passes them to the consumer in order. The first page is requested along with
+   * the number of pages, the remaining pages are then requested in parallel, but no more than {@link
+   * ClientProperties.Api#getPageFetchParallelism()} at a time.
+   */
+  @SneakyThrows
+  private <T> void fetchAllPages(String endpointPath, java.util.Map<String, Serializable> params, Consumer<List<T>> pageConsumer, BooleanSupplier cancelled) {
+    int pageSize = clientProperties.getApi().getParallelPageSize();
+    JSONAPIDocument<List<T>> firstPage = getPageWithMeta(endpointPath, pageSize, 1, params);
+    if (firstPage == null) {
+      return;
+    }
+    pageConsumer.accept(firstPage.get());
+
+    Integer totalPages = getTotalPages(firstPage.getMeta());
+    if (totalPages == null) {
+      log.warn("No page count in response of {}, fetching pages one by one", endpointPath);
+      List<T> current = firstPage.get();
+      for (int page = 2; current.size() >= pageSize && !cancelled.getAsBoolean(); page++) {
+        current = getPage(endpointPath, pageSize, page, params);
+        pageConsumer.accept(current);
+      }
+      return;
+    }
+
+    int parallelism = Math.max(1, clientProperties.getApi().getPageFetchParallelism());
+    Deque<CompletableFuture<List<T>>> pendingPages = new ArrayDeque<>();
+    int nextPage = 2;
+    try {
+      while (!cancelled.getAsBoolean()) {
+        while (nextPage <= totalPages && pendingPages.size() < parallelism) {
+          int page = nextPage++;
+          pendingPages.add(CompletableFuture.supplyAsync(() -> this.<T>getPage(endpointPath, pageSize, page, params), executorService));
+        }
+        CompletableFuture<List<T>> pendingPage = pendingPages.poll();
+        if (pendingPage == null) {
+          return;
+        }
+        pageConsumer.accept(pendingPage.join());
+      }
+    } catch (CompletionException e) {
+      throw e.getCause();
+    } finally {
+      pendingPages.forEach(pendingPage -> pendingPage.cancel(true));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Integer getTotalPages(java.util.Map<String, ?> meta) {
+    if (meta == null || !(meta.get("page") instanceof java.util.Map)) {
+      return null;
+    }
+    Object totalPages = ((java.util.Map<String, ?>) meta.get("page")).get("totalPages");
+    return totalPages instanceof Number ? ((Number) totalPages).intValue() : null;
+  }
+
   private <T> List<T> getPage(String endpointPath, int pageSize, int page, java.util.Map<String, Serializable> params) {
     java.util.Map<String, List<String>> multiValues = params.entrySet().stream()
         .collect(Collectors.toMap(Entry::getKey, entry -> Collections.singletonList(String.valueOf(entry.getValue()))));
@@ -748,7 +859,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
         .build();
 
     authorizedLatch.await();
-    List<T> objects = restOperations.getForObject(uriComponents.toUriString(), List.class);
+    List<T> objects = getList(uriComponents.toUriString());
     log.debug("Retrieved {} from {} with parameters {}", objects, endpointPath, params);
     return objects;
   }
@@ -762,7 +873,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
         .build();
 
     authorizedLatch.await();
-    List<T> objects = restOperations.getForObject(uriComponents.toUriString(), List.class);
+    List<T> objects = getList(uriComponents.toUriString());
     log.debug("Retrieved {} from {} with parameters {}", objects, endpointPath, params);
     return objects;
   }
@@ -777,7 +888,9 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
         .build();
 
     authorizedLatch.await();
-    JSONAPIDocument<List<T>> objects = restOperations.getForObject(uriComponents.toUriString(), JSONAPIDocument.class);
+    String uri = uriComponents.toUriString();
+    JSONAPIDocument<List<T>> objects = requestCoalescer.execute(toRequestKey(uri, JSONAPIDocument.class),
+        () -> restOperations.getForObject(uri, JSONAPIDocument.class));
     if (objects != null) {
       log.debug("Retrieved {} from {} with parameters {} with meta {}", objects.get(), endpointPath, params, objects.getMeta());
     } else {
@@ -785,4 +898,16 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
     }
     return objects;
   }
+
+  @SuppressWarnings("unchecked")
+  private <T> List<T> getList(String uri) {
+    return requestCoalescer.execute(toRequestKey(uri, List.class), () -> restOperations.getForObject(uri, List.class));
+  }
+
+  /**
+   * Identifies a GET request, so that concurrent identical requests are only sent once.
+   */
+  private static String toRequestKey(String uri, Class<?> type) {
+    return type.getName() + " " + uri;
+  }
 }
@@ -0,0 +1,307 @@
+package com.faforever.client.api;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.io.CacheLedger;
+import com.faforever.client.io.FileUtils;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Keeps the responses of GET requests that carry an {@code ETag} or {@code Last-Modified} header on disk, so they
+ * survive restarts. When a cached resource is requested again, the request is made conditional, and if the server
+ * answers with {@code 304 Not Modified}, the cached response is returned instead. Cached responses are never used
+ * without asking the server, so they can't be stale. Only the headers of a cached response are read before the
+ * request is made, the body is only read once the server has answered with {@code 304 Not Modified}. The least
+ * recently used responses are deleted once the cache exceeds its size budget. The ledger that tracks them is saved
+ * periodically and on shutdown rather than after every request, so that concurrent requests don't queue up behind it.
+ */
+@Lazy
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class HttpResponseCache implements ClientHttpRequestInterceptor, DisposableBean {
+
+  private static final String CACHE_DIRECTORY_NAME = "http";
+  private static final String LEDGER_FILE_NAME = "http-cache.json";
+  private static final String ENTRY_FILE_EXTENSION = ".response";
+  private static final long BYTES_PER_MEGABYTE = 1024L * 1024;
+  private static final Gson GSON = new GsonBuilder().create();
+
+  private final PreferencesService preferencesService;
+  private final ClientProperties clientProperties;
+
+  private final AtomicLong revalidatedCount = new AtomicLong();
+  private final AtomicLong storedCount = new AtomicLong();
+  private final AtomicLong uncacheableCount = new AtomicLong();
+  private final AtomicLong bytesServedFromCache = new AtomicLong();
+  private CacheLedger ledger;
+
+  @Override
+  public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    if (request.getMethod() != HttpMethod.GET) {
+      return execution.execute(request, body);
+    }
+
+    String key = toKey(request);
+    HttpHeaders cachedHeaders = readCachedHeaders(key);
+    List<String> addedValidators = cachedHeaders == null ? List.of() : addValidators(request.getHeaders(), cachedHeaders);
+
+    ClientHttpResponse response = execution.execute(request, body);
+    if (response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value() && cachedHeaders != null) {
+      response.close();
+      byte[] cachedBody = readCachedBody(key);
+      if (cachedBody != null) {
+        log.trace("Serving {} from cache", request.getURI());
+        revalidatedCount.incrementAndGet();
+        bytesServedFromCache.addAndGet(cachedBody.length);
+        getLedger().recordAccess(toLedgerPath(key), cachedBody.length, System.currentTimeMillis());
+        return new CachedResponse(cachedHeaders, cachedBody);
+      }
+      // Evicted or damaged since its headers have been read, so the response has to be fetched again
+      addedValidators.forEach(request.getHeaders()::remove);
+      return storeIfCacheable(key, execution.execute(request, body));
+    }
+    return storeIfCacheable(key, response);
+  }
+
+  public Statistics getStatistics() {
+    return new Statistics(revalidatedCount.get(), storedCount.get(), uncacheableCount.get(), bytesServedFromCache.get(),
+        getLedger().getTotalSize());
+  }
+
+  @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+  public void saveLedger() {
+    getLedger().save();
+  }
+
+  @Override
+  public void destroy() {
+    saveLedger();
+    log.info("HTTP response cache statistics: {}", getStatistics());
+  }
+
+  /**
+   * Makes the request conditional on the validators of the cached response, unless it already is.
+   *
+   * @return the names of the headers that have been added
+   */
+  private static List<String> addValidators(HttpHeaders requestHeaders, HttpHeaders cachedHeaders) {
+    List<String> addedValidators = new ArrayList<>();
+    if (cachedHeaders.getETag() != null && !requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH)) {
+      requestHeaders.setIfNoneMatch(cachedHeaders.getETag());
+      addedValidators.add(HttpHeaders.IF_NONE_MATCH);
+    }
+    String lastModified = cachedHeaders.getFirst(HttpHeaders.LAST_MODIFIED);
+    if (lastModified != null && !requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+      requestHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+      addedValidators.add(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+    return addedValidators;
+  }
+
+  private static boolean isCacheable(HttpHeaders headers) {
+    String cacheControl = headers.getCacheControl();
+    if (cacheControl != null && cacheControl.contains("no-store")) {
+      return false;
+    }
+    return headers.getETag() != null || headers.containsKey(HttpHeaders.LAST_MODIFIED);
+  }
+
+  private static HttpHeaders copyHeaders(HttpHeaders headers) {
+    HttpHeaders copy = new HttpHeaders();
+    headers.forEach((name, values) -> copy.put(name, List.copyOf(values)));
+    return copy;
+  }
+
+  private ClientHttpResponse storeIfCacheable(String key, ClientHttpResponse response) throws IOException {
+    if (response.getRawStatusCode() != HttpStatus.OK.value() || !isCacheable(response.getHeaders())) {
+      uncacheableCount.incrementAndGet();
+      return response;
+    }
+
+    CachedResponse responseToCache;
+    try (response) {
+      responseToCache = new CachedResponse(copyHeaders(response.getHeaders()), response.getBody().readAllBytes());
+    }
+    storeResponse(key, responseToCache);
+    return responseToCache;
+  }
+
+  @Nullable
+  private HttpHeaders readCachedHeaders(String key) {
+    Path entryFile = getEntryFile(key);
+    try (DataInputStream inputStream = new DataInputStream(Files.newInputStream(entryFile))) {
+      @SuppressWarnings("unchecked")
+      Map<String, List<String>> headers = GSON.fromJson(inputStream.readUTF(), Map.class);
+      HttpHeaders httpHeaders = new HttpHeaders();
+      headers.forEach(httpHeaders::put);
+      return httpHeaders;
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | JsonParseException | ClassCastException e) {
+      log.warn("Could not read cached response '{}'", entryFile, e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private byte[] readCachedBody(String key) {
+    Path entryFile = getEntryFile(key);
+    try (DataInputStream inputStream = new DataInputStream(Files.newInputStream(entryFile))) {
+      // Skip the headers
+      inputStream.readUTF();
+      return inputStream.readAllBytes();
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      log.warn("Could not read cached response '{}'", entryFile, e);
+      return null;
+    }
+  }
+
+  private void storeResponse(String key, CachedResponse response) {
+    Path entryFile = getEntryFile(key);
+    try {
+      Files.createDirectories(entryFile.getParent());
+      Path tempFile = Files.createTempFile(entryFile.getParent(), key, ".tmp");
+      try (DataOutputStream outputStream = new DataOutputStream(Files.newOutputStream(tempFile))) {
+        outputStream.writeUTF(GSON.toJson(new LinkedHashMap<>(response.headers)));
+        outputStream.write(response.body);
+      }
+      FileUtils.moveAtomically(tempFile, entryFile);
+      storedCount.incrementAndGet();
+      getLedger().recordAccess(toLedgerPath(key), response.body.length, System.currentTimeMillis());
+      evictResponses();
+    } catch (IOException e) {
+      log.warn("Could not cache response in '{}'", entryFile, e);
+    }
+  }
+
+  /**
+   * Deletes the least recently used responses until the cache fits into its size budget.
+   */
+  private void evictResponses() {
+    CacheLedger ledger = getLedger();
+    long maxSize = clientProperties.getApi().getResponseCacheMaxSizeInMegabytes() * BYTES_PER_MEGABYTE;
+    for (String ledgerPath : ledger.getLeastRecentlyAccessed()) {
+      if (ledger.getTotalSize() <= maxSize) {
+        break;
+      }
+      try {
+        Files.deleteIfExists(getCacheDirectory().resolve(ledgerPath));
+        ledger.remove(ledgerPath);
+      } catch (IOException e) {
+        log.warn("Could not delete cached response '{}'", ledgerPath, e);
+      }
+    }
+  }
+
+  private static String toKey(HttpRequest request) {
+    return Hashing.sha256().hashString(request.getURI().toString(), UTF_8).toString();
+  }
+
+  private static String toLedgerPath(String key) {
+    return key + ENTRY_FILE_EXTENSION;
+  }
+
+  private Path getEntryFile(String key) {
+    return getCacheDirectory().resolve(toLedgerPath(key));
+  }
+
+  private Path getCacheDirectory() {
+    return preferencesService.getCacheDirectory().resolve(CACHE_DIRECTORY_NAME);
+  }
+
+  private synchronized CacheLedger getLedger() {
+    if (ledger == null) {
+      ledger = new CacheLedger(getCacheDirectory().resolve(LEDGER_FILE_NAME));
+    }
+    return ledger;
+  }
+
+  @Value
+  public static class Statistics {
+    /** Responses that were answered with {@code 304 Not Modified} and served from disk. */
+    long revalidated;
+    /** Responses that were downloaded and stored. */
+    long stored;
+    /** Responses that could not be cached, e.g. because they had no validator. */
+    long uncacheable;
+    long bytesServedFromCache;
+    long cacheSize;
+  }
+
+  private static class CachedResponse implements ClientHttpResponse {
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    private CachedResponse(HttpHeaders headers, byte[] body) {
+      this.headers = headers;
+      this.body = body;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() {
+      return HttpStatus.OK;
+    }
+
+    @Override
+    public int getRawStatusCode() {
+      return HttpStatus.OK.value();
+    }
+
+    @Override
+    public String getStatusText() {
+      return HttpStatus.OK.getReasonPhrase();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public void close() {
+      // Nothing to release
+    }
+  }
+}
@@ -32,16 +32,18 @@ import com.faforever.commons.api.dto.PlayerAchievement;
 import com.faforever.commons.api.dto.PlayerEvent;
 import com.faforever.commons.api.dto.Tournament;
 import com.faforever.commons.api.dto.TutorialCategory;
-import com.faforever.commons.io.ByteCountListener;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
 
 @Lazy
 @Component
@@ -90,8 +92,12 @@ public class MockFafApiAccessor implements FafApiAccessor {
   }
 
   @Override
-  public List<LeaderboardEntry> getAllLeaderboardEntries(String leaderboardTechnicalName) {
-    return Collections.emptyList();
+  public Flow.Publisher<List<LeaderboardEntry>> streamLeaderboardEntriesUpdatedSince(String leaderboardTechnicalName, Instant since) {
+    return subscriber -> {
+      SubmissionPublisher<List<LeaderboardEntry>> publisher = new SubmissionPublisher<>();
+      publisher.subscribe(subscriber);
+      publisher.close();
+    };
   }
 
   @Override
@@ -154,12 +160,12 @@ public class MockFafApiAccessor implements FafApiAccessor {
   }
 
   @Override
-  public void uploadMod(Path file, ByteCountListener listener) {
+  public void uploadMod(Resource file) {
     // do nothing
   }
 
   @Override
-  public void uploadMap(Path file, boolean isRanked, ByteCountListener listener) {
+  public void uploadMap(Resource file, boolean isRanked) {
     // do nothing
   }
 
@@ -194,8 +200,8 @@ public class MockFafApiAccessor implements FafApiAccessor {
   }
 
   @Override
-  public Optional<MapVersion> findMapByFolderName(String folderName) {
-    return Optional.empty();
+  public List<MapVersion> findMapsByFolderNames(Collection<String> folderNames) {
+    return List.of();
   }
 
   @Override
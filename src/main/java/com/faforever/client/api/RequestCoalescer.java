@@ -0,0 +1,78 @@
+package com.faforever.client.api;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets concurrent identical requests share a single call. The first caller of a key executes the request, callers
+ * that ask for the same key while it is in flight wait for and get the same result, or the same exception. Once the
+ * call has completed, the next request for the key executes it again, so nothing is cached.
+ * <p>
+ * Callers share the returned object, so they must not modify it.
+ */
+@Lazy
+@Service
+@Slf4j
+public class RequestCoalescer implements DisposableBean {
+
+  private final ConcurrentMap<Object, CompletableFuture<Object>> inFlightRequests = new ConcurrentHashMap<>();
+  private final AtomicLong executedCount = new AtomicLong();
+  private final AtomicLong mergedCount = new AtomicLong();
+
+  @SneakyThrows
+  @SuppressWarnings("unchecked")
+  public <T> T execute(Object key, Callable<T> request) {
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    CompletableFuture<Object> inFlightRequest = inFlightRequests.putIfAbsent(key, future);
+    if (inFlightRequest != null) {
+      mergedCount.incrementAndGet();
+      log.trace("Waiting for in-flight request: {}", key);
+      try {
+        return (T) inFlightRequest.join();
+      } catch (CompletionException e) {
+        throw e.getCause();
+      }
+    }
+
+    executedCount.incrementAndGet();
+    try {
+      T result = request.call();
+      future.complete(result);
+      return result;
+    } catch (Throwable throwable) {
+      future.completeExceptionally(throwable);
+      throw throwable;
+    } finally {
+      inFlightRequests.remove(key, future);
+    }
+  }
+
+  /**
+   * @return how many requests have actually been executed
+   */
+  public long getExecutedCount() {
+    return executedCount.get();
+  }
+
+  /**
+   * @return how many requests have been answered by a request that was already in flight
+   */
+  public long getMergedCount() {
+    return mergedCount.get();
+  }
+
+  @Override
+  public void destroy() {
+    log.info("Executed {} API requests, {} concurrent identical requests shared their result", getExecutedCount(), getMergedCount());
+  }
+}
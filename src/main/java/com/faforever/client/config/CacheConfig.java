@@ -32,11 +32,15 @@ import static com.faforever.client.config.CacheNames.LEADERBOARD;
 import static com.faforever.client.config.CacheNames.MAPS;
 import static com.faforever.client.config.CacheNames.MAP_GENERATOR;
 import static com.faforever.client.config.CacheNames.MAP_PREVIEW;
+import static com.faforever.client.config.CacheNames.MAP_VERSIONS_BY_FOLDER_NAME;
 import static com.faforever.client.config.CacheNames.MATCHMAKER_POOLS;
 import static com.faforever.client.config.CacheNames.MATCHMAKER_QUEUES;
+import static com.faforever.client.config.CacheNames.MISSING_MAP_VERSIONS_BY_FOLDER_NAME;
+import static com.faforever.client.config.CacheNames.MISSING_PLAYERS_BY_ID;
 import static com.faforever.client.config.CacheNames.MODS;
 import static com.faforever.client.config.CacheNames.MOD_THUMBNAIL;
 import static com.faforever.client.config.CacheNames.NEWS;
+import static com.faforever.client.config.CacheNames.PLAYERS_BY_ID;
 import static com.faforever.client.config.CacheNames.RATING_HISTORY;
 import static com.faforever.client.config.CacheNames.STATISTICS;
 import static com.faforever.client.config.CacheNames.THEME_IMAGES;
@@ -44,6 +48,7 @@ import static com.faforever.client.config.CacheNames.URL_PREVIEW;
 import static com.github.benmanes.caffeine.cache.Caffeine.newBuilder;
 import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @Configuration
 @EnableCaching
@@ -58,6 +63,10 @@ public class CacheConfig extends CachingConfigurerSupport {
         new CaffeineCache(ACHIEVEMENTS, newBuilder().expireAfterWrite(10, MINUTES).build()),
         new CaffeineCache(MODS, newBuilder().expireAfterWrite(10, MINUTES).build()),
         new CaffeineCache(MAPS, newBuilder().expireAfterWrite(10, MINUTES).build()),
+        new CaffeineCache(MAP_VERSIONS_BY_FOLDER_NAME, newBuilder().maximumSize(1000).expireAfterWrite(10, MINUTES).build()),
+        new CaffeineCache(PLAYERS_BY_ID, newBuilder().maximumSize(1000).expireAfterWrite(1, MINUTES).build()),
+        new CaffeineCache(MISSING_MAP_VERSIONS_BY_FOLDER_NAME, newBuilder().maximumSize(1000).expireAfterWrite(30, SECONDS).build()),
+        new CaffeineCache(MISSING_PLAYERS_BY_ID, newBuilder().maximumSize(1000).expireAfterWrite(30, SECONDS).build()),
         new CaffeineCache(MAP_GENERATOR, newBuilder().expireAfterWrite(10, MINUTES).build()),
         new CaffeineCache(LEADERBOARD, newBuilder().expireAfterWrite(5, MINUTES).build()),
         new CaffeineCache(GLOBAL_LEADERBOARD, newBuilder().maximumSize(1).expireAfterAccess(5, MINUTES).build()),
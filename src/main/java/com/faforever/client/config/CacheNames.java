@@ -15,6 +15,10 @@ public final class CacheNames {
   public static final String LADDER_1V1_LEADERBOARD = "ladder1v1Leaderboard";
   public static final String GLOBAL_LEADERBOARD = "globalLeaderboard";
   public static final String MAPS = "maps";
+  public static final String MAP_VERSIONS_BY_FOLDER_NAME = "mapVersionsByFolderName";
+  public static final String PLAYERS_BY_ID = "playersById";
+  public static final String MISSING_MAP_VERSIONS_BY_FOLDER_NAME = "missingMapVersionsByFolderName";
+  public static final String MISSING_PLAYERS_BY_ID = "missingPlayersById";
   public static final String MAP_GENERATOR = "mapGenerator";
   public static final String THEME_IMAGES = "themeImages";
   public static final String MOD_THUMBNAIL = "modThumbnail";
@@ -27,11 +27,31 @@ public class ClientProperties {
   private MapGenerator mapGenerator = new MapGenerator();
   private Website website = new Website();
   private Discord discord = new Discord();
+  private Download download = new Download();
   private String translationProjectUrl;
   private String clientConfigUrl;
   private boolean useRemotePreferences;
   private Duration clientConfigConnectTimeout = Duration.ofSeconds(30);
   private boolean showIceAdapterDebugWindow;
+  /**
+   * Whether the ICE adapter is started when a game launch is likely, e.g. when joining a matchmaker queue, so that it's
+   * ready by the time the game starts.
+   */
+  private boolean iceAdapterWarmStart = true;
+  /**
+   * How long an ICE adapter that has been started ahead of time keeps running without a game.
+   */
+  private Duration iceAdapterIdleTimeout = Duration.ofMinutes(10);
+  /**
+   * How many of the steps that prepare a game launch, like updating the game and downloading the map, may run at the
+   * same time.
+   */
+  private int launchParallelism = 4;
+  /**
+   * How many of the most recent output lines of a child process, like the ICE adapter, are kept in memory so they can
+   * be logged when the process fails.
+   */
+  private int processOutputHistoryLines = 200;
   private String statusPageUrl;
   private Map<String, String> links = new HashMap<>();
   private List<String> vanillaGameHashes = new ArrayList<>();
@@ -55,6 +75,12 @@ public class ClientProperties {
      * URL to download the ForgedAlliance.exe from.
      */
     private String exeUrl;
+
+    /**
+     * Whether the game binaries are hardlinked from the Forged Alliance installation into the FAF bin directory instead
+     * of being copied. Files are still copied if linking is not possible, e.g. across volumes.
+     */
+    private boolean linkBinaries = true;
   }
 
   @Data
@@ -86,6 +112,11 @@ public class ClientProperties {
     private String mapDownloadUrlFormat;
     private String mapPreviewUrlFormat;
     private String replayDownloadUrlFormat;
+    /**
+     * URL of a binary patch (in bsdiff format) of a featured mod file, with the file's group, the MD5 of the installed
+     * version and the MD5 of the new version as arguments. If not set, featured mod files are always downloaded fully.
+     */
+    private String featuredModPatchUrlFormat;
   }
 
   @Data
@@ -138,6 +169,26 @@ public class ClientProperties {
     private String clientId;
     private String clientSecret;
     private int maxPageSize = 10_000;
+    /**
+     * Page size for endpoints whose pages are fetched in parallel, small enough that the first page arrives quickly.
+     */
+    private int parallelPageSize = 1_000;
+    /**
+     * How many pages of such an endpoint are fetched at the same time.
+     */
+    private int pageFetchParallelism = 4;
+    /**
+     * How much disk space API responses that are kept for revalidation may take up.
+     */
+    private long responseCacheMaxSizeInMegabytes = 100;
+    /**
+     * How long entity lookups by key are collected before they are sent as one request.
+     */
+    private int batchWindowMillis = 20;
+    /**
+     * How many keys are sent in one batched request at most, which keeps the query string short.
+     */
+    private int maxBatchSize = 50;
   }
 
   @Data
@@ -154,6 +205,12 @@ public class ClientProperties {
     private String queryVersionsUrl;
     private int maxSupportedMajorVersion;
     private int minSupportedMajorVersion;
+    /** Size budget of the cache that keeps generated maps for later games. */
+    private int maxCacheSizeInMegabytes = 1024;
+    /** Whether to keep a generator process running between generations, instead of starting one per generation. */
+    private boolean warmWorker = true;
+    /** How long a generator process that is kept running between generations is kept without being used. */
+    private Duration workerIdleTimeout = Duration.ofMinutes(10);
   }
 
   @Data
@@ -165,4 +222,17 @@ public class ClientProperties {
     /** URL to join the FAF Discord server. */
     private String joinUrl;
   }
+
+  @Data
+  public static class Download {
+    /**
+     * Number of byte ranges that large files are downloaded with in parallel, if the server supports range requests. A
+     * value of 1 disables parallel downloads.
+     */
+    private int parallelSegments = 4;
+    /** Minimum size in bytes of a file to be downloaded in parallel byte ranges. */
+    private long parallelSegmentsThreshold = 32 * 1024 * 1024;
+    /** Number of files of a featured mod update that are downloaded concurrently. */
+    private int parallelFiles = 4;
+  }
 }
@@ -2,6 +2,7 @@ package com.faforever.client.config;
 
 import com.faforever.client.FafClientApplication;
 import com.faforever.client.game.FaInitGenerator;
+import com.faforever.client.game.LaunchPlanner;
 import com.faforever.client.mod.ModService;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.patch.FeaturedModUpdater;
@@ -29,10 +30,11 @@ public class MockFeaturedModUpdaterConfig {
   private final FeaturedModUpdater featuredModUpdater;
   private final PreferencesService preferencesService;
   private final NotificationService notificationService;
+  private final LaunchPlanner launchPlanner;
 
   @Bean
   GameUpdater gameUpdater() {
-    return new GameUpdaterImpl(modService, applicationContext, taskService, fafService, faInitGenerator, preferencesService, notificationService)
+    return new GameUpdaterImpl(modService, applicationContext, taskService, fafService, faInitGenerator, preferencesService, notificationService, launchPlanner)
         .addFeaturedModUpdater(featuredModUpdater);
   }
 }
@@ -1,5 +1,7 @@
 package com.faforever.client.fa;
 
+import com.faforever.client.game.LaunchTrace;
+import com.faforever.client.game.LaunchTracer;
 import com.faforever.client.leaderboard.LeaderboardRating;
 import com.faforever.client.player.Player;
 import com.faforever.client.preferences.PreferencesService;
@@ -31,6 +33,7 @@ import static com.faforever.client.preferences.PreferencesService.FORGED_ALLIANC
 public class ForgedAllianceService {
 
   private final PreferencesService preferencesService;
+  private final LaunchTracer launchTracer;
 
   public Process startGameOffline(List<String> args) throws IOException {
     Path executable = getExecutable();
@@ -126,6 +129,11 @@ public class ForgedAllianceService {
 
     log.info("Starting Forged Alliance with command: {} in directory: {}", processBuilder.command(), executeDirectory);
 
-    return processBuilder.start();
+    LaunchTrace.Span span = launchTracer.startSpan("forgedAlliance.process");
+    try {
+      return processBuilder.start();
+    } finally {
+      span.end();
+    }
   }
 }
@@ -0,0 +1,344 @@
+package com.faforever.client.fa;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * The content of a {@code game.prefs} file with the location of the top level tables the client edits, {@code
+ * active_mods} and {@code debug}. The file is only tokenized as far as needed to find these tables; edits replace
+ * their byte ranges and leave everything else untouched.
+ */
+final class GamePrefsFile {
+
+  static final String ENABLE_DEBUG_FACILITIES_KEY = "enable_debug_facilities";
+  private static final String ACTIVE_MODS_TABLE = "active_mods";
+  private static final String DEBUG_TABLE = "debug";
+
+  private final byte[] content;
+  @Nullable
+  private final Table activeMods;
+  @Nullable
+  private final Table debug;
+
+  private GamePrefsFile(byte[] content, @Nullable Table activeMods, @Nullable Table debug) {
+    this.content = content;
+    this.activeMods = activeMods;
+    this.debug = debug;
+  }
+
+  static GamePrefsFile parse(byte[] content) {
+    List<Token> tokens = tokenize(content);
+    Table activeMods = null;
+    Table debug = null;
+
+    int depth = 0;
+    for (int index = 0; index < tokens.size(); index++) {
+      Token token = tokens.get(index);
+      if (token.is('{')) {
+        depth++;
+      } else if (token.is('}')) {
+        depth = Math.max(0, depth - 1);
+      } else if (depth == 0 && token.type == TokenType.NAME && index + 2 < tokens.size()
+          && tokens.get(index + 1).is('=') && tokens.get(index + 2).is('{')) {
+        int closingIndex = findClosingBrace(tokens, index + 2);
+        if (closingIndex < 0) {
+          break;
+        }
+        String name = token.value(content);
+        if (ACTIVE_MODS_TABLE.equals(name) && activeMods == null) {
+          activeMods = Table.of(content, tokens, index, closingIndex);
+        } else if (DEBUG_TABLE.equals(name) && debug == null) {
+          debug = Table.of(content, tokens, index, closingIndex);
+        }
+        index = closingIndex;
+      }
+    }
+    return new GamePrefsFile(content, activeMods, debug);
+  }
+
+  byte[] getContent() {
+    return content;
+  }
+
+  /**
+   * @return the state of each mod listed in the {@code active_mods} table
+   */
+  Map<String, Boolean> getActiveMods() {
+    if (activeMods == null) {
+      return Collections.emptyMap();
+    }
+    return activeMods.entries.values().stream()
+        .collect(Collectors.toMap(entry -> entry.key, entry -> "true".equals(entry.value), (first, second) -> second, HashMap::new));
+  }
+
+  boolean isDebugFacilitiesEnabled() {
+    return debug != null
+        && debug.entries.containsKey(ENABLE_DEBUG_FACILITIES_KEY)
+        && "true".equals(debug.entries.get(ENABLE_DEBUG_FACILITIES_KEY).value);
+  }
+
+  /**
+   * @return the content with the {@code active_mods} table replaced by one that lists the enabled mods of the
+   * specified states, in their iteration order
+   */
+  byte[] withActiveMods(Map<String, Boolean> modStates) {
+    String activeModsTable = modStates.entrySet().stream()
+        .filter(Map.Entry::getValue)
+        .map(entry -> "\n    ['" + entry.getKey() + "'] = true")
+        .collect(Collectors.joining(",", ACTIVE_MODS_TABLE + " = {", "\n}"));
+
+    if (activeMods == null) {
+      return append(activeModsTable);
+    }
+    return replace(activeMods.start, activeMods.end, activeModsTable);
+  }
+
+  byte[] withDebugFacilitiesEnabled() {
+    if (debug == null) {
+      return append(DEBUG_TABLE + " = {\n    " + ENABLE_DEBUG_FACILITIES_KEY + " = true\n}");
+    }
+    Entry entry = debug.entries.get(ENABLE_DEBUG_FACILITIES_KEY);
+    if (entry != null) {
+      return replace(entry.valueStart, entry.valueEnd, "true");
+    }
+    String separator = debug.entries.isEmpty() ? "" : ",";
+    return replace(debug.openingBraceEnd, debug.openingBraceEnd, "\n    " + ENABLE_DEBUG_FACILITIES_KEY + " = true" + separator);
+  }
+
+  private byte[] append(String text) {
+    boolean needsNewline = content.length > 0 && content[content.length - 1] != '\n';
+    return replace(content.length, content.length, needsNewline ? "\n" + text : text);
+  }
+
+  private byte[] replace(int start, int end, String replacement) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(content.length + replacement.length());
+    outputStream.write(content, 0, start);
+    outputStream.writeBytes(replacement.getBytes(US_ASCII));
+    outputStream.write(content, end, content.length - end);
+    return outputStream.toByteArray();
+  }
+
+  private static int findClosingBrace(List<Token> tokens, int openingIndex) {
+    int depth = 0;
+    for (int index = openingIndex; index < tokens.size(); index++) {
+      Token token = tokens.get(index);
+      if (token.is('{')) {
+        depth++;
+      } else if (token.is('}') && --depth == 0) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private static List<Token> tokenize(byte[] content) {
+    List<Token> tokens = new ArrayList<>();
+    int position = 0;
+    while (position < content.length) {
+      byte current = content[position];
+      if (Character.isWhitespace(current)) {
+        position++;
+      } else if (current == '-' && position + 1 < content.length && content[position + 1] == '-') {
+        int level = longBracketLevel(content, position + 2);
+        position = level >= 0 ? skipLongBracket(content, position + 2, level) : skipLine(content, position);
+      } else if (current == '[' && longBracketLevel(content, position) >= 0) {
+        int end = skipLongBracket(content, position, longBracketLevel(content, position));
+        tokens.add(new Token(TokenType.STRING, position, end));
+        position = end;
+      } else if (current == '\'' || current == '"') {
+        int end = skipQuotedString(content, position);
+        tokens.add(new Token(TokenType.STRING, position, end));
+        position = end;
+      } else if (isWordCharacter(current)) {
+        int end = position;
+        while (end < content.length && (isWordCharacter(content[end]) || content[end] == '.')) {
+          end++;
+        }
+        boolean isName = !Character.isDigit(current);
+        tokens.add(new Token(isName ? TokenType.NAME : TokenType.OTHER, position, end));
+        position = end;
+      } else {
+        tokens.add(new Token(TokenType.PUNCTUATION, position, position + 1, (char) current));
+        position++;
+      }
+    }
+    return tokens;
+  }
+
+  private static boolean isWordCharacter(byte character) {
+    return Character.isLetterOrDigit(character) || character == '_';
+  }
+
+  /**
+   * @return the number of {@code =} of the long bracket (like {@code [==[}) starting at the specified position, or
+   * {@code -1} if there is none
+   */
+  private static int longBracketLevel(byte[] content, int position) {
+    if (position >= content.length || content[position] != '[') {
+      return -1;
+    }
+    int level = 0;
+    int index = position + 1;
+    while (index < content.length && content[index] == '=') {
+      level++;
+      index++;
+    }
+    return index < content.length && content[index] == '[' ? level : -1;
+  }
+
+  private static int skipLongBracket(byte[] content, int position, int level) {
+    for (int index = position + level + 2; index < content.length; index++) {
+      if (content[index] != ']') {
+        continue;
+      }
+      int equalSigns = 0;
+      while (index + 1 + equalSigns < content.length && content[index + 1 + equalSigns] == '=') {
+        equalSigns++;
+      }
+      if (equalSigns == level && index + 1 + equalSigns < content.length && content[index + 1 + equalSigns] == ']') {
+        return index + level + 2;
+      }
+    }
+    return content.length;
+  }
+
+  private static int skipQuotedString(byte[] content, int position) {
+    byte quote = content[position];
+    int index = position + 1;
+    while (index < content.length && content[index] != quote && content[index] != '\n') {
+      index += content[index] == '\\' ? 2 : 1;
+    }
+    return Math.min(index + 1, content.length);
+  }
+
+  private static int skipLine(byte[] content, int position) {
+    int index = position;
+    while (index < content.length && content[index] != '\n') {
+      index++;
+    }
+    return index;
+  }
+
+  private enum TokenType {
+    NAME, STRING, PUNCTUATION, OTHER
+  }
+
+  private static class Token {
+    private final TokenType type;
+    private final int start;
+    private final int end;
+    /** The character of a punctuation token. */
+    private final char punctuation;
+
+    private Token(TokenType type, int start, int end, char punctuation) {
+      this.type = type;
+      this.start = start;
+      this.end = end;
+      this.punctuation = punctuation;
+    }
+
+    private Token(TokenType type, int start, int end) {
+      this(type, start, end, (char) 0);
+    }
+
+    private boolean is(char punctuation) {
+      return type == TokenType.PUNCTUATION && this.punctuation == punctuation;
+    }
+
+    /**
+     * @return the text of a name or the content of a quoted string
+     */
+    private String value(byte[] content) {
+      if (type == TokenType.STRING && (content[start] == '\'' || content[start] == '"')) {
+        return new String(content, start + 1, Math.max(0, end - start - 2), US_ASCII);
+      }
+      return new String(content, start, end - start, US_ASCII);
+    }
+  }
+
+  /** A top level table assignment, from the table name to the closing brace. */
+  private static class Table {
+    private final int start;
+    private final int end;
+    private final int openingBraceEnd;
+    /** The direct entries of the table with a simple value, by key. */
+    private final Map<String, Entry> entries;
+
+    private Table(int start, int end, int openingBraceEnd, Map<String, Entry> entries) {
+      this.start = start;
+      this.end = end;
+      this.openingBraceEnd = openingBraceEnd;
+      this.entries = entries;
+    }
+
+    /**
+     * @param nameIndex index of the table's name token
+     * @param closingIndex index of the table's closing brace
+     */
+    private static Table of(byte[] content, List<Token> tokens, int nameIndex, int closingIndex) {
+      Map<String, Entry> entries = new LinkedHashMap<>();
+      int index = nameIndex + 3;
+      while (index < closingIndex) {
+        Token token = tokens.get(index);
+        String key = null;
+        int valueIndex = -1;
+        if (token.type == TokenType.NAME && tokens.get(index + 1).is('=')) {
+          key = token.value(content);
+          valueIndex = index + 2;
+        } else if (token.is('[') && index + 4 < closingIndex && tokens.get(index + 1).type == TokenType.STRING
+            && tokens.get(index + 2).is(']') && tokens.get(index + 3).is('=')) {
+          key = tokens.get(index + 1).value(content);
+          valueIndex = index + 4;
+        }
+
+        if (key == null || valueIndex >= closingIndex) {
+          index = skipValue(tokens, index, closingIndex);
+          continue;
+        }
+        Token valueToken = tokens.get(valueIndex);
+        if (valueToken.is('{')) {
+          index = skipValue(tokens, valueIndex, closingIndex);
+          continue;
+        }
+        entries.put(key, new Entry(key, valueToken.value(content), valueToken.start, valueToken.end));
+        index = valueIndex + 1;
+      }
+      return new Table(tokens.get(nameIndex).start, tokens.get(closingIndex).end, tokens.get(nameIndex + 2).end, entries);
+    }
+
+    /**
+     * @return the index after the token at the specified index, or after its closing brace if it opens a table
+     */
+    private static int skipValue(List<Token> tokens, int index, int limit) {
+      if (tokens.get(index).is('{')) {
+        int closingIndex = findClosingBrace(tokens, index);
+        return closingIndex < 0 ? limit : closingIndex + 1;
+      }
+      return index + 1;
+    }
+  }
+
+  private static class Entry {
+    private final String key;
+    private final String value;
+    private final int valueStart;
+    private final int valueEnd;
+
+    private Entry(String key, String value, int valueStart, int valueEnd) {
+      this.key = key;
+      this.value = value;
+      this.valueStart = valueStart;
+      this.valueEnd = valueEnd;
+    }
+  }
+}
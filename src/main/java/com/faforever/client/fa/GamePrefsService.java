@@ -0,0 +1,116 @@
+package com.faforever.client.fa;
+
+import com.faforever.client.io.FileUtils;
+import com.faforever.client.preferences.PreferencesService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and edits the {@code active_mods} and {@code debug} tables of the game's {@code game.prefs} file. The parsed
+ * file is kept until its modification time or size changes, and edits only replace the affected table before the
+ * file is written atomically. Edits that wouldn't change anything don't write the file at all.
+ */
+@Lazy
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class GamePrefsService {
+
+  private final PreferencesService preferencesService;
+
+  private Path cachedFile;
+  private FileTime cachedLastModifiedTime;
+  private long cachedSize;
+  private GamePrefsFile cachedGamePrefs;
+
+  /**
+   * @return the state of each mod listed in the {@code active_mods} table
+   */
+  public synchronized Map<String, Boolean> readActiveMods() throws IOException {
+    return read().getActiveMods();
+  }
+
+  /**
+   * Replaces the {@code active_mods} table with the enabled mods of the specified states, in their iteration order.
+   */
+  public synchronized void writeActiveMods(Map<String, Boolean> modStates) throws IOException {
+    GamePrefsFile gamePrefs = read();
+    Set<String> enabledMods = modStates.entrySet().stream()
+        .filter(Map.Entry::getValue)
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toSet());
+    Map<String, Boolean> currentModStates = gamePrefs.getActiveMods();
+    boolean unchanged = !currentModStates.isEmpty()
+        && !currentModStates.containsValue(false)
+        && currentModStates.keySet().equals(enabledMods);
+    if (unchanged) {
+      log.debug("Active mods in game.prefs are up to date");
+      return;
+    }
+    write(gamePrefs.withActiveMods(modStates));
+  }
+
+  public synchronized boolean isDebugFacilitiesEnabled() throws IOException {
+    return read().isDebugFacilitiesEnabled();
+  }
+
+  public synchronized void enableDebugFacilities() throws IOException {
+    GamePrefsFile gamePrefs = read();
+    if (gamePrefs.isDebugFacilitiesEnabled()) {
+      return;
+    }
+    write(gamePrefs.withDebugFacilitiesEnabled());
+  }
+
+  private GamePrefsFile read() throws IOException {
+    Path file = getGamePrefsFile();
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    if (cachedGamePrefs != null
+        && file.equals(cachedFile)
+        && attributes.lastModifiedTime().equals(cachedLastModifiedTime)
+        && attributes.size() == cachedSize) {
+      return cachedGamePrefs;
+    }
+
+    log.debug("Parsing '{}'", file);
+    GamePrefsFile gamePrefs = GamePrefsFile.parse(Files.readAllBytes(file));
+    cache(file, attributes, gamePrefs);
+    return gamePrefs;
+  }
+
+  private void write(byte[] content) throws IOException {
+    Path file = getGamePrefsFile();
+    Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      Files.write(tempFile, content);
+      FileUtils.moveAtomically(tempFile, file);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+    cache(file, Files.readAttributes(file, BasicFileAttributes.class), GamePrefsFile.parse(content));
+  }
+
+  private void cache(Path file, BasicFileAttributes attributes, GamePrefsFile gamePrefs) {
+    cachedFile = file;
+    cachedLastModifiedTime = attributes.lastModifiedTime();
+    cachedSize = attributes.size();
+    cachedGamePrefs = gamePrefs;
+  }
+
+  private Path getGamePrefsFile() {
+    return Objects.requireNonNull(preferencesService.getPreferences().getForgedAlliance().getPreferencesFile(),
+        "game.prefs file has not been set");
+  }
+}
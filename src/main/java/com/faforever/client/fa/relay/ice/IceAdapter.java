@@ -6,6 +6,12 @@ import java.util.concurrent.CompletableFuture;
  * Starts or stops the ICE adapter process.
  */
 public interface IceAdapter {
+
+  /**
+   * Starts the ICE adapter in the background if it isn't running yet, in anticipation of a game launch.
+   */
+  void prewarm();
+
   CompletableFuture<Integer> start();
 
   void stop();
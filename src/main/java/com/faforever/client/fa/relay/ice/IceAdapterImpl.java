@@ -14,7 +14,10 @@ import com.faforever.client.fa.relay.event.RehostRequestEvent;
 import com.faforever.client.fa.relay.ice.event.GpgGameMessageEvent;
 import com.faforever.client.fa.relay.ice.event.IceAdapterStateChanged;
 import com.faforever.client.game.KnownFeaturedMod;
-import com.faforever.client.os.OsUtils;
+import com.faforever.client.game.LaunchTrace;
+import com.faforever.client.game.LaunchTracer;
+import com.faforever.client.os.ProcessOutputPump;
+import com.faforever.client.os.ProcessOutputPump.ProcessOutput;
 import com.faforever.client.player.Player;
 import com.faforever.client.player.PlayerService;
 import com.faforever.client.preferences.PreferencesService;
@@ -22,6 +25,7 @@ import com.faforever.client.remote.FafService;
 import com.faforever.client.remote.domain.GameLaunchMessage;
 import com.faforever.client.remote.domain.IceServerMessage;
 import com.faforever.client.remote.domain.IceServersServerMessage;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
@@ -36,14 +40,18 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 import org.springframework.util.SocketUtils;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.ConnectException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -52,6 +60,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
 
 import static java.util.Arrays.asList;
 
@@ -61,8 +70,9 @@ import static java.util.Arrays.asList;
 @RequiredArgsConstructor
 public class IceAdapterImpl implements IceAdapter, InitializingBean, DisposableBean {
 
-  private static final int CONNECTION_ATTEMPTS = 50;
-  private static final int CONNECTION_ATTEMPT_DELAY_MILLIS = 100;
+  private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(30);
+  private static final long MIN_CONNECTION_RETRY_DELAY_MILLIS = 10;
+  private static final long MAX_CONNECTION_RETRY_DELAY_MILLIS = 250;
 
   private static final Logger advancedLogger = LoggerFactory.getLogger("faf-ice-adapter-advanced");
 
@@ -72,9 +82,18 @@ public class IceAdapterImpl implements IceAdapter, InitializingBean, DisposableB
   private final EventBus eventBus;
   private final FafService fafService;
   private final PreferencesService preferencesService;
+  private final LaunchTracer launchTracer;
+  private final TaskScheduler taskScheduler;
+  private final ProcessOutputPump processOutputPump;
 
   private final IceAdapterApi iceAdapterProxy = newIceAdapterProxy();
   private CompletableFuture<Integer> iceAdapterClientFuture;
+  /** Completes with the GPG port once the current adapter process can be talked to. */
+  private CompletableFuture<Integer> adapterFuture;
+  /** Whether the current adapter process has been handed over to a game. */
+  private boolean adapterInUse;
+  private int adapterPlayerId;
+  private ScheduledFuture<?> idleShutdown;
   private Process process;
   private LobbyMode lobbyInitMode;
   private JJsonPeer peer;
@@ -147,101 +166,236 @@ public class IceAdapterImpl implements IceAdapter, InitializingBean, DisposableB
     fafService.sendGpgGameMessage(gpgGameMessage);
   }
 
+  /**
+   * Starts an ICE adapter ahead of a game launch so that {@link #start()} can hand it over without waiting for it. The
+   * adapter is shut down again if it isn't used within the configured idle timeout.
+   */
   @Override
-  public CompletableFuture<Integer> start() {
-    iceAdapterClientFuture = new CompletableFuture<>();
-    Thread thread = new Thread(() -> {
-      String nativeDir = System.getProperty("nativeDir", "lib");
-
-      int adapterPort = SocketUtils.findAvailableTcpPort();
-      int gpgPort = SocketUtils.findAvailableTcpPort();
-
-      Player currentPlayer = playerService.getCurrentPlayer()
-          .orElseThrow(() -> new IllegalStateException("Player has not been set"));
+  public synchronized void prewarm() {
+    if (!clientProperties.isIceAdapterWarmStart()) {
+      return;
+    }
+    Optional<Player> currentPlayer = playerService.getCurrentPlayer();
+    if (currentPlayer.isEmpty() || adapterInUse) {
+      return;
+    }
+    if (!isAdapterUsable(currentPlayer.get())) {
+      log.debug("Starting ICE adapter ahead of game launch");
+      launchAdapter(currentPlayer.get());
+    }
+    scheduleIdleShutdown();
+  }
 
-      Path workDirectory = Paths.get(nativeDir).toAbsolutePath();
+  @Override
+  public synchronized CompletableFuture<Integer> start() {
+    cancelIdleShutdown();
+    Optional<Player> currentPlayer = playerService.getCurrentPlayer();
+    if (currentPlayer.isEmpty()) {
+      return CompletableFuture.failedFuture(new IllegalStateException("Player has not been set"));
+    }
+    if (!adapterInUse && isAdapterUsable(currentPlayer.get())) {
+      log.debug("Using ICE adapter that has been started ahead of game launch");
+      launchTracer.startSpan("iceAdapter.prewarmed").end();
+    } else {
+      launchAdapter(currentPlayer.get());
+    }
+    adapterInUse = true;
+    iceAdapterClientFuture = adapterFuture.thenApply(gpgPort -> {
+      setIceServers();
+      setLobbyInitMode();
+      return gpgPort;
+    });
+    return iceAdapterClientFuture;
+  }
 
-      List<String> cmd = Lists.newArrayList(
-          Paths.get(System.getProperty("java.home")).resolve("bin").resolve(org.bridj.Platform.isWindows() ? "java.exe" : "java").toAbsolutePath().toString(),
-          "-jar",
-          getBinaryName(workDirectory),
-          "--id", String.valueOf(currentPlayer.getId()),
-          "--login", currentPlayer.getUsername(),
-          "--rpc-port", String.valueOf(adapterPort),
-          "--gpgnet-port", String.valueOf(gpgPort)
-      );
+  /**
+   * @return whether the current adapter is starting or running, for the specified player
+   */
+  private boolean isAdapterUsable(Player currentPlayer) {
+    if (adapterFuture == null || adapterFuture.isCompletedExceptionally() || adapterPlayerId != currentPlayer.getId()) {
+      return false;
+    }
+    return process == null ? !adapterFuture.isDone() : process.isAlive();
+  }
 
-      if (preferencesService.getPreferences().getForgedAlliance().isForceRelay()) {
-        cmd.add("--force-relay");
-        log.warn("Forcing ice adapter relay connection");
-      }
+  private void launchAdapter(Player currentPlayer) {
+    destroyProcess();
+    CompletableFuture<Integer> future = new CompletableFuture<>();
+    adapterFuture = future;
+    adapterPlayerId = currentPlayer.getId();
 
-      if (clientProperties.isShowIceAdapterDebugWindow()) {
-        cmd.add("--debug-window");
-        cmd.add("--info-window");
-      }
+    Thread thread = new Thread(() -> {
+      int adapterPort = SocketUtils.findAvailableTcpPort();
+      int gpgPort = SocketUtils.findAvailableTcpPort();
 
+      Process adapterProcess = null;
       try {
-        ProcessBuilder processBuilder = new ProcessBuilder();
-        processBuilder.directory(workDirectory.toFile());
-        processBuilder.command(cmd);
-        processBuilder.environment().put("LOG_DIR", preferencesService.getIceAdapterLogDirectory().toAbsolutePath().toString());
-
-        log.info("Starting ICE adapter with command: {}", cmd);
         boolean advancedIceLogEnabled = preferencesService.getPreferences().isAdvancedIceLogEnabled();
         if (advancedIceLogEnabled) {
           advancedLogger.info("\n\n");
         }
-        process = processBuilder.start();
-        OsUtils.gobbleLines(process.getInputStream(), msg -> {
+        LaunchTrace.Span processSpan = launchTracer.startSpan("iceAdapter.process");
+        adapterProcess = startAdapterProcess(currentPlayer, adapterPort, gpgPort);
+        processSpan.end();
+        synchronized (this) {
+          if (adapterFuture != future) {
+            // Stopped or replaced while starting
+            adapterProcess.destroy();
+            future.cancel(false);
+            return;
+          }
+          process = adapterProcess;
+        }
+
+        Object outputSignal = new Object();
+        ProcessOutput processOutput = processOutputPump.pump(adapterProcess, msg -> {
+          signalOutput(outputSignal);
           if (advancedIceLogEnabled) {
             advancedLogger.info(msg);
           }
-        });
-        OsUtils.gobbleLines(process.getErrorStream(), msg -> {
+        }, msg -> {
+          signalOutput(outputSignal);
           if (advancedIceLogEnabled) {
             advancedLogger.error(msg);
           }
         });
 
-        IceAdapterCallbacks iceAdapterCallbacks = applicationContext.getBean(IceAdapterCallbacks.class);
-
-        for (int attempt = 0; attempt < CONNECTION_ATTEMPTS; attempt++) {
-          try {
-            TcpClient tcpClient = new TcpClient("localhost", adapterPort, iceAdapterCallbacks);
-            peer = tcpClient.getPeer();
-
-            setIceServers();
-            setLobbyInitMode();
-            break;
-          } catch (ConnectException e) {
-            log.debug("Could not connect to ICE adapter (attempt {}/{})", attempt + 1, CONNECTION_ATTEMPTS);
-          }
-
-          // Wait as the socket fails too fast on unix/linux not giving the adapter enough time to start
-          try {
-            Thread.sleep(CONNECTION_ATTEMPT_DELAY_MILLIS);
-          } catch (InterruptedException e) {
-            log.warn("Error while waiting for ice adapter", e);
+        LaunchTrace.Span connectSpan = launchTracer.startSpan("iceAdapter.connect");
+        JJsonPeer connectedPeer = connect(adapterProcess, adapterPort, outputSignal);
+        connectSpan.end();
+        synchronized (this) {
+          if (adapterFuture == future) {
+            peer = connectedPeer;
           }
         }
 
-        iceAdapterClientFuture.complete(gpgPort);
+        future.complete(gpgPort);
 
-        int exitCode = process.waitFor();
+        int exitCode = adapterProcess.waitFor();
         if (exitCode == 0) {
           log.info("ICE adapter terminated normally");
         } else {
           log.warn("ICE adapter terminated with exit code: {}", exitCode);
+          processOutput.getClosedFuture().thenRun(() ->
+              log.warn("Last output of the ICE adapter:\n{}", String.join("\n", processOutput.getRecentLines())));
         }
       } catch (Exception e) {
-        iceAdapterClientFuture.completeExceptionally(e);
+        if (adapterProcess != null) {
+          adapterProcess.destroy();
+        }
+        future.completeExceptionally(e);
+      } finally {
+        onAdapterTerminated(future);
       }
     });
     thread.setDaemon(true);
     thread.start();
+  }
 
-    return iceAdapterClientFuture;
+  @VisibleForTesting
+  Process startAdapterProcess(Player currentPlayer, int adapterPort, int gpgPort) throws IOException {
+    String nativeDir = System.getProperty("nativeDir", "lib");
+    Path workDirectory = Paths.get(nativeDir).toAbsolutePath();
+
+    List<String> cmd = Lists.newArrayList(
+        Paths.get(System.getProperty("java.home")).resolve("bin").resolve(org.bridj.Platform.isWindows() ? "java.exe" : "java").toAbsolutePath().toString(),
+        "-jar",
+        getBinaryName(workDirectory),
+        "--id", String.valueOf(currentPlayer.getId()),
+        "--login", currentPlayer.getUsername(),
+        "--rpc-port", String.valueOf(adapterPort),
+        "--gpgnet-port", String.valueOf(gpgPort)
+    );
+
+    if (preferencesService.getPreferences().getForgedAlliance().isForceRelay()) {
+      cmd.add("--force-relay");
+      log.warn("Forcing ice adapter relay connection");
+    }
+
+    if (clientProperties.isShowIceAdapterDebugWindow()) {
+      cmd.add("--debug-window");
+      cmd.add("--info-window");
+    }
+
+    ProcessBuilder processBuilder = new ProcessBuilder();
+    processBuilder.directory(workDirectory.toFile());
+    processBuilder.command(cmd);
+    processBuilder.environment().put("LOG_DIR", preferencesService.getIceAdapterLogDirectory().toAbsolutePath().toString());
+
+    log.info("Starting ICE adapter with command: {}", cmd);
+    return processBuilder.start();
+  }
+
+  /**
+   * Connects to the adapter's RPC port as soon as it's open. Instead of polling at a fixed rate, another attempt is
+   * made whenever the adapter writes output, which it does while starting up, or else after an increasing delay.
+   */
+  private JJsonPeer connect(Process adapterProcess, int adapterPort, Object outputSignal) throws IOException, InterruptedException {
+    IceAdapterCallbacks iceAdapterCallbacks = applicationContext.getBean(IceAdapterCallbacks.class);
+    long deadline = System.nanoTime() + CONNECTION_TIMEOUT.toNanos();
+    long retryDelayMillis = MIN_CONNECTION_RETRY_DELAY_MILLIS;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return new TcpClient("localhost", adapterPort, iceAdapterCallbacks).getPeer();
+      } catch (ConnectException e) {
+        log.debug("Could not connect to ICE adapter (attempt {})", attempt);
+      }
+      if (!adapterProcess.isAlive()) {
+        throw new IOException("ICE adapter terminated with exit code " + adapterProcess.exitValue() + " before it could be connected to");
+      }
+      if (System.nanoTime() > deadline) {
+        throw new IOException("ICE adapter did not open its RPC port within " + CONNECTION_TIMEOUT.toSeconds() + " seconds");
+      }
+      synchronized (outputSignal) {
+        outputSignal.wait(retryDelayMillis);
+      }
+      retryDelayMillis = Math.min(retryDelayMillis * 2, MAX_CONNECTION_RETRY_DELAY_MILLIS);
+    }
+  }
+
+  private void signalOutput(Object outputSignal) {
+    synchronized (outputSignal) {
+      outputSignal.notifyAll();
+    }
+  }
+
+  private synchronized void onAdapterTerminated(CompletableFuture<Integer> future) {
+    if (adapterFuture != future) {
+      return;
+    }
+    adapterFuture = null;
+    adapterInUse = false;
+    process = null;
+    peer = null;
+    cancelIdleShutdown();
+  }
+
+  private void scheduleIdleShutdown() {
+    cancelIdleShutdown();
+    idleShutdown = taskScheduler.schedule(this::stopIfIdle, Instant.now().plus(clientProperties.getIceAdapterIdleTimeout()));
+  }
+
+  private void cancelIdleShutdown() {
+    if (idleShutdown != null) {
+      idleShutdown.cancel(false);
+      idleShutdown = null;
+    }
+  }
+
+  private synchronized void stopIfIdle() {
+    if (adapterInUse || adapterFuture == null) {
+      return;
+    }
+    log.info("Shutting down ICE adapter that has not been used for {}", clientProperties.getIceAdapterIdleTimeout());
+    stop();
+  }
+
+  private void destroyProcess() {
+    if (process != null && process.isAlive()) {
+      process.destroy();
+    }
+    process = null;
+    peer = null;
   }
 
   private String getBinaryName(Path workDirectory) {
@@ -310,8 +464,15 @@ public class IceAdapterImpl implements IceAdapter, InitializingBean, DisposableB
     stop();
   }
 
-  public void stop() {
+  public synchronized void stop() {
     Optional.ofNullable(iceAdapterProxy).ifPresent(IceAdapterApi::quit);
+    cancelIdleShutdown();
+    if (adapterFuture != null && !adapterFuture.isDone()) {
+      // Not connected yet, so it can't be asked to quit
+      destroyProcess();
+    }
+    adapterFuture = null;
+    adapterInUse = false;
     peer = null;
   }
 
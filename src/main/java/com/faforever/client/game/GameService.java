@@ -4,6 +4,7 @@ import com.faforever.client.config.ClientProperties;
 import com.faforever.client.discord.DiscordRichPresenceService;
 import com.faforever.client.fa.CloseGameEvent;
 import com.faforever.client.fa.ForgedAllianceService;
+import com.faforever.client.fa.GamePrefsService;
 import com.faforever.client.fa.relay.event.RehostRequestEvent;
 import com.faforever.client.fa.relay.ice.IceAdapter;
 import com.faforever.client.fx.JavaFxUtil;
@@ -66,9 +67,7 @@ import org.springframework.stereotype.Service;
 import javax.inject.Inject;
 import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -86,12 +85,10 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Pattern;
 
 import static com.faforever.client.game.KnownFeaturedMod.FAF;
 import static com.faforever.client.game.KnownFeaturedMod.TUTORIALS;
 import static com.github.nocatch.NoCatch.noCatch;
-import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
@@ -109,10 +106,6 @@ public class GameService implements InitializingBean {
 
   @VisibleForTesting
   static final String DEFAULT_RATING_TYPE = "global";
-  private static final Pattern GAME_PREFS_ALLOW_MULTI_LAUNCH_PATTERN = Pattern.compile("debug\\s*=(\\s)*[{][^}]*enable_debug_facilities\\s*=\\s*true");
-  private static final String GAME_PREFS_ALLOW_MULTI_LAUNCH_STRING = "\ndebug = {\n" +
-      "    enable_debug_facilities = true\n" +
-      "}";
   private static final String OBSERVERS_TEAM = "-1";
 
   @VisibleForTesting
@@ -144,6 +137,9 @@ public class GameService implements InitializingBean {
   private final DiscordRichPresenceService discordRichPresenceService;
   private final ReplayServer replayServer;
   private final ReconnectTimerService reconnectTimerService;
+  private final GamePrefsService gamePrefsService;
+  private final LaunchTracer launchTracer;
+  private final LaunchPlanner launchPlanner;
   private final ObservableList<Game> games;
   private final String faWindowTitle;
   private final BooleanProperty inMatchmakerQueue;
@@ -174,7 +170,10 @@ public class GameService implements InitializingBean {
                      PlatformService platformService,
                      DiscordRichPresenceService discordRichPresenceService,
                      ReplayServer replayServer,
-                     ReconnectTimerService reconnectTimerService) {
+                     ReconnectTimerService reconnectTimerService,
+                     GamePrefsService gamePrefsService,
+                     LaunchTracer launchTracer,
+                     LaunchPlanner launchPlanner) {
     this.fafService = fafService;
     this.forgedAllianceService = forgedAllianceService;
     this.mapService = mapService;
@@ -192,6 +191,9 @@ public class GameService implements InitializingBean {
     this.discordRichPresenceService = discordRichPresenceService;
     this.replayServer = replayServer;
     this.reconnectTimerService = reconnectTimerService;
+    this.gamePrefsService = gamePrefsService;
+    this.launchTracer = launchTracer;
+    this.launchPlanner = launchPlanner;
 
     faWindowTitle = clientProperties.getForgedAlliance().getWindowTitle();
     uidToGameInfoBean = FXCollections.observableMap(new ConcurrentHashMap<>());
@@ -315,9 +317,13 @@ public class GameService implements InitializingBean {
       return completedFuture(null);
     }
 
-    return updateGameIfNecessary(newGameInfo.getFeaturedMod(), null, Map.of(), newGameInfo.getSimMods())
-        .thenCompose(aVoid -> downloadMapIfNecessary(newGameInfo.getMap()))
-        .thenCompose(aVoid -> fafService.requestHostGame(newGameInfo))
+    launchTracer.begin("host");
+    iceAdapter.prewarm();
+    LaunchPlan plan = launchPlanner.newPlan();
+    plan.step("game.update", () -> gameUpdater.update(newGameInfo.getFeaturedMod(), null, Map.of(), newGameInfo.getSimMods()));
+    addMapDownloadStep(plan, newGameInfo.getMap());
+    return plan.run()
+        .thenCompose(aVoid -> launchTracer.trace("server.hostGame", () -> fafService.requestHostGame(newGameInfo)))
         .thenAccept(gameLaunchMessage -> {
 
           String ratingType = gameLaunchMessage.getRatingType();
@@ -327,6 +333,11 @@ public class GameService implements InitializingBean {
           }
 
           startGame(gameLaunchMessage, gameLaunchMessage.getFaction(), ratingType);
+        })
+        .whenComplete((aVoid, throwable) -> {
+          if (throwable != null) {
+            launchTracer.finish(throwable);
+          }
         });
   }
 
@@ -356,17 +367,23 @@ public class GameService implements InitializingBean {
     Map<String, Integer> featuredModVersions = game.getFeaturedModVersions();
     Set<String> simModUIds = game.getSimMods().keySet();
 
-    return modService.getFeaturedMod(game.getFeaturedMod())
-        .thenCompose(featuredModBean -> updateGameIfNecessary(featuredModBean, null, featuredModVersions, simModUIds))
-        .thenAccept(aVoid -> {
-          try {
-            modService.enableSimMods(simModUIds);
-          } catch (IOException e) {
-            log.warn("SimMods could not be enabled", e);
-          }
-        })
-        .thenCompose(aVoid -> downloadMapIfNecessary(game.getMapFolderName()))
-        .thenCompose(aVoid -> fafService.requestJoinGame(game.getId(), password))
+    launchTracer.begin("join");
+    iceAdapter.prewarm();
+    LaunchPlan plan = launchPlanner.newPlan();
+    LaunchPlan.Step<FeaturedMod> featuredModLookup = plan.step("featuredMod.lookup", () -> modService.getFeaturedMod(game.getFeaturedMod()));
+    LaunchPlan.Step<Void> gameUpdate = plan.step("game.update",
+        () -> gameUpdater.update(featuredModLookup.getResult(), null, featuredModVersions, simModUIds), featuredModLookup);
+    plan.step("simMods.enable", () -> {
+      try {
+        modService.enableSimMods(simModUIds);
+      } catch (IOException e) {
+        log.warn("SimMods could not be enabled", e);
+      }
+      return completedFuture(null);
+    }, gameUpdate);
+    addMapDownloadStep(plan, game.getMapFolderName());
+    return plan.run()
+        .thenCompose(aVoid -> launchTracer.trace("server.joinGame", () -> fafService.requestJoinGame(game.getId(), password)))
         .thenAccept(gameLaunchMessage -> {
           synchronized (currentGame) {
             // Store password in case we rehost
@@ -388,6 +405,7 @@ public class GameService implements InitializingBean {
           startGame(gameLaunchMessage, null, ratingType);
         })
         .exceptionally(throwable -> {
+          launchTracer.finish(throwable);
           log.warn("Game could not be joined", throwable);
           notificationService.addImmediateErrorNotification(throwable, "games.couldNotJoin");
           return null;
@@ -398,7 +416,17 @@ public class GameService implements InitializingBean {
     if (mapService.isInstalled(mapFolderName)) {
       return completedFuture(null);
     }
-    return mapService.download(mapFolderName);
+    return launchTracer.trace("map.download", () -> mapService.download(mapFolderName));
+  }
+
+  /**
+   * Adds a step that downloads the specified map to the plan, unless the map is installed. It doesn't depend on any
+   * other step, so it runs alongside the game update.
+   */
+  private void addMapDownloadStep(LaunchPlan plan, String mapFolderName) {
+    if (!mapService.isInstalled(mapFolderName)) {
+      plan.step("map.download", () -> mapService.download(mapFolderName));
+    }
   }
 
   /**
@@ -417,9 +445,14 @@ public class GameService implements InitializingBean {
 
     onMatchmakerSearchStopped();
 
-    return modService.getFeaturedMod(featuredMod)
-        .thenCompose(featuredModBean -> updateGameIfNecessary(featuredModBean, version, modVersions, simMods))
-        .thenCompose(aVoid -> downloadMapIfNecessary(mapName).handleAsync((ignoredResult, throwable) -> askWhetherToStartWithOutMap(throwable)))
+    LaunchPlan plan = launchPlanner.newPlan();
+    LaunchPlan.Step<FeaturedMod> featuredModLookup = plan.step("featuredMod.lookup", () -> modService.getFeaturedMod(featuredMod));
+    plan.step("game.update", () -> gameUpdater.update(featuredModLookup.getResult(), version, modVersions, simMods), featuredModLookup);
+    if (!mapService.isInstalled(mapName)) {
+      plan.step("map.download", () -> mapService.download(mapName)
+          .handleAsync((ignoredResult, throwable) -> askWhetherToStartWithOutMap(throwable)));
+    }
+    return plan.run()
         .thenRun(() -> {
           try {
             Process processForReplay = forgedAllianceService.startReplay(path, replayId);
@@ -512,9 +545,11 @@ public class GameService implements InitializingBean {
     Map<String, Integer> modVersions = gameBean.getFeaturedModVersions();
     Set<String> simModUids = gameBean.getSimMods().keySet();
 
-    return modService.getFeaturedMod(gameType)
-        .thenCompose(featuredModBean -> updateGameIfNecessary(featuredModBean, null, modVersions, simModUids))
-        .thenCompose(aVoid -> downloadMapIfNecessary(mapName))
+    LaunchPlan plan = launchPlanner.newPlan();
+    LaunchPlan.Step<FeaturedMod> featuredModLookup = plan.step("featuredMod.lookup", () -> modService.getFeaturedMod(gameType));
+    plan.step("game.update", () -> gameUpdater.update(featuredModLookup.getResult(), null, modVersions, simModUids), featuredModLookup);
+    addMapDownloadStep(plan, mapName);
+    return plan.run()
         .thenRun(() -> noCatch(() -> {
           Process processCreated = forgedAllianceService.startReplay(replayUrl, gameId, getCurrentPlayer());
           if (forgedAlliancePrefs.isAllowReplaysWhileInGame() && isRunning()) {
@@ -562,9 +597,11 @@ public class GameService implements InitializingBean {
     log.info("Matchmaking search has been started");
     inMatchmakerQueue.set(true);
 
-    return modService.getFeaturedMod(FAF.getTechnicalName())
+    launchTracer.begin("matchmaker");
+    iceAdapter.prewarm();
+    return launchTracer.trace("featuredMod.lookup", () -> modService.getFeaturedMod(FAF.getTechnicalName()))
         .thenAccept(featuredModBean -> updateGameIfNecessary(featuredModBean, null, emptyMap(), emptySet()))
-        .thenCompose(aVoid -> fafService.startSearchMatchmaker())
+        .thenCompose(aVoid -> launchTracer.trace("server.matchmakerSearch", fafService::startSearchMatchmaker))
         .thenAccept((gameLaunchMessage) -> downloadMapIfNecessary(gameLaunchMessage.getMapname())
             .thenRun(() -> {
               gameLaunchMessage.setArgs(new ArrayList<>(gameLaunchMessage.getArgs()));
@@ -588,6 +625,7 @@ public class GameService implements InitializingBean {
               startGame(gameLaunchMessage, gameLaunchMessage.getFaction(), ratingType);
             }))
         .exceptionally(throwable -> {
+          launchTracer.finish(throwable);
           if (throwable.getCause() instanceof CancellationException) {
             log.info("Matchmaking search has been cancelled");
           } else {
@@ -630,7 +668,7 @@ public class GameService implements InitializingBean {
   }
 
   private CompletableFuture<Void> updateGameIfNecessary(FeaturedMod featuredMod, @Nullable Integer version, @NotNull Map<String, Integer> featuredModVersions, @NotNull Set<String> simModUids) {
-    return gameUpdater.update(featuredMod, version, featuredModVersions, simModUids);
+    return launchTracer.trace("game.update", () -> gameUpdater.update(featuredMod, version, featuredModVersions, simModUids));
   }
 
   public boolean isGameRunning() {
@@ -652,24 +690,29 @@ public class GameService implements InitializingBean {
   private void startGame(GameLaunchMessage gameLaunchMessage, Faction faction, String ratingType) {
     if (isRunning()) {
       log.warn("Forged Alliance is already running, not starting game");
+      launchTracer.finish(new IllegalStateException("Forged Alliance is already running"));
       return;
     }
 
     int uid = gameLaunchMessage.getUid();
-    replayServer.start(uid, () -> getByUid(uid))
+    launchTracer.trace("replayServer.start", () -> replayServer.start(uid, () -> getByUid(uid)))
         .thenCompose(port -> {
           localReplayPort = port;
-          return iceAdapter.start();
+          return launchTracer.trace("iceAdapter.start", iceAdapter::start);
         })
         .thenAccept(adapterPort -> {
           List<String> args = fixMalformedArgs(gameLaunchMessage.getArgs());
+          LaunchTrace.Span span = launchTracer.startSpan("forgedAlliance.start");
           process = noCatch(() -> forgedAllianceService.startGame(gameLaunchMessage.getUid(), faction, args, ratingType,
               adapterPort, localReplayPort, rehostRequested, getCurrentPlayer()));
+          span.end();
           setGameRunning(true);
+          launchTracer.finish(null);
 
           spawnTerminationListener(process);
         })
         .exceptionally(throwable -> {
+          launchTracer.finish(throwable);
           log.warn("Game could not be started", throwable);
           notificationService.addImmediateErrorNotification(throwable, "game.start.couldNotStart");
           iceAdapter.stop();
@@ -925,9 +968,11 @@ public class GameService implements InitializingBean {
       return;
     }
 
-    modService.getFeaturedMod(TUTORIALS.getTechnicalName())
-        .thenCompose(featuredModBean -> updateGameIfNecessary(featuredModBean, null, emptyMap(), emptySet()))
-        .thenCompose(aVoid -> downloadMapIfNecessary(mapVersion.getFolderName()))
+    LaunchPlan plan = launchPlanner.newPlan();
+    LaunchPlan.Step<FeaturedMod> featuredModLookup = plan.step("featuredMod.lookup", () -> modService.getFeaturedMod(TUTORIALS.getTechnicalName()));
+    plan.step("game.update", () -> gameUpdater.update(featuredModLookup.getResult(), null, emptyMap(), emptySet()), featuredModLookup);
+    addMapDownloadStep(plan, mapVersion.getFolderName());
+    plan.run()
         .thenAccept(aVoid -> {
           List<String> args = Arrays.asList("/map", technicalMapName);
           process = noCatch(() -> forgedAllianceService.startGameOffline(args));
@@ -947,19 +992,12 @@ public class GameService implements InitializingBean {
     if (isGamePrefsPatchedToAllowMultiInstances().get()) {
       return failedFuture(new IllegalStateException("Can not patch game.prefs file cause it already is patched"));
     }
-    Path preferencesFile = preferencesService.getPreferences().getForgedAlliance().getPreferencesFile();
-    Files.writeString(preferencesFile, GAME_PREFS_ALLOW_MULTI_LAUNCH_STRING, US_ASCII, StandardOpenOption.APPEND);
+    gamePrefsService.enableDebugFacilities();
     return completedFuture(null);
   }
 
-  private String getGamePrefsContent() throws IOException {
-    Path preferencesFile = preferencesService.getPreferences().getForgedAlliance().getPreferencesFile();
-    return Files.readString(preferencesFile, US_ASCII);
-  }
-
   @Async
   public CompletableFuture<Boolean> isGamePrefsPatchedToAllowMultiInstances() throws IOException {
-    String gamePrefsContent = getGamePrefsContent();
-    return completedFuture(GAME_PREFS_ALLOW_MULTI_LAUNCH_PATTERN.matcher(gamePrefsContent).find());
+    return completedFuture(gamePrefsService.isDebugFacilitiesEnabled());
   }
 }
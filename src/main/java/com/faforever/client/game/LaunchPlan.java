@@ -0,0 +1,162 @@
+package com.faforever.client.game;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * A graph of the steps that prepare a game launch, like updating the game and downloading the map. Once the plan runs,
+ * each step is started as soon as the steps it depends on have completed, but no more than a fixed number of steps run
+ * at the same time. If a step fails, steps that haven't been started are skipped and the plan fails with the failure
+ * of the step. The same happens if the future returned by {@link #run()} is cancelled. Steps that have already been
+ * started are not interrupted, since the tasks behind them can't be cancelled through their futures, and run to
+ * completion after the plan has failed. Each step is traced as a span of the current launch.
+ */
+public class LaunchPlan {
+
+  private final LaunchTracer launchTracer;
+  private final int maxParallelism;
+  private final List<Step<?>> steps = new ArrayList<>();
+  private final Deque<Step<?>> readySteps = new ArrayDeque<>();
+  private final CompletableFuture<Void> future = new CompletableFuture<>();
+  private int runningSteps;
+  private int completedSteps;
+  private boolean started;
+
+  LaunchPlan(LaunchTracer launchTracer, int maxParallelism) {
+    this.launchTracer = launchTracer;
+    this.maxParallelism = Math.max(1, maxParallelism);
+  }
+
+  /**
+   * Adds a step that is started once all of the specified steps have completed. The results of the dependencies are
+   * available to the action through {@link Step#getResult()}.
+   */
+  public synchronized <T> Step<T> step(String name, Supplier<CompletableFuture<T>> action, Step<?>... dependencies) {
+    if (started) {
+      throw new IllegalStateException("Steps can't be added to a plan that is running");
+    }
+    Step<T> step = new Step<>(name, action, dependencies.length);
+    for (Step<?> dependency : dependencies) {
+      dependency.dependents.add(step);
+    }
+    steps.add(step);
+    return step;
+  }
+
+  /**
+   * Starts all steps that don't depend on other steps.
+   *
+   * @return a future that completes once all steps have completed, or fails with the failure of the first step that
+   * failed
+   */
+  public CompletableFuture<Void> run() {
+    synchronized (this) {
+      if (started) {
+        throw new IllegalStateException("Plan is already running");
+      }
+      started = true;
+      steps.stream().filter(step -> step.remainingDependencies == 0).forEach(readySteps::add);
+    }
+    future.whenComplete((aVoid, throwable) -> {
+      if (throwable != null) {
+        skipReadySteps();
+      }
+    });
+    if (steps.isEmpty()) {
+      future.complete(null);
+    }
+    startReadySteps();
+    return future;
+  }
+
+  private void startReadySteps() {
+    List<Step<?>> stepsToStart = new ArrayList<>();
+    synchronized (this) {
+      while (runningSteps < maxParallelism && !readySteps.isEmpty() && !future.isDone()) {
+        stepsToStart.add(readySteps.poll());
+        runningSteps++;
+      }
+    }
+    stepsToStart.forEach(this::start);
+  }
+
+  private <T> void start(Step<T> step) {
+    LaunchTrace.Span span = launchTracer.startSpan(step.name);
+    CompletableFuture<T> stepFuture;
+    try {
+      stepFuture = step.action.get();
+    } catch (RuntimeException e) {
+      stepFuture = CompletableFuture.failedFuture(e);
+    }
+    stepFuture.whenComplete((result, throwable) -> {
+      span.end();
+      onStepCompleted(step, result, throwable);
+    });
+  }
+
+  private <T> void onStepCompleted(Step<T> step, T result, Throwable throwable) {
+    if (throwable != null) {
+      future.completeExceptionally(unwrap(throwable));
+      return;
+    }
+    step.result.complete(result);
+
+    boolean allStepsCompleted;
+    synchronized (this) {
+      runningSteps--;
+      completedSteps++;
+      for (Step<?> dependent : step.dependents) {
+        if (--dependent.remainingDependencies == 0) {
+          readySteps.add(dependent);
+        }
+      }
+      allStepsCompleted = completedSteps == steps.size();
+    }
+    if (allStepsCompleted) {
+      future.complete(null);
+    } else {
+      startReadySteps();
+    }
+  }
+
+  private synchronized void skipReadySteps() {
+    readySteps.clear();
+  }
+
+  private static Throwable unwrap(Throwable throwable) {
+    if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+      return throwable.getCause();
+    }
+    return throwable;
+  }
+
+  public static class Step<T> {
+    private final String name;
+    private final Supplier<CompletableFuture<T>> action;
+    private final List<Step<?>> dependents = new ArrayList<>();
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private int remainingDependencies;
+
+    private Step(String name, Supplier<CompletableFuture<T>> action, int dependencies) {
+      this.name = name;
+      this.action = action;
+      this.remainingDependencies = dependencies;
+    }
+
+    /**
+     * Returns the result of the step. Must only be called by steps that depend on this one.
+     */
+    public T getResult() {
+      if (!result.isDone()) {
+        throw new IllegalStateException("Step '" + name + "' has not completed");
+      }
+      return result.join();
+    }
+  }
+}
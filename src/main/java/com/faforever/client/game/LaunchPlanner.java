@@ -0,0 +1,22 @@
+package com.faforever.client.game;
+
+import com.faforever.client.config.ClientProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+/**
+ * Creates {@link LaunchPlan}s, which run the independent steps that prepare a game launch at the same time.
+ */
+@Lazy
+@Service
+@RequiredArgsConstructor
+public class LaunchPlanner {
+
+  private final LaunchTracer launchTracer;
+  private final ClientProperties clientProperties;
+
+  public LaunchPlan newPlan() {
+    return new LaunchPlan(launchTracer, clientProperties.getLaunchParallelism());
+  }
+}
@@ -0,0 +1,129 @@
+package com.faforever.client.game;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of the stages of a single game launch, from the player's request to the start of the Forged Alliance
+ * process. Spans may be started and ended from any thread.
+ */
+public class LaunchTrace {
+
+  private final String launchType;
+  private final Instant startTime;
+  private final long startNanos;
+  private final List<Span> spans = new ArrayList<>();
+  private long durationMillis = -1;
+  private String failure;
+
+  LaunchTrace(String launchType) {
+    this.launchType = launchType;
+    this.startTime = Instant.now();
+    this.startNanos = System.nanoTime();
+  }
+
+  public String getLaunchType() {
+    return launchType;
+  }
+
+  public Instant getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * @return the duration of the whole launch, or {@code -1} if it hasn't finished yet
+   */
+  public synchronized long getDurationMillis() {
+    return durationMillis;
+  }
+
+  @Nullable
+  public synchronized String getFailure() {
+    return failure;
+  }
+
+  public synchronized List<Span> getSpans() {
+    return new ArrayList<>(spans);
+  }
+
+  synchronized Span startSpan(String name) {
+    Span span = new Span(name, System.nanoTime());
+    spans.add(span);
+    return span;
+  }
+
+  synchronized void finish(@Nullable Throwable failure) {
+    durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    if (failure != null) {
+      Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+      this.failure = cause.toString();
+    }
+  }
+
+  /**
+   * @return a multi-line summary with one line per span, showing when it started relative to the launch and how long
+   * it took
+   */
+  public synchronized String getSummary() {
+    StringBuilder summary = new StringBuilder()
+        .append(startTime).append(' ').append(launchType).append(": ").append(durationMillis).append(" ms")
+        .append(failure == null ? "" : " (failed: " + failure + ")");
+    for (Span span : spans) {
+      summary.append(String.format("%n  %-28s +%6d ms %8s", span.getName(), span.getOffsetMillis(),
+          span.getDurationMillis() < 0 ? "-" : span.getDurationMillis() + " ms"));
+    }
+    return summary.toString();
+  }
+
+  /**
+   * @return a single line with the launch's timings, in the format {@code <start> <type> <duration>ms <ok|failed>
+   * <span>=+<offset>/<duration> ...}
+   */
+  public synchronized String toLogLine() {
+    StringBuilder line = new StringBuilder()
+        .append(startTime).append(' ').append(launchType).append(' ').append(durationMillis).append("ms ")
+        .append(failure == null ? "ok" : "failed");
+    for (Span span : spans) {
+      line.append(' ').append(span.getName()).append("=+").append(span.getOffsetMillis()).append('/')
+          .append(span.getDurationMillis() < 0 ? "-" : String.valueOf(span.getDurationMillis()));
+    }
+    return line.toString();
+  }
+
+  public class Span {
+    private final String name;
+    private final long startNanos;
+    private volatile long durationMillis = -1;
+
+    private Span(String name, long startNanos) {
+      this.name = name;
+      this.startNanos = startNanos;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getOffsetMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(startNanos - LaunchTrace.this.startNanos);
+    }
+
+    /**
+     * @return how long the span took, or {@code -1} if it hasn't ended
+     */
+    public long getDurationMillis() {
+      return durationMillis;
+    }
+
+    public void end() {
+      if (durationMillis < 0) {
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      }
+    }
+  }
+}
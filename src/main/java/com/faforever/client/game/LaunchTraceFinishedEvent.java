@@ -0,0 +1,11 @@
+package com.faforever.client.game;
+
+import lombok.Value;
+
+/**
+ * Fired whenever a game launch has finished, successfully or not.
+ */
+@Value
+public class LaunchTraceFinishedEvent {
+  private LaunchTrace launchTrace;
+}
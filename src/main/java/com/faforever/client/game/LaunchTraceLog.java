@@ -0,0 +1,85 @@
+package com.faforever.client.game;
+
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Appends the timings of every game launch to a log file in the client's log directory, which is rolled over once it
+ * gets too large, and keeps the launches of the current session for display.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LaunchTraceLog implements InitializingBean {
+
+  private static final String LOG_FILE_NAME = "launch-traces.log";
+  private static final String ROLLED_LOG_FILE_NAME = "launch-traces.1.log";
+  private static final long MAX_LOG_FILE_SIZE = 1024 * 1024;
+  private static final int MAX_RECENT_TRACES = 20;
+
+  private final PreferencesService preferencesService;
+  private final EventBus eventBus;
+
+  private final Deque<LaunchTrace> recentTraces = new ArrayDeque<>();
+
+  @Override
+  public void afterPropertiesSet() {
+    eventBus.register(this);
+  }
+
+  @Subscribe
+  public void onLaunchTraceFinished(LaunchTraceFinishedEvent event) {
+    LaunchTrace launchTrace = event.getLaunchTrace();
+    synchronized (recentTraces) {
+      recentTraces.addFirst(launchTrace);
+      if (recentTraces.size() > MAX_RECENT_TRACES) {
+        recentTraces.removeLast();
+      }
+    }
+    append(launchTrace);
+  }
+
+  /**
+   * @return the launches of the current session, most recent first
+   */
+  public List<LaunchTrace> getRecentTraces() {
+    synchronized (recentTraces) {
+      return new ArrayList<>(recentTraces);
+    }
+  }
+
+  public Path getLogFile() {
+    return preferencesService.getFafLogDirectory().resolve(LOG_FILE_NAME);
+  }
+
+  private synchronized void append(LaunchTrace launchTrace) {
+    Path logFile = getLogFile();
+    try {
+      Files.createDirectories(logFile.getParent());
+      if (Files.exists(logFile) && Files.size(logFile) > MAX_LOG_FILE_SIZE) {
+        Files.move(logFile, logFile.resolveSibling(ROLLED_LOG_FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.writeString(logFile, launchTrace.toLogLine() + System.lineSeparator(), UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      log.warn("Could not write launch trace to '{}'", logFile, e);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.faforever.client.game;
+
+import com.google.common.eventbus.EventBus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Records how long the stages of the current game launch take. A launch is started with {@link #begin(String)} and
+ * ended with {@link #finish(Throwable)}, which posts a {@link LaunchTraceFinishedEvent}. Spans started while no launch
+ * is in progress, e.g. while updating the game for a replay, are not recorded.
+ */
+@Lazy
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LaunchTracer {
+
+  private final EventBus eventBus;
+  private final AtomicReference<LaunchTrace> currentTrace = new AtomicReference<>();
+
+  public void begin(String launchType) {
+    LaunchTrace previousTrace = currentTrace.getAndSet(new LaunchTrace(launchType));
+    if (previousTrace != null) {
+      log.debug("Discarding unfinished launch trace: {}", previousTrace.toLogLine());
+    }
+  }
+
+  public LaunchTrace.Span startSpan(String name) {
+    LaunchTrace trace = currentTrace.get();
+    if (trace == null) {
+      return new LaunchTrace(name).startSpan(name);
+    }
+    return trace.startSpan(name);
+  }
+
+  /**
+   * Records a span from calling the specified stage until the future it returns completes.
+   */
+  public <T> CompletableFuture<T> trace(String name, Supplier<CompletableFuture<T>> stage) {
+    LaunchTrace.Span span = startSpan(name);
+    CompletableFuture<T> future;
+    try {
+      future = stage.get();
+    } catch (RuntimeException e) {
+      span.end();
+      throw e;
+    }
+    return future.whenComplete((result, throwable) -> span.end());
+  }
+
+  /**
+   * Ends the current launch, if any.
+   *
+   * @param failure the reason the launch failed, or {@code null} if the game has been started
+   */
+  public void finish(@Nullable Throwable failure) {
+    LaunchTrace trace = currentTrace.getAndSet(null);
+    if (trace == null) {
+      return;
+    }
+    trace.finish(failure);
+    log.info("Game launch took {} ms: {}", trace.getDurationMillis(), trace.toLogLine());
+    eventBus.post(new LaunchTraceFinishedEvent(trace));
+  }
+}
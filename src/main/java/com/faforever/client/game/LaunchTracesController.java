@@ -0,0 +1,50 @@
+package com.faforever.client.game;
+
+import com.faforever.client.fx.Controller;
+import com.faforever.client.i18n.I18n;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.VBox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Shows the stage timings of the game launches of the current session.
+ */
+@Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+@RequiredArgsConstructor
+public class LaunchTracesController implements Controller<Node> {
+
+  private final LaunchTraceLog launchTraceLog;
+  private final I18n i18n;
+
+  public VBox launchTracesRoot;
+  public Label logFileLabel;
+  public TextArea launchTracesTextArea;
+
+  @Override
+  public void initialize() {
+    logFileLabel.setText(i18n.get("launchTraces.logFile", launchTraceLog.getLogFile()));
+
+    List<LaunchTrace> recentTraces = launchTraceLog.getRecentTraces();
+    if (recentTraces.isEmpty()) {
+      launchTracesTextArea.setText(i18n.get("launchTraces.none"));
+      return;
+    }
+    launchTracesTextArea.setText(recentTraces.stream()
+        .map(LaunchTrace::getSummary)
+        .collect(Collectors.joining(System.lineSeparator() + System.lineSeparator())));
+  }
+
+  @Override
+  public Node getRoot() {
+    return launchTracesRoot;
+  }
+}
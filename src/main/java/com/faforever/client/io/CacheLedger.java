@@ -0,0 +1,145 @@
+package com.faforever.client.io;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Keeps track of the size and last access time of the entries in a cache directory, since the file systems' access
+ * times can't be relied upon. Entries, which may be files or whole directories, are identified by their path relative
+ * to the cache directory.
+ */
+@Slf4j
+public final class CacheLedger {
+
+  private static final Gson GSON = new GsonBuilder().create();
+
+  private final Path file;
+  private final Map<String, Entry> entries = new HashMap<>();
+  private boolean loaded;
+  private boolean dirty;
+
+  public CacheLedger(Path file) {
+    this.file = file;
+  }
+
+  public synchronized void recordAccess(String relativePath, long size, long accessTime) {
+    load();
+    Entry entry = new Entry();
+    entry.path = relativePath;
+    entry.size = size;
+    entry.lastAccess = accessTime;
+    entries.put(relativePath, entry);
+    dirty = true;
+  }
+
+  public synchronized void addIfAbsent(String relativePath, long size, long accessTime) {
+    load();
+    if (!entries.containsKey(relativePath)) {
+      recordAccess(relativePath, size, accessTime);
+    }
+  }
+
+  public synchronized void remove(String relativePath) {
+    load();
+    if (entries.remove(relativePath) != null) {
+      dirty = true;
+    }
+  }
+
+  /**
+   * Removes all entries except the specified ones.
+   */
+  public synchronized void retainAll(Set<String> relativePaths) {
+    load();
+    if (entries.keySet().retainAll(relativePaths)) {
+      dirty = true;
+    }
+  }
+
+  /**
+   * @return the last access time of the file, or {@code null} if it is unknown
+   */
+  @Nullable
+  public synchronized Long getLastAccess(String relativePath) {
+    load();
+    Entry entry = entries.get(relativePath);
+    return entry == null ? null : entry.lastAccess;
+  }
+
+  public synchronized long getTotalSize() {
+    load();
+    return entries.values().stream().mapToLong(entry -> entry.size).sum();
+  }
+
+  /**
+   * @return the paths of all files, least recently accessed first
+   */
+  public synchronized List<String> getLeastRecentlyAccessed() {
+    load();
+    return entries.values().stream()
+        .sorted(Comparator.comparingLong(entry -> entry.lastAccess))
+        .map(entry -> entry.path)
+        .collect(Collectors.toList());
+  }
+
+  public synchronized void save() {
+    if (!dirty) {
+      return;
+    }
+    try {
+      Files.createDirectories(file.getParent());
+      Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile, UTF_8)) {
+        GSON.toJson(new ArrayList<>(entries.values()), writer);
+      }
+      FileUtils.moveAtomically(tempFile, file);
+      dirty = false;
+    } catch (IOException e) {
+      log.warn("Could not save cache ledger to '{}'", file, e);
+    }
+  }
+
+  private void load() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+    if (Files.notExists(file)) {
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+      List<Entry> persistedEntries = GSON.fromJson(reader, new TypeToken<List<Entry>>() {
+      }.getType());
+      if (persistedEntries != null) {
+        persistedEntries.forEach(entry -> entries.put(entry.path, entry));
+      }
+    } catch (IOException | JsonParseException e) {
+      log.warn("Could not read cache ledger from '{}'", file, e);
+    }
+  }
+
+  private static class Entry {
+    private String path;
+    private long size;
+    private long lastAccess;
+  }
+}
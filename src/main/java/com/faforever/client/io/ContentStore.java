@@ -0,0 +1,261 @@
+package com.faforever.client.io;
+
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.commons.io.ByteCountListener;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Content-addressed store for the files of installed maps and mods. Different versions of a map or mod usually share
+ * most of their files, so if enabled, each file is stored once under its SHA-256 hash and map and mod folders are
+ * built from hardlinks to the stored files. Where a hardlink can't be created (e.g. the store is on another volume),
+ * the file is copied instead.
+ *
+ * <p>Each installed folder has a manifest listing the hashes it uses. Stored files that are no longer listed in any
+ * manifest are deleted by {@link #purge()}.</p>
+ */
+@Lazy
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ContentStore {
+
+  private static final String STORE_SUB_FOLDER = "content";
+  private static final String FILES_SUB_FOLDER = "files";
+  private static final String MANIFESTS_SUB_FOLDER = "manifests";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+  private static final long ZIP_BOMB_BYTE_COUNT_THRESHOLD = 100_000_000;
+  private static final int ZIP_BOMB_COMPRESSION_RATIO = 100;
+  /**
+   * Stored files younger than this are never purged, since the folder they've just been extracted to may not have
+   * been registered yet.
+   */
+  private static final Duration PURGE_GRACE_PERIOD = Duration.ofHours(1);
+
+  private final PreferencesService preferencesService;
+  /** Held for writing while purging, so that no stored file is deleted while being linked. */
+  private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
+  private Duration purgeGracePeriod = PURGE_GRACE_PERIOD;
+
+  public boolean isEnabled() {
+    return preferencesService.getPreferences().getVault().getDeduplicateFiles();
+  }
+
+  /**
+   * Extracts the specified zip archive into the target directory. Files which are already in the store are linked
+   * without being written again; only new files are written, into the store, and then linked.
+   *
+   * @return the hashes of the linked files, by name of the top level entry they belong to. Should be passed to {@link
+   * #register(Path, Collection)} once the top level entry has been moved to its final location.
+   */
+  public Map<String, Set<String>> extract(Path archive, Path targetDirectory, ByteCountListener progressListener) throws IOException {
+    Path filesDirectory = getStoreDirectory().resolve(FILES_SUB_FOLDER);
+    Path normalizedTargetDirectory = targetDirectory.toAbsolutePath().normalize();
+    Map<String, Set<String>> hashesByTopLevelEntry = new HashMap<>();
+
+    storeLock.readLock().lock();
+    try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+      List<ZipArchiveEntry> entries = Collections.list(zipFile.getEntries());
+      long totalBytes = entries.stream().mapToLong(ZipArchiveEntry::getSize).filter(size -> size > 0).sum();
+      long compressedBytes = Files.size(archive);
+      long bytesDone = 0;
+      int filesWritten = 0;
+
+      for (ZipArchiveEntry entry : entries) {
+        Path target = normalizedTargetDirectory.resolve(entry.getName()).normalize();
+        if (!target.startsWith(normalizedTargetDirectory) || target.equals(normalizedTargetDirectory)) {
+          throw new IOException("Zip entry '" + entry.getName() + "' points outside of the target directory");
+        }
+        if (entry.isDirectory()) {
+          Files.createDirectories(target);
+          continue;
+        }
+
+        String hash;
+        try (HashingInputStream inputStream = new HashingInputStream(Hashing.sha256(), zipFile.getInputStream(entry))) {
+          bytesDone += ByteStreams.exhaust(inputStream);
+          hash = inputStream.hash().toString();
+        }
+        if (bytesDone > ZIP_BOMB_BYTE_COUNT_THRESHOLD && bytesDone > compressedBytes * ZIP_BOMB_COMPRESSION_RATIO) {
+          throw new IOException("Zip archive '" + archive + "' expands to more than " + bytesDone + " bytes, refusing to extract it");
+        }
+
+        Path storedFile = getStoredFile(filesDirectory, hash);
+        if (Files.notExists(storedFile)) {
+          writeStoredFile(zipFile, entry, storedFile);
+          filesWritten++;
+        }
+
+        Files.createDirectories(target.getParent());
+        if (link(storedFile, target)) {
+          String topLevelEntry = normalizedTargetDirectory.relativize(target).getName(0).toString();
+          hashesByTopLevelEntry.computeIfAbsent(topLevelEntry, name -> new HashSet<>()).add(hash);
+        }
+        progressListener.updateBytesProcessed(bytesDone, totalBytes);
+      }
+      log.debug("Extracted '{}' with {} of {} files written to the content store", archive, filesWritten, entries.size());
+    } finally {
+      storeLock.readLock().unlock();
+    }
+    return hashesByTopLevelEntry;
+  }
+
+  /**
+   * Records that the specified directory uses the specified stored files, replacing any previous record.
+   */
+  public void register(Path directory, Collection<String> hashes) throws IOException {
+    Path manifest = getManifest(directory);
+    Files.createDirectories(manifest.getParent());
+    List<String> lines = new ArrayList<>(hashes.size() + 1);
+    lines.add(directory.toAbsolutePath().normalize().toString());
+    lines.addAll(hashes);
+
+    Path tempFile = manifest.resolveSibling(manifest.getFileName() + TEMP_FILE_SUFFIX);
+    Files.write(tempFile, lines, UTF_8);
+    FileUtils.moveAtomically(tempFile, manifest);
+  }
+
+  /**
+   * Removes the record of the specified directory, if any, e.g. because it has been deleted or replaced by files
+   * which are not in the store. Stored files are only deleted by {@link #purge()}.
+   */
+  public void forget(Path directory) throws IOException {
+    Files.deleteIfExists(getManifest(directory));
+  }
+
+  /**
+   * Deletes all stored files which are not used by any existing directory.
+   */
+  public void purge() throws IOException {
+    storeLock.writeLock().lock();
+    try {
+      purgeUnusedFiles();
+    } finally {
+      storeLock.writeLock().unlock();
+    }
+  }
+
+  private void purgeUnusedFiles() throws IOException {
+    Path manifestsDirectory = getStoreDirectory().resolve(MANIFESTS_SUB_FOLDER);
+    if (Files.notExists(manifestsDirectory)) {
+      return;
+    }
+
+    Set<String> usedHashes = new HashSet<>();
+    List<Path> manifests;
+    try (Stream<Path> stream = Files.list(manifestsDirectory)) {
+      manifests = stream.collect(Collectors.toList());
+    }
+    for (Path manifest : manifests) {
+      if (manifest.getFileName().toString().endsWith(TEMP_FILE_SUFFIX)) {
+        continue;
+      }
+      List<String> lines = Files.readAllLines(manifest, UTF_8);
+      if (lines.isEmpty() || Files.notExists(Paths.get(lines.get(0)))) {
+        log.debug("Removing manifest '{}' of deleted directory", manifest);
+        Files.delete(manifest);
+        continue;
+      }
+      usedHashes.addAll(lines.subList(1, lines.size()));
+    }
+
+    Path filesDirectory = getStoreDirectory().resolve(FILES_SUB_FOLDER);
+    if (Files.notExists(filesDirectory)) {
+      return;
+    }
+    Instant purgeBefore = Instant.now().minus(purgeGracePeriod);
+    List<Path> unusedFiles;
+    try (Stream<Path> stream = Files.walk(filesDirectory)) {
+      unusedFiles = stream
+          .filter(Files::isRegularFile)
+          .filter(file -> !usedHashes.contains(file.getFileName().toString()))
+          .collect(Collectors.toList());
+    }
+
+    int deletedFiles = 0;
+    for (Path file : unusedFiles) {
+      if (Files.getLastModifiedTime(file).toInstant().isBefore(purgeBefore)) {
+        Files.deleteIfExists(file);
+        deletedFiles++;
+      }
+    }
+    log.debug("Purged {} unused files from the content store", deletedFiles);
+  }
+
+  @VisibleForTesting
+  void setPurgeGracePeriod(Duration purgeGracePeriod) {
+    this.purgeGracePeriod = purgeGracePeriod;
+  }
+
+  private void writeStoredFile(ZipFile zipFile, ZipArchiveEntry entry, Path storedFile) throws IOException {
+    Files.createDirectories(storedFile.getParent());
+    Path tempFile = Files.createTempFile(storedFile.getParent(), storedFile.getFileName().toString(), TEMP_FILE_SUFFIX);
+    try {
+      try (InputStream inputStream = zipFile.getInputStream(entry)) {
+        Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+      FileUtils.moveAtomically(tempFile, storedFile);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * @return {@code true} if a hardlink was created, {@code false} if the file had to be copied
+   */
+  private boolean link(Path storedFile, Path target) throws IOException {
+    Files.deleteIfExists(target);
+    try {
+      Files.createLink(target, storedFile);
+      return true;
+    } catch (IOException | UnsupportedOperationException e) {
+      log.debug("Could not link '{}' to '{}', copying it instead", target, storedFile, e);
+      Files.copy(storedFile, target);
+      return false;
+    }
+  }
+
+  private Path getStoredFile(Path filesDirectory, String hash) {
+    return filesDirectory.resolve(hash.substring(0, 2)).resolve(hash);
+  }
+
+  private Path getManifest(Path directory) {
+    String key = Hashing.sha256().hashString(directory.toAbsolutePath().normalize().toString(), UTF_8).toString();
+    return getStoreDirectory().resolve(MANIFESTS_SUB_FOLDER).resolve(key);
+  }
+
+  private Path getStoreDirectory() {
+    return preferencesService.getFafDataDirectory().resolve(STORE_SUB_FOLDER);
+  }
+}
@@ -0,0 +1,275 @@
+package com.faforever.client.io;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches directories like the custom maps and mods directories using a single thread. Events are debounced per path
+ * and only reported once the path's size and modification time did not change for {@link #QUIET_PERIOD}, so that
+ * folders which are still being extracted are not read prematurely. All paths that settled at the same time are
+ * handed to the listener as one batch. Hidden entries, like the {@link FileUtils#STAGING_DIRECTORY_NAME}, are ignored.
+ */
+@Lazy
+@Service
+@Slf4j
+public class DirectoryWatcherService implements DisposableBean {
+
+  @VisibleForTesting
+  static final Duration QUIET_PERIOD = Duration.ofMillis(500);
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(250);
+
+  private final ExecutorService executorService;
+  private final Map<Path, Registration> registrationsByDirectory = new ConcurrentHashMap<>();
+  /** Only accessed by the watcher thread. */
+  private final Map<Path, PendingChange> pendingChanges = new HashMap<>();
+  private WatchService watchService;
+  private Thread watcherThread;
+
+  public DirectoryWatcherService(ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+
+  /**
+   * Starts watching the direct children of the specified directory. Any previous registration for the same directory
+   * is replaced.
+   */
+  public synchronized void watch(Path directory, DirectoryChangeListener listener) throws IOException {
+    ensureStarted();
+    unwatch(directory);
+    WatchKey watchKey = directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+    registrationsByDirectory.put(directory, new Registration(directory, watchKey, listener));
+    log.debug("Watching directory '{}'", directory);
+  }
+
+  public synchronized void unwatch(Path directory) {
+    Registration registration = registrationsByDirectory.remove(directory);
+    if (registration != null) {
+      registration.getWatchKey().cancel();
+      log.debug("Stopped watching directory '{}'", directory);
+    }
+  }
+
+  private void ensureStarted() throws IOException {
+    if (watcherThread != null) {
+      return;
+    }
+    watchService = FileSystems.getDefault().newWatchService();
+    watcherThread = new Thread(this::runWatchLoop, "directory-watcher");
+    watcherThread.setDaemon(true);
+    watcherThread.start();
+  }
+
+  private void runWatchLoop() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        WatchKey key = watchService.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        long now = System.nanoTime();
+        while (key != null) {
+          collectEvents(key, now);
+          key = watchService.poll();
+        }
+        flushSettledChanges(now);
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      log.debug("Directory watcher terminated ({})", e.getMessage());
+    }
+  }
+
+  private void collectEvents(WatchKey key, long now) {
+    Path directory = (Path) key.watchable();
+    Registration registration = registrationsByDirectory.get(directory);
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (registration == null || event.kind() == OVERFLOW) {
+        continue;
+      }
+      Path path = directory.resolve((Path) event.context());
+      if (FileUtils.isHiddenEntry(path)) {
+        continue;
+      }
+      pendingChanges.computeIfAbsent(path, p -> new PendingChange(registration)).touch(now);
+    }
+    key.reset();
+  }
+
+  private void flushSettledChanges(long now) {
+    Map<Registration, List<Path>> changedByRegistration = new HashMap<>();
+    Map<Registration, List<Path>> removedByRegistration = new HashMap<>();
+
+    Iterator<Map.Entry<Path, PendingChange>> iterator = pendingChanges.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Path, PendingChange> entry = iterator.next();
+      Path path = entry.getKey();
+      PendingChange pendingChange = entry.getValue();
+      if (now - pendingChange.lastEventTime < QUIET_PERIOD.toNanos()) {
+        continue;
+      }
+
+      Signature signature = Signature.of(path);
+      if (signature == null || !signature.equals(pendingChange.lastSignature)) {
+        // Still being written, check again after the next poll
+        pendingChange.lastSignature = signature;
+        continue;
+      }
+
+      iterator.remove();
+      Registration registration = pendingChange.registration;
+      if (registrationsByDirectory.get(registration.getDirectory()) != registration) {
+        continue;
+      }
+      if (signature.isMissing()) {
+        removedByRegistration.computeIfAbsent(registration, r -> new ArrayList<>()).add(path);
+      } else {
+        changedByRegistration.computeIfAbsent(registration, r -> new ArrayList<>()).add(path);
+      }
+    }
+
+    List<Registration> registrations = new ArrayList<>(changedByRegistration.keySet());
+    removedByRegistration.keySet().stream()
+        .filter(registration -> !changedByRegistration.containsKey(registration))
+        .forEach(registrations::add);
+
+    for (Registration registration : registrations) {
+      List<Path> changed = changedByRegistration.getOrDefault(registration, List.of());
+      List<Path> removed = removedByRegistration.getOrDefault(registration, List.of());
+      executorService.execute(() -> {
+        try {
+          registration.getListener().onDirectoryChanged(changed, removed);
+        } catch (Exception e) {
+          log.warn("Directory change listener for '{}' failed", registration.getDirectory(), e);
+        }
+      });
+    }
+  }
+
+  @Override
+  public synchronized void destroy() throws IOException {
+    if (watcherThread != null) {
+      watcherThread.interrupt();
+      watcherThread = null;
+    }
+    if (watchService != null) {
+      watchService.close();
+      watchService = null;
+    }
+    registrationsByDirectory.clear();
+  }
+
+  /**
+   * Receives the direct children of a watched directory that have settled since the last call. Called on a background
+   * thread.
+   */
+  @FunctionalInterface
+  public interface DirectoryChangeListener {
+
+    /**
+     * @param changedPaths paths that have been created or modified and are complete
+     * @param removedPaths paths that no longer exist
+     */
+    void onDirectoryChanged(List<Path> changedPaths, List<Path> removedPaths);
+  }
+
+  @Value
+  private static class Registration {
+    Path directory;
+    WatchKey watchKey;
+    DirectoryChangeListener listener;
+  }
+
+  private static class PendingChange {
+    private final Registration registration;
+    private long lastEventTime;
+    private Signature lastSignature;
+
+    private PendingChange(Registration registration) {
+      this.registration = registration;
+    }
+
+    private void touch(long now) {
+      lastEventTime = now;
+      lastSignature = null;
+    }
+  }
+
+  /**
+   * Aggregated size and modification time of a file or folder tree, used to detect whether it is still being written.
+   */
+  @Value
+  @VisibleForTesting
+  static class Signature {
+    private static final Signature MISSING = new Signature(-1, -1, -1);
+
+    long fileCount;
+    long totalSize;
+    long lastModified;
+
+    /**
+     * Returns the signature of the specified path or {@code null} if it could not be determined because files are being
+     * moved around.
+     */
+    static Signature of(Path path) {
+      if (Files.notExists(path)) {
+        return MISSING;
+      }
+      if (!Files.isDirectory(path)) {
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+          return new Signature(1, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+          return null;
+        }
+      }
+
+      long[] aggregate = new long[3];
+      try (Stream<Path> files = Files.walk(path)) {
+        files.forEach(file -> {
+          try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            aggregate[0]++;
+            aggregate[1] += attributes.size();
+            aggregate[2] = Math.max(aggregate[2], attributes.lastModifiedTime().toMillis());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (IOException | UncheckedIOException e) {
+        // Files are being moved around, check again later
+        return null;
+      }
+      return new Signature(aggregate[0], aggregate[1], aggregate[2]);
+    }
+
+    boolean isMissing() {
+      return equals(MISSING);
+    }
+  }
+}
@@ -1,49 +1,578 @@
 package com.faforever.client.io;
 
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.ResourceLocks;
-import com.faforever.commons.io.ByteCopier;
 import com.faforever.commons.io.ByteCountListener;
+import com.faforever.commons.io.Unzipper;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.ArchiveException;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Downloads files into partial files which survive connection drops and are resumed using HTTP range requests, both
+ * when retrying within the same call and when the same file is requested again later. The {@code ETag} or {@code
+ * Last-Modified} header of the response a partial file was started with is kept next to it and sent as {@code
+ * If-Range}, so a partial file is never resumed with the bytes of a file that has changed on the server since. A
+ * target file is only replaced once the downloaded size and, if known, its MD5 hash have been verified. Extracted archives go through the {@link
+ * ContentStore} if it's enabled. Archives can be downloaded with a bandwidth limit, which is lifted as soon as the same
+ * file is requested without one.
+ */
 @Service
 @Lazy
 @Slf4j
+@RequiredArgsConstructor
 public class DownloadService {
 
+  private static final String PARTIAL_FILE_SUFFIX = ".part";
+  private static final String VALIDATOR_FILE_SUFFIX = ".validator";
+  private static final String DOWNLOADS_SUB_FOLDER = "downloads";
+  private static final int MAX_ATTEMPTS = 3;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+  private static final Duration READ_TIMEOUT = Duration.ofSeconds(30);
+  private static final Pattern CONTENT_RANGE_TOTAL_PATTERN = Pattern.compile("bytes \\d+-\\d+/(\\d+)");
+
+  private final PreferencesService preferencesService;
+  private final ClientProperties clientProperties;
+  private final ExecutorService executorService;
+  private final ContentStore contentStore;
+  /** Prevents two concurrent downloads of the same file from writing into the same partial file. */
+  private final Striped<Lock> targetFileLocks = Striped.lock(64);
+  /** The bandwidth limits of the limited downloads in progress, by the file they download to. */
+  private final Map<Path, BandwidthThrottle> throttlesByTarget = new ConcurrentHashMap<>();
+
   public void downloadFile(URL url, Path targetFile, ByteCountListener progressListener) throws IOException {
-    Path tempFile = Files.createTempFile(targetFile.getParent(), "download", null);
+    downloadFile(url, targetFile, progressListener, null);
+  }
 
-    HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+  /**
+   * Downloads the specified URL to the target file.
+   *
+   * @param expectedMd5 the expected MD5 hash of the file, if known
+   * @throws FileNotFoundException if the server doesn't have the file, in which case the download isn't retried
+   * @throws IOException if the download failed after several attempts or if the downloaded file could not be verified
+   */
+  public void downloadFile(URL url, Path targetFile, ByteCountListener progressListener, @Nullable String expectedMd5) throws IOException {
+    liftThrottle(targetFile);
+    download(url, targetFile, progressListener, expectedMd5, null);
+  }
+
+  private void download(URL url, Path targetFile, ByteCountListener progressListener, @Nullable String expectedMd5, @Nullable BandwidthThrottle throttle) throws IOException {
+    Files.createDirectories(targetFile.getParent());
+    Path partialFile = targetFile.resolveSibling(targetFile.getFileName() + PARTIAL_FILE_SUFFIX);
 
+    Lock targetFileLock = targetFileLocks.get(targetFile);
+    targetFileLock.lock();
     ResourceLocks.acquireDownloadLock();
-    try (InputStream inputStream = url.openStream();
-         OutputStream outputStream = Files.newOutputStream(tempFile)) {
+    try {
+      long totalBytes = fetchWithRetries(url, partialFile, progressListener, throttle);
+      verify(partialFile, totalBytes, expectedMd5);
+      FileUtils.moveAtomically(partialFile, targetFile);
+      Files.deleteIfExists(getValidatorFile(partialFile));
+    } finally {
+      ResourceLocks.freeDownloadLock();
+      targetFileLock.unlock();
+    }
+  }
+
+  /**
+   * Downloads the zip archive at the specified URL and extracts it into a staging directory within the target
+   * directory. Once extraction succeeded, each top level entry is moved into the target directory atomically,
+   * replacing any previous version. This way, a failed download or extraction never leaves a half-extracted folder
+   * behind.
+   */
+  public void downloadAndExtract(URL url, Path targetDirectory, ByteCountListener progressListener) throws IOException, ArchiveException {
+    downloadAndExtract(url, targetDirectory, progressListener, progressListener, 0);
+  }
 
-      ByteCopier.from(inputStream)
-          .to(outputStream)
-          .totalBytes(urlConnection.getContentLength())
-          .listener(progressListener)
-          .copy();
+  /**
+   * Like {@link #downloadAndExtract(URL, Path, ByteCountListener)} but reports download and extraction progress to
+   * separate listeners. The extraction listener is called while the disk lock is held and must not block.
+   *
+   * @param maxBytesPerSecond if positive, the archive is downloaded in one piece at no more than this bandwidth, until
+   * the same archive is requested by a download without a limit. The download lock is released while the download waits
+   * for bandwidth, so that a slow download doesn't hold up uploads.
+   */
+  public void downloadAndExtract(URL url, Path targetDirectory, ByteCountListener downloadListener, ByteCountListener extractionListener, long maxBytesPerSecond) throws IOException, ArchiveException {
+    String archiveName = Hashing.sha256().hashString(url.toString(), UTF_8) + ".zip";
+    Path archive = preferencesService.getCacheDirectory().resolve(DOWNLOADS_SUB_FOLDER).resolve(archiveName);
 
-      Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+    BandwidthThrottle throttle = null;
+    if (maxBytesPerSecond > 0) {
+      throttle = new BandwidthThrottle(maxBytesPerSecond);
+      throttlesByTarget.put(archive, throttle);
+    } else {
+      liftThrottle(archive);
+    }
+
+    Lock archiveLock = targetFileLocks.get(archive);
+    archiveLock.lock();
+    try {
+      download(url, archive, downloadListener, null, throttle);
+      try {
+        extractAtomically(archive, targetDirectory, extractionListener);
+      } finally {
+        Files.deleteIfExists(archive);
+      }
     } finally {
-      ResourceLocks.freeDownloadLock();
+      archiveLock.unlock();
+      if (throttle != null) {
+        throttlesByTarget.remove(archive, throttle);
+      }
+    }
+  }
+
+  /**
+   * Lets a limited download of the file continue at full bandwidth, since it's now being waited for.
+   */
+  private void liftThrottle(Path targetFile) {
+    BandwidthThrottle throttle = throttlesByTarget.get(targetFile);
+    if (throttle != null) {
+      throttle.lift();
+    }
+  }
+
+  private void extractAtomically(Path archive, Path targetDirectory, ByteCountListener progressListener) throws IOException, ArchiveException {
+    Path stagingDirectory = Files.createDirectories(targetDirectory.resolve(FileUtils.STAGING_DIRECTORY_NAME));
+    Path extractionDirectory = Files.createTempDirectory(stagingDirectory, "extract");
+    boolean deduplicate = contentStore.isEnabled();
+
+    try {
+      ResourceLocks.acquireDiskLock();
       try {
-        Files.deleteIfExists(tempFile);
+        Map<String, Set<String>> contentHashes = Map.of();
+        if (deduplicate) {
+          contentHashes = contentStore.extract(archive, extractionDirectory, progressListener);
+        } else {
+          try (InputStream inputStream = Files.newInputStream(archive)) {
+            Unzipper.from(inputStream)
+                .to(extractionDirectory)
+                .zipBombByteCountThreshold(100_000_000)
+                .listener(progressListener)
+                .totalBytes(Files.size(archive))
+                .unzip();
+          }
+        }
+
+        List<Path> extractedEntries;
+        try (Stream<Path> entries = Files.list(extractionDirectory)) {
+          extractedEntries = entries.collect(Collectors.toList());
+        }
+        for (Path extractedEntry : extractedEntries) {
+          String name = extractedEntry.getFileName().toString();
+          Path target = targetDirectory.resolve(name);
+          log.debug("Moving extracted '{}' into place at '{}'", extractedEntry, target);
+          FileUtils.replaceAtomically(extractedEntry, target, stagingDirectory);
+          if (deduplicate) {
+            contentStore.register(target, contentHashes.getOrDefault(name, Set.of()));
+          } else {
+            contentStore.forget(target);
+          }
+        }
+      } finally {
+        ResourceLocks.freeDiskLock();
+      }
+    } finally {
+      if (Files.exists(extractionDirectory)) {
+        FileUtils.deleteRecursively(extractionDirectory);
+      }
+    }
+  }
+
+  /**
+   * @return the total size of the file in bytes or {@code -1} if unknown
+   */
+  private long fetchWithRetries(URL url, Path partialFile, ByteCountListener progressListener, @Nullable BandwidthThrottle throttle) throws IOException {
+    IOException lastException = null;
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+      try {
+        return fetch(url, partialFile, progressListener, throttle);
+      } catch (FileNotFoundException e) {
+        throw e;
       } catch (IOException e) {
-        log.warn("Could not delete temporary file: " + tempFile.toAbsolutePath(), e);
+        lastException = e;
+        long bytesSoFar = Files.exists(partialFile) ? Files.size(partialFile) : 0;
+        log.warn("Download of '{}' failed after {} bytes (attempt {}/{})", url, bytesSoFar, attempt, MAX_ATTEMPTS, e);
+      }
+    }
+    throw lastException;
+  }
+
+  private long fetch(URL url, Path partialFile, ByteCountListener progressListener, @Nullable BandwidthThrottle throttle) throws IOException {
+    ClientProperties.Download downloadProperties = clientProperties.getDownload();
+    if (throttle == null && downloadProperties.getParallelSegments() > 1 && isHttp(url)) {
+      RangeableFile rangeableFile = headRangeableFile(url);
+      if (rangeableFile != null && rangeableFile.size >= downloadProperties.getParallelSegmentsThreshold()) {
+        fetchSegmented(url, partialFile, rangeableFile, downloadProperties.getParallelSegments(), progressListener);
+        return rangeableFile.size;
+      }
+    }
+    return fetchRange(url, partialFile, 0, -1, progressListener, throttle);
+  }
+
+  /**
+   * Fetches the file as several byte ranges in parallel, each into its own resumable segment file, and concatenates
+   * them into the partial file.
+   */
+  private void fetchSegmented(URL url, Path partialFile, RangeableFile rangeableFile, int segmentCount, ByteCountListener progressListener) throws IOException {
+    long totalBytes = rangeableFile.size;
+    long segmentSize = (totalBytes + segmentCount - 1) / segmentCount;
+    AtomicLong bytesDone = new AtomicLong();
+    List<Path> segmentFiles = new ArrayList<>();
+    List<CompletableFuture<Long>> segmentFutures = new ArrayList<>();
+
+    log.debug("Downloading '{}' ({} bytes) in {} segments", url, totalBytes, segmentCount);
+    for (int segment = 0; segment < segmentCount; segment++) {
+      long start = segment * segmentSize;
+      long end = Math.min(totalBytes, start + segmentSize) - 1;
+      Path segmentFile = partialFile.resolveSibling(partialFile.getFileName() + "." + segment);
+      segmentFiles.add(segmentFile);
+      if (rangeableFile.validator == null || !rangeableFile.validator.equals(readValidator(segmentFile))) {
+        // Left over from a version of the file that has changed since, or that can't be told apart from this one
+        deletePartialFile(segmentFile);
+      }
+      long[] segmentBytesReported = new long[1];
+      ByteCountListener segmentListener = (segmentBytes, segmentTotal) -> {
+        long delta = segmentBytes - segmentBytesReported[0];
+        segmentBytesReported[0] = segmentBytes;
+        progressListener.updateBytesProcessed(bytesDone.addAndGet(delta), totalBytes);
+      };
+      segmentFutures.add(CompletableFuture.supplyAsync(() -> {
+        try {
+          return fetchRange(url, segmentFile, start, end, segmentListener, null);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, executorService));
+    }
+
+    try {
+      CompletableFuture.allOf(segmentFutures.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e.getCause()).getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        // E.g. a cancellation thrown by the progress listener
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException("Segmented download of " + url + " failed", e.getCause());
+    }
+
+    try (FileChannel target = FileChannel.open(partialFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (Path segmentFile : segmentFiles) {
+        try (FileChannel source = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+          long size = source.size();
+          long position = 0;
+          while (position < size) {
+            position += source.transferTo(position, size - position, target);
+          }
+        }
+      }
+    }
+    for (Path segmentFile : segmentFiles) {
+      deletePartialFile(segmentFile);
+    }
+  }
+
+  /**
+   * Fetches the byte range {@code [start, end]} of the specified URL into the specified file, appending to whatever
+   * the file already contains if it has been started with the same version of the remote file.
+   *
+   * @param end the last byte to fetch (inclusive) or {@code -1} to fetch until the end
+   * @param progressListener receives the number of bytes in the file so far
+   * @return the total size of the remote file in bytes or {@code -1} if unknown
+   */
+  private long fetchRange(URL url, Path file, long start, long end, ByteCountListener progressListener, @Nullable BandwidthThrottle throttle) throws IOException {
+    long existingBytes = Files.exists(file) ? Files.size(file) : 0;
+    String validator = readValidator(file);
+    if (existingBytes > 0 && validator == null) {
+      // Without a validator, there is no telling whether the existing bytes belong to the current version
+      existingBytes = 0;
+    }
+    boolean isSegment = end >= 0;
+    if (isSegment) {
+      long segmentLength = end - start + 1;
+      if (existingBytes == segmentLength) {
+        progressListener.updateBytesProcessed(existingBytes, segmentLength);
+        return -1;
+      } else if (existingBytes > segmentLength) {
+        existingBytes = 0;
+      }
+    }
+
+    URLConnection connection = url.openConnection();
+    connection.setConnectTimeout((int) CONNECT_TIMEOUT.toMillis());
+    connection.setReadTimeout((int) READ_TIMEOUT.toMillis());
+    long totalBytes;
+
+    if (connection instanceof HttpURLConnection) {
+      HttpURLConnection httpConnection = (HttpURLConnection) connection;
+      long from = start + existingBytes;
+      if (from > 0 || isSegment) {
+        httpConnection.setRequestProperty("Range", "bytes=" + from + "-" + (isSegment ? String.valueOf(end) : ""));
+      }
+      if (existingBytes > 0) {
+        httpConnection.setRequestProperty("If-Range", validator);
       }
+
+      int responseCode = httpConnection.getResponseCode();
+      if (responseCode == 416 && !isSegment && existingBytes > 0) {
+        // The partial file is already complete; the caller verifies its size and hash
+        httpConnection.disconnect();
+        return existingBytes;
+      } else if (responseCode == HttpURLConnection.HTTP_OK) {
+        if (isSegment) {
+          // Either the server ignored the range or the file has changed; the next attempt checks the latter
+          httpConnection.disconnect();
+          throw new IOException("Server answered range request for " + url + " with the whole file");
+        }
+        if (existingBytes > 0) {
+          log.debug("'{}' has changed since its download was started, starting over", url);
+        }
+        existingBytes = 0;
+        totalBytes = httpConnection.getContentLengthLong();
+      } else if (responseCode == HttpURLConnection.HTTP_PARTIAL) {
+        totalBytes = parseContentRangeTotal(httpConnection.getHeaderField("Content-Range"));
+        log.debug("Resuming download of '{}' at byte {}", url, from);
+      } else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+        httpConnection.disconnect();
+        throw new FileNotFoundException(url.toString());
+      } else {
+        httpConnection.disconnect();
+        throw new IOException("Unexpected HTTP response " + responseCode + " for " + url);
+      }
+      if (existingBytes == 0) {
+        // Written before any bytes, so that whatever ends up in the file can be resumed
+        writeValidator(file, getValidator(httpConnection));
+      }
+    } else {
+      existingBytes = 0;
+      totalBytes = connection.getContentLengthLong();
+    }
+
+    StandardOpenOption writeMode = existingBytes > 0 ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+    long expectedBytes = isSegment ? end - start + 1 : totalBytes;
+    long written = existingBytes;
+    try (InputStream inputStream = connection.getInputStream();
+         OutputStream outputStream = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, writeMode)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      progressListener.updateBytesProcessed(written, expectedBytes);
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, read);
+        written += read;
+        progressListener.updateBytesProcessed(written, expectedBytes);
+        if (throttle != null) {
+          throttle.pass(read);
+        }
+      }
+    }
+    if (expectedBytes >= 0 && written < expectedBytes) {
+      // Keep what we have so that the next attempt resumes from here
+      throw new IOException("Download of " + url + " ended after " + written + " of " + expectedBytes + " bytes");
+    }
+    return totalBytes;
+  }
+
+  /**
+   * @return the size and validator of the remote file, or {@code null} if it can't be fetched in ranges
+   */
+  @Nullable
+  private RangeableFile headRangeableFile(URL url) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try {
+      connection.setRequestMethod("HEAD");
+      connection.setConnectTimeout((int) CONNECT_TIMEOUT.toMillis());
+      if (connection.getResponseCode() != HttpURLConnection.HTTP_OK
+          || !"bytes".equalsIgnoreCase(connection.getHeaderField("Accept-Ranges"))) {
+        return null;
+      }
+      return new RangeableFile(connection.getContentLengthLong(), getValidator(connection));
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  /**
+   * Returns the strong {@code ETag} of the response or else its {@code Last-Modified} date, which are the values
+   * {@code If-Range} accepts.
+   */
+  @Nullable
+  private static String getValidator(HttpURLConnection connection) {
+    String eTag = connection.getHeaderField("ETag");
+    if (eTag != null && !eTag.startsWith("W/")) {
+      return eTag;
+    }
+    return connection.getHeaderField("Last-Modified");
+  }
+
+  @Nullable
+  private static String readValidator(Path file) throws IOException {
+    Path validatorFile = getValidatorFile(file);
+    if (!Files.exists(validatorFile)) {
+      return null;
+    }
+    String validator = Files.readString(validatorFile, UTF_8).strip();
+    return validator.isEmpty() ? null : validator;
+  }
+
+  private static void writeValidator(Path file, @Nullable String validator) throws IOException {
+    Path validatorFile = getValidatorFile(file);
+    if (validator == null) {
+      Files.deleteIfExists(validatorFile);
+    } else {
+      Files.writeString(validatorFile, validator, UTF_8);
+    }
+  }
+
+  private static Path getValidatorFile(Path file) {
+    return file.resolveSibling(file.getFileName() + VALIDATOR_FILE_SUFFIX);
+  }
+
+  private static void deletePartialFile(Path file) throws IOException {
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(getValidatorFile(file));
+  }
+
+  private void verify(Path partialFile, long expectedSize, @Nullable String expectedMd5) throws IOException {
+    long actualSize = Files.size(partialFile);
+    if (expectedSize >= 0 && actualSize != expectedSize) {
+      deletePartialFile(partialFile);
+      throw new IOException("Downloaded file '" + partialFile + "' has " + actualSize + " bytes but expected " + expectedSize);
+    }
+    if (expectedMd5 != null) {
+      String actualMd5 = com.google.common.io.Files.asByteSource(partialFile.toFile()).hash(Hashing.md5()).toString();
+      if (!expectedMd5.equalsIgnoreCase(actualMd5)) {
+        deletePartialFile(partialFile);
+        throw new IOException("Downloaded file '" + partialFile + "' has MD5 " + actualMd5 + " but expected " + expectedMd5);
+      }
+    }
+  }
+
+  private static long parseContentRangeTotal(@Nullable String contentRange) {
+    if (contentRange == null) {
+      return -1;
+    }
+    Matcher matcher = CONTENT_RANGE_TOTAL_PATTERN.matcher(contentRange);
+    return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+  }
+
+  private static boolean isHttp(URL url) {
+    return "http".equalsIgnoreCase(url.getProtocol()) || "https".equalsIgnoreCase(url.getProtocol());
+  }
+
+  private static class RangeableFile {
+    private final long size;
+    @Nullable
+    private final String validator;
+
+    private RangeableFile(long size, @Nullable String validator) {
+      this.size = size;
+      this.validator = validator;
+    }
+  }
+
+  /**
+   * A token bucket which holds up to a second worth of bytes. While a download waits for bandwidth, it doesn't hold the
+   * download lock.
+   */
+  private static class BandwidthThrottle {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long bytesPerSecond;
+    private double availableBytes;
+    private long lastRefillNanos = System.nanoTime();
+    private boolean lifted;
+
+    private BandwidthThrottle(long bytesPerSecond) {
+      this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Takes the specified number of bytes from the bucket and waits until the bucket is no longer in debt. Must be
+     * called while holding the download lock.
+     *
+     * @throws CancellationException if the thread has been interrupted while waiting
+     */
+    private void pass(int bytes) {
+      long waitNanos = take(bytes);
+      if (waitNanos <= 0) {
+        return;
+      }
+      ResourceLocks.freeDownloadLock();
+      try {
+        awaitBandwidth(waitNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Interrupted while waiting for bandwidth");
+      } finally {
+        ResourceLocks.acquireDownloadLock();
+      }
+    }
+
+    /**
+     * @return how long to wait until the bucket is no longer in debt
+     */
+    private synchronized long take(int bytes) {
+      if (lifted) {
+        return 0;
+      }
+      long now = System.nanoTime();
+      availableBytes = Math.min(bytesPerSecond, availableBytes + (now - lastRefillNanos) * (double) bytesPerSecond / NANOS_PER_SECOND);
+      lastRefillNanos = now;
+      availableBytes -= bytes;
+      return availableBytes >= 0 ? 0 : (long) (-availableBytes * NANOS_PER_SECOND / bytesPerSecond);
+    }
+
+    private synchronized void awaitBandwidth(long nanos) throws InterruptedException {
+      long deadline = System.nanoTime() + nanos;
+      long remainingNanos;
+      while (!lifted && (remainingNanos = deadline - System.nanoTime()) > 0) {
+        TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+      }
+    }
+
+    private synchronized void lift() {
+      lifted = true;
+      notifyAll();
     }
   }
 }
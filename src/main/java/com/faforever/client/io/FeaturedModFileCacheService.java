@@ -1,9 +1,11 @@
 package com.faforever.client.io;
 
+import com.faforever.client.preferences.Preferences;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.ResourceLocks;
 import com.faforever.client.util.UpdaterUtil;
 import com.faforever.commons.api.dto.FeaturedModFile;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.hash.Hashing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,14 +13,31 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.nio.file.attribute.FileTime;
 import java.text.MessageFormat;
-import java.time.OffsetDateTime;
-import java.time.ZoneId;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import static com.google.common.io.Files.hash;
@@ -28,14 +47,101 @@ import static com.google.common.io.Files.hash;
 @Slf4j
 @RequiredArgsConstructor
 public class FeaturedModFileCacheService implements InitializingBean {
+  private static final String HASH_INDEX_FILE_NAME = "featured-mod-hashes.json";
+  private static final String LEDGER_FILE_NAME = "featured-mod-cache.json";
+  private static final Duration EVICTION_STARTUP_DELAY = Duration.ofMinutes(1);
+  private static final long BYTES_PER_GIGABYTE = 1024L * 1024 * 1024;
+  /** How long files staged for the next update are kept if the game data cache is deactivated. */
+  private static final Duration STAGED_FILE_RETENTION = Duration.ofDays(1);
+  /**
+   * Partial downloads, including their segments and validators, and patches being applied. They are still being written
+   * to, so they are neither evicted nor counted against the size budget.
+   */
+  private static final Pattern TEMPORARY_FILE_PATTERN = Pattern.compile(".*\\.(part|validator|bsdiff|patched)(\\.\\d+)?");
+
   private final PreferencesService preferencesService;
+  private final ExecutorService executorService;
+
+  private final AtomicBoolean evictionScheduled = new AtomicBoolean();
+
+  private FileHashIndex hashIndex;
+  private CacheLedger ledger;
 
   public boolean isCached(FeaturedModFile featuredModFile) throws IOException {
-    return Files.exists(getCachedFilePath(featuredModFile));
+    Path cachedFilePath = getCachedFilePath(featuredModFile);
+    if (!Files.exists(cachedFilePath)) {
+      return false;
+    }
+    getLedger().recordAccess(toLedgerPath(cachedFilePath), Files.size(cachedFilePath), System.currentTimeMillis());
+    return true;
   }
 
+  /**
+   * Returns the MD5 hash of the specified file. The file is only read if it changed since its hash was last computed.
+   */
   public String readHashFromFile(Path filePath) throws IOException {
-    return hash(filePath.toFile(), Hashing.md5()).toString();
+    String hash = readIndexedHash(filePath);
+    getHashIndex().save();
+    return hash;
+  }
+
+  /**
+   * Returns the MD5 hashes of those of the specified files that exist. Files that changed since their hash was last
+   * computed are hashed in parallel.
+   */
+  public Map<Path, String> readHashesFromFiles(Collection<Path> filePaths) throws IOException {
+    Queue<Path> remainingPaths = new ConcurrentLinkedQueue<>(filePaths);
+    Map<Path, String> hashes = new ConcurrentHashMap<>();
+
+    int parallelism = Math.min(filePaths.size(), Runtime.getRuntime().availableProcessors());
+    List<CompletableFuture<Void>> workers = new ArrayList<>(parallelism);
+    for (int i = 0; i < parallelism; i++) {
+      workers.add(CompletableFuture.runAsync(() -> {
+        Path filePath;
+        while ((filePath = remainingPaths.poll()) != null) {
+          try {
+            hashes.put(filePath, readIndexedHash(filePath));
+          } catch (NoSuchFileException e) {
+            log.trace("Featured mod file does not exist: '{}'", filePath);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+      }, executorService));
+    }
+
+    try {
+      CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while hashing featured mod files", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e.getCause()).getCause();
+      }
+      throw new IOException("Could not hash featured mod files", e.getCause());
+    } finally {
+      getHashIndex().save();
+    }
+    return hashes;
+  }
+
+  private String readIndexedHash(Path filePath) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+    String hash = getHashIndex().get(filePath, attributes);
+    if (hash != null) {
+      return hash;
+    }
+    hash = hash(filePath.toFile(), Hashing.md5()).toString();
+    getHashIndex().put(filePath, attributes, hash);
+    return hash;
+  }
+
+  private synchronized FileHashIndex getHashIndex() {
+    if (hashIndex == null) {
+      hashIndex = new FileHashIndex(preferencesService.getCacheDirectory().resolve(HASH_INDEX_FILE_NAME));
+    }
+    return hashIndex;
   }
 
   private Path getCachedFilePath(String hash, String group) {
@@ -61,7 +167,12 @@ public class FeaturedModFileCacheService implements InitializingBean {
         //We want to keep the old file for now in case it is needed again for example for old replays
         moveFeaturedModFileToCache(targetPath);
       }
-      Files.move(getCachedFilePath(featuredModFile), targetPath, StandardCopyOption.REPLACE_EXISTING);
+      Path cachedFilePath = getCachedFilePath(featuredModFile);
+      Files.move(cachedFilePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+      getLedger().remove(toLedgerPath(cachedFilePath));
+      getLedger().save();
+      getHashIndex().put(targetPath, Files.readAttributes(targetPath, BasicFileAttributes.class), featuredModFile.getMd5());
+      getHashIndex().save();
       UpdaterUtil.extractMoviesIfPresent(targetPath, preferencesService.getFafDataDirectory());
     } finally {
       ResourceLocks.freeDiskLock();
@@ -69,11 +180,15 @@ public class FeaturedModFileCacheService implements InitializingBean {
   }
 
   private void moveFeaturedModFileToCache(Path targetPath) throws IOException {
-    Files.move(targetPath, getCachedFilePath(targetPath), StandardCopyOption.REPLACE_EXISTING);
+    Path cachedFilePath = getCachedFilePath(targetPath);
+    Files.createDirectories(cachedFilePath.getParent());
+    Files.move(targetPath, cachedFilePath, StandardCopyOption.REPLACE_EXISTING);
+    getLedger().recordAccess(toLedgerPath(cachedFilePath), Files.size(cachedFilePath), System.currentTimeMillis());
+    scheduleEviction(Duration.ZERO);
   }
 
   /**
-   * Cleanup method, on service start, we'll get rid of old files.
+   * Creates the cache directory and schedules the eviction of cached files in the background, shortly after startup.
    */
   @Override
   public void afterPropertiesSet() {
@@ -87,38 +202,103 @@ public class FeaturedModFileCacheService implements InitializingBean {
             " You might have to delete it or check if the needed permission are given.", cacheDirectory));
       }
     }
-    cleanUnusedFilesFromCache();
+    scheduleEviction(EVICTION_STARTUP_DELAY);
   }
 
-  private void cleanUnusedFilesFromCache() {
-    try (Stream<Path> pathElements = Files.walk(preferencesService.getFeaturedModCachePath())) {
-      pathElements
-          .filter(Files::isRegularFile)
-          .forEach(this::deleteCachedFileIfNeeded);
-    } catch (Exception e) {
-      log.error("Cleaning featured mod files cache failed", e);
+  private void scheduleEviction(Duration delay) {
+    if (!evictionScheduled.compareAndSet(false, true)) {
+      return;
     }
+    Executor executor = CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS, executorService);
+    CompletableFuture.runAsync(() -> {
+      evictionScheduled.set(false);
+      evictCachedFiles();
+    }, executor).exceptionally(throwable -> {
+      log.error("Evicting featured mod files from cache failed", throwable);
+      return null;
+    });
   }
 
   /**
-   * Per directory cleanup old files.
+   * Brings the ledger up to date with the files in the cache directory, then deletes files that haven't been used
+   * within the configured life time, and the least recently used files until the cache fits into its size budget. All
+   * files but those recently staged for the next update are deleted if the cache is deactivated. Temporary files are
+   * left alone. The disk lock is only held while deleting a single file.
    */
-  private void deleteCachedFileIfNeeded(Path filePath) {
+  @VisibleForTesting
+  void evictCachedFiles() {
+    Path cacheDirectory = preferencesService.getFeaturedModCachePath();
+    CacheLedger ledger = getLedger();
+
+    Set<String> cachedFiles = new HashSet<>();
+    try (Stream<Path> pathElements = Files.walk(cacheDirectory)) {
+      pathElements
+          .filter(Files::isRegularFile)
+          .filter(path -> !TEMPORARY_FILE_PATTERN.matcher(path.getFileName().toString()).matches())
+          .forEach(path -> {
+            String ledgerPath = toLedgerPath(path);
+            cachedFiles.add(ledgerPath);
+            try {
+              BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+              ledger.addIfAbsent(ledgerPath, attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+              log.debug("Could not read attributes of cached file '{}'", path, e);
+            }
+          });
+    } catch (IOException | UncheckedIOException e) {
+      log.error("Reading featured mod files cache failed", e);
+      return;
+    }
+    ledger.retainAll(cachedFiles);
+
+    Preferences preferences = preferencesService.getPreferences();
+    boolean gameDataCacheActivated = preferences.isGameDataCacheActivated();
+    long now = System.currentTimeMillis();
+    long expiryTime = now - Duration.ofDays(preferences.getCacheLifeTimeInDays()).toMillis();
+    long stagedExpiryTime = now - STAGED_FILE_RETENTION.toMillis();
+    long maxSize = preferences.getGameDataCacheMaxSizeInGigabytes() * BYTES_PER_GIGABYTE;
+
+    for (String ledgerPath : ledger.getLeastRecentlyAccessed()) {
+      Long lastAccess = ledger.getLastAccess(ledgerPath);
+      if (lastAccess == null) {
+        continue;
+      }
+      boolean keep = gameDataCacheActivated
+          ? lastAccess >= expiryTime && ledger.getTotalSize() <= maxSize
+          : lastAccess >= stagedExpiryTime;
+      if (keep) {
+        break;
+      }
+      deleteCachedFile(cacheDirectory.resolve(ledgerPath), ledgerPath, lastAccess);
+    }
+    ledger.save();
+  }
+
+  private void deleteCachedFile(Path file, String ledgerPath, long expectedLastAccess) {
+    ResourceLocks.acquireDiskLock();
     try {
-      ResourceLocks.acquireDiskLock();
-
-      FileTime lastAccessTime = Files.readAttributes(filePath, BasicFileAttributes.class).lastAccessTime();
-      OffsetDateTime comparableLastAccessTime = OffsetDateTime.ofInstant(lastAccessTime.toInstant(), ZoneId.systemDefault());
-      final boolean olderThanCacheTime = comparableLastAccessTime.plusDays(preferencesService.getPreferences().getCacheLifeTimeInDays()).isBefore(OffsetDateTime.now());
-      final boolean gameDataCacheActivated = preferencesService.getPreferences().isGameDataCacheActivated();
-      if (olderThanCacheTime || !gameDataCacheActivated) {
-        log.debug("Deleting cached file ''{}'' ", filePath);
-        Files.deleteIfExists(filePath);
+      if (!Objects.equals(getLedger().getLastAccess(ledgerPath), expectedLastAccess)) {
+        // Accessed since eviction started
+        return;
       }
-    } catch (Exception e) {
-      log.error("Exception during deleting the cache files", e);
+      log.debug("Deleting cached file ''{}'' ", file);
+      Files.deleteIfExists(file);
+      getLedger().remove(ledgerPath);
+    } catch (IOException e) {
+      log.warn("Could not delete cached file '{}'", file, e);
     } finally {
       ResourceLocks.freeDiskLock();
     }
   }
+
+  private String toLedgerPath(Path cachedFilePath) {
+    return preferencesService.getFeaturedModCachePath().relativize(cachedFilePath).toString().replace('\\', '/');
+  }
+
+  private synchronized CacheLedger getLedger() {
+    if (ledger == null) {
+      ledger = new CacheLedger(preferencesService.getCacheDirectory().resolve(LEDGER_FILE_NAME));
+    }
+    return ledger;
+  }
 }
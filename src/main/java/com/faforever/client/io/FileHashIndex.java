@@ -0,0 +1,141 @@
+package com.faforever.client.io;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Remembers the hashes of files together with their size, modification time and file key (the inode, where the file
+ * system has one), so that a file is only hashed again after it changed. Entries of files that were modified shortly
+ * before they were hashed are not trusted, since a later change within the same timestamp granularity would go
+ * unnoticed.
+ */
+@Slf4j
+final class FileHashIndex {
+
+  private static final Gson GSON = new GsonBuilder().create();
+  /** Coarsest modification time granularity of the supported file systems (FAT). */
+  private static final long TIMESTAMP_GRANULARITY_MILLIS = 2000;
+
+  private final Path file;
+  private final Map<String, IndexedFile> indexedFiles = new ConcurrentHashMap<>();
+  private boolean loaded;
+  private boolean dirty;
+
+  FileHashIndex(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * @return the hash of the specified file if it hasn't changed since it was indexed, otherwise {@code null}
+   */
+  @Nullable
+  String get(Path path, BasicFileAttributes attributes) {
+    load();
+    IndexedFile indexedFile = indexedFiles.get(key(path));
+    if (indexedFile == null || !indexedFile.matches(attributes)) {
+      return null;
+    }
+    return indexedFile.hash;
+  }
+
+  void put(Path path, BasicFileAttributes attributes, String hash) {
+    load();
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    if (lastModified > System.currentTimeMillis() - TIMESTAMP_GRANULARITY_MILLIS) {
+      indexedFiles.remove(key(path));
+    } else {
+      IndexedFile indexedFile = new IndexedFile();
+      indexedFile.path = key(path);
+      indexedFile.size = attributes.size();
+      indexedFile.lastModified = lastModified;
+      indexedFile.fileKey = fileKey(attributes);
+      indexedFile.hash = hash;
+      indexedFiles.put(indexedFile.path, indexedFile);
+    }
+    synchronized (this) {
+      dirty = true;
+    }
+  }
+
+  /**
+   * Writes the index to disk if it changed since it was last loaded or saved.
+   */
+  synchronized void save() {
+    if (!dirty) {
+      return;
+    }
+    try {
+      Files.createDirectories(file.getParent());
+      Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile, UTF_8)) {
+        GSON.toJson(new ArrayList<>(indexedFiles.values()), writer);
+      }
+      FileUtils.moveAtomically(tempFile, file);
+      dirty = false;
+    } catch (IOException e) {
+      log.warn("Could not save file hash index to '{}'", file, e);
+    }
+  }
+
+  private synchronized void load() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+    if (Files.notExists(file)) {
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+      List<IndexedFile> files = GSON.fromJson(reader, new TypeToken<List<IndexedFile>>() {
+      }.getType());
+      if (files != null) {
+        files.forEach(indexedFile -> indexedFiles.put(indexedFile.path, indexedFile));
+      }
+      log.debug("Read {} file hashes from '{}'", indexedFiles.size(), file);
+    } catch (IOException | JsonParseException e) {
+      log.warn("Could not read file hash index from '{}'", file, e);
+    }
+  }
+
+  private static String key(Path path) {
+    return path.toAbsolutePath().normalize().toString();
+  }
+
+  @Nullable
+  private static String fileKey(BasicFileAttributes attributes) {
+    Object fileKey = attributes.fileKey();
+    return fileKey == null ? null : fileKey.toString();
+  }
+
+  private static class IndexedFile {
+    private String path;
+    private long size;
+    private long lastModified;
+    private String fileKey;
+    private String hash;
+
+    private boolean matches(BasicFileAttributes attributes) {
+      return size == attributes.size()
+          && lastModified == attributes.lastModifiedTime().toMillis()
+          && Objects.equals(fileKey, fileKey(attributes));
+    }
+  }
+}
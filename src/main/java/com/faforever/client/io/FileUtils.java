@@ -1,16 +1,25 @@
 package com.faforever.client.io;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
 
 import static java.nio.file.Files.walkFileTree;
 
 public final class FileUtils {
 
+  /**
+   * Name of the folder within a target directory (like the custom maps directory) that downloads are extracted into
+   * before being moved into place.
+   */
+  public static final String STAGING_DIRECTORY_NAME = ".staging";
+
   private FileUtils() {
     throw new AssertionError("Not instantiatable");
   }
@@ -34,4 +43,89 @@ public final class FileUtils {
       }
     });
   }
+
+  /**
+   * Copies the source file or directory, including all its contents, to the target, which must not exist.
+   */
+  public static void copyRecursively(Path source, Path target) throws IOException {
+    walkFileTree(source, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+        Files.createDirectory(target.resolve(source.relativize(dir).toString()));
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.COPY_ATTRIBUTES);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+        if (e != null) {
+          throw e;
+        }
+        Files.setLastModifiedTime(target.resolve(source.relativize(dir).toString()), Files.getLastModifiedTime(dir));
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  /**
+   * Moves the source to the target, replacing an existing file. Falls back to a non-atomic move if the file system does
+   * not support atomic moves.
+   */
+  public static void moveAtomically(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Moves the source file or directory to the target. An existing target, which may be a non-empty directory, is
+   * first moved aside into the specified trash directory and deleted only after the source has been moved into place.
+   * The trash directory must be on the same file system as the target. If the source is on a different file system,
+   * it is copied next to the target under a hidden name, moved into place and only then deleted.
+   */
+  public static void replaceAtomically(Path source, Path target, Path trashDirectory) throws IOException {
+    Path replaced = null;
+    if (Files.exists(target)) {
+      replaced = trashDirectory.resolve(target.getFileName() + "." + UUID.randomUUID());
+      moveAtomically(target, replaced);
+    }
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Path copy = target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID());
+      try {
+        copyRecursively(source, copy);
+        moveAtomically(copy, target);
+      } catch (IOException copyException) {
+        if (Files.exists(copy)) {
+          deleteRecursively(copy);
+        }
+        throw copyException;
+      }
+      deleteRecursively(source);
+    }
+    if (replaced != null) {
+      if (Files.isDirectory(replaced)) {
+        deleteRecursively(replaced);
+      } else {
+        Files.delete(replaced);
+      }
+    }
+  }
+
+  /**
+   * Returns {@code true} if the file name of the specified path starts with a dot, like the {@link
+   * #STAGING_DIRECTORY_NAME}. Such entries are never maps or mods.
+   */
+  public static boolean isHiddenEntry(Path path) {
+    Path fileName = path.getFileName();
+    return fileName != null && fileName.toString().startsWith(".");
+  }
 }
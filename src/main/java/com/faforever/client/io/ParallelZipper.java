@@ -0,0 +1,234 @@
+package com.faforever.client.io;
+
+import com.faforever.commons.io.ByteCountListener;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Zips a directory like {@link com.faforever.commons.io.Zipper} (entries are relative to the directory's parent, so
+ * the directory itself is the archive's root folder), but compresses files in parallel on an executor while already
+ * written entries are streamed to the output. Entries are still written in a deterministic order, so the output can be
+ * piped directly into an upload.
+ *
+ * <p>Small files are compressed into memory by worker threads; files larger than {@link #MAX_BUFFERED_FILE_SIZE} are
+ * compressed by the writing thread itself, so that memory usage stays bounded.</p>
+ */
+public final class ParallelZipper {
+
+  static final int MAX_BUFFERED_FILE_SIZE = 8 * 1024 * 1024;
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Path directoryToZip;
+  private ExecutorService executorService;
+  private OutputStream outputStream;
+  private ByteCountListener listener;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+
+  private ParallelZipper(Path directoryToZip) {
+    this.directoryToZip = directoryToZip;
+  }
+
+  public static ParallelZipper of(Path directoryToZip) {
+    return new ParallelZipper(directoryToZip);
+  }
+
+  public ParallelZipper to(OutputStream outputStream) {
+    this.outputStream = outputStream;
+    return this;
+  }
+
+  public ParallelZipper executor(ExecutorService executorService) {
+    this.executorService = executorService;
+    return this;
+  }
+
+  /**
+   * @param listener called with the number of uncompressed bytes that have been written to the output so far
+   */
+  public ParallelZipper listener(ByteCountListener listener) {
+    this.listener = listener;
+    return this;
+  }
+
+  public ParallelZipper parallelism(int parallelism) {
+    this.parallelism = Math.max(1, parallelism);
+    return this;
+  }
+
+  /**
+   * Zips the directory into the output stream, which is finished but not closed.
+   */
+  public void zip() throws IOException {
+    List<Path> paths;
+    try (Stream<Path> stream = Files.walk(directoryToZip)) {
+      paths = stream.sorted().collect(Collectors.toList());
+    }
+    long totalBytes = 0;
+    for (Path path : paths) {
+      if (Files.isRegularFile(path)) {
+        totalBytes += Files.size(path);
+      }
+    }
+
+    Deque<Future<PreparedEntry>> pendingEntries = new ArrayDeque<>();
+    long[] bytesWritten = {0};
+    ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(outputStream);
+    try {
+      for (Path path : paths) {
+        if (pendingEntries.size() >= parallelism * 2) {
+          writeEntry(zipOutputStream, await(pendingEntries.poll()), bytesWritten, totalBytes);
+        }
+        pendingEntries.add(prepare(path));
+      }
+      while (!pendingEntries.isEmpty()) {
+        writeEntry(zipOutputStream, await(pendingEntries.poll()), bytesWritten, totalBytes);
+      }
+      zipOutputStream.finish();
+    } finally {
+      pendingEntries.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private Future<PreparedEntry> prepare(Path path) throws IOException {
+    String name = directoryToZip.getParent().relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+    FileTime lastModifiedTime = Files.getLastModifiedTime(path);
+    if (Files.isDirectory(path)) {
+      return CompletableFuture.completedFuture(new PreparedEntry(path, name + "/", lastModifiedTime, null));
+    }
+    if (executorService == null || Files.size(path) > MAX_BUFFERED_FILE_SIZE) {
+      return CompletableFuture.completedFuture(new PreparedEntry(path, name, lastModifiedTime, null));
+    }
+    return executorService.submit(() -> new PreparedEntry(path, name, lastModifiedTime, deflate(path)));
+  }
+
+  private static DeflatedFile deflate(Path file) throws IOException {
+    CRC32 crc = new CRC32();
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    long size = 0;
+    try (InputStream inputStream = Files.newInputStream(file);
+         DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(compressed, deflater, BUFFER_SIZE)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        crc.update(buffer, 0, read);
+        deflaterOutputStream.write(buffer, 0, read);
+        size += read;
+      }
+    } finally {
+      deflater.end();
+    }
+    return new DeflatedFile(compressed.toByteArray(), size, crc.getValue());
+  }
+
+  private void writeEntry(ZipArchiveOutputStream zipOutputStream, PreparedEntry preparedEntry, long[] bytesWritten, long totalBytes) throws IOException {
+    ZipArchiveEntry entry = new ZipArchiveEntry(preparedEntry.name);
+    entry.setTime(preparedEntry.lastModifiedTime.toMillis());
+
+    if (preparedEntry.name.endsWith("/")) {
+      zipOutputStream.putArchiveEntry(entry);
+      zipOutputStream.closeArchiveEntry();
+      return;
+    }
+
+    DeflatedFile deflatedFile = preparedEntry.deflatedFile;
+    if (deflatedFile != null) {
+      entry.setMethod(ZipEntry.DEFLATED);
+      entry.setSize(deflatedFile.size);
+      entry.setCompressedSize(deflatedFile.data.length);
+      entry.setCrc(deflatedFile.crc);
+      zipOutputStream.addRawArchiveEntry(entry, new ByteArrayInputStream(deflatedFile.data));
+      bytesWritten[0] += deflatedFile.size;
+      reportProgress(bytesWritten[0], totalBytes);
+      return;
+    }
+
+    entry.setMethod(ZipEntry.DEFLATED);
+    zipOutputStream.putArchiveEntry(entry);
+    try (InputStream inputStream = Files.newInputStream(preparedEntry.path)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        zipOutputStream.write(buffer, 0, read);
+        bytesWritten[0] += read;
+        reportProgress(bytesWritten[0], totalBytes);
+      }
+    }
+    zipOutputStream.closeArchiveEntry();
+  }
+
+  private void reportProgress(long bytesWritten, long totalBytes) {
+    if (listener != null) {
+      listener.updateBytesProcessed(bytesWritten, totalBytes);
+    }
+  }
+
+  private static PreparedEntry await(Future<PreparedEntry> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      throw new IOException("Could not compress file", cause);
+    }
+  }
+
+  private static class PreparedEntry {
+    private final Path path;
+    private final String name;
+    private final FileTime lastModifiedTime;
+    /** The compressed file content or {@code null} if the file has to be compressed while writing. */
+    private final DeflatedFile deflatedFile;
+
+    private PreparedEntry(Path path, String name, FileTime lastModifiedTime, DeflatedFile deflatedFile) {
+      this.path = path;
+      this.name = name;
+      this.lastModifiedTime = lastModifiedTime;
+      this.deflatedFile = deflatedFile;
+    }
+  }
+
+  private static class DeflatedFile {
+    private final byte[] data;
+    private final long size;
+    private final long crc;
+
+    private DeflatedFile(byte[] data, long size, long crc) {
+      this.data = data;
+      this.size = size;
+      this.crc = crc;
+    }
+  }
+}
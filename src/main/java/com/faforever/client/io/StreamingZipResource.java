@@ -0,0 +1,120 @@
+package com.faforever.client.io;
+
+import com.faforever.commons.io.ByteCountListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A resource whose content is the zip archive of a directory, compressed while it is being read. Every call to {@link
+ * #getInputStream()} starts a {@link ParallelZipper} that writes into a pipe, so that e.g. a multipart upload can send
+ * the archive while it's still being compressed, without a temporary file. Since the size is not known up front,
+ * {@link #contentLength()} returns {@code -1}.
+ *
+ * <p>If compressing fails, reading the stream fails instead of ending early, so a truncated archive is never
+ * mistaken for a complete one.</p>
+ */
+@Slf4j
+public class StreamingZipResource extends AbstractResource {
+
+  private static final int PIPE_SIZE = 1024 * 1024;
+
+  private final Path directory;
+  private final ExecutorService executorService;
+  private final ByteCountListener listener;
+
+  /**
+   * @param listener called with the number of uncompressed bytes that have been read from the stream
+   */
+  public StreamingZipResource(Path directory, ExecutorService executorService, ByteCountListener listener) {
+    this.directory = directory;
+    this.executorService = executorService;
+    this.listener = listener;
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    PipedInputStream pipedInputStream = new PipedInputStream(PIPE_SIZE);
+    PipedOutputStream pipedOutputStream = new PipedOutputStream(pipedInputStream);
+
+    CompletableFuture<Void> zipFuture = CompletableFuture.runAsync(() -> {
+      try (pipedOutputStream) {
+        ParallelZipper.of(directory)
+            .executor(executorService)
+            .listener(listener)
+            .to(pipedOutputStream)
+            .zip();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, executorService);
+
+    return new FilterInputStream(pipedInputStream) {
+      @Override
+      public int read() throws IOException {
+        int read = super.read();
+        if (read == -1) {
+          checkZipSucceeded();
+        }
+        return read;
+      }
+
+      @Override
+      public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read == -1) {
+          checkZipSucceeded();
+        }
+        return read;
+      }
+
+      @Override
+      public void close() throws IOException {
+        // Closing the reading end makes a still running zipper fail with "Pipe closed"
+        super.close();
+        if (!zipFuture.isDone()) {
+          log.debug("Upload of '{}' ended before compression finished", directory);
+        }
+      }
+
+      private void checkZipSucceeded() throws IOException {
+        try {
+          zipFuture.join();
+        } catch (CompletionException e) {
+          Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+          throw new IOException("Could not compress " + directory, cause);
+        }
+      }
+    };
+  }
+
+  @Override
+  public long contentLength() {
+    return -1;
+  }
+
+  @Override
+  public boolean exists() {
+    return true;
+  }
+
+  @Override
+  public String getFilename() {
+    return directory.getFileName() + ".zip";
+  }
+
+  @Override
+  public String getDescription() {
+    return "Streaming zip of " + directory;
+  }
+}
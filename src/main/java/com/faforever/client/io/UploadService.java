@@ -0,0 +1,70 @@
+package com.faforever.client.io;
+
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.commons.io.ByteCountListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Uploads directories (maps, mods) as zip archives. The archive is compressed in parallel and streamed into the
+ * request while it's being compressed (see {@link StreamingZipResource}). Since the size of such a request is not
+ * known up front, it's sent using chunked encoding; if the server rejects that with {@code 411 Length Required}, the
+ * archive is written to a temporary file in the cache directory and uploaded from there.
+ */
+@Lazy
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UploadService {
+
+  private final PreferencesService preferencesService;
+  private final ExecutorService executorService;
+
+  /**
+   * @param listener called with the number of uncompressed bytes that have been uploaded so far. If the upload falls
+   * back to a temporary file, it's called for compressing and then again for uploading the file.
+   * @param upload called with the zip archive to upload, may be called a second time for the fallback
+   */
+  public void zipAndUpload(Path directory, ByteCountListener listener, Consumer<Resource> upload) throws IOException {
+    try {
+      log.debug("Uploading {} while compressing it", directory);
+      upload.accept(new StreamingZipResource(directory, executorService, listener));
+      return;
+    } catch (HttpClientErrorException e) {
+      if (e.getStatusCode() != HttpStatus.LENGTH_REQUIRED) {
+        throw e;
+      }
+      log.info("Server requires a content length, uploading {} from a temporary file instead", directory);
+    }
+
+    Path cacheDirectory = preferencesService.getCacheDirectory();
+    Files.createDirectories(cacheDirectory);
+    Path tmpFile = Files.createTempFile(cacheDirectory, directory.getFileName().toString(), ".zip");
+    try {
+      log.debug("Zipping {} to {}", directory, tmpFile);
+      try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+        ParallelZipper.of(directory)
+            .executor(executorService)
+            .listener(listener)
+            .to(outputStream)
+            .zip();
+      }
+      upload.accept(new CountingFileSystemResource(tmpFile, listener));
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package com.faforever.client.leaderboard;
+
+import com.faforever.client.util.RatingUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static com.faforever.client.leaderboard.LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN;
+
+/**
+ * The entries of one leaderboard, stored in one primitive array per column instead of one bean per entry. Player
+ * names are interned into a name table that is shared with the tables created from the columns. The rating
+ * distribution is updated with each change, so it never has to be computed from all entries.
+ * <p>
+ * Not thread-safe.
+ */
+public class LeaderboardColumns {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final Map<String, Integer> nameIdsByName = new HashMap<>();
+  private final Map<Integer, Integer> rowsByPlayerId = new HashMap<>();
+  /** Rating, rounded down to the next 100, to the number of entries with that rating and of those with enough games. */
+  private final TreeMap<Integer, int[]> countsByRating = new TreeMap<>();
+
+  private String[] names = new String[INITIAL_CAPACITY];
+  private int nameCount;
+
+  private int size;
+  private int[] playerIds = new int[INITIAL_CAPACITY];
+  private int[] nameIds = new int[INITIAL_CAPACITY];
+  private double[] ratings = new double[INITIAL_CAPACITY];
+  private int[] gamesPlayed = new int[INITIAL_CAPACITY];
+  private int[] wonGames = new int[INITIAL_CAPACITY];
+  private long[] updateTimes = new long[INITIAL_CAPACITY];
+
+  /**
+   * Adds the entry of the player, or replaces it if there already is one.
+   */
+  public void put(int playerId, String username, double rating, int gamesPlayed, int wonGames, long updateTime) {
+    Integer existingRow = rowsByPlayerId.get(playerId);
+    int row;
+    if (existingRow != null) {
+      row = existingRow;
+      count(row, -1);
+    } else {
+      ensureCapacity(size + 1);
+      row = size++;
+      rowsByPlayerId.put(playerId, row);
+    }
+
+    this.playerIds[row] = playerId;
+    this.nameIds[row] = intern(username);
+    this.ratings[row] = rating;
+    this.gamesPlayed[row] = gamesPlayed;
+    this.wonGames[row] = wonGames;
+    this.updateTimes[row] = updateTime;
+    count(row, 1);
+  }
+
+  /**
+   * Removes all entries that have last been updated before the specified time.
+   *
+   * @return how many entries have been removed
+   */
+  public int removeUpdatedBefore(long time) {
+    int removed = 0;
+    int row = 0;
+    while (row < size) {
+      if (updateTimes[row] < time) {
+        remove(row);
+        removed++;
+      } else {
+        row++;
+      }
+    }
+    return removed;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Creates a snapshot of the entries, ordered by rating, highest first.
+   */
+  public LeaderboardTable toTable() {
+    int[] order = rowsInInsertionOrder();
+    sortByRating(order, new int[size], 0, size);
+    return toTable(order);
+  }
+
+  /**
+   * Creates a snapshot of the entries in the order they have been added, which saves sorting them while they are
+   * still arriving ordered by rating.
+   */
+  public LeaderboardTable toTableInInsertionOrder() {
+    return toTable(rowsInInsertionOrder());
+  }
+
+  private int[] rowsInInsertionOrder() {
+    int[] rows = new int[size];
+    for (int row = 0; row < size; row++) {
+      rows[row] = row;
+    }
+    return rows;
+  }
+
+  private LeaderboardTable toTable(int[] order) {
+    int[] sortedNameIds = new int[size];
+    double[] sortedRatings = new double[size];
+    int[] sortedGamesPlayed = new int[size];
+    int[] sortedWonGames = new int[size];
+    for (int i = 0; i < size; i++) {
+      int row = order[i];
+      sortedNameIds[i] = nameIds[row];
+      sortedRatings[i] = ratings[row];
+      sortedGamesPlayed[i] = gamesPlayed[row];
+      sortedWonGames[i] = wonGames[row];
+    }
+    return new LeaderboardTable(names, sortedNameIds, sortedRatings, sortedGamesPlayed, sortedWonGames, getRatingStats());
+  }
+
+  /**
+   * Sorts the rows between {@code from} and {@code to} by rating, highest first, without boxing them. Since entries
+   * arrive ordered by rating, most rows are already in order, which the merge sort detects and skips.
+   */
+  private void sortByRating(int[] rows, int[] buffer, int from, int to) {
+    if (to - from < 2) {
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    sortByRating(rows, buffer, from, middle);
+    sortByRating(rows, buffer, middle, to);
+    if (ratings[rows[middle - 1]] >= ratings[rows[middle]]) {
+      return;
+    }
+
+    System.arraycopy(rows, from, buffer, from, middle - from);
+    int left = from;
+    int right = middle;
+    int target = from;
+    while (left < middle && right < to) {
+      rows[target++] = ratings[buffer[left]] >= ratings[rows[right]] ? buffer[left++] : rows[right++];
+    }
+    System.arraycopy(buffer, left, rows, target, middle - left);
+  }
+
+  private List<RatingStat> getRatingStats() {
+    return countsByRating.entrySet().stream()
+        .map(entry -> new RatingStat(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  private void remove(int row) {
+    count(row, -1);
+    rowsByPlayerId.remove(playerIds[row]);
+    int lastRow = --size;
+    if (row == lastRow) {
+      return;
+    }
+    playerIds[row] = playerIds[lastRow];
+    nameIds[row] = nameIds[lastRow];
+    ratings[row] = ratings[lastRow];
+    gamesPlayed[row] = gamesPlayed[lastRow];
+    wonGames[row] = wonGames[lastRow];
+    updateTimes[row] = updateTimes[lastRow];
+    rowsByPlayerId.put(playerIds[row], row);
+  }
+
+  private void count(int row, int delta) {
+    int rating = RatingUtil.roundRatingToNextLowest100(ratings[row]);
+    int[] counts = countsByRating.computeIfAbsent(rating, key -> new int[2]);
+    counts[0] += delta;
+    if (gamesPlayed[row] >= MINIMUM_GAMES_PLAYED_TO_BE_SHOWN) {
+      counts[1] += delta;
+    }
+    if (counts[0] == 0) {
+      countsByRating.remove(rating);
+    }
+  }
+
+  private int intern(String name) {
+    Integer nameId = nameIdsByName.get(name);
+    if (nameId != null) {
+      return nameId;
+    }
+    if (nameCount == names.length) {
+      // Tables keep the old array, which still holds every name they refer to
+      names = Arrays.copyOf(names, nameCount * 2);
+    }
+    names[nameCount] = name;
+    nameIdsByName.put(name, nameCount);
+    return nameCount++;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= playerIds.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, playerIds.length * 2);
+    playerIds = Arrays.copyOf(playerIds, newCapacity);
+    nameIds = Arrays.copyOf(nameIds, newCapacity);
+    ratings = Arrays.copyOf(ratings, newCapacity);
+    gamesPlayed = Arrays.copyOf(gamesPlayed, newCapacity);
+    wonGames = Arrays.copyOf(wonGames, newCapacity);
+    updateTimes = Arrays.copyOf(updateTimes, newCapacity);
+  }
+}
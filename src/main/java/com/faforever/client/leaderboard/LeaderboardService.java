@@ -4,6 +4,7 @@ import com.faforever.client.util.Tuple;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface LeaderboardService {
   int MINIMUM_GAMES_PLAYED_TO_BE_SHOWN = 10;
@@ -12,7 +13,12 @@ public interface LeaderboardService {
 
   CompletableFuture<List<LeaderboardEntry>> getEntriesForPlayer(int playerId);
 
-  CompletableFuture<List<LeaderboardEntry>> getEntries(Leaderboard leaderboard);
+  /**
+   * Brings the locally stored entries of the leaderboard up to date and returns them as a table. While entries are
+   * arriving for the first time, the table so far is passed to the listener, so the top entries can be shown before
+   * all have arrived.
+   */
+  CompletableFuture<LeaderboardTable> getTable(Leaderboard leaderboard, Consumer<LeaderboardTable> progressListener);
 
   CompletableFuture<Tuple<List<LeaderboardEntry>, Integer>> getPagedEntries(Leaderboard leaderboard, int count, int page);
 
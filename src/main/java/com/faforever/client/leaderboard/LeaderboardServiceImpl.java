@@ -2,7 +2,6 @@ package com.faforever.client.leaderboard;
 
 import com.faforever.client.FafClientApplication;
 import com.faforever.client.remote.FafService;
-import com.faforever.client.util.RatingUtil;
 import com.faforever.client.util.Tuple;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Lazy;
@@ -10,10 +9,8 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 
 @Lazy
@@ -22,14 +19,15 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class LeaderboardServiceImpl implements LeaderboardService {
   private final FafService fafService;
+  private final LeaderboardStore leaderboardStore;
 
   @Override
   public CompletableFuture<List<Leaderboard>> getLeaderboards() {
     return fafService.getLeaderboards();
   }
 
-  public CompletableFuture<List<LeaderboardEntry>> getEntries(Leaderboard leaderboard) {
-    return fafService.getAllLeaderboardEntries(leaderboard.getTechnicalName());
+  public CompletableFuture<LeaderboardTable> getTable(Leaderboard leaderboard, Consumer<LeaderboardTable> progressListener) {
+    return leaderboardStore.sync(leaderboard.getTechnicalName(), progressListener);
   }
 
   public CompletableFuture<Tuple<List<LeaderboardEntry>, Integer>> getPagedEntries(Leaderboard leaderboard, int count, int page) {
@@ -37,25 +35,8 @@ public class LeaderboardServiceImpl implements LeaderboardService {
   }
 
   public CompletableFuture<List<RatingStat>> getLeaderboardStats(String leaderboardTechnicalName) {
-    return fafService.getAllLeaderboardEntries(leaderboardTechnicalName).thenApply(this::toRatingStats);
-  }
-
-  private List<RatingStat> toRatingStats(List<LeaderboardEntry> entries) {
-    Map<Integer, Long> totalCount = countByRating(entries.stream());
-    Map<Integer, Long> countWithoutFewGames = countByRating(entries.stream()
-        .filter(entry -> entry.gamesPlayedProperty().get() >= MINIMUM_GAMES_PLAYED_TO_BE_SHOWN));
-
-    return totalCount.entrySet().stream()
-        .map(entry -> new RatingStat(
-            entry.getKey(),
-            entry.getValue().intValue(),
-            countWithoutFewGames.getOrDefault(entry.getKey(), 0L).intValue()))
-        .collect(Collectors.toList());
-  }
-
-  private Map<Integer, Long> countByRating(Stream<LeaderboardEntry> entries) {
-    return entries.collect(Collectors.groupingBy(leaderboardEntry ->
-        RatingUtil.roundRatingToNextLowest100(leaderboardEntry.getRating()), Collectors.counting()));
+    return leaderboardStore.sync(leaderboardTechnicalName, table -> {
+    }).thenApply(LeaderboardTable::getRatingStats);
   }
 
   @Override
@@ -0,0 +1,129 @@
+package com.faforever.client.leaderboard;
+
+import com.faforever.client.remote.FafService;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the entries of the leaderboards that have been shown in {@link LeaderboardColumns}. The first sync of a
+ * leaderboard fetches the entries of the last month, later syncs only fetch the entries that have been updated since
+ * the previous sync started and drop the entries that haven't been updated for a month.
+ */
+@Lazy
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LeaderboardStore {
+
+  /**
+   * How far before the start of the previous sync the next one starts fetching. Entries that are updated during a sync
+   * can move to a page that has already been fetched, and the client's clock may be behind the server's. Entries
+   * fetched twice are simply replaced.
+   */
+  @VisibleForTesting
+  static final Duration SYNC_OVERLAP = Duration.ofMinutes(5);
+
+  private final FafService fafService;
+
+  private final Map<String, StoredLeaderboard> leaderboards = new HashMap<>();
+
+  /**
+   * Brings the stored entries of the leaderboard up to date. During the first sync, the entries received so far are
+   * passed to the listener after each page, so the top entries can be shown while a large leaderboard is still
+   * loading. Since the pages arrive ordered by rating, these tables keep the order the entries arrived in and each one
+   * only adds rows to the previous one. The table passed to the future is sorted. If the leaderboard is already being
+   * synced, the running sync is returned and the listener is not called.
+   *
+   * @return a future that completes with the table of all entries once the sync is done
+   */
+  public CompletableFuture<LeaderboardTable> sync(String leaderboardTechnicalName, Consumer<LeaderboardTable> pageListener) {
+    StoredLeaderboard leaderboard;
+    CompletableFuture<LeaderboardTable> sync = new CompletableFuture<>();
+    synchronized (leaderboards) {
+      leaderboard = leaderboards.computeIfAbsent(leaderboardTechnicalName, key -> new StoredLeaderboard());
+      if (leaderboard.runningSync != null) {
+        return leaderboard.runningSync;
+      }
+      leaderboard.runningSync = sync;
+    }
+
+    Instant syncStart = Instant.now();
+    Instant oneMonthAgo = LocalDateTime.now().minusMonths(1).toInstant(ZoneOffset.UTC);
+    Instant since = leaderboard.getSyncedUntil().orElse(oneMonthAgo);
+    log.debug("Fetching entries of leaderboard '{}' updated since {}", leaderboardTechnicalName, since);
+
+    fafService.streamLeaderboardEntriesUpdatedSince(leaderboardTechnicalName, since,
+        page -> leaderboard.put(page, since).ifPresent(pageListener))
+        .whenComplete((aVoid, throwable) -> {
+          synchronized (leaderboards) {
+            leaderboard.runningSync = null;
+          }
+          if (throwable != null) {
+            sync.completeExceptionally(throwable);
+            return;
+          }
+          sync.complete(leaderboard.completeSync(oneMonthAgo, syncStart.minus(SYNC_OVERLAP)));
+        });
+    return sync;
+  }
+
+  private static class StoredLeaderboard {
+    private final LeaderboardColumns columns = new LeaderboardColumns();
+    private LeaderboardTable table = LeaderboardTable.EMPTY;
+    /** Only advanced once a sync has completed, since the pages don't arrive in the order of their update time. */
+    private Instant syncedUntil;
+    private CompletableFuture<LeaderboardTable> runningSync;
+    /** Whether entries have been put since the table was last created. */
+    private boolean changed;
+
+    private synchronized Optional<Instant> getSyncedUntil() {
+      return Optional.ofNullable(syncedUntil);
+    }
+
+    /**
+     * @return the entries received so far if this is the first sync, in the order they have arrived in
+     */
+    private synchronized Optional<LeaderboardTable> put(List<com.faforever.commons.api.dto.LeaderboardEntry> entries, Instant since) {
+      for (com.faforever.commons.api.dto.LeaderboardEntry entry : entries) {
+        if (entry.getPlayer() == null) {
+          continue;
+        }
+        long updateTime = Optional.ofNullable(entry.getUpdateTime())
+            .map(OffsetDateTime::toInstant)
+            .orElse(since)
+            .toEpochMilli();
+        columns.put(Integer.parseInt(entry.getPlayer().getId()), entry.getPlayer().getLogin(), entry.getRating(),
+            entry.getTotalGames(), entry.getWonGames(), updateTime);
+        changed = true;
+      }
+      if (syncedUntil != null) {
+        return Optional.empty();
+      }
+      return Optional.of(columns.toTableInInsertionOrder());
+    }
+
+    private synchronized LeaderboardTable completeSync(Instant oneMonthAgo, Instant syncedUntil) {
+      if (columns.removeUpdatedBefore(oneMonthAgo.toEpochMilli()) > 0 || changed) {
+        table = columns.toTable();
+        changed = false;
+      }
+      this.syncedUntil = syncedUntil;
+      return table;
+    }
+  }
+}
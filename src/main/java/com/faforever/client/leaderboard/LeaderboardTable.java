@@ -0,0 +1,79 @@
+package com.faforever.client.leaderboard;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * An immutable snapshot of the entries of a leaderboard, ordered by rating, highest first. Row {@code 0} is the entry
+ * ranked first. The entries are kept column by column, so a table with tens of thousands of entries needs a few
+ * primitive arrays instead of as many beans.
+ */
+public class LeaderboardTable {
+
+  public static final LeaderboardTable EMPTY = new LeaderboardTable(new String[0], new int[0], new double[0], new int[0], new int[0], List.of());
+
+  /** Shared with the columns the table was created from, which only ever append names. */
+  private final String[] names;
+  private final int[] nameIds;
+  private final double[] ratings;
+  private final int[] gamesPlayed;
+  private final int[] wonGames;
+  private final List<RatingStat> ratingStats;
+
+  LeaderboardTable(String[] names, int[] nameIds, double[] ratings, int[] gamesPlayed, int[] wonGames, List<RatingStat> ratingStats) {
+    this.names = names;
+    this.nameIds = nameIds;
+    this.ratings = ratings;
+    this.gamesPlayed = gamesPlayed;
+    this.wonGames = wonGames;
+    this.ratingStats = ratingStats;
+  }
+
+  public int size() {
+    return ratings.length;
+  }
+
+  public String getUsername(int row) {
+    return names[nameIds[row]];
+  }
+
+  public double getRating(int row) {
+    return ratings[row];
+  }
+
+  public int getGamesPlayed(int row) {
+    return gamesPlayed[row];
+  }
+
+  public int getWonGames(int row) {
+    return wonGames[row];
+  }
+
+  public float getWinLossRatio(int row) {
+    return wonGames[row] / (float) gamesPlayed[row];
+  }
+
+  /**
+   * Returns the usernames of all entries, in the order of the rows.
+   */
+  public List<String> getUsernames() {
+    return new AbstractList<>() {
+      @Override
+      public String get(int index) {
+        return getUsername(index);
+      }
+
+      @Override
+      public int size() {
+        return LeaderboardTable.this.size();
+      }
+    };
+  }
+
+  /**
+   * Returns how many entries there are per 100 rating points, lowest rating first.
+   */
+  public List<RatingStat> getRatingStats() {
+    return ratingStats;
+  }
+}
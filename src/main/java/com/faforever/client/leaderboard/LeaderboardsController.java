@@ -7,8 +7,10 @@ import com.faforever.client.i18n.I18n;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.util.Validator;
 import com.google.common.annotations.VisibleForTesting;
+import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleFloatProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.Node;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TableColumn;
@@ -25,9 +27,7 @@ import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
-import java.util.stream.Collectors;
-
-import static javafx.collections.FXCollections.observableList;
+import java.util.List;
 
 
 @Slf4j
@@ -40,12 +40,13 @@ public class LeaderboardsController extends AbstractViewController<Node> {
   private final NotificationService notificationService;
   private final I18n i18n;
   public Pane leaderboardRoot;
-  public TableColumn<LeaderboardEntry, Number> rankColumn;
-  public TableColumn<LeaderboardEntry, String> nameColumn;
-  public TableColumn<LeaderboardEntry, Number> winLossColumn;
-  public TableColumn<LeaderboardEntry, Number> gamesPlayedColumn;
-  public TableColumn<LeaderboardEntry, Number> ratingColumn;
-  public TableView<LeaderboardEntry> ratingTable;
+  /** The items are the rows of {@link #leaderboardTable}, whose columns are read by the cell value factories. */
+  public TableColumn<Integer, Number> rankColumn;
+  public TableColumn<Integer, String> nameColumn;
+  public TableColumn<Integer, Number> winLossColumn;
+  public TableColumn<Integer, Number> gamesPlayedColumn;
+  public TableColumn<Integer, Number> ratingColumn;
+  public TableView<Integer> ratingTable;
   public ComboBox<Leaderboard> leaderboardComboBox;
   public TextField searchTextField;
   public Pane connectionProgressPane;
@@ -53,6 +54,9 @@ public class LeaderboardsController extends AbstractViewController<Node> {
 
   @VisibleForTesting
   protected AutoCompletionBinding<String> usernamesAutoCompletion;
+  @VisibleForTesting
+  LeaderboardTable leaderboardTable = LeaderboardTable.EMPTY;
+  private Object currentLoad;
 
   @Override
   public void initialize() {
@@ -67,19 +71,19 @@ public class LeaderboardsController extends AbstractViewController<Node> {
       return null;
     });
 
-    rankColumn.setCellValueFactory(param -> new SimpleIntegerProperty(ratingTable.getItems().indexOf(param.getValue()) + 1));
+    rankColumn.setCellValueFactory(param -> new SimpleIntegerProperty(param.getValue() + 1));
     rankColumn.setCellFactory(param -> new StringCell<>(rank -> i18n.number(rank.intValue())));
 
-    nameColumn.setCellValueFactory(param -> param.getValue().usernameProperty());
+    nameColumn.setCellValueFactory(param -> new SimpleStringProperty(leaderboardTable.getUsername(param.getValue())));
     nameColumn.setCellFactory(param -> new StringCell<>(name -> name));
 
-    winLossColumn.setCellValueFactory(param -> new SimpleFloatProperty(param.getValue().getWinLossRatio()));
+    winLossColumn.setCellValueFactory(param -> new SimpleFloatProperty(leaderboardTable.getWinLossRatio(param.getValue())));
     winLossColumn.setCellFactory(param -> new StringCell<>(number -> i18n.get("percentage", number.floatValue() * 100)));
 
-    gamesPlayedColumn.setCellValueFactory(param -> param.getValue().gamesPlayedProperty());
+    gamesPlayedColumn.setCellValueFactory(param -> new SimpleIntegerProperty(leaderboardTable.getGamesPlayed(param.getValue())));
     gamesPlayedColumn.setCellFactory(param -> new StringCell<>(count -> i18n.number(count.intValue())));
 
-    ratingColumn.setCellValueFactory(param -> param.getValue().ratingProperty());
+    ratingColumn.setCellValueFactory(param -> new SimpleDoubleProperty(leaderboardTable.getRating(param.getValue())));
     ratingColumn.setCellFactory(param -> new StringCell<>(rating -> i18n.number(rating.intValue())));
 
     contentPane.managedProperty().bind(contentPane.visibleProperty());
@@ -90,17 +94,17 @@ public class LeaderboardsController extends AbstractViewController<Node> {
       if (Validator.isInt(newValue)) {
         ratingTable.scrollTo(Integer.parseInt(newValue) - 1);
       } else {
-        LeaderboardEntry foundPlayer = null;
-        for (LeaderboardEntry leaderboardEntry : ratingTable.getItems()) {
-          if (leaderboardEntry.getUsername().toLowerCase().startsWith(newValue.toLowerCase())) {
-            foundPlayer = leaderboardEntry;
+        Integer foundPlayer = null;
+        for (Integer row : ratingTable.getItems()) {
+          if (leaderboardTable.getUsername(row).toLowerCase().startsWith(newValue.toLowerCase())) {
+            foundPlayer = row;
             break;
           }
         }
         if (foundPlayer == null) {
-          for (LeaderboardEntry leaderboardEntry : ratingTable.getItems()) {
-            if (leaderboardEntry.getUsername().toLowerCase().contains(newValue.toLowerCase())) {
-              foundPlayer = leaderboardEntry;
+          for (Integer row : ratingTable.getItems()) {
+            if (leaderboardTable.getUsername(row).toLowerCase().contains(newValue.toLowerCase())) {
+              foundPlayer = row;
               break;
             }
           }
@@ -136,20 +140,51 @@ public class LeaderboardsController extends AbstractViewController<Node> {
     if (usernamesAutoCompletion != null) {
       usernamesAutoCompletion.dispose();
     }
-    leaderboardService.getEntries(leaderboardComboBox.getValue()).thenAccept(leaderboardEntryBeans -> {
-      ratingTable.setItems(observableList(leaderboardEntryBeans));
-      usernamesAutoCompletion = TextFields.bindAutoCompletion(searchTextField,
-          leaderboardEntryBeans.stream().map(LeaderboardEntry::getUsername).collect(Collectors.toList()));
+    Leaderboard leaderboard = leaderboardComboBox.getValue();
+    Object load = new Object();
+    currentLoad = load;
+    showTable(LeaderboardTable.EMPTY);
+    // While entries are arriving, the top entries are shown as soon as they are there
+    leaderboardService.getTable(leaderboard, table -> JavaFxUtil.runLater(() -> {
+      if (currentLoad == load) {
+        showTable(table);
+        contentPane.setVisible(true);
+      }
+    })).thenAccept(table -> JavaFxUtil.runLater(() -> {
+      if (currentLoad != load) {
+        return;
+      }
+      showTable(table);
+      usernamesAutoCompletion = TextFields.bindAutoCompletion(searchTextField, table.getUsernames());
       usernamesAutoCompletion.setDelay(0);
       contentPane.setVisible(true);
-    }).exceptionally(throwable -> {
-      contentPane.setVisible(false);
+    })).exceptionally(throwable -> {
+      JavaFxUtil.runLater(() -> contentPane.setVisible(false));
       log.warn("Error while loading leaderboard entries", throwable);
       notificationService.addImmediateErrorNotification(throwable, "leaderboard.failedToLoad");
       return null;
     });
   }
 
+  /**
+   * The items are always the row numbers {@code 0} to {@code size - 1}, so only the rows the new table adds or drops
+   * have to be changed. The cells of the remaining rows are refreshed to show the values of the new table.
+   */
+  private void showTable(LeaderboardTable table) {
+    leaderboardTable = table;
+    List<Integer> rows = ratingTable.getItems();
+    if (table.size() < rows.size()) {
+      rows.subList(table.size(), rows.size()).clear();
+    } else if (table.size() > rows.size()) {
+      Integer[] addedRows = new Integer[table.size() - rows.size()];
+      for (int i = 0; i < addedRows.length; i++) {
+        addedRows[i] = rows.size() + i;
+      }
+      ratingTable.getItems().addAll(addedRows);
+    }
+    ratingTable.refresh();
+  }
+
   public Node getRoot() {
     return leaderboardRoot;
   }
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 
 @Lazy
@@ -38,8 +39,8 @@ public class MockLeaderboardService implements LeaderboardService {
   }
 
   @Override
-  public CompletableFuture<List<LeaderboardEntry>> getEntries(Leaderboard leaderboard) {
-    return CompletableFuture.completedFuture(Collections.emptyList());
+  public CompletableFuture<LeaderboardTable> getTable(Leaderboard leaderboard, Consumer<LeaderboardTable> progressListener) {
+    return CompletableFuture.completedFuture(LeaderboardTable.EMPTY);
   }
 
   @Override
@@ -10,6 +10,7 @@ import com.faforever.client.fx.Controller;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.game.GamePathHandler;
+import com.faforever.client.game.LaunchTracesController;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.login.LoginController;
 import com.faforever.client.main.event.NavigateEvent;
@@ -600,6 +601,11 @@ public class MainController implements Controller<Node> {
     dialog.show();
   }
 
+  public void onShowLaunchTraces() {
+    LaunchTracesController launchTracesController = uiService.loadFxml("theme/launch_traces.fxml");
+    uiService.showInDialog(mainRoot, launchTracesController.getRoot(), i18n.get("launchTraces.title"));
+  }
+
   public void onLinksAndHelp() {
     LinksAndHelpController linksAndHelpController = uiService.loadFxml("theme/links_and_help.fxml");
     Node root = linksAndHelpController.getRoot();
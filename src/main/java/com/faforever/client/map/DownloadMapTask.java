@@ -1,18 +1,16 @@
 package com.faforever.client.map;
 
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.commons.io.Unzipper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.io.InputStream;
 import java.net.URL;
-import java.net.URLConnection;
 import java.nio.file.Path;
 import java.util.Objects;
 
@@ -23,16 +21,18 @@ public class DownloadMapTask extends CompletableTask<Void> {
 
   private final PreferencesService preferencesService;
   private final I18n i18n;
+  private final DownloadService downloadService;
 
   private URL mapUrl;
   private String folderName;
 
   @Inject
-  public DownloadMapTask(PreferencesService preferencesService, I18n i18n) {
+  public DownloadMapTask(PreferencesService preferencesService, I18n i18n, DownloadService downloadService) {
     super(Priority.HIGH);
 
     this.preferencesService = preferencesService;
     this.i18n = i18n;
+    this.downloadService = downloadService;
   }
 
   @Override
@@ -43,19 +43,8 @@ public class DownloadMapTask extends CompletableTask<Void> {
     updateTitle(i18n.get("mapDownloadTask.title", folderName));
     log.info("Downloading map {} from {}", folderName, mapUrl);
 
-    URLConnection urlConnection = mapUrl.openConnection();
-    int bytesToRead = urlConnection.getContentLength();
-
     Path targetDirectory = preferencesService.getPreferences().getForgedAlliance().getCustomMapsDirectory();
-
-    try (InputStream inputStream = urlConnection.getInputStream()) {
-      Unzipper.from(inputStream)
-          .zipBombByteCountThreshold(100_000_000)
-          .to(targetDirectory)
-          .totalBytes(bytesToRead)
-          .listener(this::updateProgress)
-          .unzip();
-    }
+    downloadService.downloadAndExtract(mapUrl, targetDirectory, this::updateProgress);
 
     return null;
   }
@@ -6,6 +6,9 @@ import com.faforever.client.config.ClientProperties.Vault;
 import com.faforever.client.fa.FaStrings;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.ContentStore;
+import com.faforever.client.io.DirectoryWatcherService;
+import com.faforever.client.io.FileUtils;
 import com.faforever.client.leaderboard.LeaderboardRating;
 import com.faforever.client.map.MapBean.Type;
 import com.faforever.client.map.generator.MapGeneratedEvent;
@@ -21,8 +24,10 @@ import com.faforever.client.task.CompletableTask.Priority;
 import com.faforever.client.task.TaskService;
 import com.faforever.client.teammatchmaking.MatchmakingQueue;
 import com.faforever.client.theme.UiService;
+import com.faforever.client.util.ConcurrentUtil;
 import com.faforever.client.util.ProgrammingError;
 import com.faforever.client.util.Tuple;
+import com.faforever.client.vault.search.LocalSearchIndex;
 import com.faforever.client.vault.search.SearchController.SearchConfig;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
@@ -49,6 +54,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 
 import javax.inject.Inject;
 import java.io.IOException;
@@ -56,16 +62,17 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
@@ -74,9 +81,8 @@ import static com.github.nocatch.NoCatch.noCatch;
 import static com.google.common.net.UrlEscapers.urlFragmentEscaper;
 import static java.lang.String.format;
 import static java.nio.file.Files.list;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toList;
 
 
 @Slf4j
@@ -98,12 +104,15 @@ public class MapService implements InitializingBean, DisposableBean {
   private final EventBus eventBus;
   private final ForgedAlliancePrefs forgedAlliancePreferences;
   private final PlayerService playerService;
+  private final DirectoryWatcherService directoryWatcherService;
+  private final ContentStore contentStore;
 
   private final String mapDownloadUrlFormat;
   private final String mapPreviewUrlFormat;
   private final Map<Path, MapBean> pathToMap = new HashMap<>();
   private final ObservableList<MapBean> installedMaps = FXCollections.observableArrayList();
   private final Map<String, MapBean> mapsByFolderName = new HashMap<>();
+  private final LocalSearchIndex<MapBean> installedMapIndex;
   @VisibleForTesting
   Set<String> officialMaps = ImmutableSet.of(
       "SCMP_001", "SCMP_002", "SCMP_003", "SCMP_004", "SCMP_005", "SCMP_006", "SCMP_007", "SCMP_008", "SCMP_009", "SCMP_010", "SCMP_011",
@@ -112,7 +121,7 @@ public class MapService implements InitializingBean, DisposableBean {
       "SCMP_034", "SCMP_035", "SCMP_036", "SCMP_037", "SCMP_038", "SCMP_039", "SCMP_040", "X1MP_001", "X1MP_002", "X1MP_003", "X1MP_004",
       "X1MP_005", "X1MP_006", "X1MP_007", "X1MP_008", "X1MP_009", "X1MP_010", "X1MP_011", "X1MP_012", "X1MP_014", "X1MP_017"
   );
-  private Thread directoryWatcherThread;
+  private Path watchedMapsDirectory;
 
   @Inject
   public MapService(PreferencesService preferencesService,
@@ -124,7 +133,9 @@ public class MapService implements InitializingBean, DisposableBean {
                     UiService uiService,
                     MapGeneratorService mapGeneratorService,
                     ClientProperties clientProperties,
-                    EventBus eventBus, PlayerService playerService) {
+                    EventBus eventBus, PlayerService playerService,
+                    DirectoryWatcherService directoryWatcherService,
+                    ContentStore contentStore) {
     this.preferencesService = preferencesService;
     this.taskService = taskService;
     this.applicationContext = applicationContext;
@@ -137,6 +148,8 @@ public class MapService implements InitializingBean, DisposableBean {
     this.eventBus = eventBus;
     forgedAlliancePreferences = preferencesService.getPreferences().getForgedAlliance();
     this.playerService = playerService;
+    this.directoryWatcherService = directoryWatcherService;
+    this.contentStore = contentStore;
     Vault vault = clientProperties.getVault();
     this.mapDownloadUrlFormat = vault.getMapDownloadUrlFormat();
     this.mapPreviewUrlFormat = vault.getMapPreviewUrlFormat();
@@ -151,6 +164,15 @@ public class MapService implements InitializingBean, DisposableBean {
         }
       }
     });
+    installedMapIndex = new LocalSearchIndex<>(installedMaps)
+        .textAttribute("displayName", MapBean::getDisplayName)
+        .textAttribute("latestVersion.folderName", MapBean::getFolderName)
+        .textAttribute("author.login", MapBean::getAuthor)
+        .textAttribute("latestVersion.description", MapBean::getDescription)
+        .numberAttribute("latestVersion.maxPlayers", MapBean::getPlayers)
+        .numberAttribute("latestVersion.width", map -> map.getSize() == null ? null : map.getSize().getWidthInPixels())
+        .numberAttribute("latestVersion.height", map -> map.getSize() == null ? null : map.getSize().getHeightInPixels())
+        .numberAttribute("latestVersion.ranked", map -> map.isRanked() ? 1 : 0);
   }
 
   private static URL getDownloadUrl(String mapName, String baseUrl) {
@@ -183,8 +205,9 @@ public class MapService implements InitializingBean, DisposableBean {
 
     try {
       Files.createDirectories(mapsDirectory);
-      Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
-      directoryWatcherThread = startDirectoryWatcher(mapsDirectory);
+      Optional.ofNullable(watchedMapsDirectory).ifPresent(directoryWatcherService::unwatch);
+      directoryWatcherService.watch(mapsDirectory, this::onMapsDirectoryChanged);
+      watchedMapsDirectory = mapsDirectory;
     } catch (IOException e) {
       log.warn("Could not start map directory watcher", e);
       // TODO notify user
@@ -194,36 +217,10 @@ public class MapService implements InitializingBean, DisposableBean {
     loadInstalledMaps();
   }
 
-  private Thread startDirectoryWatcher(Path mapsDirectory) {
-    Thread thread = new Thread(() -> noCatch(() -> {
-      try (WatchService watcher = mapsDirectory.getFileSystem().newWatchService()) {
-        forgedAlliancePreferences.getCustomMapsDirectory().register(watcher, ENTRY_DELETE, ENTRY_CREATE);
-        while (!Thread.interrupted()) {
-          WatchKey key = watcher.take();
-          key.pollEvents().stream()
-              .filter(event -> event.kind() == ENTRY_DELETE || event.kind() == ENTRY_CREATE)
-              .forEach(event -> {
-                if (event.kind() == ENTRY_DELETE) {
-                  removeMap(mapsDirectory.resolve((Path) event.context()));
-                } else if (event.kind() == ENTRY_CREATE) {
-                  Path mapPath = mapsDirectory.resolve((Path) event.context());
-                  try {
-                    Thread.sleep(1000);
-                  } catch (InterruptedException e) {
-                    log.debug("Thread interrupted ({})", e.getMessage());
-                  }
-                  addInstalledMap(mapPath);
-                }
-              });
-          key.reset();
-        }
-      } catch (InterruptedException e) {
-        log.debug("Watcher terminated ({})", e.getMessage());
-      }
-    }));
-    thread.setDaemon(true);
-    thread.start();
-    return thread;
+  private void onMapsDirectoryChanged(List<Path> changedPaths, List<Path> removedPaths) {
+    removedPaths.forEach(this::removeMap);
+    addInstalledMaps(changedPaths, () -> {
+    });
   }
 
   private void loadInstalledMaps() {
@@ -239,15 +236,11 @@ public class MapService implements InitializingBean, DisposableBean {
               .map(officialMapsPath::resolve)
               .collect(toCollection(() -> mapPaths));
 
+          mapPaths.removeIf(mapPath -> mapPath.getFileName().toString().equals(DEBUG) || FileUtils.isHiddenEntry(mapPath));
+
           long totalMaps = mapPaths.size();
-          long mapsRead = 0;
-          for (Path mapPath : mapPaths) {
-            if (mapPath.getFileName().toString().equals(DEBUG)) {
-              continue;
-            }
-            updateProgress(++mapsRead, totalMaps);
-            addInstalledMap(mapPath);
-          }
+          AtomicLong mapsRead = new AtomicLong();
+          addInstalledMaps(mapPaths, () -> updateProgress(mapsRead.incrementAndGet(), totalMaps));
         } catch (IOException e) {
           log.warn("Maps could not be read from: " + forgedAlliancePreferences.getCustomMapsDirectory(), e);
         }
@@ -256,20 +249,74 @@ public class MapService implements InitializingBean, DisposableBean {
     });
   }
 
-  private void removeMap(Path path) {
+  private synchronized void removeMap(Path path) {
     installedMaps.remove(pathToMap.remove(path));
+    forgetStoredContent(path);
   }
 
+  /**
+   * Map folders which have been deleted outside of the client no longer keep their files in the content store.
+   */
+  private void forgetStoredContent(Path path) {
+    if (Files.exists(path)) {
+      return;
+    }
+    try {
+      contentStore.forget(path);
+    } catch (IOException e) {
+      log.warn("Could not remove '{}' from the content store", path, e);
+    }
+  }
+
+  /**
+   * Reads the map folder and adds it to the installed maps, unless it can't be read, which is only logged.
+   */
   @VisibleForTesting
-  void addInstalledMap(Path path) throws MapLoadException {
+  void addInstalledMap(Path path) {
+    MapBean mapBean = tryReadMap(path);
+    if (mapBean != null) {
+      putInstalledMap(path, mapBean);
+    }
+  }
+
+  /**
+   * Reads the specified map folders in parallel and adds them to the installed maps.
+   *
+   * @param onMapRead called after each map folder has been read, from any thread
+   */
+  private void addInstalledMaps(Collection<Path> paths, Runnable onMapRead) {
+    List<Tuple<Path, MapBean>> mapsWithPaths = paths.parallelStream()
+        .map(path -> {
+          MapBean mapBean = tryReadMap(path);
+          onMapRead.run();
+          return mapBean == null ? null : new Tuple<>(path, mapBean);
+        })
+        .filter(Objects::nonNull)
+        .collect(toList());
+    mapsWithPaths.forEach(tuple -> putInstalledMap(tuple.getFirst(), tuple.getSecond()));
+  }
+
+  @Nullable
+  private MapBean tryReadMap(Path path) {
     try {
-      MapBean mapBean = readMap(path);
-      pathToMap.put(path, mapBean);
-      if (!mapsByFolderName.containsKey(mapBean.getFolderName())) {
-        installedMaps.add(mapBean);
-      }
+      return readMap(path);
     } catch (MapLoadException e) {
       log.warn("Map could not be read: " + path.getFileName(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Adds the map to the installed maps or, if the folder has been read before, replaces the map read back then.
+   */
+  private synchronized void putInstalledMap(Path path, MapBean mapBean) {
+    pathToMap.put(path, mapBean);
+    MapBean installedMap = mapsByFolderName.get(mapBean.getFolderName().toLowerCase());
+    int index = installedMaps.indexOf(installedMap);
+    if (index == -1) {
+      installedMaps.add(mapBean);
+    } else {
+      installedMaps.set(index, mapBean);
     }
   }
 
@@ -536,8 +583,29 @@ public class MapService implements InitializingBean, DisposableBean {
         .getContentLength()));
   }
 
+  /**
+   * Searches the vault. If the API can't be reached, the installed maps are searched instead.
+   */
   public CompletableFuture<Tuple<List<MapBean>, Integer>> findByQueryWithPageCount(SearchConfig searchConfig, int count, int page) {
-    return fafService.findMapsByQueryWithPageCount(searchConfig, count, page);
+    return fafService.findMapsByQueryWithPageCount(searchConfig, count, page)
+        .exceptionallyCompose(throwable -> {
+          if (!(ConcurrentUtil.unwrapIfCompletionException(throwable) instanceof ResourceAccessException)) {
+            return CompletableFuture.failedFuture(throwable);
+          }
+          log.warn("Map vault could not be reached, searching installed maps instead", throwable);
+          return findInstalledByQueryWithPageCount(searchConfig, count, page);
+        });
+  }
+
+  /**
+   * Searches the installed maps using the same query syntax as the map vault.
+   */
+  public CompletableFuture<Tuple<List<MapBean>, Integer>> findInstalledByQueryWithPageCount(SearchConfig searchConfig, int count, int page) {
+    try {
+      return CompletableFuture.completedFuture(installedMapIndex.search(searchConfig, count, page));
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.failedFuture(e);
+    }
   }
 
   public Optional<MapBean> findMap(String id) {
@@ -574,7 +642,7 @@ public class MapService implements InitializingBean, DisposableBean {
     }
 
     return taskService.submitTask(task).getFuture()
-        .thenAccept(aVoid -> noCatch(() -> addInstalledMap(getPathForMapInsensitive(folderName))));
+        .thenAccept(aVoid -> addInstalledMap(getPathForMapInsensitive(folderName)));
   }
 
   public CompletableFuture<Tuple<List<MapBean>, Integer>> getOwnedMapsWithPageCount(int loadMoreCount, int page) {
@@ -596,7 +664,7 @@ public class MapService implements InitializingBean, DisposableBean {
 
   @Override
   public void destroy() {
-    Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
+    Optional.ofNullable(watchedMapsDirectory).ifPresent(directoryWatcherService::unwatch);
   }
 
   public enum PreviewSize {
@@ -2,12 +2,11 @@ package com.faforever.client.map;
 
 import com.faforever.client.api.FafApiAccessor;
 import com.faforever.client.i18n.I18n;
-import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.io.UploadService;
 import com.faforever.client.task.CompletableTask;
 import com.faforever.client.task.ResourceLocks;
 import com.faforever.client.util.Validator;
 import com.faforever.commons.io.ByteCountListener;
-import com.faforever.commons.io.Zipper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -15,21 +14,17 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.io.OutputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Locale;
 
 import static com.faforever.commons.io.Bytes.formatSize;
-import static java.nio.file.Files.createTempFile;
-import static java.nio.file.Files.newOutputStream;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Slf4j
 public class MapUploadTask extends CompletableTask<Void> implements InitializingBean {
 
-  private final PreferencesService preferencesService;
+  private final UploadService uploadService;
   private final FafApiAccessor fafApiAccessor;
   private final I18n i18n;
 
@@ -37,9 +32,9 @@ public class MapUploadTask extends CompletableTask<Void> implements Initializing
   private Boolean isRanked;
 
   @Inject
-  public MapUploadTask(PreferencesService preferencesService, FafApiAccessor fafApiAccessor, I18n i18n) {
+  public MapUploadTask(UploadService uploadService, FafApiAccessor fafApiAccessor, I18n i18n) {
     super(Priority.HIGH);
-    this.preferencesService = preferencesService;
+    this.uploadService = uploadService;
     this.fafApiAccessor = fafApiAccessor;
     this.i18n = i18n;
   }
@@ -55,13 +50,8 @@ public class MapUploadTask extends CompletableTask<Void> implements Initializing
     Validator.notNull(isRanked, "isRanked must not be null");
 
     ResourceLocks.acquireUploadLock();
-    Path cacheDirectory = preferencesService.getCacheDirectory();
-    Files.createDirectories(cacheDirectory);
-    Path tmpFile = createTempFile(cacheDirectory, "map", ".zip");
-
     try {
-      log.debug("Zipping map {} to {}", mapPath, tmpFile);
-      updateTitle(i18n.get("mapVault.upload.compressing"));
+      updateTitle(i18n.get("mapVault.upload.uploading"));
 
       Locale locale = i18n.getUserSpecificLocale();
       ByteCountListener byteListener = (written, total) -> {
@@ -69,20 +59,9 @@ public class MapUploadTask extends CompletableTask<Void> implements Initializing
         updateProgress(written, total);
       };
 
-      try (OutputStream outputStream = newOutputStream(tmpFile)) {
-        Zipper.of(mapPath)
-            .to(outputStream)
-            .listener(byteListener)
-            .zip();
-      }
-
-      log.debug("Uploading map {} as {}", mapPath, tmpFile);
-      updateTitle(i18n.get("mapVault.upload.uploading"));
-
-      fafApiAccessor.uploadMap(tmpFile, isRanked, byteListener);
+      uploadService.zipAndUpload(mapPath, byteListener, file -> fafApiAccessor.uploadMap(file, isRanked));
       return null;
     } finally {
-      Files.delete(tmpFile);
       ResourceLocks.freeUploadLock();
     }
   }
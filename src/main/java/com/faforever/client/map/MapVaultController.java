@@ -75,6 +75,7 @@ public class MapVaultController extends VaultEntityController<MapBean> {
     searchController.setSearchableProperties(SearchablePropertyMappings.MAP_PROPERTY_MAPPING);
     searchController.setSortConfig(preferencesService.getPreferences().getVault().mapSortConfigProperty());
     searchController.setOnlyShowLastYearCheckBoxVisible(false);
+    searchController.setOnlyInstalledCheckBoxVisible(true);
     searchController.setVaultRoot(vaultRoot);
     searchController.setSavedQueries(preferencesService.getPreferences().getVault().getSavedMapQueries());
 
@@ -108,6 +109,7 @@ public class MapVaultController extends VaultEntityController<MapBean> {
   protected void setSupplier(SearchConfig searchConfig) {
     switch (searchType) {
       case SEARCH -> currentSupplier = mapService.findByQueryWithPageCount(searchConfig, pageSize, pagination.getCurrentPageIndex() + 1);
+      case INSTALLED -> currentSupplier = mapService.findInstalledByQueryWithPageCount(searchConfig, pageSize, pagination.getCurrentPageIndex() + 1);
       case RECOMMENDED -> currentSupplier = mapService.getRecommendedMapsWithPageCount(pageSize, pagination.getCurrentPageIndex() + 1);
       case NEWEST -> currentSupplier = mapService.getNewestMapsWithPageCount(pageSize, pagination.getCurrentPageIndex() + 1);
       case HIGHEST_RATED -> currentSupplier = mapService.getHighestRatedMapsWithPageCount(pageSize, pagination.getCurrentPageIndex() + 1);
@@ -0,0 +1,194 @@
+package com.faforever.client.map;
+
+import com.faforever.client.game.GameService;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.map.generator.MapGeneratorService;
+import com.faforever.client.preferences.MatchmakerPrefs;
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.teammatchmaking.MatchmakingQueue;
+import com.faforever.commons.io.ByteCountListener;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads the maps of a matchmaker queue's pool for the player's rating bracket in the background while the player
+ * is searching, so that the map is most likely installed when the match is found. Maps are downloaded one after
+ * another on a low priority thread, in one piece and at no more than the configured bandwidth. A download that is
+ * running when a game starts is aborted, keeping the partially downloaded file, and started again once the game has
+ * ended.
+ */
+@Lazy
+@Service
+@Slf4j
+public class MatchmakerMapPrefetcher implements DisposableBean {
+
+  private static final int POOL_PAGE_SIZE = 100;
+
+  private final MapService mapService;
+  private final MapGeneratorService mapGeneratorService;
+  private final DownloadService downloadService;
+  private final GameService gameService;
+  private final PreferencesService preferencesService;
+  private final ExecutorService prefetchExecutor;
+  private final Set<String> queuedFolderNames = ConcurrentHashMap.newKeySet();
+  /** Maps whose prefetch has been aborted or held back by a running game, to be prefetched once it has ended. */
+  private final Map<MapBean, Integer> deferredPrefetches = new ConcurrentHashMap<>();
+  /** Incremented on {@link #cancel()}; prefetches that were queued in an older generation are dropped. */
+  private final AtomicInteger generation = new AtomicInteger();
+
+  public MatchmakerMapPrefetcher(MapService mapService, MapGeneratorService mapGeneratorService,
+                                 DownloadService downloadService, GameService gameService,
+                                 PreferencesService preferencesService) {
+    this.mapService = mapService;
+    this.mapGeneratorService = mapGeneratorService;
+    this.downloadService = downloadService;
+    this.gameService = gameService;
+    this.preferencesService = preferencesService;
+    this.prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "map-pool-prefetcher");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    gameService.gameRunningProperty().addListener((observable, oldValue, running) -> {
+      if (!running) {
+        resumeDeferredPrefetches();
+      }
+    });
+  }
+
+  /**
+   * Queues all maps of the specified queue's pool which are not installed yet for download.
+   */
+  public void prefetchPool(MatchmakingQueue queue) {
+    if (!getMatchmakerPrefs().isMapPoolPrefetchEnabled()) {
+      return;
+    }
+
+    int currentGeneration = generation.get();
+    try {
+      mapService.getMatchmakerMapsWithPageCount(queue, POOL_PAGE_SIZE, 1)
+          .thenAccept(result -> result.getFirst().stream()
+              .filter(map -> !mapService.isInstalled(map.getFolderName()))
+              .filter(map -> !mapGeneratorService.isGeneratedMap(map.getFolderName()))
+              .filter(map -> map.getDownloadUrl() != null)
+              .filter(map -> queuedFolderNames.add(map.getFolderName().toLowerCase(Locale.ROOT)))
+              .forEach(map -> prefetchExecutor.execute(() -> prefetch(map, currentGeneration))))
+          .exceptionally(throwable -> {
+            log.warn("Could not load map pool of queue '{}' for prefetching", queue.getQueueName(), throwable);
+            return null;
+          });
+    } catch (IllegalStateException e) {
+      log.debug("Not prefetching map pool of queue '{}' ({})", queue.getQueueName(), e.getMessage());
+    }
+  }
+
+  /**
+   * Drops all queued prefetches and aborts the one in progress. A partially downloaded map is kept so that a later
+   * download of the same map resumes it.
+   */
+  public void cancel() {
+    generation.incrementAndGet();
+    deferredPrefetches.keySet().forEach(map -> queuedFolderNames.remove(map.getFolderName().toLowerCase(Locale.ROOT)));
+    deferredPrefetches.clear();
+  }
+
+  private void resumeDeferredPrefetches() {
+    deferredPrefetches.keySet().forEach(map -> {
+      Integer prefetchGeneration = deferredPrefetches.remove(map);
+      if (prefetchGeneration != null) {
+        prefetchExecutor.execute(() -> prefetch(map, prefetchGeneration));
+      }
+    });
+  }
+
+  @VisibleForTesting
+  void prefetch(MapBean map, int prefetchGeneration) {
+    String folderName = map.getFolderName();
+    boolean deferred = false;
+    try {
+      if (prefetchGeneration != generation.get() || mapService.isInstalled(folderName)) {
+        return;
+      }
+      if (gameService.isGameRunning()) {
+        deferred = defer(map, prefetchGeneration);
+        return;
+      }
+      log.debug("Prefetching map '{}'", folderName);
+      Path customMapsDirectory = preferencesService.getPreferences().getForgedAlliance().getCustomMapsDirectory();
+      long maxBytesPerSecond = getMatchmakerPrefs().getMapPoolPrefetchBandwidthLimit() * 1024L;
+      downloadService.downloadAndExtract(map.getDownloadUrl(), customMapsDirectory, new AbortingListener(prefetchGeneration), (written, total) -> {
+      }, maxBytesPerSecond);
+    } catch (CancellationException e) {
+      if (prefetchGeneration == generation.get()) {
+        log.debug("Prefetching map '{}' has been aborted by a game, resuming it after the game", folderName);
+        deferred = defer(map, prefetchGeneration);
+      } else {
+        log.debug("Prefetching map '{}' has been cancelled", folderName);
+      }
+    } catch (Exception e) {
+      log.warn("Could not prefetch map '{}'", folderName, e);
+    } finally {
+      if (!deferred) {
+        queuedFolderNames.remove(folderName.toLowerCase(Locale.ROOT));
+      }
+    }
+  }
+
+  /**
+   * Holds the prefetch back until the running game has ended. If the game has ended in the meantime, the prefetch is
+   * queued again right away.
+   */
+  private boolean defer(MapBean map, int prefetchGeneration) {
+    deferredPrefetches.put(map, prefetchGeneration);
+    if (!gameService.isGameRunning()) {
+      resumeDeferredPrefetches();
+    }
+    return true;
+  }
+
+  private MatchmakerPrefs getMatchmakerPrefs() {
+    return preferencesService.getPreferences().getMatchmaker();
+  }
+
+  @Override
+  public void destroy() {
+    cancel();
+    prefetchExecutor.shutdownNow();
+  }
+
+  /**
+   * Aborts the download if the prefetcher has been cancelled or a game has been started. It must not block, since it's
+   * called while the download holds its locks.
+   */
+  private class AbortingListener implements ByteCountListener {
+    private final int prefetchGeneration;
+
+    private AbortingListener(int prefetchGeneration) {
+      this.prefetchGeneration = prefetchGeneration;
+    }
+
+    @Override
+    public void updateBytesProcessed(long bytesProcessed, long totalBytes) {
+      if (prefetchGeneration != generation.get()) {
+        throw new CancellationException("Prefetch cancelled");
+      }
+      if (gameService.isGameRunning()) {
+        throw new CancellationException("Game started");
+      }
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.faforever.client.map;
 
+import com.faforever.client.io.ContentStore;
 import com.faforever.client.io.FileUtils;
 import com.faforever.client.task.CompletableTask;
 import lombok.extern.slf4j.Slf4j;
@@ -17,13 +18,15 @@ import java.util.Objects;
 public class UninstallMapTask extends CompletableTask<Void> {
 
   private final MapService mapService;
+  private final ContentStore contentStore;
 
   private MapBean map;
 
   @Inject
-  public UninstallMapTask(MapService mapService) {
+  public UninstallMapTask(MapService mapService, ContentStore contentStore) {
     super(Priority.LOW);
     this.mapService = mapService;
+    this.contentStore = contentStore;
   }
 
   public void setMap(MapBean map) {
@@ -37,6 +40,8 @@ public class UninstallMapTask extends CompletableTask<Void> {
     log.info("Uninstalling map '{}'", map.getFolderName());
     Path mapPath = mapService.getPathForMap(map);
     FileUtils.deleteRecursively(mapPath);
+    contentStore.forget(mapPath);
+    contentStore.purge();
     log.info("Map {} was uninstalled successfully", map.getFolderName());
 
     return null;
@@ -2,24 +2,19 @@ package com.faforever.client.map.generator;
 
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.notification.NotificationService;
-import com.faforever.client.os.OsUtils;
-import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
 import com.google.common.eventbus.EventBus;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.maven.artifact.versioning.ComparableVersion;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.nio.file.Path;
-import java.util.List;
+import java.time.Duration;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 
 @Slf4j
@@ -27,9 +22,7 @@ import java.util.regex.Matcher;
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Setter
 public class GenerateMapTask extends CompletableTask<String> {
-  private static final Logger generatorLogger = LoggerFactory.getLogger("faf-map-generator");
-
-  private final PreferencesService preferencesService;
+  private final MapGeneratorRunner mapGeneratorRunner;
   private final NotificationService notificationService;
   private final I18n i18n;
   private final EventBus eventBus;
@@ -53,10 +46,10 @@ public class GenerateMapTask extends CompletableTask<String> {
   private String commandLineArgs;
 
   @Inject
-  public GenerateMapTask(PreferencesService preferencesService, NotificationService notificationService, I18n i18n, EventBus eventBus) {
+  public GenerateMapTask(MapGeneratorRunner mapGeneratorRunner, NotificationService notificationService, I18n i18n, EventBus eventBus) {
     super(Priority.HIGH);
 
-    this.preferencesService = preferencesService;
+    this.mapGeneratorRunner = mapGeneratorRunner;
     this.notificationService = notificationService;
     this.i18n = i18n;
     this.eventBus = eventBus;
@@ -88,22 +81,8 @@ public class GenerateMapTask extends CompletableTask<String> {
         .commandLineArgs(commandLineArgs)
         .build();
 
-    Path workingDirectory = preferencesService.getPreferences().getForgedAlliance().getCustomMapsDirectory();
-
     try {
-      List<String> command = generatorCommand.getCommand();
-
-      ProcessBuilder processBuilder = new ProcessBuilder();
-      processBuilder.directory(workingDirectory.toFile());
-      processBuilder.command(command);
-      processBuilder.environment().put("LOG_DIR", preferencesService.getFafLogDirectory().toAbsolutePath().toString());
-
-      log.info("Starting map generator in directory: {} with command: {}",
-          processBuilder.directory(), String.join(" ", processBuilder.command()));
-
-      Process process = processBuilder.start();
-      OsUtils.gobbleLines(process.getInputStream(), msg -> {
-        generatorLogger.info(msg);
+      boolean finished = mapGeneratorRunner.run(generatorCommand, Duration.ofSeconds(MapGeneratorService.GENERATION_TIMEOUT_SECONDS), msg -> {
         if (mapFilename == null || mapFilename.isBlank()) {
           Matcher mapNameMatcher = MapGeneratorService.GENERATED_MAP_PATTERN.matcher(msg);
           if (mapNameMatcher.find()) {
@@ -111,11 +90,8 @@ public class GenerateMapTask extends CompletableTask<String> {
           }
         }
       });
-      OsUtils.gobbleLines(process.getErrorStream(), generatorLogger::error);
-      process.waitFor(MapGeneratorService.GENERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-      if (process.isAlive()) {
-        log.warn("Map generation timed out, killing process...");
-        process.destroyForcibly();
+      if (!finished) {
+        log.warn("Map generation timed out");
         notificationService.addImmediateErrorNotification(new RuntimeException("Map generation timed out"), "game.mapGeneration.failed.message");
       } else {
         eventBus.post(new MapGeneratedEvent(mapFilename));
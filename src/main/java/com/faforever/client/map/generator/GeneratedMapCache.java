@@ -0,0 +1,239 @@
+package com.faforever.client.map.generator;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.io.CacheLedger;
+import com.faforever.client.io.FileUtils;
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.task.ResourceLocks;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.eventbus.EventBus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps generated maps for later games, since generating a map takes much longer than moving a folder. A generated
+ * map is fully determined by the generator version and seed encoded in its name, so the name is the cache key.
+ * Generated maps left in the custom maps directory by the previous session are moved into the client's cache directory
+ * at startup, and moved back when they are requested again. The cache must not live below the custom maps directory,
+ * since the game searches it recursively and would list cached maps. The least recently used maps are deleted once the
+ * cache exceeds its size budget.
+ */
+@Lazy
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class GeneratedMapCache {
+
+  @VisibleForTesting
+  static final String CACHE_DIRECTORY_NAME = "generated-maps";
+  private static final String LEDGER_FILE_NAME = "generated-map-cache.json";
+  private static final long BYTES_PER_MEGABYTE = 1024L * 1024;
+
+  private final PreferencesService preferencesService;
+  private final ClientProperties clientProperties;
+  private final ExecutorService executorService;
+  private final EventBus eventBus;
+
+  private CacheLedger ledger;
+
+  /**
+   * Moves the generated maps in the custom maps directory into the cache and evicts maps in the background. A map's
+   * last use is the last modification time of its folder, which is updated whenever the map is restored.
+   */
+  public void cacheGeneratedMaps() {
+    Path customMapsDirectory = getCustomMapsDirectory();
+    if (customMapsDirectory == null || !Files.isDirectory(customMapsDirectory)) {
+      return;
+    }
+    Path cacheDirectory = getCacheDirectory();
+
+    List<Path> generatedMaps;
+    try (Stream<Path> mapDirectories = Files.list(customMapsDirectory)) {
+      generatedMaps = mapDirectories
+          .filter(Files::isDirectory)
+          .filter(GeneratedMapCache::isGeneratedMap)
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      log.error("Could not list custom maps directory for caching generated maps", e);
+      return;
+    }
+
+    log.info("Moving {} generated maps into the cache", generatedMaps.size());
+    for (Path generatedMap : generatedMaps) {
+      String mapName = generatedMap.getFileName().toString();
+      try {
+        Files.createDirectories(cacheDirectory);
+        long lastUse = Files.getLastModifiedTime(generatedMap).toMillis();
+        Path cachedMap = cacheDirectory.resolve(mapName);
+        FileUtils.replaceAtomically(generatedMap, cachedMap, cacheDirectory);
+        getLedger().recordAccess(mapName, sizeOf(cachedMap), lastUse);
+      } catch (IOException e) {
+        log.warn("Could not move generated map '{}' into the cache", mapName, e);
+      }
+    }
+    getLedger().save();
+
+    CompletableFuture.runAsync(this::evictCachedMaps, executorService).exceptionally(throwable -> {
+      log.error("Evicting generated maps from cache failed", throwable);
+      return null;
+    });
+  }
+
+  /**
+   * Moves the specified map from the cache back into the custom maps directory, if it is cached.
+   *
+   * @return a future that completes with {@code true} if the map has been restored, or {@code false} if it needs to
+   * be generated
+   */
+  public CompletableFuture<Boolean> restore(String mapName) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return restoreMap(mapName);
+      } catch (IOException e) {
+        log.warn("Could not restore generated map '{}' from the cache", mapName, e);
+        return false;
+      }
+    }, executorService);
+  }
+
+  private boolean restoreMap(String mapName) throws IOException {
+    Path customMapsDirectory = getCustomMapsDirectory();
+    if (customMapsDirectory == null) {
+      return false;
+    }
+    Path cachedMap = getCacheDirectory().resolve(mapName);
+
+    ResourceLocks.acquireDiskLock();
+    try {
+      if (!Files.isDirectory(cachedMap)) {
+        return false;
+      }
+      Path mapDirectory = customMapsDirectory.resolve(mapName);
+      Path stagingDirectory = Files.createDirectories(customMapsDirectory.resolve(FileUtils.STAGING_DIRECTORY_NAME));
+      FileUtils.replaceAtomically(cachedMap, mapDirectory, stagingDirectory);
+      Files.setLastModifiedTime(mapDirectory, FileTime.fromMillis(System.currentTimeMillis()));
+      getLedger().remove(mapName);
+      getLedger().save();
+    } finally {
+      ResourceLocks.freeDiskLock();
+    }
+
+    log.info("Restored generated map '{}' from the cache", mapName);
+    eventBus.post(new MapGeneratedEvent(mapName));
+    return true;
+  }
+
+  /**
+   * Brings the ledger up to date with the maps in the cache directory, then deletes the least recently used maps until
+   * the cache fits into its size budget. The disk lock is only held while deleting a single map.
+   */
+  @VisibleForTesting
+  void evictCachedMaps() {
+    Path cacheDirectory = getCacheDirectory();
+    if (!Files.isDirectory(cacheDirectory)) {
+      return;
+    }
+    CacheLedger ledger = getLedger();
+
+    Set<String> cachedMaps = new HashSet<>();
+    try (Stream<Path> mapDirectories = Files.list(cacheDirectory)) {
+      mapDirectories
+          .filter(Files::isDirectory)
+          .filter(GeneratedMapCache::isGeneratedMap)
+          .forEach(mapDirectory -> {
+            String mapName = mapDirectory.getFileName().toString();
+            cachedMaps.add(mapName);
+            try {
+              if (ledger.getLastAccess(mapName) == null) {
+                ledger.recordAccess(mapName, sizeOf(mapDirectory), Files.getLastModifiedTime(mapDirectory).toMillis());
+              }
+            } catch (IOException e) {
+              log.debug("Could not read attributes of cached map '{}'", mapDirectory, e);
+            }
+          });
+    } catch (IOException | UncheckedIOException e) {
+      log.error("Reading generated maps cache failed", e);
+      return;
+    }
+    ledger.retainAll(cachedMaps);
+
+    long maxSize = clientProperties.getMapGenerator().getMaxCacheSizeInMegabytes() * BYTES_PER_MEGABYTE;
+    for (String mapName : ledger.getLeastRecentlyAccessed()) {
+      if (ledger.getTotalSize() <= maxSize) {
+        break;
+      }
+      deleteCachedMap(cacheDirectory.resolve(mapName), mapName);
+    }
+    ledger.save();
+  }
+
+  private void deleteCachedMap(Path mapDirectory, String mapName) {
+    ResourceLocks.acquireDiskLock();
+    try {
+      if (getLedger().getLastAccess(mapName) == null) {
+        // Restored since eviction started
+        return;
+      }
+      log.debug("Deleting cached generated map '{}'", mapDirectory);
+      if (Files.exists(mapDirectory)) {
+        FileUtils.deleteRecursively(mapDirectory);
+      }
+      getLedger().remove(mapName);
+    } catch (IOException e) {
+      log.warn("Could not delete cached generated map '{}'", mapDirectory, e);
+    } finally {
+      ResourceLocks.freeDiskLock();
+    }
+  }
+
+  private Path getCustomMapsDirectory() {
+    return preferencesService.getPreferences().getForgedAlliance().getCustomMapsDirectory();
+  }
+
+  private Path getCacheDirectory() {
+    return preferencesService.getCacheDirectory().resolve(CACHE_DIRECTORY_NAME);
+  }
+
+  private static boolean isGeneratedMap(Path mapDirectory) {
+    return MapGeneratorService.GENERATED_MAP_PATTERN.matcher(mapDirectory.getFileName().toString()).matches();
+  }
+
+  private static long sizeOf(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      return files
+          .filter(Files::isRegularFile)
+          .mapToLong(file -> {
+            try {
+              return Files.size(file);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          })
+          .sum();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private synchronized CacheLedger getLedger() {
+    if (ledger == null) {
+      ledger = new CacheLedger(preferencesService.getCacheDirectory().resolve(LEDGER_FILE_NAME));
+    }
+    return ledger;
+  }
+}
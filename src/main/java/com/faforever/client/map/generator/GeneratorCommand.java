@@ -33,21 +33,37 @@ public class GeneratorCommand {
   String commandLineArgs;
   String query;
 
+  /**
+   * Returns the path to the executable of the Java runtime the client runs on, which is also used to run the generator.
+   */
+  static String getJavaPath() {
+    return Paths.get(System.getProperty("java.home")).resolve("bin").resolve(org.bridj.Platform.isWindows() ? "java.exe" : "java").toAbsolutePath().toString();
+  }
+
   public List<String> getCommand() {
-    String javaPath = Paths.get(System.getProperty("java.home")).resolve("bin").resolve(org.bridj.Platform.isWindows() ? "java.exe" : "java").toAbsolutePath().toString();
+    String javaPath = getJavaPath();
     if (generatorExecutableFile == null) {
       throw new IllegalStateException("Map generator path not set");
     }
     List<String> command = new ArrayList<>(List.of(javaPath, "-jar", generatorExecutableFile.toAbsolutePath().toString()));
+    command.addAll(getArguments());
+    return command;
+  }
+
+  /**
+   * Returns the arguments to pass to the generator's main method, without the command to start the generator.
+   */
+  public List<String> getArguments() {
+    List<String> arguments = new ArrayList<>();
     if (version.compareTo(new ComparableVersion("1")) >= 0) {
       if (commandLineArgs != null) {
-        command.addAll(Arrays.asList(commandLineArgs.split(" ")));
-        return command;
+        arguments.addAll(Arrays.asList(commandLineArgs.split(" ")));
+        return arguments;
       }
 
       if (query != null) {
-        command.add(query);
-        return command;
+        arguments.add(query);
+        return arguments;
       }
 
       if (mapFilename == null && (mapSize == null || spawnCount == null || numTeams == null)) {
@@ -55,53 +71,52 @@ public class GeneratorCommand {
       }
 
       if (mapFilename == null) {
-        command.addAll(Arrays.asList("--map-size", mapSize.toString(), "--spawn-count", spawnCount.toString(), "--num-teams", numTeams.toString()));
+        arguments.addAll(Arrays.asList("--map-size", mapSize.toString(), "--spawn-count", spawnCount.toString(), "--num-teams", numTeams.toString()));
 
         if (style != null) {
-          command.addAll(Arrays.asList("--style", style));
-          return command;
+          arguments.addAll(Arrays.asList("--style", style));
+          return arguments;
         }
 
         if (generationType != null) {
           switch (generationType) {
-            case BLIND -> command.add("--blind");
-            case TOURNAMENT -> command.add("--tournament-style");
-            case UNEXPLORED -> command.add("--unexplored");
+            case BLIND -> arguments.add("--blind");
+            case TOURNAMENT -> arguments.add("--tournament-style");
+            case UNEXPLORED -> arguments.add("--unexplored");
             default -> {
             }
           }
         }
 
         if (landDensity != null) {
-          command.addAll(Arrays.asList("--land-density", landDensity.toString()));
+          arguments.addAll(Arrays.asList("--land-density", landDensity.toString()));
         }
         if (mountainDensity != null) {
-          command.addAll(Arrays.asList("--mountain-density", mountainDensity.toString()));
+          arguments.addAll(Arrays.asList("--mountain-density", mountainDensity.toString()));
         }
         if (plateauDensity != null) {
-          command.addAll(Arrays.asList("--plateau-density", plateauDensity.toString()));
+          arguments.addAll(Arrays.asList("--plateau-density", plateauDensity.toString()));
         }
         if (rampDensity != null) {
-          command.addAll(Arrays.asList("--ramp-density", rampDensity.toString()));
+          arguments.addAll(Arrays.asList("--ramp-density", rampDensity.toString()));
         }
         if (mexDensity != null) {
-          command.addAll(Arrays.asList("--mex-density", mexDensity.toString()));
+          arguments.addAll(Arrays.asList("--mex-density", mexDensity.toString()));
         }
         if (reclaimDensity != null) {
-          command.addAll(Arrays.asList("--reclaim-density", reclaimDensity.toString()));
+          arguments.addAll(Arrays.asList("--reclaim-density", reclaimDensity.toString()));
         }
         if (biome != null) {
-          command.addAll(Arrays.asList("--biome", biome));
+          arguments.addAll(Arrays.asList("--biome", biome));
         }
 
       } else {
-        command.addAll(Arrays.asList("--map-name", mapFilename));
+        arguments.addAll(Arrays.asList("--map-name", mapFilename));
       }
 
-      return command;
+      return arguments;
     } else {
-      return Arrays.asList(javaPath, "-jar", generatorExecutableFile.toAbsolutePath().toString(), ".",
-          String.valueOf(seed), version.toString(), mapFilename);
+      return Arrays.asList(".", String.valueOf(seed), version.toString(), mapFilename);
     }
   }
 }
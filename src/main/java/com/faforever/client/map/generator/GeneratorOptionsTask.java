@@ -1,33 +1,29 @@
 package com.faforever.client.map.generator;
 
 import com.faforever.client.i18n.I18n;
-import com.faforever.client.os.OsUtils;
-import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.maven.artifact.versioning.ComparableVersion;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Setter
 public class GeneratorOptionsTask extends CompletableTask<List<String>> {
-  private static final Logger generatorLogger = LoggerFactory.getLogger("faf-map-generator");
+  private static final Duration QUERY_TIMEOUT = Duration.ofSeconds(2);
 
-  private final PreferencesService preferencesService;
+  private final MapGeneratorRunner mapGeneratorRunner;
   private final I18n i18n;
 
   private ComparableVersion version;
@@ -36,10 +32,10 @@ public class GeneratorOptionsTask extends CompletableTask<List<String>> {
   private List<String> options;
 
   @Inject
-  public GeneratorOptionsTask(PreferencesService preferencesService, I18n i18n) {
+  public GeneratorOptionsTask(MapGeneratorRunner mapGeneratorRunner, I18n i18n) {
     super(Priority.HIGH);
 
-    this.preferencesService = preferencesService;
+    this.mapGeneratorRunner = mapGeneratorRunner;
     this.i18n = i18n;
   }
 
@@ -58,25 +54,12 @@ public class GeneratorOptionsTask extends CompletableTask<List<String>> {
         .build();
 
     try {
-      List<String> command = generatorCommand.getCommand();
-
-      ProcessBuilder processBuilder = new ProcessBuilder();
-      processBuilder.command(command);
-      processBuilder.environment().put("LOG_DIR", preferencesService.getFafLogDirectory().toAbsolutePath().toString());
-
-      log.info("Starting map generator in directory: {} with command: {}",
-          processBuilder.directory(), String.join(" ", processBuilder.command()));
-
-      Process process = processBuilder.start();
-      OsUtils.gobbleLines(process.getInputStream(), msg -> {
+      boolean finished = mapGeneratorRunner.run(generatorCommand, QUERY_TIMEOUT, msg -> {
         if (!msg.contains(":")) {
           options.add(msg);
         }
       });
-      OsUtils.gobbleLines(process.getErrorStream(), generatorLogger::error);
-      process.waitFor(2, TimeUnit.SECONDS);
-      if (process.isAlive()) {
-        process.destroyForcibly();
+      if (!finished) {
         log.warn("Map generator option run timed out");
       }
     } catch (Exception e) {
@@ -0,0 +1,315 @@
+package com.faforever.client.map.generator;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.os.ProcessOutputPump;
+import com.faforever.client.os.ProcessOutputPump.ProcessOutput;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Runs the map generator. Generations are run by a {@link MapGeneratorWorker} process that is kept running for a while
+ * afterwards, so that consecutive generations, like re-rolling the map of a lobby, don't have to wait for a JVM to
+ * start. If the worker is busy with another generation, or disabled, a generator process is started just for the
+ * request. If the worker can't be started or exits before it has answered a single request, for instance because the
+ * Java runtime refuses the security manager it needs, the request is run in a process of its own and the worker isn't
+ * used again for the rest of the session.
+ */
+@Lazy
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MapGeneratorRunner implements DisposableBean {
+
+  private static final Logger generatorLogger = LoggerFactory.getLogger("faf-map-generator");
+  private static final long POLL_INTERVAL_MILLIS = 250;
+  private static final long OUTPUT_DRAIN_TIMEOUT_MILLIS = 1000;
+
+  private final PreferencesService preferencesService;
+  private final ClientProperties clientProperties;
+  private final TaskScheduler taskScheduler;
+  private final ProcessOutputPump processOutputPump;
+
+  private final ReentrantLock workerLock = new ReentrantLock();
+  private volatile Worker worker;
+  private volatile boolean workerBroken;
+  private ScheduledFuture<?> idleShutdown;
+  private long lastUseNanos;
+
+  /**
+   * Runs the generator with the specified command in the custom maps directory and passes each line it prints to the
+   * output listener.
+   *
+   * @return {@code true} if the generator finished, or {@code false} if it has been killed because it didn't finish
+   * within the timeout
+   * @throws IOException if the generator could not be started or failed
+   * @throws InterruptedException if the calling thread has been interrupted, in which case the generator is killed
+   */
+  public boolean run(GeneratorCommand generatorCommand, Duration timeout, Consumer<String> outputListener) throws IOException, InterruptedException {
+    if (clientProperties.getMapGenerator().isWarmWorker() && !workerBroken && workerLock.tryLock()) {
+      try {
+        cancelIdleShutdown();
+        return runInWorker(generatorCommand, timeout, outputListener);
+      } finally {
+        lastUseNanos = System.nanoTime();
+        scheduleIdleShutdown();
+        workerLock.unlock();
+      }
+    }
+    return runInProcess(generatorCommand, timeout, outputListener);
+  }
+
+  private boolean runInWorker(GeneratorCommand generatorCommand, Duration timeout, Consumer<String> outputListener) throws IOException, InterruptedException {
+    Path generatorExecutableFile = generatorCommand.getGeneratorExecutableFile();
+    Path workingDirectory = getWorkingDirectory();
+    if (worker != null && !worker.isUsableFor(generatorExecutableFile, workingDirectory)) {
+      stopWorker();
+    }
+    if (worker == null) {
+      try {
+        worker = startWorker(generatorExecutableFile, workingDirectory);
+      } catch (IOException e) {
+        return runInProcessInstead(generatorCommand, timeout, outputListener, e);
+      }
+    }
+
+    Worker worker = this.worker;
+    try {
+      boolean finished = worker.run(generatorCommand.getArguments(), timeout, outputListener);
+      if (!finished) {
+        stopWorker();
+      }
+      return finished;
+    } catch (IOException e) {
+      stopWorker();
+      if (!worker.answered) {
+        return runInProcessInstead(generatorCommand, timeout, outputListener, e);
+      }
+      throw e;
+    } catch (InterruptedException e) {
+      stopWorker();
+      throw e;
+    }
+  }
+
+  private boolean runInProcessInstead(GeneratorCommand generatorCommand, Duration timeout, Consumer<String> outputListener, IOException workerFailure) throws IOException, InterruptedException {
+    log.warn("Map generator worker is not usable, running generator in separate processes for the rest of the session", workerFailure);
+    workerBroken = true;
+    return runInProcess(generatorCommand, timeout, outputListener);
+  }
+
+  private Worker startWorker(Path generatorExecutableFile, Path workingDirectory) throws IOException {
+    String workerClassPath;
+    try {
+      workerClassPath = Paths.get(MapGeneratorWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    } catch (URISyntaxException e) {
+      throw new IOException("Could not determine the class path of the map generator worker", e);
+    }
+
+    ProcessBuilder processBuilder = new ProcessBuilder();
+    processBuilder.directory(workingDirectory.toFile());
+    processBuilder.command(List.of(GeneratorCommand.getJavaPath(), "-Djava.security.manager=allow", "-cp", workerClassPath,
+        MapGeneratorWorker.class.getName(), generatorExecutableFile.toAbsolutePath().toString()));
+    processBuilder.environment().put("LOG_DIR", preferencesService.getFafLogDirectory().toAbsolutePath().toString());
+
+    log.info("Starting map generator worker in directory: {} with command: {}",
+        processBuilder.directory(), String.join(" ", processBuilder.command()));
+
+    Process process = processBuilder.start();
+    Worker worker = new Worker(process, generatorExecutableFile, workingDirectory);
+    worker.processOutput = processOutputPump.pump(process, worker.output::add, generatorLogger::error);
+    return worker;
+  }
+
+  private boolean runInProcess(GeneratorCommand generatorCommand, Duration timeout, Consumer<String> outputListener) throws IOException, InterruptedException {
+    ProcessBuilder processBuilder = new ProcessBuilder();
+    processBuilder.directory(getWorkingDirectory().toFile());
+    processBuilder.command(generatorCommand.getCommand());
+    processBuilder.environment().put("LOG_DIR", preferencesService.getFafLogDirectory().toAbsolutePath().toString());
+
+    log.info("Starting map generator in directory: {} with command: {}",
+        processBuilder.directory(), String.join(" ", processBuilder.command()));
+
+    Process process = processBuilder.start();
+    ProcessOutput processOutput = processOutputPump.pump(process, line -> {
+      generatorLogger.info(line);
+      outputListener.accept(line);
+    }, generatorLogger::error);
+    try {
+      if (process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        awaitOutput(processOutput);
+        return true;
+      }
+    } catch (InterruptedException e) {
+      process.destroyForcibly();
+      throw e;
+    }
+    log.warn("Map generator did not finish within {}, killing process", timeout);
+    process.destroyForcibly();
+    return false;
+  }
+
+  /**
+   * Waits for the remaining output of a process that has exited to be passed to the listener, so that callers that
+   * collect it see all of it.
+   */
+  private void awaitOutput(ProcessOutput processOutput) throws InterruptedException {
+    try {
+      processOutput.getClosedFuture().get(OUTPUT_DRAIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException | TimeoutException e) {
+      log.debug("Output of map generator has not been read completely", e);
+    }
+  }
+
+  private Path getWorkingDirectory() {
+    return preferencesService.getPreferences().getForgedAlliance().getCustomMapsDirectory();
+  }
+
+  private void scheduleIdleShutdown() {
+    if (worker == null) {
+      return;
+    }
+    idleShutdown = taskScheduler.schedule(this::stopWorkerIfIdle, Instant.now().plus(clientProperties.getMapGenerator().getWorkerIdleTimeout()));
+  }
+
+  private void cancelIdleShutdown() {
+    if (idleShutdown != null) {
+      idleShutdown.cancel(false);
+      idleShutdown = null;
+    }
+  }
+
+  private void stopWorkerIfIdle() {
+    if (!workerLock.tryLock()) {
+      return;
+    }
+    try {
+      long idleNanos = System.nanoTime() - lastUseNanos;
+      if (idleNanos >= clientProperties.getMapGenerator().getWorkerIdleTimeout().toNanos()) {
+        log.debug("Stopping idle map generator worker");
+        stopWorker();
+      }
+    } finally {
+      workerLock.unlock();
+    }
+  }
+
+  private void stopWorker() {
+    Worker worker = this.worker;
+    if (worker != null) {
+      worker.process.destroyForcibly();
+      this.worker = null;
+    }
+  }
+
+  @VisibleForTesting
+  boolean isWorkerRunning() {
+    Worker worker = this.worker;
+    return worker != null && worker.process.isAlive();
+  }
+
+  @Override
+  public void destroy() {
+    stopWorker();
+  }
+
+  private static class Worker {
+    private final Process process;
+    private final Path generatorExecutableFile;
+    private final Path workingDirectory;
+    private final Writer requestWriter;
+    private final BlockingQueue<String> output = new LinkedBlockingQueue<>();
+    private ProcessOutput processOutput;
+    /** Whether the worker has finished a request, successfully or not, which proves that it can run the generator. */
+    private boolean answered;
+
+    private Worker(Process process, Path generatorExecutableFile, Path workingDirectory) {
+      this.process = process;
+      this.generatorExecutableFile = generatorExecutableFile;
+      this.workingDirectory = workingDirectory;
+      this.requestWriter = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), UTF_8));
+    }
+
+    private boolean isUsableFor(Path generatorExecutableFile, Path workingDirectory) {
+      return process.isAlive()
+          && this.generatorExecutableFile.equals(generatorExecutableFile)
+          && this.workingDirectory.equals(workingDirectory);
+    }
+
+    /**
+     * Until the worker has answered its first request, its output is held back, so that nothing is passed to the
+     * listener twice if the request has to be run in a separate process after all.
+     */
+    private boolean run(List<String> arguments, Duration timeout, Consumer<String> outputListener) throws IOException, InterruptedException {
+      log.info("Running map generator worker with arguments: {}", String.join(" ", arguments));
+      requestWriter.write(String.join(MapGeneratorWorker.ARGUMENT_SEPARATOR, arguments));
+      requestWriter.write('\n');
+      requestWriter.flush();
+
+      List<String> heldBackOutput = new ArrayList<>();
+      long deadline = System.nanoTime() + timeout.toNanos();
+      while (true) {
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+          log.warn("Map generator worker did not finish within {}, killing process", timeout);
+          return false;
+        }
+        String line = output.poll(Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MILLIS)), TimeUnit.NANOSECONDS);
+        if (line == null) {
+          if (!process.isAlive()) {
+            log.warn("Last output of the map generator worker:\n{}", String.join("\n", processOutput.getRecentLines()));
+            throw new IOException("Map generator worker exited with code " + process.exitValue());
+          }
+          continue;
+        }
+        boolean done = line.equals(MapGeneratorWorker.DONE_MARKER);
+        boolean failed = line.startsWith(MapGeneratorWorker.FAILED_MARKER);
+        if (done || failed) {
+          answered = true;
+          heldBackOutput.forEach(outputListener);
+        }
+        if (done) {
+          return true;
+        }
+        if (failed) {
+          throw new IOException("Map generator failed: " + line.substring(MapGeneratorWorker.FAILED_MARKER.length()).trim());
+        }
+        generatorLogger.info(line);
+        if (answered) {
+          outputListener.accept(line);
+        } else {
+          heldBackOutput.add(line);
+        }
+      }
+    }
+  }
+}
@@ -2,7 +2,6 @@ package com.faforever.client.map.generator;
 
 import com.faforever.client.config.CacheNames;
 import com.faforever.client.config.ClientProperties;
-import com.faforever.client.io.FileUtils;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.TaskService;
 import com.google.common.annotations.VisibleForTesting;
@@ -33,9 +32,6 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
-
-import static com.github.nocatch.NoCatch.noCatch;
 
 @Lazy
 @Service
@@ -59,6 +55,7 @@ public class MapGeneratorService implements InitializingBean {
   private final PreferencesService preferencesService;
   private final TaskService taskService;
   private final ClientProperties clientProperties;
+  private final GeneratedMapCache generatedMapCache;
 
   @Getter
   private final Path customMapsDirectory;
@@ -69,13 +66,15 @@ public class MapGeneratorService implements InitializingBean {
   @Setter
   private ComparableVersion generatorVersion;
 
-  public MapGeneratorService(ApplicationContext applicationContext, PreferencesService preferencesService, TaskService taskService, ClientProperties clientProperties) {
+  public MapGeneratorService(ApplicationContext applicationContext, PreferencesService preferencesService, TaskService taskService, ClientProperties clientProperties,
+                             GeneratedMapCache generatedMapCache) {
     this.applicationContext = applicationContext;
     this.preferencesService = preferencesService;
     this.taskService = taskService;
 
     generatorExecutablePath = preferencesService.getFafDataDirectory().resolve(GENERATOR_EXECUTABLE_SUB_DIRECTORY);
     this.clientProperties = clientProperties;
+    this.generatedMapCache = generatedMapCache;
     if (!Files.exists(generatorExecutablePath)) {
       try {
         Files.createDirectory(generatorExecutablePath);
@@ -95,23 +94,7 @@ public class MapGeneratorService implements InitializingBean {
 
   @Override
   public void afterPropertiesSet() throws Exception {
-    deleteGeneratedMaps();
-  }
-
-  private void deleteGeneratedMaps() {
-    log.info("Deleting leftover generated maps...");
-    if (customMapsDirectory != null && customMapsDirectory.toFile().exists()) {
-      try (Stream<Path> listOfMapFiles = Files.list(customMapsDirectory)) {
-        listOfMapFiles
-            .filter(Files::isDirectory)
-            .filter(p -> GENERATED_MAP_PATTERN.matcher(p.getFileName().toString()).matches())
-            .forEach(p -> noCatch(() -> FileUtils.deleteRecursively(p)));
-      } catch (IOException e) {
-        log.error("Could not list custom maps directory for deleting leftover generated maps.", e);
-      } catch (RuntimeException e) {
-        log.error("Could not delete generated map folder");
-      }
-    }
+    generatedMapCache.cacheGeneratedMaps();
   }
 
   @VisibleForTesting
@@ -141,6 +124,9 @@ public class MapGeneratorService implements InitializingBean {
     throw new RuntimeException("No valid generator version found");
   }
 
+  /**
+   * Generates the specified map, unless it has been generated before and is still cached.
+   */
   public CompletableFuture<String> generateMap(String mapName) {
     Matcher matcher = GENERATED_MAP_PATTERN.matcher(mapName);
     if (!matcher.find()) {
@@ -150,6 +136,15 @@ public class MapGeneratorService implements InitializingBean {
     ComparableVersion version = new ComparableVersion(matcher.group(1));
     String seed = matcher.group(2);
 
+    return generatedMapCache.restore(mapName).thenCompose(restored -> {
+      if (restored) {
+        return CompletableFuture.completedFuture(mapName);
+      }
+      return generateMap(mapName, version, seed);
+    });
+  }
+
+  private CompletableFuture<String> generateMap(String mapName, ComparableVersion version, String seed) {
     String generatorExecutableFileName = String.format(GENERATOR_EXECUTABLE_FILENAME, version);
     Path generatorExecutablePath = this.generatorExecutablePath.resolve(generatorExecutableFileName);
 
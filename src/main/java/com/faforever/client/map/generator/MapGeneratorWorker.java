@@ -0,0 +1,107 @@
+package com.faforever.client.map.generator;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.Permission;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Main class of a long-lived process that runs a map generator jar once per request, so that consecutive generations
+ * don't pay for starting and warming up a JVM. Started by the {@link MapGeneratorRunner} with the path to the
+ * generator jar as its only argument, it reads one request per line from stdin, which are the generator's arguments
+ * separated by tabs. The generator's output is passed through to stdout, followed by a line starting with {@link
+ * #DONE_MARKER} or {@link #FAILED_MARKER}.
+ * <p>
+ * Each request gets its own class loader, since the generator is written to be run once per JVM and may keep state in
+ * static fields. Calls to {@code System.exit()} by the generator end the request, not the process.
+ * <p>
+ * This class is run in a separate JVM that has only the client's own classes on its class path, so it must not depend
+ * on any library.
+ */
+public final class MapGeneratorWorker {
+
+  static final String DONE_MARKER = "##faf-map-generator-worker-done";
+  static final String FAILED_MARKER = "##faf-map-generator-worker-failed";
+  static final String ARGUMENT_SEPARATOR = "\t";
+
+  private MapGeneratorWorker() {
+    throw new AssertionError("Not instantiatable");
+  }
+
+  public static void main(String[] args) throws Exception {
+    Path generatorExecutableFile = Paths.get(args[0]);
+    String mainClassName;
+    try (JarFile jarFile = new JarFile(generatorExecutableFile.toFile())) {
+      mainClassName = jarFile.getManifest().getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+    }
+    URL[] generatorClassPath = {generatorExecutableFile.toUri().toURL()};
+    trapSystemExit();
+
+    BufferedReader requestReader = new BufferedReader(new InputStreamReader(System.in, UTF_8));
+    String request;
+    while ((request = requestReader.readLine()) != null) {
+      String[] generatorArgs = request.isEmpty() ? new String[0] : request.split(ARGUMENT_SEPARATOR);
+      String failure = null;
+      try (URLClassLoader classLoader = new URLClassLoader(generatorClassPath, ClassLoader.getPlatformClassLoader())) {
+        Thread.currentThread().setContextClassLoader(classLoader);
+        Method mainMethod = classLoader.loadClass(mainClassName).getMethod("main", String[].class);
+        mainMethod.invoke(null, (Object) generatorArgs);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (!(cause instanceof ExitTrappedException) || ((ExitTrappedException) cause).status != 0) {
+          cause.printStackTrace();
+          failure = cause.toString();
+        }
+      } catch (Exception e) {
+        e.printStackTrace();
+        failure = e.toString();
+      } finally {
+        Thread.currentThread().setContextClassLoader(MapGeneratorWorker.class.getClassLoader());
+      }
+      System.out.println(failure == null ? DONE_MARKER : FAILED_MARKER + " " + failure.replace('\n', ' '));
+      System.out.flush();
+    }
+    // Threads the generator left behind must not keep the process alive once the client is gone
+    System.exit(0);
+  }
+
+  @SuppressWarnings("removal")
+  private static void trapSystemExit() {
+    System.setSecurityManager(new SecurityManager() {
+      @Override
+      public void checkPermission(Permission permission) {
+        // Everything but exiting is permitted
+      }
+
+      @Override
+      public void checkPermission(Permission permission, Object context) {
+        // Everything but exiting is permitted
+      }
+
+      @Override
+      public void checkExit(int status) {
+        if (Thread.currentThread().getContextClassLoader() instanceof URLClassLoader) {
+          throw new ExitTrappedException(status);
+        }
+      }
+    });
+  }
+
+  private static class ExitTrappedException extends SecurityException {
+    private final int status;
+
+    private ExitTrappedException(int status) {
+      super("System.exit(" + status + ")");
+      this.status = status;
+    }
+  }
+}
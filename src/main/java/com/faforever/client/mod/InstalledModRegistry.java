@@ -0,0 +1,265 @@
+package com.faforever.client.mod;
+
+import com.faforever.client.io.FileUtils;
+import com.faforever.client.mod.ModVersion.ModType;
+import com.faforever.commons.mod.MountInfo;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Indexes the installed mods by UID and by folder, so that lookups don't need to scan all installed mods. The parsed
+ * {@code mod_info.lua} of each folder is persisted together with its modification time and size, so that unchanged
+ * mods don't need to be parsed again on the next start.
+ */
+@Slf4j
+final class InstalledModRegistry {
+
+  private static final String MOD_INFO_FILE_NAME = "mod_info.lua";
+  private static final Gson GSON = new GsonBuilder().create();
+
+  private final Map<Path, ModVersion> modVersionsByPath = new HashMap<>();
+  private final Map<String, Set<Path>> pathsByUid = new HashMap<>();
+  private final Set<String> uiModUids = new HashSet<>();
+  /** The persisted mod infos by folder, as read by {@link #load(Path)}. */
+  private final Map<Path, PersistedMod> persistedMods = new ConcurrentHashMap<>();
+
+  /**
+   * @return the mod version that was previously installed in the specified folder, if any
+   */
+  @Nullable
+  synchronized ModVersion put(Path path, ModVersion modVersion) {
+    ModVersion replacedModVersion = remove(path);
+    modVersionsByPath.put(path, modVersion);
+    pathsByUid.computeIfAbsent(modVersion.getUid(), uid -> new LinkedHashSet<>()).add(path);
+    if (modVersion.getModType() == ModType.UI) {
+      uiModUids.add(modVersion.getUid());
+    }
+    return replacedModVersion;
+  }
+
+  /**
+   * @return the mod version that was installed in the specified folder, if any
+   */
+  @Nullable
+  synchronized ModVersion remove(Path path) {
+    ModVersion modVersion = modVersionsByPath.remove(path);
+    if (modVersion == null) {
+      return null;
+    }
+    Set<Path> paths = pathsByUid.get(modVersion.getUid());
+    paths.remove(path);
+    if (paths.isEmpty()) {
+      pathsByUid.remove(modVersion.getUid());
+      uiModUids.remove(modVersion.getUid());
+    }
+    return modVersion;
+  }
+
+  synchronized void clear() {
+    modVersionsByPath.clear();
+    pathsByUid.clear();
+    uiModUids.clear();
+  }
+
+  /**
+   * @return the folder of the mod with the specified UID or {@code null} if it's not installed
+   */
+  @Nullable
+  synchronized Path getPath(String uid) {
+    Set<Path> paths = pathsByUid.get(uid);
+    return paths == null ? null : paths.iterator().next();
+  }
+
+  synchronized boolean contains(String uid) {
+    return pathsByUid.containsKey(uid);
+  }
+
+  synchronized Set<String> getUids() {
+    return Collections.unmodifiableSet(new HashSet<>(pathsByUid.keySet()));
+  }
+
+  synchronized Set<String> getUiModUids() {
+    return Collections.unmodifiableSet(new HashSet<>(uiModUids));
+  }
+
+  /**
+   * Returns the mod version installed in the specified folder as it was persisted, if its {@code mod_info.lua} hasn't
+   * changed since.
+   */
+  @Nullable
+  ModVersion getPersisted(Path path) {
+    PersistedMod persistedMod = persistedMods.get(path.toAbsolutePath());
+    if (persistedMod == null) {
+      return null;
+    }
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(path.resolve(MOD_INFO_FILE_NAME), BasicFileAttributes.class);
+      if (attributes.lastModifiedTime().toMillis() != persistedMod.lastModified || attributes.size() != persistedMod.size) {
+        return null;
+      }
+      return persistedMod.toModVersion(path);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      log.debug("Could not restore persisted mod info of '{}'", path, e);
+      return null;
+    }
+  }
+
+  /**
+   * Reads the mod infos persisted by {@link #save(Path)}. A missing or unreadable file is ignored, in which case all
+   * mods are read from their folders.
+   */
+  void load(Path file) {
+    persistedMods.clear();
+    if (Files.notExists(file)) {
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+      List<PersistedMod> mods = GSON.fromJson(reader, new TypeToken<List<PersistedMod>>() {
+      }.getType());
+      if (mods != null) {
+        mods.forEach(mod -> persistedMods.put(Paths.get(mod.folder), mod));
+      }
+      log.debug("Read {} persisted mod infos from '{}'", persistedMods.size(), file);
+    } catch (IOException | JsonParseException e) {
+      log.warn("Could not read persisted mod infos from '{}'", file, e);
+    }
+  }
+
+  /**
+   * Persists the mod infos of all currently registered mods.
+   */
+  void save(Path file) {
+    List<PersistedMod> mods;
+    synchronized (this) {
+      mods = modVersionsByPath.entrySet().stream()
+          .map(entry -> PersistedMod.fromModVersion(entry.getKey(), entry.getValue()))
+          .filter(Objects::nonNull)
+          .collect(Collectors.toList());
+    }
+    persistedMods.clear();
+    mods.forEach(mod -> persistedMods.put(Paths.get(mod.folder), mod));
+
+    try {
+      Files.createDirectories(file.getParent());
+      Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile, UTF_8)) {
+        GSON.toJson(mods, writer);
+      }
+      FileUtils.moveAtomically(tempFile, file);
+    } catch (IOException e) {
+      log.warn("Could not persist mod infos to '{}'", file, e);
+    }
+  }
+
+  private static class PersistedMod {
+    private String folder;
+    private long lastModified;
+    private long size;
+    private String uid;
+    private String name;
+    private String description;
+    private String author;
+    private String version;
+    private boolean selectable;
+    private boolean uiOnly;
+    private String imagePath;
+    private List<String> hookDirectories;
+    private List<PersistedMountInfo> mountInfos;
+
+    @Nullable
+    private static PersistedMod fromModVersion(Path path, ModVersion modVersion) {
+      BasicFileAttributes attributes;
+      try {
+        attributes = Files.readAttributes(path.resolve(MOD_INFO_FILE_NAME), BasicFileAttributes.class);
+      } catch (IOException e) {
+        return null;
+      }
+
+      PersistedMod mod = new PersistedMod();
+      mod.folder = path.toAbsolutePath().toString();
+      mod.lastModified = attributes.lastModifiedTime().toMillis();
+      mod.size = attributes.size();
+      mod.uid = modVersion.getUid();
+      mod.name = modVersion.getDisplayName();
+      mod.description = modVersion.getDescription();
+      mod.author = modVersion.getUploader();
+      mod.version = modVersion.getVersion() == null ? null : modVersion.getVersion().toString();
+      mod.selectable = modVersion.getSelectable();
+      mod.uiOnly = modVersion.getModType() == ModType.UI;
+      Path imagePath = modVersion.getImagePath();
+      if (imagePath != null) {
+        mod.imagePath = (imagePath.startsWith(path) ? path.relativize(imagePath) : imagePath).toString();
+      }
+      mod.hookDirectories = List.copyOf(modVersion.getHookDirectories());
+      mod.mountInfos = modVersion.getMountInfos().stream()
+          .map(PersistedMountInfo::fromMountInfo)
+          .collect(Collectors.toList());
+      return mod;
+    }
+
+    private ModVersion toModVersion(Path path) {
+      ModVersion modVersion = new ModVersion();
+      modVersion.setUid(uid);
+      modVersion.setDisplayName(name);
+      modVersion.setDescription(description);
+      modVersion.setUploader(author);
+      modVersion.setVersion(version == null ? null : new ComparableVersion(version));
+      modVersion.setSelectable(selectable);
+      modVersion.setModType(uiOnly ? ModType.UI : ModType.SIM);
+      modVersion.setImagePath(imagePath == null ? null : path.resolve(imagePath));
+      modVersion.getHookDirectories().setAll(hookDirectories == null ? Collections.emptyList() : hookDirectories);
+      if (mountInfos != null) {
+        modVersion.getMountInfos().setAll(mountInfos.stream()
+            .map(PersistedMountInfo::toMountInfo)
+            .collect(Collectors.toList()));
+      }
+      return modVersion;
+    }
+  }
+
+  private static class PersistedMountInfo {
+    private String baseDir;
+    private String file;
+    private String mountPoint;
+
+    private static PersistedMountInfo fromMountInfo(MountInfo mountInfo) {
+      PersistedMountInfo persistedMountInfo = new PersistedMountInfo();
+      persistedMountInfo.baseDir = mountInfo.getBaseDir() == null ? null : mountInfo.getBaseDir().toString();
+      persistedMountInfo.file = mountInfo.getFile().toString();
+      persistedMountInfo.mountPoint = mountInfo.getMountPoint();
+      return persistedMountInfo;
+    }
+
+    private MountInfo toMountInfo() {
+      return new MountInfo(baseDir == null ? null : Paths.get(baseDir), Paths.get(file), mountPoint);
+    }
+  }
+}
@@ -1,10 +1,13 @@
 package com.faforever.client.mod;
 
 import com.faforever.client.config.CacheNames;
+import com.faforever.client.fa.GamePrefsService;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
-import com.faforever.client.mod.ModVersion.ModType;
+import com.faforever.client.io.ContentStore;
+import com.faforever.client.io.DirectoryWatcherService;
+import com.faforever.client.io.FileUtils;
 import com.faforever.client.notification.Action;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.notification.PersistentNotification;
@@ -15,8 +18,10 @@ import com.faforever.client.remote.FafService;
 import com.faforever.client.task.CompletableTask;
 import com.faforever.client.task.CompletableTask.Priority;
 import com.faforever.client.task.TaskService;
+import com.faforever.client.util.ConcurrentUtil;
 import com.faforever.client.util.IdenticonUtil;
 import com.faforever.client.util.Tuple;
+import com.faforever.client.vault.search.LocalSearchIndex;
 import com.faforever.client.vault.search.SearchController.SearchConfig;
 import com.faforever.client.vault.search.SearchController.SortConfig;
 import com.faforever.client.vault.search.SearchController.SortOrder;
@@ -42,6 +47,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpMethod;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -51,26 +57,19 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.faforever.client.notification.Severity.WARN;
-import static com.github.nocatch.NoCatch.noCatch;
-import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.file.Files.createDirectories;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
@@ -81,8 +80,7 @@ import static java.util.concurrent.CompletableFuture.completedFuture;
 // TODO divide and conquer
 public class ModService implements InitializingBean, DisposableBean {
 
-  private static final Pattern ACTIVE_MODS_PATTERN = Pattern.compile("active_mods\\s*=\\s*\\{.*?}", Pattern.DOTALL);
-  private static final Pattern ACTIVE_MOD_PATTERN = Pattern.compile("\\['(.*?)']\\s*=\\s*(true|false)", Pattern.DOTALL);
+  private static final String INSTALLED_MODS_FILE_NAME = "installed-mods.json";
 
   private final FafService fafService;
   private final PreferencesService preferencesService;
@@ -92,19 +90,29 @@ public class ModService implements InitializingBean, DisposableBean {
   private final I18n i18n;
   private final PlatformService platformService;
   private final AssetService assetService;
+  private final DirectoryWatcherService directoryWatcherService;
+  private final ContentStore contentStore;
+  private final GamePrefsService gamePrefsService;
   private final ModReader modReader = new ModReader();
 
   private Path modsDirectory;
-  private final Map<Path, ModVersion> pathToMod = new HashMap<>();
+  private final InstalledModRegistry installedMods = new InstalledModRegistry();
   private final ObservableList<ModVersion> installedModVersions = FXCollections.observableArrayList();
   private final ObservableList<ModVersion> readOnlyInstalledModVersions = FXCollections.unmodifiableObservableList(installedModVersions);
-  private Thread directoryWatcherThread;
+  private final LocalSearchIndex<ModVersion> installedModIndex = new LocalSearchIndex<>(installedModVersions)
+      .textAttribute("displayName", ModVersion::getDisplayName)
+      .textAttribute("author", ModVersion::getUploader)
+      .textAttribute("latestVersion.description", ModVersion::getDescription)
+      .textAttribute("latestVersion.uid", ModVersion::getUid)
+      .textAttribute("latestVersion.type", modVersion -> modVersion.getModType() == null ? null : modVersion.getModType().name());
+  private Path watchedModsDirectory;
 
   @Override
   public void afterPropertiesSet() {
     InvalidationListener modDirectoryChangedListener = observable -> {
       modsDirectory = preferencesService.getPreferences().getForgedAlliance().getModsDirectory();
       if (modsDirectory != null) {
+        installedMods.clear();
         installedModVersions.clear();
         onModDirectoryReady();
       }
@@ -123,41 +131,32 @@ public class ModService implements InitializingBean, DisposableBean {
   private void onModDirectoryReady() {
     try {
       createDirectories(modsDirectory);
-      Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
-      directoryWatcherThread = startDirectoryWatcher(modsDirectory);
+      Optional.ofNullable(watchedModsDirectory).ifPresent(directoryWatcherService::unwatch);
+      directoryWatcherService.watch(modsDirectory, this::onModsDirectoryChanged);
+      watchedModsDirectory = modsDirectory;
     } catch (IOException e) {
       log.warn("Could not start mod directory watcher", e);
       // TODO notify user
     }
+    installedMods.load(getInstalledModsFile());
     loadInstalledMods();
   }
 
-  private Thread startDirectoryWatcher(Path modsDirectory) {
-    Thread thread = new Thread(() -> noCatch(() -> {
-      WatchService watcher = modsDirectory.getFileSystem().newWatchService();
-      modsDirectory.register(watcher, ENTRY_DELETE);
-
-      try {
-        while (!Thread.interrupted()) {
-          WatchKey key = watcher.take();
-          key.pollEvents().stream()
-              .filter(event -> event.kind() == ENTRY_DELETE)
-              .forEach(event -> removeMod(modsDirectory.resolve((Path) event.context())));
-          key.reset();
-        }
-      } catch (InterruptedException e) {
-        log.debug("Watcher terminated ({})", e.getMessage());
-      }
-    }));
-    thread.start();
-    return thread;
+  private void onModsDirectoryChanged(List<Path> changedPaths, List<Path> removedPaths) {
+    removedPaths.forEach(this::removeMod);
+    addMods(changedPaths.stream()
+        .filter(Files::isDirectory)
+        .collect(Collectors.toList()));
+    if (!removedPaths.isEmpty()) {
+      installedMods.save(getInstalledModsFile());
+    }
   }
 
   public void loadInstalledMods() {
-    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(modsDirectory, entry -> Files.isDirectory(entry))) {
-      for (Path path : directoryStream) {
-        addMod(path);
-      }
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(modsDirectory, entry -> Files.isDirectory(entry) && !FileUtils.isHiddenEntry(entry))) {
+      List<Path> modPaths = new ArrayList<>();
+      directoryStream.forEach(modPaths::add);
+      addMods(modPaths);
     } catch (IOException e) {
       log.warn("Mods could not be read from: " + modsDirectory, e);
     }
@@ -200,16 +199,11 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public Set<String> getInstalledModUids() {
-    return getInstalledModVersions().stream()
-        .map(ModVersion::getUid)
-        .collect(Collectors.toSet());
+    return installedMods.getUids();
   }
 
   public Set<String> getInstalledUiModsUids() {
-    return getInstalledModVersions().stream()
-        .filter(mod -> mod.getModType() == ModType.UI)
-        .map(ModVersion::getUid)
-        .collect(Collectors.toSet());
+    return installedMods.getUiModUids();
   }
 
   public void enableSimMods(Set<String> simMods) throws IOException {
@@ -233,7 +227,7 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public boolean isModInstalled(String uid) {
-    return getInstalledModUids().contains(uid);
+    return installedMods.contains(uid);
   }
 
   public CompletableFuture<Void> uninstallMod(ModVersion modVersion) {
@@ -243,11 +237,7 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public Path getPathForMod(ModVersion modVersionToFind) {
-    return pathToMod.entrySet().stream()
-        .filter(pathModEntry -> pathModEntry.getValue().getUid().equals(modVersionToFind.getUid()))
-        .findFirst()
-        .map(Entry::getKey)
-        .orElse(null);
+    return installedMods.getPath(modVersionToFind.getUid());
   }
 
   public CompletableFuture<Tuple<List<ModVersion>, Integer>> getNewestModsWithPageCount(int count, int page) {
@@ -323,8 +313,29 @@ public class ModService implements InitializingBean, DisposableBean {
     ));
   }
 
+  /**
+   * Searches the vault. If the API can't be reached, the installed mods are searched instead.
+   */
   public CompletableFuture<Tuple<List<ModVersion>, Integer>> findByQueryWithPageCount(SearchConfig searchConfig, int count, int page) {
-    return fafService.findModsByQueryWithPageCount(searchConfig, count, page);
+    return fafService.findModsByQueryWithPageCount(searchConfig, count, page)
+        .exceptionallyCompose(throwable -> {
+          if (!(ConcurrentUtil.unwrapIfCompletionException(throwable) instanceof ResourceAccessException)) {
+            return CompletableFuture.failedFuture(throwable);
+          }
+          log.warn("Mod vault could not be reached, searching installed mods instead", throwable);
+          return findInstalledByQueryWithPageCount(searchConfig, count, page);
+        });
+  }
+
+  /**
+   * Searches the installed mods using the same query syntax as the mod vault.
+   */
+  public CompletableFuture<Tuple<List<ModVersion>, Integer>> findInstalledByQueryWithPageCount(SearchConfig searchConfig, int count, int page) {
+    try {
+      return completedFuture(installedModIndex.search(searchConfig, count, page));
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.failedFuture(e);
+    }
   }
 
   @CacheEvict(value = CacheNames.MODS, allEntries = true)
@@ -354,74 +365,80 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   private Map<String, Boolean> readModStates() throws IOException {
-    Path preferencesFile = preferencesService.getPreferences().getForgedAlliance().getPreferencesFile();
-    Map<String, Boolean> mods = new HashMap<>();
-
-    String preferencesContent = Files.readString(preferencesFile, US_ASCII);
-    Matcher matcher = ACTIVE_MODS_PATTERN.matcher(preferencesContent);
-    if (matcher.find()) {
-      Matcher activeModMatcher = ACTIVE_MOD_PATTERN.matcher(matcher.group(0));
-      while (activeModMatcher.find()) {
-        String modUid = activeModMatcher.group(1);
-        boolean enabled = Boolean.parseBoolean(activeModMatcher.group(2));
-
-        mods.put(modUid, enabled);
-      }
-    }
-
-    return mods;
+    return new HashMap<>(gamePrefsService.readActiveMods());
   }
 
   private void writeModStates(Map<String, Boolean> modStates) throws IOException {
-    Path preferencesFile = preferencesService.getPreferences().getForgedAlliance().getPreferencesFile();
-    String preferencesContent = Files.readString(preferencesFile, US_ASCII);
-
-    String currentActiveModsContent = null;
-    Matcher matcher = ACTIVE_MODS_PATTERN.matcher(preferencesContent);
-    if (matcher.find()) {
-      currentActiveModsContent = matcher.group(0);
-    }
-
-    StringBuilder newActiveModsContentBuilder = new StringBuilder("active_mods = {");
+    gamePrefsService.writeActiveMods(modStates);
+  }
 
-    Iterator<Map.Entry<String, Boolean>> iterator = modStates.entrySet().iterator();
-    while (iterator.hasNext()) {
-      Map.Entry<String, Boolean> entry = iterator.next();
-      if (!entry.getValue()) {
-        continue;
-      }
+  private synchronized void removeMod(Path path) {
+    log.debug("Removing mod: {}", path);
+    installedModVersions.remove(installedMods.remove(path));
+    forgetStoredContent(path);
+  }
 
-      newActiveModsContentBuilder.append("\n    ['");
-      newActiveModsContentBuilder.append(entry.getKey());
-      newActiveModsContentBuilder.append("'] = true");
-      if (iterator.hasNext()) {
-        newActiveModsContentBuilder.append(",");
-      }
+  /**
+   * Mod folders which have been deleted outside of the client no longer keep their files in the content store.
+   */
+  private void forgetStoredContent(Path path) {
+    if (Files.exists(path)) {
+      return;
     }
-    newActiveModsContentBuilder.append("\n}");
+    try {
+      contentStore.forget(path);
+    } catch (IOException e) {
+      log.warn("Could not remove '{}' from the content store", path, e);
+    }
+  }
 
-    if (currentActiveModsContent != null) {
-      preferencesContent = preferencesContent.replace(currentActiveModsContent, newActiveModsContentBuilder);
-    } else {
-      preferencesContent += newActiveModsContentBuilder.toString();
+  /**
+   * Reads the specified mod folders in parallel and adds them to the installed mods. Mods whose {@code mod_info.lua}
+   * hasn't changed since it was last read are restored from the persisted registry instead of being parsed again.
+   */
+  private void addMods(Collection<Path> paths) {
+    if (paths.isEmpty()) {
+      return;
     }
+    List<Tuple<Path, ModVersion>> modsWithPaths = paths.parallelStream()
+        .map(path -> {
+          ModVersion modVersion = Optional.ofNullable(installedMods.getPersisted(path))
+              .orElseGet(() -> tryExtractModInfo(path));
+          return modVersion == null ? null : new Tuple<>(path, modVersion);
+        })
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+    modsWithPaths.forEach(tuple -> putMod(tuple.getFirst(), tuple.getSecond()));
+    installedMods.save(getInstalledModsFile());
+  }
 
-    Files.writeString(preferencesFile, preferencesContent, US_ASCII);
+  private Path getInstalledModsFile() {
+    return preferencesService.getCacheDirectory().resolve(INSTALLED_MODS_FILE_NAME);
   }
 
-  private void removeMod(Path path) {
-    log.debug("Removing mod: {}", path);
-    installedModVersions.remove(pathToMod.remove(path));
+  /**
+   * Adds the mod to the installed mods, which hold one entry per UID. If the UID is already installed, its entry is
+   * replaced by the specified mod version, so an updated {@code mod_info.lua} takes effect.
+   */
+  private synchronized void putMod(Path path, ModVersion modVersion) {
+    ModVersion replacedModVersion = installedMods.put(path, modVersion);
+    if (replacedModVersion != null && !installedMods.contains(replacedModVersion.getUid())) {
+      installedModVersions.remove(replacedModVersion);
+    }
+    // ModVersion equality is by UID
+    int index = installedModVersions.indexOf(modVersion);
+    if (index < 0) {
+      installedModVersions.add(modVersion);
+    } else if (installedModVersions.get(index) != modVersion) {
+      installedModVersions.set(index, modVersion);
+    }
   }
 
-  private void addMod(Path path) {
+  @Nullable
+  private ModVersion tryExtractModInfo(Path path) {
     log.debug("Adding mod: {}", path);
     try {
-      ModVersion modVersion = extractModInfo(path);
-      pathToMod.put(path, modVersion);
-      if (!installedModVersions.contains(modVersion)) {
-        installedModVersions.add(modVersion);
-      }
+      return extractModInfo(path);
     } catch (ModLoadException e) {
       log.debug("Corrupt mod: " + path, e);
 
@@ -434,13 +451,13 @@ public class ModService implements InitializingBean, DisposableBean {
       notificationService.addNotification(new PersistentNotification(i18n.get("corruptedModsError.notification", path.getFileName()), WARN, singletonList(
           new Action(i18n.get("corruptedMods.show"), event -> platformService.reveal(path))
       )));
-
     }
+    return null;
   }
 
   @Override
   public void destroy() {
-    Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
+    Optional.ofNullable(watchedModsDirectory).ifPresent(directoryWatcherService::unwatch);
   }
 
   @Async
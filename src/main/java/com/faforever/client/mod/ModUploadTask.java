@@ -1,44 +1,39 @@
 package com.faforever.client.mod;
 
 import com.faforever.client.i18n.I18n;
-import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.io.UploadService;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.task.CompletableTask;
 import com.faforever.client.task.ResourceLocks;
 import com.faforever.client.util.Validator;
 import com.faforever.commons.io.ByteCountListener;
-import com.faforever.commons.io.Zipper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.io.OutputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Locale;
 
 import static com.faforever.commons.io.Bytes.formatSize;
-import static java.nio.file.Files.createTempFile;
-import static java.nio.file.Files.newOutputStream;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Slf4j
 public class ModUploadTask extends CompletableTask<Void> {
 
-  private final PreferencesService preferencesService;
+  private final UploadService uploadService;
   private final FafService fafService;
   private final I18n i18n;
 
   private Path modPath;
 
   @Inject
-  public ModUploadTask(PreferencesService preferencesService, FafService fafService, I18n i18n) {
+  public ModUploadTask(UploadService uploadService, FafService fafService, I18n i18n) {
     super(Priority.HIGH);
 
-    this.preferencesService = preferencesService;
+    this.uploadService = uploadService;
     this.fafService = fafService;
     this.i18n = i18n;
   }
@@ -48,13 +43,8 @@ public class ModUploadTask extends CompletableTask<Void> {
     Validator.notNull(modPath, "modPath must not be null");
 
     ResourceLocks.acquireUploadLock();
-    Path cacheDirectory = preferencesService.getCacheDirectory();
-    Files.createDirectories(cacheDirectory);
-    Path tmpFile = createTempFile(cacheDirectory, "mod", ".zip");
-
     try {
-      log.debug("Zipping mod {} to {}", modPath, tmpFile);
-      updateTitle(i18n.get("modVault.upload.compressing"));
+      updateTitle(i18n.get("modVault.upload.uploading"));
 
       Locale locale = i18n.getUserSpecificLocale();
       ByteCountListener byteListener = (written, total) -> {
@@ -62,20 +52,9 @@ public class ModUploadTask extends CompletableTask<Void> {
         updateProgress(written, total);
       };
 
-      try (OutputStream outputStream = newOutputStream(tmpFile)) {
-        Zipper.of(modPath)
-            .to(outputStream)
-            .listener(byteListener)
-            .zip();
-      }
-
-      log.debug("Uploading mod {} as {}", modPath, tmpFile);
-      updateTitle(i18n.get("modVault.upload.uploading"));
-
-      fafService.uploadMod(tmpFile, byteListener);
+      uploadService.zipAndUpload(modPath, byteListener, fafService::uploadMod);
       return null;
     } finally {
-      Files.delete(tmpFile);
       ResourceLocks.freeUploadLock();
     }
   }
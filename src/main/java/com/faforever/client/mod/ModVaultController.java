@@ -70,6 +70,9 @@ public class ModVaultController extends VaultEntityController<ModVersion> {
       case SEARCH:
         currentSupplier = modService.findByQueryWithPageCount(searchConfig, pageSize, pagination.getCurrentPageIndex() + 1);
         break;
+      case INSTALLED:
+        currentSupplier = modService.findInstalledByQueryWithPageCount(searchConfig, pageSize, pagination.getCurrentPageIndex() + 1);
+        break;
       case NEWEST:
         currentSupplier = modService.getNewestModsWithPageCount(pageSize, pagination.getCurrentPageIndex() + 1);
         break;
@@ -131,6 +134,7 @@ public class ModVaultController extends VaultEntityController<ModVersion> {
     searchController.setSearchableProperties(SearchablePropertyMappings.MOD_PROPERTY_MAPPING);
     searchController.setSortConfig(preferencesService.getPreferences().getVault().mapSortConfigProperty());
     searchController.setOnlyShowLastYearCheckBoxVisible(false);
+    searchController.setOnlyInstalledCheckBoxVisible(true);
     searchController.setVaultRoot(vaultRoot);
     searchController.setSavedQueries(preferencesService.getPreferences().getVault().getSavedModQueries());
 
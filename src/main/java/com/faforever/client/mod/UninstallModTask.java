@@ -1,5 +1,6 @@
 package com.faforever.client.mod;
 
+import com.faforever.client.io.ContentStore;
 import com.faforever.client.io.FileUtils;
 import com.faforever.client.task.CompletableTask;
 import lombok.extern.slf4j.Slf4j;
@@ -17,14 +18,16 @@ import java.util.Objects;
 public class UninstallModTask extends CompletableTask<Void> {
 
   private final ModService modService;
+  private final ContentStore contentStore;
 
   private ModVersion modVersion;
 
   @Inject
-  public UninstallModTask(ModService modService) {
+  public UninstallModTask(ModService modService, ContentStore contentStore) {
     super(CompletableTask.Priority.LOW);
 
     this.modService = modService;
+    this.contentStore = contentStore;
   }
 
   public void setModVersion(ModVersion modVersion) {
@@ -39,6 +42,8 @@ public class UninstallModTask extends CompletableTask<Void> {
     Path modPath = modService.getPathForMod(modVersion);
 
     FileUtils.deleteRecursively(modPath);
+    contentStore.forget(modPath);
+    contentStore.purge();
 
     return null;
   }
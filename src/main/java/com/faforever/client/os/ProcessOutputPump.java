@@ -0,0 +1,254 @@
+package com.faforever.client.os;
+
+import com.faforever.client.config.ClientProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads the output of child processes, like the ICE adapter or the map generator, line by line. Instead of a thread
+ * per stream, all streams are read by one shared thread that only reads what is available without blocking, and
+ * sleeps for a short, increasing time while none of the processes writes anything. The thread only runs while there
+ * are processes to read from.
+ * <p>
+ * Line listeners are called on that thread, so they must not block.
+ */
+@Lazy
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProcessOutputPump implements DisposableBean {
+
+  private static final long MIN_IDLE_SLEEP_MILLIS = 5;
+  private static final long MAX_IDLE_SLEEP_MILLIS = 50;
+  private static final int READ_BUFFER_SIZE = 8192;
+
+  private final ClientProperties clientProperties;
+
+  private final List<PumpedStream> streams = new CopyOnWriteArrayList<>();
+  private Thread pumpThread;
+  private boolean destroyed;
+
+  /**
+   * Starts passing each line the process writes to stdout and stderr to the respective listener.
+   *
+   * @return the output of the process, which keeps the most recent lines of both streams
+   */
+  public ProcessOutput pump(Process process, Consumer<String> outputListener, Consumer<String> errorListener) {
+    ProcessOutput processOutput = new ProcessOutput(clientProperties.getProcessOutputHistoryLines());
+    Charset charset = Charset.defaultCharset();
+    streams.add(new PumpedStream(process, process.getInputStream(), charset, outputListener, processOutput));
+    streams.add(new PumpedStream(process, process.getErrorStream(), charset, errorListener, processOutput));
+    startPumpThreadIfNecessary();
+    return processOutput;
+  }
+
+  private synchronized void startPumpThreadIfNecessary() {
+    if (destroyed || (pumpThread != null && pumpThread.isAlive())) {
+      return;
+    }
+    pumpThread = new Thread(this::pumpWhileStreamsAreOpen, "process-output-pump");
+    pumpThread.setDaemon(true);
+    pumpThread.start();
+  }
+
+  private void pumpWhileStreamsAreOpen() {
+    byte[] buffer = new byte[READ_BUFFER_SIZE];
+    long idleSleepMillis = MIN_IDLE_SLEEP_MILLIS;
+    while (!Thread.currentThread().isInterrupted()) {
+      boolean readAnything = false;
+      for (PumpedStream stream : streams) {
+        if (stream.pump(buffer)) {
+          readAnything = true;
+        }
+        if (stream.closed) {
+          streams.remove(stream);
+        }
+      }
+
+      synchronized (this) {
+        if (streams.isEmpty()) {
+          pumpThread = null;
+          return;
+        }
+      }
+
+      if (readAnything) {
+        idleSleepMillis = MIN_IDLE_SLEEP_MILLIS;
+        continue;
+      }
+      try {
+        TimeUnit.MILLISECONDS.sleep(idleSleepMillis);
+      } catch (InterruptedException e) {
+        return;
+      }
+      idleSleepMillis = Math.min(idleSleepMillis * 2, MAX_IDLE_SLEEP_MILLIS);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    Thread thread;
+    synchronized (this) {
+      destroyed = true;
+      thread = pumpThread;
+    }
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  /**
+   * The output of a process that is being pumped.
+   */
+  public static class ProcessOutput {
+    private final int maxLines;
+    private final Deque<String> recentLines;
+    private final CompletableFuture<Void> closedFuture = new CompletableFuture<>();
+    private int openStreams = 2;
+
+    private ProcessOutput(int maxLines) {
+      this.maxLines = Math.max(0, maxLines);
+      this.recentLines = new ArrayDeque<>(this.maxLines);
+    }
+
+    /**
+     * Returns the most recent lines the process has written to either stream, oldest first.
+     */
+    public synchronized List<String> getRecentLines() {
+      return new ArrayList<>(recentLines);
+    }
+
+    /**
+     * Returns a future that completes once both streams of the process have been read to their end.
+     */
+    public CompletableFuture<Void> getClosedFuture() {
+      return closedFuture;
+    }
+
+    private synchronized void addLine(String line) {
+      if (maxLines == 0) {
+        return;
+      }
+      if (recentLines.size() == maxLines) {
+        recentLines.removeFirst();
+      }
+      recentLines.addLast(line);
+    }
+
+    private void onStreamClosed() {
+      boolean allStreamsClosed;
+      synchronized (this) {
+        allStreamsClosed = --openStreams == 0;
+      }
+      if (allStreamsClosed) {
+        closedFuture.complete(null);
+      }
+    }
+  }
+
+  private static class PumpedStream {
+    private final Process process;
+    private final InputStream inputStream;
+    private final Charset charset;
+    private final Consumer<String> lineListener;
+    private final ProcessOutput processOutput;
+    private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream();
+    private boolean lastByteWasCarriageReturn;
+    private boolean closed;
+
+    private PumpedStream(Process process, InputStream inputStream, Charset charset, Consumer<String> lineListener, ProcessOutput processOutput) {
+      this.process = process;
+      this.inputStream = inputStream;
+      this.charset = charset;
+      this.lineListener = lineListener;
+      this.processOutput = processOutput;
+    }
+
+    /**
+     * Reads whatever is available without blocking and passes on each completed line.
+     *
+     * @return whether anything has been read
+     */
+    private boolean pump(byte[] buffer) {
+      try {
+        // Checked first, so that nothing written right before the process exited is missed
+        boolean exited = !process.isAlive();
+        int available = inputStream.available();
+        if (available > 0) {
+          int read = inputStream.read(buffer, 0, Math.min(available, buffer.length));
+          if (read > 0) {
+            onBytesRead(buffer, read);
+            return true;
+          }
+          if (read < 0) {
+            close();
+          }
+          return false;
+        }
+        if (exited) {
+          close();
+        }
+      } catch (IOException e) {
+        log.debug("Could not read process output", e);
+        close();
+      }
+      return false;
+    }
+
+    private void onBytesRead(byte[] buffer, int length) {
+      for (int i = 0; i < length; i++) {
+        byte b = buffer[i];
+        if (b == '\n' && lastByteWasCarriageReturn) {
+          lastByteWasCarriageReturn = false;
+          continue;
+        }
+        lastByteWasCarriageReturn = b == '\r';
+        if (b == '\n' || b == '\r') {
+          emitLine();
+        } else {
+          lineBuffer.write(b);
+        }
+      }
+    }
+
+    private void emitLine() {
+      String line = lineBuffer.toString(charset);
+      lineBuffer.reset();
+      processOutput.addLine(line);
+      try {
+        lineListener.accept(line);
+      } catch (RuntimeException e) {
+        log.warn("Process output listener failed", e);
+      }
+    }
+
+    private void close() {
+      if (lineBuffer.size() > 0) {
+        emitLine();
+      }
+      try {
+        inputStream.close();
+      } catch (IOException e) {
+        log.debug("Could not close process output stream", e);
+      }
+      closed = true;
+      processOutput.onStreamClosed();
+    }
+  }
+}
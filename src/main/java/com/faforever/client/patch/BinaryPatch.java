@@ -0,0 +1,118 @@
+package com.faforever.client.patch;
+
+import com.google.common.io.ByteStreams;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Applies binary patches in the format of bsdiff 4 ({@code BSDIFF40}). A patch consists of a header and three bzip2
+ * compressed blocks: control tuples, bytes to add to the source file and bytes to insert as they are.
+ */
+final class BinaryPatch {
+
+  private static final byte[] MAGIC = "BSDIFF40".getBytes(US_ASCII);
+  private static final int HEADER_SIZE = 32;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private BinaryPatch() {
+    throw new AssertionError("Not instantiatable");
+  }
+
+  /**
+   * Writes the result of applying the specified patch to the source file into the target file.
+   *
+   * @throws IOException if the patch is malformed or doesn't fit the source file
+   */
+  static void apply(Path source, Path patch, Path target) throws IOException {
+    long controlLength;
+    long diffLength;
+    long targetSize;
+    try (DataInputStream header = new DataInputStream(Files.newInputStream(patch))) {
+      byte[] magic = new byte[MAGIC.length];
+      header.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new IOException("Not a bsdiff patch: " + patch);
+      }
+      controlLength = readOffset(header);
+      diffLength = readOffset(header);
+      targetSize = readOffset(header);
+    } catch (EOFException e) {
+      throw new IOException("Truncated bsdiff patch: " + patch, e);
+    }
+    if (controlLength < 0 || diffLength < 0 || targetSize < 0) {
+      throw new IOException("Corrupt bsdiff patch header: " + patch);
+    }
+
+    byte[] sourceBytes = Files.readAllBytes(source);
+    try (DataInputStream control = new DataInputStream(openBlock(patch, HEADER_SIZE, controlLength));
+         InputStream diff = openBlock(patch, HEADER_SIZE + controlLength, diffLength);
+         InputStream extra = openBlock(patch, HEADER_SIZE + controlLength + diffLength, Long.MAX_VALUE);
+         OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long targetPosition = 0;
+      long sourcePosition = 0;
+
+      while (targetPosition < targetSize) {
+        long diffBytes = readOffset(control);
+        long extraBytes = readOffset(control);
+        long seek = readOffset(control);
+        if (diffBytes < 0 || extraBytes < 0 || targetPosition + diffBytes + extraBytes > targetSize) {
+          throw new IOException("Corrupt bsdiff patch control block: " + patch);
+        }
+
+        for (long remaining = diffBytes; remaining > 0; ) {
+          int length = (int) Math.min(buffer.length, remaining);
+          ByteStreams.readFully(diff, buffer, 0, length);
+          for (int i = 0; i < length; i++) {
+            long sourceIndex = sourcePosition + i;
+            if (sourceIndex >= 0 && sourceIndex < sourceBytes.length) {
+              buffer[i] += sourceBytes[(int) sourceIndex];
+            }
+          }
+          outputStream.write(buffer, 0, length);
+          sourcePosition += length;
+          remaining -= length;
+        }
+
+        for (long remaining = extraBytes; remaining > 0; ) {
+          int length = (int) Math.min(buffer.length, remaining);
+          ByteStreams.readFully(extra, buffer, 0, length);
+          outputStream.write(buffer, 0, length);
+          remaining -= length;
+        }
+
+        targetPosition += diffBytes + extraBytes;
+        sourcePosition += seek;
+      }
+    } catch (EOFException e) {
+      throw new IOException("Truncated bsdiff patch: " + patch, e);
+    }
+  }
+
+  private static InputStream openBlock(Path patch, long offset, long length) throws IOException {
+    InputStream inputStream = new BufferedInputStream(Files.newInputStream(patch), BUFFER_SIZE);
+    ByteStreams.skipFully(inputStream, offset);
+    return new BZip2CompressorInputStream(ByteStreams.limit(inputStream, length));
+  }
+
+  /**
+   * Reads a signed 64 bit integer as bsdiff writes it: little endian, with the sign in the most significant bit
+   * instead of two's complement.
+   */
+  private static long readOffset(DataInputStream inputStream) throws IOException {
+    long value = Long.reverseBytes(inputStream.readLong());
+    return (value & Long.MIN_VALUE) == 0 ? value : -(value & Long.MAX_VALUE);
+  }
+}
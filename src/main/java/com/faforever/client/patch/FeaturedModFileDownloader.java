@@ -0,0 +1,210 @@
+package com.faforever.client.patch;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.FeaturedModFileCacheService;
+import com.faforever.client.io.FileUtils;
+import com.faforever.commons.api.dto.FeaturedModFile;
+import com.faforever.commons.io.ByteCountListener;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Downloads the files of a featured mod update into the featured mod file cache, a few files at a time. Progress is
+ * reported as the sum over all files. Nothing is moved into the game's data directory here, so that the caller can
+ * leave the installed files untouched unless every file has been downloaded.
+ * <p>
+ * If the server offers binary patches, an installed earlier version of a file is patched instead of downloading the
+ * whole file. The patched file is verified against the expected MD5 hash; if anything about patching fails, the file
+ * is downloaded fully.
+ */
+@Lazy
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FeaturedModFileDownloader {
+
+  /**
+   * Attempts per file. {@link DownloadService} already retries and resumes dropped connections, so this only covers
+   * files that were downloaded completely but failed verification.
+   */
+  private static final int MAX_ATTEMPTS = 2;
+  private static final String PATCH_FILE_SUFFIX = ".bsdiff";
+  private static final String PATCHED_FILE_SUFFIX = ".patched";
+
+  private final DownloadService downloadService;
+  private final FeaturedModFileCacheService featuredModFileCacheService;
+  private final ExecutorService executorService;
+  private final ClientProperties clientProperties;
+
+  /**
+   * Downloads the specified files into the featured mod file cache. Files with the same cache path are downloaded only
+   * once. If any file fails, no further downloads are started and the first failure is thrown once the running ones
+   * have finished.
+   *
+   * @param installationDirectory the directory in which earlier versions of the files may be installed, in the
+   * subdirectory of their group
+   * @param downloadStartedListener called whenever the download of a file starts, from the downloading thread
+   */
+  public void downloadToCache(List<FeaturedModFile> featuredModFiles, Path installationDirectory,
+                              ByteCountListener progressListener, Consumer<FeaturedModFile> downloadStartedListener) throws IOException {
+    Map<Path, FeaturedModFile> filesByCachePath = new LinkedHashMap<>();
+    for (FeaturedModFile featuredModFile : featuredModFiles) {
+      filesByCachePath.putIfAbsent(featuredModFileCacheService.getCachedFilePath(featuredModFile), featuredModFile);
+    }
+    List<Map.Entry<Path, FeaturedModFile>> downloads = new ArrayList<>(filesByCachePath.entrySet());
+    if (downloads.isEmpty()) {
+      return;
+    }
+
+    AtomicLongArray bytesWritten = new AtomicLongArray(downloads.size());
+    AtomicLongArray bytesTotal = new AtomicLongArray(downloads.size());
+    AtomicInteger nextIndex = new AtomicInteger();
+    AtomicBoolean failed = new AtomicBoolean();
+
+    int parallelism = Math.max(1, Math.min(clientProperties.getDownload().getParallelFiles(), downloads.size()));
+    List<CompletableFuture<Void>> workers = new ArrayList<>(parallelism);
+    for (int i = 0; i < parallelism; i++) {
+      workers.add(CompletableFuture.runAsync(() -> {
+        int index;
+        while (!failed.get() && (index = nextIndex.getAndIncrement()) < downloads.size()) {
+          int fileIndex = index;
+          FeaturedModFile featuredModFile = downloads.get(fileIndex).getValue();
+          try {
+            downloadStartedListener.accept(featuredModFile);
+            Path installedFile = installationDirectory.resolve(featuredModFile.getGroup()).resolve(featuredModFile.getName());
+            download(featuredModFile, downloads.get(fileIndex).getKey(), installedFile, (written, total) -> {
+              bytesWritten.set(fileIndex, written);
+              bytesTotal.set(fileIndex, total);
+              progressListener.updateBytesProcessed(sum(bytesWritten), sum(bytesTotal));
+            });
+          } catch (IOException e) {
+            failed.set(true);
+            throw new UncheckedIOException(e);
+          } catch (RuntimeException | Error e) {
+            failed.set(true);
+            throw e;
+          }
+        }
+      }, executorService));
+    }
+
+    try {
+      for (CompletableFuture<Void> worker : workers) {
+        worker.get();
+      }
+    } catch (InterruptedException e) {
+      failed.set(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while downloading featured mod files");
+    } catch (ExecutionException e) {
+      failed.set(true);
+      // Don't leave downloads running behind the caller's back
+      CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).handle((result, throwable) -> null).join();
+      if (e.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e.getCause()).getCause();
+      }
+      throw new IOException("Could not download featured mod files", e.getCause());
+    }
+  }
+
+  private void download(FeaturedModFile featuredModFile, Path cachePath, Path installedFile, ByteCountListener progressListener) throws IOException {
+    if (downloadPatched(featuredModFile, cachePath, installedFile, progressListener)) {
+      return;
+    }
+
+    URL url = new URL(featuredModFile.getUrl());
+    for (int attempt = 1; ; attempt++) {
+      try {
+        downloadService.downloadFile(url, cachePath, progressListener, featuredModFile.getMd5());
+        return;
+      } catch (IOException e) {
+        if (attempt >= MAX_ATTEMPTS) {
+          throw e;
+        }
+        log.warn("Download of featured mod file '{}' failed (attempt {}/{})", featuredModFile.getName(), attempt, MAX_ATTEMPTS, e);
+      }
+    }
+  }
+
+  /**
+   * @return whether the file has been created in the cache by patching the installed file
+   */
+  private boolean downloadPatched(FeaturedModFile featuredModFile, Path cachePath, Path installedFile, ByteCountListener progressListener) {
+    String patchUrlFormat = clientProperties.getVault().getFeaturedModPatchUrlFormat();
+    if (Strings.isNullOrEmpty(patchUrlFormat) || !Files.isRegularFile(installedFile)) {
+      return false;
+    }
+
+    Path patchFile = null;
+    Path patchedFile = cachePath.resolveSibling(cachePath.getFileName() + PATCHED_FILE_SUFFIX);
+    try {
+      String installedMd5 = featuredModFileCacheService.readHashFromFile(installedFile);
+      URL patchUrl = new URL(String.format(patchUrlFormat, featuredModFile.getGroup(), installedMd5, featuredModFile.getMd5()));
+      patchFile = cachePath.resolveSibling(installedMd5 + "-" + featuredModFile.getMd5() + PATCH_FILE_SUFFIX);
+
+      downloadService.downloadFile(patchUrl, patchFile, progressListener);
+      BinaryPatch.apply(installedFile, patchFile, patchedFile);
+
+      String patchedMd5 = com.google.common.io.Files.asByteSource(patchedFile.toFile()).hash(Hashing.md5()).toString();
+      if (!patchedMd5.equalsIgnoreCase(featuredModFile.getMd5())) {
+        throw new IOException("Patched file has MD5 " + patchedMd5 + " but expected " + featuredModFile.getMd5());
+      }
+      FileUtils.moveAtomically(patchedFile, cachePath);
+      log.debug("Patched featured mod file '{}' from version {}", featuredModFile.getName(), installedMd5);
+      return true;
+    } catch (FileNotFoundException e) {
+      log.debug("No patch available for featured mod file '{}'", featuredModFile.getName());
+      return false;
+    } catch (IOException e) {
+      log.warn("Could not patch featured mod file '{}', downloading it fully", featuredModFile.getName(), e);
+      return false;
+    } finally {
+      deleteQuietly(patchFile);
+      deleteQuietly(patchedFile);
+    }
+  }
+
+  private static void deleteQuietly(@Nullable Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Could not delete '{}'", file, e);
+    }
+  }
+
+  private static long sum(AtomicLongArray values) {
+    long sum = 0;
+    for (int i = 0; i < values.length(); i++) {
+      sum += Math.max(0, values.get(i));
+    }
+    return sum;
+  }
+}
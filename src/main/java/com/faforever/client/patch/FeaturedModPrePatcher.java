@@ -0,0 +1,179 @@
+package com.faforever.client.patch;
+
+import com.faforever.client.FafClientApplication;
+import com.faforever.client.game.GameService;
+import com.faforever.client.io.FeaturedModFileCacheService;
+import com.faforever.client.mod.FeaturedMod;
+import com.faforever.client.mod.ModService;
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.remote.FafService;
+import com.faforever.client.user.event.LoginSuccessEvent;
+import com.faforever.commons.api.dto.FeaturedModFile;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static com.faforever.client.game.KnownFeaturedMod.FAF;
+
+/**
+ * Downloads new versions of the featured mods the player is likely to play next into the featured mod file cache, so
+ * that updating the game before a launch only needs to move the files into place. These are FAF, which is used by
+ * the matchmaker and by all non-base featured mods, and the featured mod of the last hosted game. Checks run shortly
+ * after login and then periodically, but only while no game is running; a download is aborted as soon as a game
+ * starts and resumed by the next check.
+ */
+@Component
+@Profile("!" + FafClientApplication.PROFILE_OFFLINE)
+@Slf4j
+public class FeaturedModPrePatcher implements InitializingBean, DisposableBean {
+
+  private static final Duration LOGIN_DELAY = Duration.ofSeconds(30);
+  private static final Duration CHECK_INTERVAL = Duration.ofMinutes(30);
+
+  private final FafService fafService;
+  private final ModService modService;
+  private final GameService gameService;
+  private final PreferencesService preferencesService;
+  private final FeaturedModFileCacheService featuredModFileCacheService;
+  private final FeaturedModFileDownloader featuredModFileDownloader;
+  private final TaskScheduler taskScheduler;
+  private final EventBus eventBus;
+  private final ExecutorService prePatchExecutor;
+  private final AtomicBoolean prePatchRunning = new AtomicBoolean();
+
+  private ScheduledFuture<?> scheduledChecks;
+
+  public FeaturedModPrePatcher(FafService fafService, ModService modService, GameService gameService,
+                               PreferencesService preferencesService, FeaturedModFileCacheService featuredModFileCacheService,
+                               FeaturedModFileDownloader featuredModFileDownloader, TaskScheduler taskScheduler,
+                               EventBus eventBus) {
+    this.fafService = fafService;
+    this.modService = modService;
+    this.gameService = gameService;
+    this.preferencesService = preferencesService;
+    this.featuredModFileCacheService = featuredModFileCacheService;
+    this.featuredModFileDownloader = featuredModFileDownloader;
+    this.taskScheduler = taskScheduler;
+    this.eventBus = eventBus;
+    this.prePatchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "featured-mod-pre-patcher");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    eventBus.register(this);
+  }
+
+  @Subscribe
+  public void onLoginSuccess(LoginSuccessEvent event) {
+    synchronized (this) {
+      if (scheduledChecks != null) {
+        scheduledChecks.cancel(false);
+      }
+      scheduledChecks = taskScheduler.scheduleWithFixedDelay(this::prePatchIfIdle, Instant.now().plus(LOGIN_DELAY), CHECK_INTERVAL);
+    }
+  }
+
+  private void prePatchIfIdle() {
+    if (gameService.isGameRunning() || !prePatchRunning.compareAndSet(false, true)) {
+      return;
+    }
+    prePatchExecutor.execute(() -> {
+      try {
+        getLikelyFeaturedMods().forEach(this::prePatch);
+      } finally {
+        prePatchRunning.set(false);
+      }
+    });
+  }
+
+  @VisibleForTesting
+  Set<String> getLikelyFeaturedMods() {
+    Set<String> technicalNames = new LinkedHashSet<>();
+    technicalNames.add(FAF.getTechnicalName());
+    String lastGameType = preferencesService.getPreferences().getLastGame().getLastGameType();
+    if (lastGameType != null) {
+      technicalNames.add(lastGameType);
+    }
+    return technicalNames;
+  }
+
+  /**
+   * Downloads the files of the latest version of the specified featured mod that are neither installed nor cached.
+   */
+  @VisibleForTesting
+  void prePatch(String technicalName) {
+    try {
+      if (gameService.isGameRunning()) {
+        return;
+      }
+      FeaturedMod featuredMod = modService.getFeaturedMod(technicalName).get();
+      List<FeaturedModFile> featuredModFiles = fafService.getFeaturedModFiles(featuredMod, null).get();
+
+      Path fafDataDirectory = preferencesService.getFafDataDirectory();
+      Map<Path, String> installedHashes = featuredModFileCacheService.readHashesFromFiles(featuredModFiles.stream()
+          .map(featuredModFile -> fafDataDirectory.resolve(featuredModFile.getGroup()).resolve(featuredModFile.getName()))
+          .collect(Collectors.toList()));
+
+      List<FeaturedModFile> filesToStage = new ArrayList<>();
+      for (FeaturedModFile featuredModFile : featuredModFiles) {
+        Path targetPath = fafDataDirectory.resolve(featuredModFile.getGroup()).resolve(featuredModFile.getName());
+        if (!Objects.equals(featuredModFile.getMd5(), installedHashes.get(targetPath))
+            && !featuredModFileCacheService.isCached(featuredModFile)) {
+          filesToStage.add(featuredModFile);
+        }
+      }
+      if (filesToStage.isEmpty()) {
+        return;
+      }
+
+      log.info("Pre-patching {} files of featured mod '{}'", filesToStage.size(), technicalName);
+      featuredModFileDownloader.downloadToCache(filesToStage, fafDataDirectory, (written, total) -> {
+        if (gameService.isGameRunning()) {
+          throw new CancellationException("A game has been started");
+        }
+      }, featuredModFile -> {
+      });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.debug("Could not pre-patch featured mod '{}'", technicalName, e);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    synchronized (this) {
+      if (scheduledChecks != null) {
+        scheduledChecks.cancel(false);
+      }
+    }
+    prePatchExecutor.shutdownNow();
+  }
+}
@@ -20,19 +20,26 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.faforever.client.preferences.PreferencesService.FORGED_ALLIANCE_EXE;
-import static com.github.nocatch.NoCatch.noCatch;
 import static java.nio.file.Files.copy;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.setAttribute;
+import static java.nio.file.StandardCopyOption.COPY_ATTRIBUTES;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 @Slf4j
@@ -60,19 +67,24 @@ public class GameBinariesUpdateTaskImpl extends CompletableTask<Void> implements
   private final I18n i18n;
   private final PreferencesService preferencesService;
   private final PlatformService platformService;
+  private final ExecutorService executorService;
 
   private final String fafExeUrl;
+  private final boolean linkBinaries;
 
   private Integer version;
 
-  public GameBinariesUpdateTaskImpl(I18n i18n, PreferencesService preferencesService, PlatformService platformService, ClientProperties clientProperties) {
+  public GameBinariesUpdateTaskImpl(I18n i18n, PreferencesService preferencesService, PlatformService platformService,
+                                    ExecutorService executorService, ClientProperties clientProperties) {
     super(Priority.HIGH);
 
     this.i18n = i18n;
     this.preferencesService = preferencesService;
     this.platformService = platformService;
+    this.executorService = executorService;
 
     this.fafExeUrl = clientProperties.getForgedAlliance().getExeUrl();
+    this.linkBinaries = clientProperties.getForgedAlliance().isLinkBinaries();
   }
 
   @Override
@@ -114,6 +126,11 @@ public class GameBinariesUpdateTaskImpl extends CompletableTask<Void> implements
     }
   }
 
+  /**
+   * Sets up the game binaries of the Forged Alliance installation in the FAF bin directory, in parallel. Files that
+   * already match their source in size and modification time are left alone, others are hardlinked if enabled, or
+   * copied.
+   */
   @VisibleForTesting
   void copyGameFilesToFafBinDirectory() throws IOException {
     log.debug("Copying Forged Alliance binaries FAF folder");
@@ -123,25 +140,83 @@ public class GameBinariesUpdateTaskImpl extends CompletableTask<Void> implements
 
     Path faBinPath = preferencesService.getPreferences().getForgedAlliance().getInstallationPath().resolve("bin");
 
+    List<Path> sources;
     try (Stream<Path> faBinPathStream = Files.list(faBinPath)) {
-      faBinPathStream
+      sources = faBinPathStream
           .filter(path -> BINARIES_TO_COPY.contains(path.getFileName().toString()))
-          .forEach(source -> {
-            Path destination = fafBinDirectory.resolve(source.getFileName());
-
-            log.debug("Copying file '{}' to '{}'", source, destination);
-            noCatch(() -> createDirectories(destination.getParent()));
-            noCatch(() -> {
-              if (!Files.exists(destination)) {
-                copy(source, destination, REPLACE_EXISTING);
-              }
-            });
-
-            if (org.bridj.Platform.isWindows()) {
-              noCatch(() -> setAttribute(destination, "dos:readonly", false));
-            }
-          });
+          .collect(Collectors.toList());
     }
+
+    List<CompletableFuture<Void>> futures = sources.stream()
+        .map(source -> CompletableFuture.runAsync(() -> {
+          try {
+            setUpGameFile(source, fafBinDirectory.resolve(source.getFileName()));
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }, executorService))
+        .collect(Collectors.toList());
+
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while copying game binaries", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e.getCause()).getCause();
+      }
+      throw new IOException("Could not copy game binaries", e.getCause());
+    }
+  }
+
+  private void setUpGameFile(Path source, Path destination) throws IOException {
+    if (isUpToDate(source, destination)) {
+      return;
+    }
+    if (org.bridj.Platform.isWindows() && Files.exists(destination)) {
+      // Copies are always made writable, so only a stale link to a read-only file that is no longer the source gets here
+      setAttribute(destination, "dos:readonly", false);
+    }
+    Files.deleteIfExists(destination);
+
+    if (linkBinaries && link(source, destination)) {
+      // The link shares its attributes with the original file of the Forged Alliance installation, so leave them alone
+      return;
+    }
+
+    log.debug("Copying file '{}' to '{}'", source, destination);
+    copy(source, destination, REPLACE_EXISTING, COPY_ATTRIBUTES);
+    if (org.bridj.Platform.isWindows()) {
+      setAttribute(destination, "dos:readonly", false);
+    }
+  }
+
+  /**
+   * @return whether the link has been created
+   */
+  private boolean link(Path source, Path destination) {
+    try {
+      log.debug("Linking file '{}' to '{}'", destination, source);
+      Files.createLink(destination, source);
+      return true;
+    } catch (IOException | UnsupportedOperationException e) {
+      log.debug("Could not link '{}' to '{}', copying it instead", destination, source, e);
+      return false;
+    }
+  }
+
+  /**
+   * Links share their attributes with the source, and copies keep its modification time.
+   */
+  private boolean isUpToDate(Path source, Path destination) throws IOException {
+    if (!Files.exists(destination)) {
+      return false;
+    }
+    BasicFileAttributes sourceAttributes = Files.readAttributes(source, BasicFileAttributes.class);
+    BasicFileAttributes destinationAttributes = Files.readAttributes(destination, BasicFileAttributes.class);
+    return sourceAttributes.size() == destinationAttributes.size()
+        && sourceAttributes.lastModifiedTime().equals(destinationAttributes.lastModifiedTime());
   }
 
   @Override
@@ -2,6 +2,9 @@ package com.faforever.client.patch;
 
 import com.faforever.client.game.FaInitGenerator;
 import com.faforever.client.game.KnownFeaturedMod;
+import com.faforever.client.game.LaunchPlan;
+import com.faforever.client.game.LaunchPlan.Step;
+import com.faforever.client.game.LaunchPlanner;
 import com.faforever.client.mod.FeaturedMod;
 import com.faforever.client.mod.ModService;
 import com.faforever.client.notification.NotificationService;
@@ -29,6 +32,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -54,6 +58,7 @@ public class GameUpdaterImpl implements GameUpdater {
   private final FaInitGenerator faInitGenerator;
   private final PreferencesService preferencesService;
   private final NotificationService notificationService;
+  private final LaunchPlanner launchPlanner;
 
   @Override
   public GameUpdater addFeaturedModUpdater(FeaturedModUpdater featuredModUpdater) {
@@ -66,39 +71,47 @@ public class GameUpdaterImpl implements GameUpdater {
     // The following ugly code is sponsored by the featured-mod-mess. FAF and Coop are both featured mods - but others,
     // (except fafbeta and fafdevelop) implicitly depend on FAF. So if a non-base mod is being played, make sure FAF is
     // installed.
-    List<PatchResult> patchResults = new ArrayList<>();
-
-    CompletableFuture<Void> future = updateFeaturedMod(featuredMod, version)
-        .thenAccept(patchResults::add)
-        .thenCompose(s -> downloadMissingSimMods(simModUids));
+    LaunchPlan plan = launchPlanner.newPlan();
+    List<Step<PatchResult>> patchSteps = new ArrayList<>();
+    Step<PatchResult> featuredModUpdate = plan.step("update.featuredMod", () -> updateFeaturedMod(featuredMod, version));
+    patchSteps.add(featuredModUpdate);
+    plan.step("update.simMods", () -> downloadMissingSimMods(simModUids));
 
     if (!NAMES_OF_FEATURED_BASE_MODS.contains(featuredMod.getTechnicalName())) {
-      future = future.thenCompose(aVoid -> modService.getFeaturedMod(FAF.getTechnicalName()))
-          .thenCompose(baseMod -> updateFeaturedMod(baseMod, version))
-          .thenAccept(patchResults::add);
+      Step<FeaturedMod> baseModLookup = plan.step("baseMod.lookup", () -> modService.getFeaturedMod(FAF.getTechnicalName()));
+      // Both updates write into the same directories of the FAF data directory, so they must not run at the same time
+      patchSteps.add(plan.step("update.baseMod", () -> updateFeaturedMod(baseModLookup.getResult(), version),
+          baseModLookup, featuredModUpdate));
     }
 
-    verifyUniformModFormat(patchResults);
+    Step<Void> binariesUpdate = plan.step("update.binaries", () -> {
+      List<PatchResult> patchResults = getPatchResults(patchSteps);
+      verifyUniformModFormat(patchResults);
+      return updateGameBinaries(patchResults.get(patchResults.size() - 1).getVersion());
+    }, patchSteps.toArray(new Step<?>[0]));
+
+    plan.step("update.initFile", () -> {
+      List<PatchResult> patchResults = getPatchResults(patchSteps);
+      if (patchResults.stream().noneMatch(patchResult -> patchResult.getLegacyInitFile() != null)) {
+        generateInitFile(patchResults);
+      } else {
+        Path initFile = patchResults.stream()
+            .map(PatchResult::getLegacyInitFile)
+            .filter(Objects::nonNull)
+            .findFirst()
+            .orElseThrow(() -> new ProgrammingError("No legacy init file is available"));
+
+        createFaPathLuaFile(initFile.getParent().getParent());
+        copyLegacyInitFile(initFile);
+      }
+      return CompletableFuture.completedFuture(null);
+    }, binariesUpdate);
 
-    return future
-        .thenCompose(s -> updateGameBinaries(patchResults.get(patchResults.size() - 1).getVersion()))
-        .thenRun(() -> {
-          if (patchResults.stream().noneMatch(patchResult -> patchResult.getLegacyInitFile() != null)) {
-            generateInitFile(patchResults);
-          } else {
-            Path initFile = patchResults.stream()
-                .map(PatchResult::getLegacyInitFile)
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElseThrow(() -> new ProgrammingError("No legacy init file is available"));
-
-            createFaPathLuaFile(initFile.getParent().getParent());
-            copyLegacyInitFile(initFile);
-          }
-        })
+    return plan.run()
         .exceptionally(throwable -> {
+          Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
           boolean allowReplaysWhileInGame = preferencesService.getPreferences().getForgedAlliance().isAllowReplaysWhileInGame();
-          if (throwable.getCause().getCause() instanceof AccessDeniedException && allowReplaysWhileInGame) {
+          if (cause.getCause() instanceof AccessDeniedException && allowReplaysWhileInGame) {
             log.info("Unable to update files and experimental replay feature is turned on " +
                 "that allows multiple game instances to run in parallel this is most likely the cause.");
             throw new UnsupportedOperationException("Unable to patch Forged Alliance to the required version " +
@@ -113,6 +126,13 @@ public class GameUpdaterImpl implements GameUpdater {
         });
   }
 
+  /**
+   * Returns the results of the featured mod updates, the featured mod itself first and the base mod, if any, last.
+   */
+  private List<PatchResult> getPatchResults(List<Step<PatchResult>> patchSteps) {
+    return patchSteps.stream().map(Step::getResult).collect(Collectors.toList());
+  }
+
   @SneakyThrows
   private void createFaPathLuaFile(Path parent) {
     Path path = preferencesService.getPreferences().getForgedAlliance().getInstallationPath();
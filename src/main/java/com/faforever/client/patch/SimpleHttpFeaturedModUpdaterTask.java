@@ -1,7 +1,6 @@
 package com.faforever.client.patch;
 
 import com.faforever.client.i18n.I18n;
-import com.faforever.client.io.DownloadService;
 import com.faforever.client.io.FeaturedModFileCacheService;
 import com.faforever.client.mod.FeaturedMod;
 import com.faforever.client.preferences.PreferencesService;
@@ -15,11 +14,15 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -27,7 +30,7 @@ import java.util.Objects;
 public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResult> {
   private final FafService fafService;
   private final PreferencesService preferencesService;
-  private final DownloadService downloadService;
+  private final FeaturedModFileDownloader featuredModFileDownloader;
   private final I18n i18n;
   private final FeaturedModFileCacheService featuredModFileCacheService;
 
@@ -37,7 +40,7 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
   public SimpleHttpFeaturedModUpdaterTask(
       FafService fafService,
       PreferencesService preferencesService,
-      DownloadService downloadService,
+      FeaturedModFileDownloader featuredModFileDownloader,
       I18n i18n,
       FeaturedModFileCacheService featuredModFileCacheService
   ) {
@@ -45,7 +48,7 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
 
     this.fafService = fafService;
     this.preferencesService = preferencesService;
-    this.downloadService = downloadService;
+    this.featuredModFileDownloader = featuredModFileDownloader;
     this.i18n = i18n;
     this.featuredModFileCacheService = featuredModFileCacheService;
   }
@@ -59,34 +62,50 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
 
     List<FeaturedModFile> featuredModFiles = fafService.getFeaturedModFiles(featuredMod, version).get();
     Path fafDataDirectory = preferencesService.getFafDataDirectory();
-
-    featuredModFiles
-        .forEach(featuredModFile -> {
-          Path targetPath = fafDataDirectory
-              .resolve(featuredModFile.getGroup())
-              .resolve(featuredModFile.getName());
-
-          try {
-            if (fileAlreadyLoaded(featuredModFile, targetPath)) {
-              log.debug("Featured mod file already prepared: {}", featuredModFile);
-            } else if (featuredModFileCacheService.isCached(featuredModFile)) {
-              featuredModFileCacheService.moveFeaturedModFileFromCache(featuredModFile, targetPath);
-            } else {
-              downloadFeaturedModFile(featuredModFile, featuredModFileCacheService.getCachedFilePath(featuredModFile));
-              featuredModFileCacheService.moveFeaturedModFileFromCache(featuredModFile, targetPath);
-            }
-          } catch (IOException e) {
-            log.error("Error on updating featured mod file: {}", featuredModFile, e);
-            throw new RuntimeException(e);
-          }
-        });
+    Map<Path, String> installedHashes = featuredModFileCacheService.readHashesFromFiles(featuredModFiles.stream()
+        .map(featuredModFile -> getTargetPath(fafDataDirectory, featuredModFile))
+        .collect(Collectors.toList()));
+
+    List<FeaturedModFile> filesToUpdate = new ArrayList<>();
+    List<FeaturedModFile> filesToDownload = new ArrayList<>();
+    for (FeaturedModFile featuredModFile : featuredModFiles) {
+      Path targetPath = getTargetPath(fafDataDirectory, featuredModFile);
+      if (Objects.equals(featuredModFile.getMd5(), installedHashes.get(targetPath))) {
+        log.debug("Featured mod file already prepared: {}", featuredModFile);
+        continue;
+      }
+      filesToUpdate.add(featuredModFile);
+      if (!featuredModFileCacheService.isCached(featuredModFile)) {
+        filesToDownload.add(featuredModFile);
+      }
+    }
+
+    // All files are staged in the cache first, so that a failed download leaves the installed version untouched
+    featuredModFileDownloader.downloadToCache(filesToDownload, fafDataDirectory, this::updateProgress,
+        featuredModFile -> updateMessage(i18n.get("updater.downloadingFile", featuredModFile.getName())));
+
+    // Files with the same content share one cached copy, which is gone once the first of them has been moved
+    Map<Path, Path> movedTargetsByCachePath = new HashMap<>();
+    for (FeaturedModFile featuredModFile : filesToUpdate) {
+      try {
+        Path cachePath = featuredModFileCacheService.getCachedFilePath(featuredModFile);
+        Path targetPath = getTargetPath(fafDataDirectory, featuredModFile);
+        Path movedTarget = movedTargetsByCachePath.get(cachePath);
+        if (movedTarget != null) {
+          Files.copy(movedTarget, cachePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        featuredModFileCacheService.moveFeaturedModFileFromCache(featuredModFile, targetPath);
+        movedTargetsByCachePath.putIfAbsent(cachePath, targetPath);
+      } catch (IOException e) {
+        log.error("Error on updating featured mod file: {}", featuredModFile, e);
+        throw e;
+      }
+    }
 
     Path initFile = featuredModFiles.stream()
         .filter(featuredModFile -> "bin".equals(featuredModFile.getGroup()) &&
             initFileName.equalsIgnoreCase(featuredModFile.getName()))
-        .map(featuredModFile -> fafDataDirectory
-            .resolve(featuredModFile.getGroup())
-            .resolve(featuredModFile.getName()))
+        .map(featuredModFile -> getTargetPath(fafDataDirectory, featuredModFile))
         .filter(Files::exists)
         .findAny()
         .orElseThrow(() -> new IllegalStateException("No init file found for featured mod: " + featuredMod.getTechnicalName()));
@@ -99,17 +118,10 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
     return PatchResult.withLegacyInitFile(new ComparableVersion(String.valueOf(maxVersion)), initFile);
   }
 
-  private boolean fileAlreadyLoaded(FeaturedModFile featuredModFile, Path targetPath) throws IOException {
-    return Files.exists(targetPath)
-        && Objects.equals(featuredModFile.getMd5(), featuredModFileCacheService.readHashFromFile(targetPath));
-  }
-
-  private void downloadFeaturedModFile(FeaturedModFile featuredModFile, Path targetPath) throws java.io.IOException {
-    Files.createDirectories(targetPath.getParent());
-    updateMessage(i18n.get("updater.downloadingFile", featuredModFile.getName()));
-
-    String url = featuredModFile.getUrl();
-    downloadService.downloadFile(new URL(url), targetPath, this::updateProgress);
+  private static Path getTargetPath(Path fafDataDirectory, FeaturedModFile featuredModFile) {
+    return fafDataDirectory
+        .resolve(featuredModFile.getGroup())
+        .resolve(featuredModFile.getName());
   }
 
   public void setFeaturedMod(FeaturedMod featuredMod) {
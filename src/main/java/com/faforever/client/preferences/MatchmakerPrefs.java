@@ -1,7 +1,11 @@
 package com.faforever.client.preferences;
 
 import com.faforever.commons.api.dto.Faction;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ListProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleListProperty;
 import javafx.collections.ObservableList;
 
@@ -10,9 +14,14 @@ import static javafx.collections.FXCollections.observableArrayList;
 public class MatchmakerPrefs {
 
   private final ListProperty<Faction> factions;
+  private final BooleanProperty mapPoolPrefetchEnabled;
+  /** Maximum download rate of the map pool prefetcher in KiB/s, or 0 for no limit. */
+  private final IntegerProperty mapPoolPrefetchBandwidthLimit;
 
   public MatchmakerPrefs() {
     this.factions = new SimpleListProperty<>(observableArrayList(Faction.AEON, Faction.CYBRAN, Faction.UEF, Faction.SERAPHIM));
+    this.mapPoolPrefetchEnabled = new SimpleBooleanProperty(true);
+    this.mapPoolPrefetchBandwidthLimit = new SimpleIntegerProperty(1024);
   }
 
   public ObservableList<Faction> getFactions() {
@@ -23,4 +32,27 @@ public class MatchmakerPrefs {
     return factions;
   }
 
+  public boolean isMapPoolPrefetchEnabled() {
+    return mapPoolPrefetchEnabled.get();
+  }
+
+  public void setMapPoolPrefetchEnabled(boolean mapPoolPrefetchEnabled) {
+    this.mapPoolPrefetchEnabled.set(mapPoolPrefetchEnabled);
+  }
+
+  public BooleanProperty mapPoolPrefetchEnabledProperty() {
+    return mapPoolPrefetchEnabled;
+  }
+
+  public int getMapPoolPrefetchBandwidthLimit() {
+    return mapPoolPrefetchBandwidthLimit.get();
+  }
+
+  public void setMapPoolPrefetchBandwidthLimit(int mapPoolPrefetchBandwidthLimit) {
+    this.mapPoolPrefetchBandwidthLimit.set(mapPoolPrefetchBandwidthLimit);
+  }
+
+  public IntegerProperty mapPoolPrefetchBandwidthLimitProperty() {
+    return mapPoolPrefetchBandwidthLimit;
+  }
 }
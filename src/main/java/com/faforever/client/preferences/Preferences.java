@@ -49,6 +49,7 @@ public class Preferences {
   private final BooleanProperty advancedIceLogEnabled;
   private final IntegerProperty cacheLifeTimeInDays;
   private final BooleanProperty gameDataCacheActivated;
+  private final IntegerProperty gameDataCacheMaxSizeInGigabytes;
   private final BooleanProperty debugLogEnabled;
 
   public Preferences() {
@@ -79,6 +80,7 @@ public class Preferences {
     preReleaseCheckEnabled = new SimpleBooleanProperty(false);
     cacheLifeTimeInDays = new SimpleIntegerProperty(30);
     gameDataCacheActivated = new SimpleBooleanProperty(false);
+    gameDataCacheMaxSizeInGigabytes = new SimpleIntegerProperty(10);
     debugLogEnabled = new SimpleBooleanProperty(false);
     mapAndModAutoUpdate = new SimpleBooleanProperty(true);
   }
@@ -303,6 +305,18 @@ public class Preferences {
     return gameDataCacheActivated;
   }
 
+  public int getGameDataCacheMaxSizeInGigabytes() {
+    return gameDataCacheMaxSizeInGigabytes.get();
+  }
+
+  public void setGameDataCacheMaxSizeInGigabytes(int gameDataCacheMaxSizeInGigabytes) {
+    this.gameDataCacheMaxSizeInGigabytes.set(gameDataCacheMaxSizeInGigabytes);
+  }
+
+  public IntegerProperty gameDataCacheMaxSizeInGigabytesProperty() {
+    return gameDataCacheMaxSizeInGigabytes;
+  }
+
   public boolean isDebugLogEnabled() {
     return debugLogEnabled.get();
   }
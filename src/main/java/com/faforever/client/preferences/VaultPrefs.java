@@ -2,8 +2,10 @@ package com.faforever.client.preferences;
 
 import com.faforever.client.vault.search.SearchController.SortConfig;
 import com.faforever.client.vault.search.SearchController.SortOrder;
+import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.MapProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleMapProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
@@ -17,6 +19,8 @@ public class VaultPrefs {
   private final MapProperty<String, String> savedReplayQueries;
   private final MapProperty<String, String> savedMapQueries;
   private final MapProperty<String, String> savedModQueries;
+  /** Whether installed map and mod files are stored once and hardlinked into their folders. */
+  private final BooleanProperty deduplicateFiles;
 
 
   public VaultPrefs() {
@@ -26,6 +30,7 @@ public class VaultPrefs {
     savedReplayQueries = new SimpleMapProperty<>(FXCollections.observableHashMap());
     savedMapQueries = new SimpleMapProperty<>(FXCollections.observableHashMap());
     savedModQueries = new SimpleMapProperty<>(FXCollections.observableHashMap());
+    deduplicateFiles = new SimpleBooleanProperty(false);
   }
 
   public SortConfig getOnlineReplaySortConfig() {
@@ -102,4 +107,16 @@ public class VaultPrefs {
   public MapProperty savedModQueriesProperty() {
     return savedModQueries;
   }
+
+  public boolean getDeduplicateFiles() {
+    return deduplicateFiles.get();
+  }
+
+  public void setDeduplicateFiles(boolean deduplicateFiles) {
+    this.deduplicateFiles.set(deduplicateFiles);
+  }
+
+  public BooleanProperty deduplicateFilesProperty() {
+    return deduplicateFiles;
+  }
 }
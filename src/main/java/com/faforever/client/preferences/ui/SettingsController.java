@@ -145,10 +145,12 @@ public class SettingsController implements Controller<Node> {
   public Button clearCacheButton;
   public CheckBox gameDataCacheCheckBox;
   public Spinner<Integer> gameDataCacheTimeSpinner;
+  public Spinner<Integer> gameDataCacheSizeSpinner;
   public CheckBox allowReplayWhileInGameCheckBox;
   public Button allowReplayWhileInGameButton;
   public CheckBox debugLogToggle;
   public CheckBox mapAndModAutoUpdateCheckBox;
+  public CheckBox deduplicateVaultFilesCheckBox;
 
   private final InvalidationListener availableLanguagesListener;
 
@@ -346,6 +348,8 @@ public class SettingsController implements Controller<Node> {
   private void initMapAndModAutoUpdate() {
     mapAndModAutoUpdateCheckBox.selectedProperty()
         .bindBidirectional(preferencesService.getPreferences().mapAndModAutoUpdateProperty());
+    deduplicateVaultFilesCheckBox.selectedProperty()
+        .bindBidirectional(preferencesService.getPreferences().getVault().deduplicateFilesProperty());
   }
 
   private void initGameDataCache() {
@@ -354,6 +358,9 @@ public class SettingsController implements Controller<Node> {
     gameDataCacheTimeSpinner.getValueFactory().setValue(preferencesService.getPreferences().getCacheLifeTimeInDays());
     gameDataCacheTimeSpinner.getValueFactory().valueProperty()
         .addListener((observable, oldValue, newValue) -> preferencesService.getPreferences().setCacheLifeTimeInDays(newValue));
+    gameDataCacheSizeSpinner.getValueFactory().setValue(preferencesService.getPreferences().getGameDataCacheMaxSizeInGigabytes());
+    gameDataCacheSizeSpinner.getValueFactory().valueProperty()
+        .addListener((observable, oldValue, newValue) -> preferencesService.getPreferences().setGameDataCacheMaxSizeInGigabytes(newValue));
   }
 
   private void initNotifyMeOnAtMention() {
@@ -1,5 +1,6 @@
 package com.faforever.client.remote;
 
+import com.faforever.client.api.ApiEntityLoader;
 import com.faforever.client.api.FafApiAccessor;
 import com.faforever.client.chat.avatar.AvatarBean;
 import com.faforever.client.chat.avatar.event.AvatarChangedEvent;
@@ -45,18 +46,18 @@ import com.faforever.commons.api.dto.Mod;
 import com.faforever.commons.api.dto.ModVersionReview;
 import com.faforever.commons.api.dto.NeroxisGeneratorParams;
 import com.faforever.commons.api.dto.PlayerAchievement;
-import com.faforever.commons.io.ByteCountListener;
 import com.google.common.eventbus.EventBus;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.Resource;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
-import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -65,6 +66,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -78,6 +80,7 @@ public class FafService {
   private final FafServerAccessor fafServerAccessor;
   private final FafApiAccessor fafApiAccessor;
   private final EventBus eventBus;
+  private final ApiEntityLoader apiEntityLoader;
 
   public <T extends ServerMessage> void addOnMessageListener(Class<T> type, Consumer<T> listener) {
     fafServerAccessor.addOnMessageListener(type, listener);
@@ -159,12 +162,46 @@ public class FafService {
         .collect(toList()));
   }
 
-  @Async
-  public CompletableFuture<List<LeaderboardEntry>> getAllLeaderboardEntries(String leaderboardTechnicalName) {
-    return CompletableFuture.completedFuture(fafApiAccessor.getAllLeaderboardEntries(leaderboardTechnicalName)
-        .parallelStream()
-        .map(LeaderboardEntry::fromDto)
-        .collect(toList()));
+  /**
+   * Passes the leaderboard entries that have been updated since the specified time to the consumer, page by page as
+   * they arrive. The entries are passed as they come from the API, so they can be stored without creating beans.
+   *
+   * @return a future that completes once all pages have been passed to the consumer
+   */
+  public CompletableFuture<Void> streamLeaderboardEntriesUpdatedSince(String leaderboardTechnicalName, Instant since,
+                                                                      Consumer<List<com.faforever.commons.api.dto.LeaderboardEntry>> pageConsumer) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    fafApiAccessor.streamLeaderboardEntriesUpdatedSince(leaderboardTechnicalName, since).subscribe(new Flow.Subscriber<>() {
+      private Flow.Subscription subscription;
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        future.whenComplete((aVoid, throwable) -> subscription.cancel());
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(List<com.faforever.commons.api.dto.LeaderboardEntry> page) {
+        try {
+          pageConsumer.accept(page);
+        } catch (RuntimeException e) {
+          subscription.cancel();
+          future.completeExceptionally(e);
+        }
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        future.completeExceptionally(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+        future.complete(null);
+      }
+    });
+    return future;
   }
 
   @Async
@@ -311,8 +348,8 @@ public class FafService {
         ((HashMap<String, Integer>) tuple.getSecond().get("page")).get("totalPages")));
   }
 
-  public void uploadMod(Path modFile, ByteCountListener byteListener) {
-    fafApiAccessor.uploadMod(modFile, byteListener);
+  public void uploadMod(Resource modFile) {
+    fafApiAccessor.uploadMod(modFile);
   }
 
   @Async
@@ -351,8 +388,8 @@ public class FafService {
   }
 
   public CompletableFuture<Optional<MapBean>> findMapByFolderName(String folderName) {
-    return CompletableFuture.completedFuture(fafApiAccessor.findMapByFolderName(folderName)
-        .map(MapBean::fromMapVersionDto));
+    return apiEntityLoader.loadMapVersionByFolderName(folderName)
+        .thenApply(mapVersion -> mapVersion.map(MapBean::fromMapVersionDto));
   }
 
   @Async
@@ -362,9 +399,10 @@ public class FafService {
   }
 
   public CompletableFuture<List<Player>> getPlayersByIds(Collection<Integer> playerIds) {
-    return CompletableFuture.completedFuture(fafApiAccessor.getPlayersByIds(playerIds).stream()
-        .map(Player::fromDto)
-        .collect(toList()));
+    return apiEntityLoader.loadPlayersByIds(playerIds)
+        .thenApply(players -> players.stream()
+            .map(Player::fromDto)
+            .collect(toList()));
   }
 
   public CompletableFuture<Optional<Player>> queryPlayerByName(String playerName) {
@@ -1,11 +1,13 @@
 package com.faforever.client.teammatchmaking;
 
 import com.faforever.client.fa.relay.LobbyMode;
+import com.faforever.client.fa.relay.ice.IceAdapter;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.game.GameService;
 import com.faforever.client.game.PlayerStatus;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.main.event.OpenTeamMatchmakingEvent;
+import com.faforever.client.map.MatchmakerMapPrefetcher;
 import com.faforever.client.net.ConnectionState;
 import com.faforever.client.notification.Action;
 import com.faforever.client.notification.Action.ActionCallback;
@@ -72,6 +74,8 @@ public class TeamMatchmakingService {
   private final I18n i18n;
   private final TaskScheduler taskScheduler;
   private final GameService gameService;
+  private final MatchmakerMapPrefetcher matchmakerMapPrefetcher;
+  private final IceAdapter iceAdapter;
 
   @Getter
   private final Party party;
@@ -85,7 +89,7 @@ public class TeamMatchmakingService {
   private final BooleanProperty queuesReadyForUpdate = new SimpleBooleanProperty(false);
   private final BooleanProperty currentlyInQueue = new SimpleBooleanProperty();
 
-  public TeamMatchmakingService(FafServerAccessor fafServerAccessor, PlayerService playerService, NotificationService notificationService, PreferencesService preferencesService, FafService fafService, EventBus eventBus, I18n i18n, TaskScheduler taskScheduler, GameService gameService) {
+  public TeamMatchmakingService(FafServerAccessor fafServerAccessor, PlayerService playerService, NotificationService notificationService, PreferencesService preferencesService, FafService fafService, EventBus eventBus, I18n i18n, TaskScheduler taskScheduler, GameService gameService, MatchmakerMapPrefetcher matchmakerMapPrefetcher, IceAdapter iceAdapter) {
     this.fafServerAccessor = fafServerAccessor;
     this.playerService = playerService;
     this.notificationService = notificationService;
@@ -95,6 +99,8 @@ public class TeamMatchmakingService {
     this.i18n = i18n;
     this.taskScheduler = taskScheduler;
     this.gameService = gameService;
+    this.matchmakerMapPrefetcher = matchmakerMapPrefetcher;
+    this.iceAdapter = iceAdapter;
 
     fafService.addOnMessageListener(PartyInviteMessage.class, this::onPartyInvite);
     fafService.addOnMessageListener(PartyKickedMessage.class, this::onPartyKicked);
@@ -178,6 +184,7 @@ public class TeamMatchmakingService {
               //TODO: check current state / other queues
               if (message.getState() == MatchmakingState.START) {
                 gameService.startSearchMatchmaker();
+                matchmakerMapPrefetcher.prefetchPool(q);
 
                 Optional<PartyMember> ownPartyMember = party.getMembers().stream()
                     .filter(m -> m.getPlayer().getId() == playerService.getCurrentPlayer().map(Player::getId).orElse(-1))
@@ -192,12 +199,14 @@ public class TeamMatchmakingService {
         && message.getState() != MatchmakingState.START // catches same race condition
         && !matchFoundAndWaitingForGameLaunch) {
       gameService.onMatchmakerSearchStopped();
+      matchmakerMapPrefetcher.cancel();
     }
   }
 
   @VisibleForTesting
   protected void onMatchFoundMessage(MatchFoundMessage message) {
     matchFoundAndWaitingForGameLaunch = true; // messages from server: match found -> STOP all queues that you are in that haven't found a match -> game launch
+    matchmakerMapPrefetcher.cancel(); // frees the bandwidth for the map of this match, which resumes a partial prefetch
 
     notificationService.addNotification(new TransientNotification(
         i18n.get("teammatchmaking.notification.matchFound.title"),
@@ -323,6 +332,7 @@ public class TeamMatchmakingService {
     }
 
     fafServerAccessor.acceptPartyInvite(player); // TODO: fafServerAccessor callsshould move to fafService
+    iceAdapter.prewarm();
     eventBus.post(new OpenTeamMatchmakingEvent());
   }
 
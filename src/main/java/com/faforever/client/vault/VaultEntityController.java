@@ -296,7 +296,7 @@ public abstract class VaultEntityController<T> extends AbstractViewController<No
   }
 
   protected void onSearch(SearchConfig searchConfig) {
-    searchType = SearchType.SEARCH;
+    searchType = searchController.isOnlyInstalledSelected() ? SearchType.INSTALLED : SearchType.SEARCH;
     onFirstPageOpened(searchConfig);
   }
 
@@ -332,7 +332,7 @@ public abstract class VaultEntityController<T> extends AbstractViewController<No
   }
 
   public enum SearchType {
-    SEARCH, OWN, NEWEST, HIGHEST_RATED, PLAYER, RECOMMENDED, MAP_POOL, PLAYED, HIGHEST_RATED_UI
+    SEARCH, OWN, NEWEST, HIGHEST_RATED, PLAYER, RECOMMENDED, MAP_POOL, PLAYED, HIGHEST_RATED_UI, INSTALLED
   }
 
   @Value
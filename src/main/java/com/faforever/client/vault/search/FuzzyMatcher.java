@@ -0,0 +1,160 @@
+package com.faforever.client.vault.search;
+
+/**
+ * Scores how well a search term matches a text, tolerating missing characters (e.g. "stns" matches "Seton's Clutch")
+ * and single typos in longer words without digits. Both the term and the text have to be passed through {@link
+ * #normalize(String)} first, which allows callers to normalize texts once and match them many times.
+ */
+public final class FuzzyMatcher {
+
+  /** Returned by {@link #score(String, String)} if the term does not match the text at all. */
+  public static final int NO_MATCH = -1;
+
+  private static final int SUBSTRING_SCORE = 100;
+  private static final int WORD_START_BONUS = 20;
+  private static final int SUBSEQUENCE_SCORE = 50;
+  private static final int TYPO_SCORE = 10;
+  private static final int MIN_TYPO_TOLERANT_LENGTH = 4;
+
+  private FuzzyMatcher() {
+    throw new AssertionError("Not instantiatable");
+  }
+
+  /**
+   * Lower-cases the specified text and replaces every run of characters that are neither letters nor digits by a
+   * single space, so that e.g. "Seton's_Clutch" and "setons clutch" normalize to similar texts.
+   */
+  public static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    StringBuilder builder = new StringBuilder(text.length());
+    boolean pendingSpace = false;
+    for (int i = 0; i < text.length(); i++) {
+      char character = text.charAt(i);
+      if (Character.isLetterOrDigit(character)) {
+        if (pendingSpace && builder.length() > 0) {
+          builder.append(' ');
+        }
+        pendingSpace = false;
+        builder.append(Character.toLowerCase(character));
+      } else if (character != '\'') {
+        pendingSpace = true;
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * @param term the normalized search term
+   * @param text the normalized text to search in
+   * @return a positive score that is the higher the better the term matches, {@code 0} for an empty term or {@link
+   * #NO_MATCH} if the term doesn't match
+   */
+  public static int score(String term, String text) {
+    if (term.isEmpty()) {
+      return 0;
+    }
+
+    int index = text.indexOf(term);
+    if (index >= 0) {
+      int score = SUBSTRING_SCORE - Math.min(index, WORD_START_BONUS);
+      if (index == 0 || text.charAt(index - 1) == ' ') {
+        score += WORD_START_BONUS;
+      }
+      return score;
+    }
+
+    int gaps = subsequenceGaps(term, text);
+    if (gaps >= 0) {
+      return Math.max(1, SUBSEQUENCE_SCORE - gaps);
+    }
+
+    return allWordsWithinOneTypo(term, text) ? TYPO_SCORE : NO_MATCH;
+  }
+
+  /**
+   * Returns the number of skipped characters if all characters of the term appear in order in the text, without
+   * spaces in the term being required. Matches that are spread out over more than twice the term's length are
+   * rejected since they rarely are what the user meant.
+   */
+  private static int subsequenceGaps(String term, String text) {
+    String compactTerm = term.replace(" ", "");
+    if (compactTerm.length() < 2) {
+      return NO_MATCH;
+    }
+    int start = text.indexOf(compactTerm.charAt(0));
+    while (start >= 0) {
+      int textIndex = start + 1;
+      int termIndex = 1;
+      while (termIndex < compactTerm.length() && textIndex < text.length()) {
+        if (text.charAt(textIndex) == compactTerm.charAt(termIndex)) {
+          termIndex++;
+        }
+        textIndex++;
+      }
+      int span = textIndex - start;
+      if (termIndex == compactTerm.length() && span <= compactTerm.length() * 2) {
+        return span - compactTerm.length();
+      }
+      start = text.indexOf(compactTerm.charAt(0), start + 1);
+    }
+    return NO_MATCH;
+  }
+
+  private static boolean allWordsWithinOneTypo(String term, String text) {
+    String[] textWords = text.split(" ");
+    for (String termWord : term.split(" ")) {
+      // Numbers in names (e.g. "map6", "5v5") are never typos
+      if (termWord.length() < MIN_TYPO_TOLERANT_LENGTH || termWord.chars().anyMatch(Character::isDigit)) {
+        return false;
+      }
+      boolean found = false;
+      for (String textWord : textWords) {
+        if (textWord.startsWith(termWord) || isWithinOneEdit(termWord, textWord)) {
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isWithinOneEdit(String first, String second) {
+    int lengthDifference = first.length() - second.length();
+    if (Math.abs(lengthDifference) > 1) {
+      return false;
+    }
+    int i = 0;
+    int j = 0;
+    boolean edited = false;
+    while (i < first.length() && j < second.length()) {
+      if (first.charAt(i) == second.charAt(j)) {
+        i++;
+        j++;
+        continue;
+      }
+      if (edited) {
+        return false;
+      }
+      edited = true;
+      if (lengthDifference > 0) {
+        i++;
+      } else if (lengthDifference < 0) {
+        j++;
+      } else if (i + 1 < first.length()
+          && first.charAt(i) == second.charAt(j + 1) && first.charAt(i + 1) == second.charAt(j)) {
+        // Swapped adjacent characters
+        i += 2;
+        j += 2;
+      } else {
+        i++;
+        j++;
+      }
+    }
+    return !edited || (i == first.length() && j == second.length());
+  }
+}
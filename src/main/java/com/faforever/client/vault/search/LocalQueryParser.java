@@ -0,0 +1,282 @@
+package com.faforever.client.vault.search;
+
+import com.faforever.client.vault.search.LocalSearchIndex.Entry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoublePredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Parses the RSQL queries built by the {@link SearchController} into conditions that can be evaluated against the
+ * entries of a {@link LocalSearchIndex}. Supports the complete RSQL grammar ({@code ;} and {@code ,} with parentheses)
+ * and the operators {@code ==}, {@code !=}, {@code =lt=}, {@code =le=}, {@code =gt=}, {@code =ge=}, {@code =in=} and
+ * {@code =out=} as well as their {@code <}, {@code <=}, {@code >}, {@code >=} aliases. Comparisons of properties that
+ * are not indexed locally are ignored, so that API-only criteria don't hide all installed content.
+ */
+@Slf4j
+class LocalQueryParser {
+
+  private final String query;
+  private final LocalSearchIndex<?> index;
+  private int position;
+
+  LocalQueryParser(String query, LocalSearchIndex<?> index) {
+    this.query = query;
+    this.index = index;
+  }
+
+  /**
+   * Evaluates an entry and returns its relevance, which is the sum of all fuzzy text match scores, or {@link
+   * FuzzyMatcher#NO_MATCH} if the entry doesn't match.
+   */
+  interface Condition {
+    Condition ALL = entry -> 0;
+
+    int score(Entry<?> entry);
+  }
+
+  Condition parse() {
+    if (query == null || query.isBlank()) {
+      return Condition.ALL;
+    }
+    Condition condition = parseOr();
+    skipWhitespace();
+    if (position < query.length()) {
+      throw new IllegalArgumentException("Unexpected character at position " + position + " of query: " + query);
+    }
+    return condition;
+  }
+
+  private Condition parseOr() {
+    List<Condition> alternatives = new ArrayList<>();
+    alternatives.add(parseAnd());
+    while (consume(',')) {
+      alternatives.add(parseAnd());
+    }
+    if (alternatives.size() == 1) {
+      return alternatives.get(0);
+    }
+    return entry -> {
+      int best = FuzzyMatcher.NO_MATCH;
+      for (Condition alternative : alternatives) {
+        best = Math.max(best, alternative.score(entry));
+      }
+      return best;
+    };
+  }
+
+  private Condition parseAnd() {
+    List<Condition> conjuncts = new ArrayList<>();
+    conjuncts.add(parseConstraint());
+    while (consume(';')) {
+      conjuncts.add(parseConstraint());
+    }
+    if (conjuncts.size() == 1) {
+      return conjuncts.get(0);
+    }
+    return entry -> {
+      int sum = 0;
+      for (Condition conjunct : conjuncts) {
+        int score = conjunct.score(entry);
+        if (score == FuzzyMatcher.NO_MATCH) {
+          return FuzzyMatcher.NO_MATCH;
+        }
+        sum += score;
+      }
+      return sum;
+    };
+  }
+
+  private Condition parseConstraint() {
+    if (consume('(')) {
+      Condition condition = parseOr();
+      expect(')');
+      return condition;
+    }
+    return parseComparison();
+  }
+
+  private Condition parseComparison() {
+    skipWhitespace();
+    int start = position;
+    while (position < query.length() && "=!<>".indexOf(query.charAt(position)) < 0) {
+      position++;
+    }
+    String selector = query.substring(start, position).trim();
+    String operator = parseOperator();
+    List<String> arguments = parseArguments();
+
+    int textAttribute = index.getTextAttributeIndex(selector);
+    if (textAttribute >= 0) {
+      return textComparison(textAttribute, operator, arguments);
+    }
+    int numberAttribute = index.getNumberAttributeIndex(selector);
+    if (numberAttribute >= 0) {
+      return numberComparison(numberAttribute, operator, arguments);
+    }
+    log.debug("Ignoring criterion on property '{}' which is not available locally", selector);
+    return Condition.ALL;
+  }
+
+  private String parseOperator() {
+    int start = position;
+    if (query.startsWith("==", position) || query.startsWith("!=", position)
+        || query.startsWith("<=", position) || query.startsWith(">=", position)) {
+      position += 2;
+    } else if (query.startsWith("<", position) || query.startsWith(">", position)) {
+      position++;
+    } else if (query.startsWith("=", position)) {
+      int end = query.indexOf('=', position + 1);
+      if (end < 0) {
+        throw new IllegalArgumentException("Unterminated operator at position " + position + " of query: " + query);
+      }
+      position = end + 1;
+    } else {
+      throw new IllegalArgumentException("Missing operator at position " + position + " of query: " + query);
+    }
+    return switch (query.substring(start, position)) {
+      case "<" -> "=lt=";
+      case "<=" -> "=le=";
+      case ">" -> "=gt=";
+      case ">=" -> "=ge=";
+      default -> query.substring(start, position);
+    };
+  }
+
+  private List<String> parseArguments() {
+    List<String> arguments = new ArrayList<>();
+    if (consume('(')) {
+      arguments.add(parseValue());
+      while (consume(',')) {
+        arguments.add(parseValue());
+      }
+      expect(')');
+    } else {
+      arguments.add(parseValue());
+    }
+    return arguments;
+  }
+
+  private String parseValue() {
+    skipWhitespace();
+    if (position < query.length() && (query.charAt(position) == '"' || query.charAt(position) == '\'')) {
+      char quote = query.charAt(position++);
+      StringBuilder value = new StringBuilder();
+      while (position < query.length() && query.charAt(position) != quote) {
+        char character = query.charAt(position++);
+        if (character == '\\' && position < query.length()) {
+          character = query.charAt(position++);
+        }
+        value.append(character);
+      }
+      expect(quote);
+      return value.toString();
+    }
+    int start = position;
+    while (position < query.length() && ";,()".indexOf(query.charAt(position)) < 0) {
+      position++;
+    }
+    return query.substring(start, position).trim();
+  }
+
+  private Condition textComparison(int attribute, String operator, List<String> arguments) {
+    String argument = arguments.get(0);
+    return switch (operator) {
+      case "==" -> argument.contains("*") ? fuzzy(attribute, argument) : textEquals(attribute, arguments);
+      case "!=" -> not(argument.contains("*") ? fuzzy(attribute, argument) : textEquals(attribute, arguments));
+      case "=in=" -> textEquals(attribute, arguments);
+      case "=out=" -> not(textEquals(attribute, arguments));
+      default -> throw new IllegalArgumentException("Operator " + operator + " is not supported for text properties");
+    };
+  }
+
+  private Condition fuzzy(int attribute, String argument) {
+    String term = FuzzyMatcher.normalize(argument.replace("*", " "));
+    return entry -> FuzzyMatcher.score(term, entry.getText(attribute));
+  }
+
+  private Condition textEquals(int attribute, List<String> arguments) {
+    List<String> values = arguments.stream().map(FuzzyMatcher::normalize).collect(Collectors.toList());
+    return entry -> values.contains(entry.getText(attribute)) ? 0 : FuzzyMatcher.NO_MATCH;
+  }
+
+  private Condition numberComparison(int attribute, String operator, List<String> arguments) {
+    double[] values = arguments.stream().mapToDouble(LocalQueryParser::parseNumber).toArray();
+    double value = values[0];
+    return switch (operator) {
+      case "==", "=in=" -> numberMatches(attribute, number -> contains(values, number));
+      case "!=", "=out=" -> numberMatches(attribute, number -> !contains(values, number));
+      case "=lt=" -> numberMatches(attribute, number -> number < value);
+      case "=le=" -> numberMatches(attribute, number -> number <= value);
+      case "=gt=" -> numberMatches(attribute, number -> number > value);
+      case "=ge=" -> numberMatches(attribute, number -> number >= value);
+      default -> throw new IllegalArgumentException("Operator " + operator + " is not supported for number properties");
+    };
+  }
+
+  private static Condition numberMatches(int attribute, DoublePredicate predicate) {
+    return entry -> {
+      double number = entry.getNumber(attribute);
+      return !Double.isNaN(number) && predicate.test(number) ? 0 : FuzzyMatcher.NO_MATCH;
+    };
+  }
+
+  private static boolean contains(double[] values, double number) {
+    for (double value : values) {
+      if (value == number) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Condition not(Condition condition) {
+    return entry -> condition.score(entry) == FuzzyMatcher.NO_MATCH ? 0 : FuzzyMatcher.NO_MATCH;
+  }
+
+  /**
+   * Parses numbers, booleans (as {@code 1} and {@code 0}) and ISO date times (as epoch seconds).
+   */
+  static double parseNumber(String value) {
+    if ("true".equalsIgnoreCase(value)) {
+      return 1;
+    }
+    if ("false".equalsIgnoreCase(value)) {
+      return 0;
+    }
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      try {
+        return OffsetDateTime.parse(value).toEpochSecond();
+      } catch (DateTimeParseException e2) {
+        throw new IllegalArgumentException("Not a number: " + value, e);
+      }
+    }
+  }
+
+  private boolean consume(char character) {
+    skipWhitespace();
+    if (position < query.length() && query.charAt(position) == character) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(char character) {
+    if (!consume(character)) {
+      throw new IllegalArgumentException("Expected '" + character + "' at position " + position + " of query: " + query);
+    }
+  }
+
+  private void skipWhitespace() {
+    while (position < query.length() && Character.isWhitespace(query.charAt(position))) {
+      position++;
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.faforever.client.vault.search;
+
+import com.faforever.client.util.Tuple;
+import com.faforever.client.vault.search.LocalQueryParser.Condition;
+import com.faforever.client.vault.search.SearchController.SearchConfig;
+import com.faforever.client.vault.search.SearchController.SortConfig;
+import com.faforever.client.vault.search.SearchController.SortOrder;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory search index over locally installed vault content (maps, mods), which allows the vault to be searched
+ * with the same queries as the API, even if the API can't be reached. Attributes are registered under the property
+ * names of the API (see {@link com.faforever.client.query.SearchablePropertyMappings}) and extracted only once per
+ * item added to the source list, so that a search is a single scan over precomputed, normalized values.
+ *
+ * <p>Text criteria containing wildcards (as built by the text filters) are matched fuzzily, see {@link
+ * FuzzyMatcher}.</p>
+ *
+ * @param <T> the type of the indexed items
+ */
+public class LocalSearchIndex<T> {
+
+  private final Map<String, Function<T, String>> textAttributes = new LinkedHashMap<>();
+  private final Map<String, Function<T, ? extends Number>> numberAttributes = new LinkedHashMap<>();
+  /**
+   * Indexed items in insertion order. Entries are created lazily on the next search, so that bulk loading the source
+   * list stays cheap; items that haven't been indexed yet are mapped to {@code null}.
+   */
+  private final Map<T, Entry<T>> entries = new LinkedHashMap<>();
+  /** Snapshot of {@link #entries}; {@code null} if it needs to be rebuilt. */
+  private List<Entry<T>> snapshot;
+
+  public LocalSearchIndex(ObservableList<T> source) {
+    synchronized (this) {
+      source.forEach(item -> entries.put(item, null));
+    }
+    source.addListener((ListChangeListener<T>) this::onSourceChanged);
+  }
+
+  /**
+   * Registers a text attribute. Must be called before the index is queried the first time.
+   */
+  public LocalSearchIndex<T> textAttribute(String property, Function<T, String> extractor) {
+    textAttributes.put(property, extractor);
+    return this;
+  }
+
+  /**
+   * Registers a numeric attribute, which can be compared using range operators. Must be called before the index is
+   * queried the first time.
+   */
+  public LocalSearchIndex<T> numberAttribute(String property, Function<T, ? extends Number> extractor) {
+    numberAttributes.put(property, extractor);
+    return this;
+  }
+
+  /**
+   * Searches the index using the specified config's RSQL query and sort order. Criteria on properties that aren't
+   * indexed are ignored. If the config doesn't specify a sortable property, results are ordered by relevance.
+   *
+   * @param page the 1-based page number
+   * @return the items of the requested page and the total number of pages
+   * @throws IllegalArgumentException if the query is not valid RSQL
+   */
+  public Tuple<List<T>, Integer> search(SearchConfig searchConfig, int count, int page) {
+    Condition condition = new LocalQueryParser(searchConfig == null ? null : searchConfig.getSearchQuery(), this).parse();
+
+    List<ScoredEntry<T>> matches = new ArrayList<>();
+    for (Entry<T> entry : getSnapshot()) {
+      int score = condition.score(entry);
+      if (score != FuzzyMatcher.NO_MATCH) {
+        matches.add(new ScoredEntry<>(entry, score));
+      }
+    }
+    matches.sort(createComparator(searchConfig == null ? null : searchConfig.getSortConfig()));
+
+    int fromIndex = Math.min(matches.size(), Math.max(0, page - 1) * count);
+    int toIndex = Math.min(matches.size(), fromIndex + count);
+    List<T> items = matches.subList(fromIndex, toIndex).stream()
+        .map(scoredEntry -> scoredEntry.entry.item)
+        .collect(Collectors.toList());
+    int pageCount = (matches.size() + count - 1) / count;
+    return new Tuple<>(items, pageCount);
+  }
+
+  private Comparator<ScoredEntry<T>> createComparator(SortConfig sortConfig) {
+    Comparator<ScoredEntry<T>> byRelevance = Comparator.comparingInt(scoredEntry -> -scoredEntry.score);
+    if (sortConfig == null) {
+      return byRelevance;
+    }
+
+    Comparator<ScoredEntry<T>> byProperty;
+    int textAttribute = getTextAttributeIndex(sortConfig.getSortProperty());
+    int numberAttribute = getNumberAttributeIndex(sortConfig.getSortProperty());
+    if (textAttribute >= 0) {
+      byProperty = Comparator.comparing(scoredEntry -> scoredEntry.entry.getText(textAttribute));
+    } else if (numberAttribute >= 0) {
+      byProperty = Comparator.comparingDouble(scoredEntry -> scoredEntry.entry.getNumber(numberAttribute));
+    } else {
+      return byRelevance;
+    }
+    if (sortConfig.getSortOrder() == SortOrder.DESC) {
+      byProperty = byProperty.reversed();
+    }
+    return byProperty.thenComparing(byRelevance);
+  }
+
+  int getTextAttributeIndex(String property) {
+    return indexOf(textAttributes, property);
+  }
+
+  int getNumberAttributeIndex(String property) {
+    return indexOf(numberAttributes, property);
+  }
+
+  private static int indexOf(Map<String, ?> attributes, String property) {
+    int index = 0;
+    for (String key : attributes.keySet()) {
+      if (key.equals(property)) {
+        return index;
+      }
+      index++;
+    }
+    return -1;
+  }
+
+  private synchronized List<Entry<T>> getSnapshot() {
+    if (snapshot == null) {
+      entries.replaceAll((item, entry) -> entry != null ? entry : createEntry(item));
+      snapshot = new ArrayList<>(entries.values());
+    }
+    return snapshot;
+  }
+
+  private synchronized void onSourceChanged(ListChangeListener.Change<? extends T> change) {
+    while (change.next()) {
+      change.getRemoved().forEach(entries::remove);
+      change.getAddedSubList().forEach(item -> entries.put(item, null));
+    }
+    snapshot = null;
+  }
+
+  private Entry<T> createEntry(T item) {
+    String[] texts = textAttributes.values().stream()
+        .map(extractor -> FuzzyMatcher.normalize(extractor.apply(item)))
+        .toArray(String[]::new);
+    double[] numbers = numberAttributes.values().stream()
+        .mapToDouble(extractor -> {
+          Number number = extractor.apply(item);
+          return number == null ? Double.NaN : number.doubleValue();
+        })
+        .toArray();
+    return new Entry<>(item, texts, numbers);
+  }
+
+  static class Entry<T> {
+    private final T item;
+    private final String[] texts;
+    private final double[] numbers;
+
+    private Entry(T item, String[] texts, double[] numbers) {
+      this.item = item;
+      this.texts = texts;
+      this.numbers = numbers;
+    }
+
+    /** Returns the normalized value of the specified text attribute. */
+    String getText(int attribute) {
+      return texts[attribute];
+    }
+
+    /** Returns the value of the specified number attribute or {@link Double#NaN} if it's not set. */
+    double getNumber(int attribute) {
+      return numbers[attribute];
+    }
+  }
+
+  private static class ScoredEntry<T> {
+    private final Entry<T> entry;
+    private final int score;
+
+    private ScoredEntry(Entry<T> entry, int score) {
+      this.entry = entry;
+      this.score = score;
+    }
+  }
+}
@@ -75,6 +75,7 @@ public class SearchController implements Controller<Pane> {
   public HBox sortBox;
   public FlowPane filterPane;
   public CheckBox onlyShowLastYearCheckBox;
+  public CheckBox onlyInstalledCheckBox;
   private InvalidationListener queryInvalidationListener;
   /**
    * Called with the query string when the user hits "search".
@@ -100,7 +101,7 @@ public class SearchController implements Controller<Pane> {
 
   @Override
   public void initialize() {
-    JavaFxUtil.bindManagedToVisible(queryTextField, criteriaPane, filterPane, onlyShowLastYearCheckBox,
+    JavaFxUtil.bindManagedToVisible(queryTextField, criteriaPane, filterPane, onlyShowLastYearCheckBox, onlyInstalledCheckBox,
         initialLogicalNodeController.logicalOperatorField, initialLogicalNodeController.removeCriteriaButton,
         addCriteriaButton);
 
@@ -421,6 +422,17 @@ public class SearchController implements Controller<Pane> {
     onlyShowLastYearCheckBox.setSelected(visible);
   }
 
+  /**
+   * Shows a check box which allows the user to search the locally installed content instead of the vault.
+   */
+  public void setOnlyInstalledCheckBoxVisible(boolean visible) {
+    onlyInstalledCheckBox.setVisible(visible);
+  }
+
+  public boolean isOnlyInstalledSelected() {
+    return onlyInstalledCheckBox.isVisible() && onlyInstalledCheckBox.isSelected();
+  }
+
   public void setVaultRoot(StackPane root) {
     vaultRoot = root;
   }
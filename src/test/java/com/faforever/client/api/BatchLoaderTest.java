@@ -0,0 +1,127 @@
+package com.faforever.client.api;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+public class BatchLoaderTest {
+
+  private List<Set<Integer>> batches;
+  private Cache cache;
+  private Cache missingKeyCache;
+
+  @Before
+  public void setUp() {
+    batches = new CopyOnWriteArrayList<>();
+    cache = new ConcurrentMapCache("test");
+    missingKeyCache = new ConcurrentMapCache("missing");
+  }
+
+  @Test
+  public void testKeysRequestedWithinWindowAreLoadedInOneBatch() throws Exception {
+    BatchLoader<Integer, String> instance = createInstance(this::loadEvenKeys, 50);
+
+    CompletableFuture<Optional<String>> first = instance.load(1);
+    CompletableFuture<Optional<String>> second = instance.load(2);
+    CompletableFuture<Optional<String>> secondAgain = instance.load(2);
+    CompletableFuture<List<String>> all = instance.loadAll(List.of(2, 3, 4));
+
+    assertThat(first.get(5, TimeUnit.SECONDS), is(Optional.empty()));
+    assertThat(second.get(5, TimeUnit.SECONDS), is(Optional.of("value 2")));
+    assertThat(secondAgain, sameInstance(second));
+    assertThat(all.get(5, TimeUnit.SECONDS), is(List.of("value 2", "value 4")));
+    assertThat(batches, hasSize(1));
+    assertThat(batches.get(0), containsInAnyOrder(1, 2, 3, 4));
+  }
+
+  @Test
+  public void testLoadedValuesAreCachedAndLargeBatchesAreSplit() throws Exception {
+    BatchLoader<Integer, String> instance = createInstance(this::loadEvenKeys, 2);
+
+    instance.loadAll(List.of(1, 2, 3, 4, 5)).get(5, TimeUnit.SECONDS);
+    assertThat(batches, hasSize(3));
+
+    assertThat(instance.load(4).get(5, TimeUnit.SECONDS), is(Optional.of("value 4")));
+    assertThat(batches, hasSize(3));
+    assertThat(cache.get(3), is((Cache.ValueWrapper) null));
+  }
+
+  @Test
+  public void testMissingKeysAreNotLoadedAgainWhileRemembered() throws Exception {
+    BatchLoader<Integer, String> instance = createInstance(this::loadEvenKeys, 50);
+
+    assertThat(instance.load(3).get(5, TimeUnit.SECONDS), is(Optional.empty()));
+    assertThat(instance.load(3).get(5, TimeUnit.SECONDS), is(Optional.empty()));
+    assertThat(batches, hasSize(1));
+
+    missingKeyCache.evict(3);
+    instance.load(3).get(5, TimeUnit.SECONDS);
+    assertThat(batches, hasSize(2));
+  }
+
+  @Test
+  public void testFailedBatchFailsEveryCaller() throws Exception {
+    BatchLoader<Integer, String> instance = createInstance(keys -> {
+      throw new IllegalStateException("API down");
+    }, 50);
+
+    CompletableFuture<Optional<String>> first = instance.load(1);
+    CompletableFuture<Optional<String>> second = instance.load(2);
+
+    for (CompletableFuture<Optional<String>> future : List.of(first, second)) {
+      try {
+        future.get(5, TimeUnit.SECONDS);
+        fail("Expected the load to fail");
+      } catch (ExecutionException e) {
+        assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+      }
+    }
+  }
+
+  @Test
+  public void testErrorInBatchFailsEveryCaller() throws Exception {
+    BatchLoader<Integer, String> instance = createInstance(keys -> {
+      throw new AssertionError("Unexpected");
+    }, 50);
+
+    try {
+      instance.load(1).get(5, TimeUnit.SECONDS);
+      fail("Expected the load to fail");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(AssertionError.class));
+    }
+  }
+
+  private BatchLoader<Integer, String> createInstance(Function<Set<Integer>, Map<Integer, String>> batchFunction, int maxBatchSize) {
+    return new BatchLoader<>(keys -> {
+      batches.add(keys);
+      return batchFunction.apply(keys);
+    }, cache, missingKeyCache, Runnable::run, 50, maxBatchSize);
+  }
+
+  private Map<Integer, String> loadEvenKeys(Set<Integer> keys) {
+    return keys.stream()
+        .filter(key -> key % 2 == 0)
+        .collect(Collectors.toMap(Function.identity(), key -> "value " + key));
+  }
+}
@@ -9,6 +9,7 @@ import com.faforever.commons.api.dto.Event;
 import com.faforever.commons.api.dto.Game;
 import com.faforever.commons.api.dto.GamePlayerStats;
 import com.faforever.commons.api.dto.GameReview;
+import com.faforever.commons.api.dto.LeaderboardEntry;
 import com.faforever.commons.api.dto.LeaderboardRatingJournal;
 import com.faforever.commons.api.dto.MapVersion;
 import com.faforever.commons.api.dto.MapVersionReview;
@@ -17,24 +18,35 @@ import com.faforever.commons.api.dto.ModerationReport;
 import com.faforever.commons.api.dto.Player;
 import com.faforever.commons.api.dto.PlayerAchievement;
 import com.faforever.commons.api.dto.PlayerEvent;
+import com.github.jasminb.jsonapi.JSONAPIDocument;
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -42,6 +54,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static java.util.Collections.emptyList;
@@ -55,6 +70,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -76,18 +92,36 @@ public class FafApiAccessorImplTest {
   private JsonApiMessageConverter jsonApiMessageConverter;
   @Mock
   private JsonApiErrorHandler jsonApiErrorHandler;
+  @Mock
+  private HttpResponseCache httpResponseCache;
+  @Mock
+  private RestTemplateBuilder uploadTemplateBuilder;
+  @Mock
+  private OAuth2RestTemplate uploadRestOperations;
+
+  private ClientProperties clientProperties;
 
   @Before
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
+    clientProperties = new ClientProperties();
 
-    when(restTemplateBuilder.requestFactory(any(Supplier.class))).thenReturn(restTemplateBuilder);
+    when(restTemplateBuilder.requestFactory(any(Supplier.class))).thenAnswer(invocation -> {
+      ClientHttpRequestFactory requestFactory = invocation.<Supplier<ClientHttpRequestFactory>>getArgument(0).get();
+      ClientHttpRequest request = requestFactory.createRequest(URI.create("http://localhost/"), HttpMethod.POST);
+      return request instanceof StreamingHttpOutputMessage ? uploadTemplateBuilder : restTemplateBuilder;
+    });
     when(restTemplateBuilder.additionalMessageConverters(any(JsonApiMessageConverter.class))).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.rootUri(any())).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.errorHandler(any())).thenReturn(restTemplateBuilder);
+    when(restTemplateBuilder.additionalInterceptors(any(HttpResponseCache.class))).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.configure(any(OAuth2RestTemplate.class))).thenReturn(restOperations);
+    when(uploadTemplateBuilder.additionalMessageConverters(any(JsonApiMessageConverter.class))).thenReturn(uploadTemplateBuilder);
+    when(uploadTemplateBuilder.rootUri(any())).thenReturn(uploadTemplateBuilder);
+    when(uploadTemplateBuilder.errorHandler(any())).thenReturn(uploadTemplateBuilder);
+    when(uploadTemplateBuilder.configure(any(OAuth2RestTemplate.class))).thenReturn(uploadRestOperations);
 
-    instance = new FafApiAccessorImpl(eventBus, restTemplateBuilder, new ClientProperties(), jsonApiMessageConverter, jsonApiErrorHandler);
+    instance = new FafApiAccessorImpl(eventBus, restTemplateBuilder, clientProperties, jsonApiMessageConverter, jsonApiErrorHandler, MoreExecutors.newDirectExecutorService(), httpResponseCache, new RequestCoalescer());
     instance.afterPropertiesSet();
     instance.authorize(123, "junit", "42");
   }
@@ -120,9 +154,8 @@ public class FafApiAccessorImplTest {
     achievementDefinition2.setId("2-3-4");
     List<AchievementDefinition> result = Arrays.asList(achievementDefinition1, achievementDefinition2);
 
-    when(restOperations.getForObject(startsWith("/data/achievement"), eq(List.class)))
-        .thenReturn(result)
-        .thenReturn(emptyList());
+    when(restOperations.getForObject(startsWith("/data/achievement"), eq(JSONAPIDocument.class)))
+        .thenReturn(pageOf(result, 1));
 
     assertThat(instance.getAchievementDefinitions(), is(result));
   }
@@ -170,13 +203,76 @@ public class FafApiAccessorImplTest {
         ModVersionBuilder.create().defaultValues().uid("2").get()
     );
 
-    when(restOperations.getForObject(startsWith("/data/mod"), eq(List.class)))
-        .thenReturn(modVersions)
-        .thenReturn(emptyList());
+    when(restOperations.getForObject(startsWith("/data/mod"), eq(JSONAPIDocument.class)))
+        .thenReturn(pageOf(modVersions, 1));
 
     assertThat(instance.getMods(), equalTo(modVersions));
   }
 
+  @Test
+  public void testGetAllInParallelFetchesRemainingPagesByNumber() {
+    clientProperties.getApi().setParallelPageSize(2);
+    AchievementDefinition achievement1 = new AchievementDefinition();
+    AchievementDefinition achievement2 = new AchievementDefinition();
+    AchievementDefinition achievement3 = new AchievementDefinition();
+    AchievementDefinition achievement4 = new AchievementDefinition();
+    AchievementDefinition achievement5 = new AchievementDefinition();
+
+    when(restOperations.getForObject(contains("page[totals]"), eq(JSONAPIDocument.class)))
+        .thenReturn(pageOf(List.of(achievement1, achievement2), 3));
+    when(restOperations.getForObject(contains("page[number]=2"), eq(List.class)))
+        .thenReturn(List.of(achievement3, achievement4));
+    when(restOperations.getForObject(contains("page[number]=3"), eq(List.class)))
+        .thenReturn(List.of(achievement5));
+
+    assertThat(instance.getAchievementDefinitions(), is(List.of(achievement1, achievement2, achievement3, achievement4, achievement5)));
+  }
+
+  @Test
+  public void testStreamLeaderboardEntriesUpdatedSincePublishesPagesInOrder() throws Exception {
+    clientProperties.getApi().setParallelPageSize(1);
+    LeaderboardEntry entry1 = new LeaderboardEntry();
+    LeaderboardEntry entry2 = new LeaderboardEntry();
+
+    when(restOperations.getForObject(contains("page[totals]"), eq(JSONAPIDocument.class)))
+        .thenReturn(pageOf(List.of(entry1), 2));
+    when(restOperations.getForObject(contains("page[number]=2"), eq(List.class)))
+        .thenReturn(List.of(entry2));
+
+    List<List<LeaderboardEntry>> pages = new ArrayList<>();
+    CompletableFuture<Void> completed = new CompletableFuture<>();
+    instance.streamLeaderboardEntriesUpdatedSince("global", Instant.EPOCH).subscribe(new Flow.Subscriber<>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(List<LeaderboardEntry> page) {
+        pages.add(page);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        completed.completeExceptionally(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+        completed.complete(null);
+      }
+    });
+    completed.get(10, TimeUnit.SECONDS);
+
+    assertThat(pages, is(List.of(List.of(entry1), List.of(entry2))));
+  }
+
+  private static <T> JSONAPIDocument<List<T>> pageOf(List<T> data, int totalPages) {
+    JSONAPIDocument<List<T>> document = new JSONAPIDocument<>(data);
+    document.setMeta(Map.of("page", Map.of("totalPages", totalPages)));
+    return document;
+  }
+
   @Test
   public void testGetRatingHistory() {
     List<GamePlayerStats> gamePlayerStats = Collections.singletonList(new GamePlayerStats());
@@ -242,12 +338,22 @@ public class FafApiAccessorImplTest {
   }
 
   @Test
-  public void testUploadMod() throws Exception {
+  public void testUploadModStreamsRequestBody() throws Exception {
     Path file = Files.createTempFile("foo", null);
-    instance.uploadMod(file, (written, total) -> {
-    });
+    instance.uploadMod(new FileSystemResource(file));
+
+    verify(uploadRestOperations).postForEntity(eq("/mods/upload"), anyMap(), eq(String.class));
+    // An interceptor would buffer the request body
+    verify(uploadTemplateBuilder, never()).additionalInterceptors(ArgumentMatchers.<ClientHttpRequestInterceptor>any());
+  }
+
+  @Test
+  public void testUploadMapStreamsRequestBody() throws Exception {
+    Path file = Files.createTempFile("foo", null);
+    instance.uploadMap(new FileSystemResource(file), true);
 
-    verify(restOperations).postForEntity(eq("/mods/upload"), anyMap(), eq(String.class));
+    verify(uploadRestOperations).postForEntity(eq("/maps/upload"), anyMap(), eq(String.class));
+    verify(uploadTemplateBuilder, never()).additionalInterceptors(ArgumentMatchers.<ClientHttpRequestInterceptor>any());
   }
 
   @Test
@@ -0,0 +1,178 @@
+package com.faforever.client.api;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.PreferencesService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HttpResponseCacheTest {
+
+  private static final String ETAG = "\"v1\"";
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+  @Mock
+  private PreferencesService preferencesService;
+
+  private HttpServer server;
+  private String baseUrl;
+  private List<String> receivedIfNoneMatch;
+  private ClientProperties clientProperties;
+
+  @Before
+  public void setUp() throws Exception {
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+    clientProperties = new ClientProperties();
+    receivedIfNoneMatch = new CopyOnWriteArrayList<>();
+
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/tagged", exchange -> {
+      String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+      receivedIfNoneMatch.add(ifNoneMatch);
+      exchange.getResponseHeaders().set("ETag", ETAG);
+      if (ETAG.equals(ifNoneMatch)) {
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return;
+      }
+      respond(exchange, "tagged body");
+    });
+    server.createContext("/evicted", exchange -> {
+      String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+      receivedIfNoneMatch.add(ifNoneMatch);
+      exchange.getResponseHeaders().set("ETag", ETAG);
+      if (ETAG.equals(ifNoneMatch)) {
+        // Evicted while the request was in flight
+        deleteCachedResponses();
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return;
+      }
+      respond(exchange, "evicted body");
+    });
+    server.createContext("/untagged", exchange -> {
+      receivedIfNoneMatch.add(exchange.getRequestHeaders().getFirst("If-None-Match"));
+      respond(exchange, "untagged body");
+    });
+    server.start();
+    baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testRevalidatedResponseIsServedFromDisk() {
+    HttpResponseCache instance = new HttpResponseCache(preferencesService, clientProperties);
+    RestTemplate restTemplate = restTemplate(instance);
+
+    assertThat(restTemplate.getForObject(baseUrl + "/tagged", String.class), is("tagged body"));
+    assertThat(restTemplate.getForObject(baseUrl + "/tagged", String.class), is("tagged body"));
+
+    assertThat(receivedIfNoneMatch, contains(nullValue(), is(ETAG)));
+    assertThat(instance.getStatistics().getStored(), is(1L));
+    assertThat(instance.getStatistics().getRevalidated(), is(1L));
+  }
+
+  @Test
+  public void testCachedResponseSurvivesRestart() {
+    restTemplate(new HttpResponseCache(preferencesService, clientProperties)).getForObject(baseUrl + "/tagged", String.class);
+
+    HttpResponseCache restartedInstance = new HttpResponseCache(preferencesService, clientProperties);
+    String body = restTemplate(restartedInstance).getForObject(baseUrl + "/tagged", String.class);
+
+    assertThat(body, is("tagged body"));
+    assertThat(restartedInstance.getStatistics().getRevalidated(), is(1L));
+  }
+
+  @Test
+  public void testResponseEvictedBeforeRevalidationIsFetchedAgain() {
+    HttpResponseCache instance = new HttpResponseCache(preferencesService, clientProperties);
+    RestTemplate restTemplate = restTemplate(instance);
+
+    restTemplate.getForObject(baseUrl + "/evicted", String.class);
+    String body = restTemplate.getForObject(baseUrl + "/evicted", String.class);
+
+    assertThat(body, is("evicted body"));
+    assertThat(receivedIfNoneMatch, contains(nullValue(), is(ETAG), nullValue()));
+    assertThat(instance.getStatistics().getRevalidated(), is(0L));
+  }
+
+  @Test
+  public void testLedgerIsSavedOnDestroy() {
+    HttpResponseCache instance = new HttpResponseCache(preferencesService, clientProperties);
+    restTemplate(instance).getForObject(baseUrl + "/tagged", String.class);
+    Path ledgerFile = cacheDirectory.getRoot().toPath().resolve("http").resolve("http-cache.json");
+
+    assertFalse(Files.exists(ledgerFile));
+
+    instance.destroy();
+
+    assertTrue(Files.exists(ledgerFile));
+  }
+
+  @Test
+  public void testResponsesWithoutValidatorAreNotCached() {
+    HttpResponseCache instance = new HttpResponseCache(preferencesService, clientProperties);
+    RestTemplate restTemplate = restTemplate(instance);
+
+    restTemplate.getForObject(baseUrl + "/untagged", String.class);
+    restTemplate.getForObject(baseUrl + "/untagged", String.class);
+
+    assertThat(receivedIfNoneMatch, contains(nullValue(), nullValue()));
+    assertThat(instance.getStatistics().getUncacheable(), is(2L));
+  }
+
+  private static RestTemplate restTemplate(HttpResponseCache httpResponseCache) {
+    RestTemplate restTemplate = new RestTemplate();
+    restTemplate.getInterceptors().add(httpResponseCache);
+    return restTemplate;
+  }
+
+  private void deleteCachedResponses() throws IOException {
+    try (Stream<Path> files = Files.list(cacheDirectory.getRoot().toPath().resolve("http"))) {
+      for (Path file : files.filter(file -> file.toString().endsWith(".response")).collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  private static void respond(HttpExchange exchange, String body) throws IOException {
+    byte[] bytes = body.getBytes(UTF_8);
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(bytes);
+    }
+  }
+}
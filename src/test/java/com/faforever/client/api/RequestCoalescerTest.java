@@ -0,0 +1,106 @@
+package com.faforever.client.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTest {
+
+  private RequestCoalescer instance;
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    instance = new RequestCoalescer();
+    executorService = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentIdenticalRequestsShareOneCall() throws Exception {
+    CountDownLatch requestStarted = new CountDownLatch(1);
+    CountDownLatch releaseRequest = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    Object response = new Object();
+
+    CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> instance.execute("key", () -> {
+      calls.incrementAndGet();
+      requestStarted.countDown();
+      releaseRequest.await();
+      return response;
+    }), executorService);
+    requestStarted.await(10, TimeUnit.SECONDS);
+    CompletableFuture<Object> second = CompletableFuture.supplyAsync(() -> instance.execute("key", () -> {
+      calls.incrementAndGet();
+      return new Object();
+    }), executorService);
+    while (instance.getMergedCount() == 0) {
+      Thread.sleep(10);
+    }
+    releaseRequest.countDown();
+
+    assertThat(first.get(10, TimeUnit.SECONDS), sameInstance(response));
+    assertThat(second.get(10, TimeUnit.SECONDS), sameInstance(response));
+    assertThat(calls.get(), is(1));
+    assertThat(instance.getExecutedCount(), is(1L));
+    assertThat(instance.getMergedCount(), is(1L));
+  }
+
+  @Test
+  public void testCompletedRequestIsExecutedAgain() {
+    AtomicInteger calls = new AtomicInteger();
+
+    instance.execute("key", calls::incrementAndGet);
+    instance.execute("key", calls::incrementAndGet);
+
+    assertThat(calls.get(), is(2));
+    assertThat(instance.getMergedCount(), is(0L));
+  }
+
+  @Test
+  public void testFailureIsPassedToWaitingCallers() throws Exception {
+    CountDownLatch requestStarted = new CountDownLatch(1);
+    CountDownLatch releaseRequest = new CountDownLatch(1);
+
+    CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> instance.execute("key", () -> {
+      requestStarted.countDown();
+      releaseRequest.await();
+      throw new IOException("Connection reset");
+    }), executorService);
+    requestStarted.await(10, TimeUnit.SECONDS);
+    CompletableFuture<Object> second = CompletableFuture.supplyAsync(() -> instance.execute("key", Object::new), executorService);
+    while (instance.getMergedCount() == 0) {
+      Thread.sleep(10);
+    }
+    releaseRequest.countDown();
+
+    for (CompletableFuture<Object> future : List.of(first, second)) {
+      try {
+        future.get(10, TimeUnit.SECONDS);
+        fail("Request should have failed");
+      } catch (ExecutionException e) {
+        assertThat(e.getCause(), instanceOf(IOException.class));
+      }
+    }
+  }
+}
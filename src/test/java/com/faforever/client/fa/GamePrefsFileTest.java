@@ -0,0 +1,92 @@
+package com.faforever.client.fa;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+
+public class GamePrefsFileTest {
+
+  private static final String GAME_PREFS = "profile = {\n" +
+      "    current = 1,\n" +
+      "    profiles = {\n" +
+      "        { Name = 'JUnit', active_mods = { ['fake'] = true } },\n" +
+      "    },\n" +
+      "}\n" +
+      "-- active_mods = { ['commented'] = true }\n" +
+      "active_mods = {\n" +
+      "    ['mod-1'] = true,\n" +
+      "    ['mod-2'] = false\n" +
+      "}\n" +
+      "options = {\n" +
+      "    help = [[ debug = { enable_debug_facilities = true } ]],\n" +
+      "}\n";
+
+  @Test
+  public void testReadActiveModsOfTopLevelTableOnly() {
+    GamePrefsFile instance = parse(GAME_PREFS);
+
+    Map<String, Boolean> activeMods = instance.getActiveMods();
+
+    assertThat(activeMods.size(), is(2));
+    assertThat(activeMods, hasEntry("mod-1", true));
+    assertThat(activeMods, hasEntry("mod-2", false));
+    assertThat(instance.isDebugFacilitiesEnabled(), is(false));
+  }
+
+  @Test
+  public void testWithActiveModsOnlyReplacesTable() {
+    Map<String, Boolean> modStates = new LinkedHashMap<>();
+    modStates.put("mod-3", true);
+    modStates.put("mod-1", false);
+
+    String content = new String(parse(GAME_PREFS).withActiveMods(modStates), US_ASCII);
+
+    assertThat(content, is(GAME_PREFS.replace(
+        "active_mods = {\n    ['mod-1'] = true,\n    ['mod-2'] = false\n}",
+        "active_mods = {\n    ['mod-3'] = true\n}")));
+  }
+
+  @Test
+  public void testWithActiveModsAppendsMissingTable() {
+    GamePrefsFile instance = parse("options = {}");
+
+    String content = new String(instance.withActiveMods(Map.of("mod-1", true)), US_ASCII);
+
+    assertThat(instance.getActiveMods(), is(anEmptyMap()));
+    assertThat(content, is("options = {}\nactive_mods = {\n    ['mod-1'] = true\n}"));
+  }
+
+  @Test
+  public void testWithDebugFacilitiesEnabledAppendsMissingTable() {
+    String content = new String(parse(GAME_PREFS).withDebugFacilitiesEnabled(), US_ASCII);
+
+    assertThat(content, is(GAME_PREFS + "debug = {\n    enable_debug_facilities = true\n}"));
+    assertThat(parse(content).isDebugFacilitiesEnabled(), is(true));
+  }
+
+  @Test
+  public void testWithDebugFacilitiesEnabledInsertsIntoExistingTable() {
+    String content = new String(parse("debug = {\n    show_stats = false\n}\n").withDebugFacilitiesEnabled(), US_ASCII);
+
+    assertThat(content, is("debug = {\n    enable_debug_facilities = true,\n    show_stats = false\n}\n"));
+    assertThat(parse(content).isDebugFacilitiesEnabled(), is(true));
+  }
+
+  @Test
+  public void testWithDebugFacilitiesEnabledReplacesDisabledValue() {
+    String content = new String(parse("debug = { enable_debug_facilities = false }").withDebugFacilitiesEnabled(), US_ASCII);
+
+    assertThat(content, is("debug = { enable_debug_facilities = true }"));
+  }
+
+  private static GamePrefsFile parse(String content) {
+    return GamePrefsFile.parse(content.getBytes(US_ASCII));
+  }
+}
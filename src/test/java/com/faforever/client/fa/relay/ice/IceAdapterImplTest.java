@@ -1,16 +1,46 @@
 package com.faforever.client.fa.relay.ice;
 
 import com.faforever.client.config.ClientProperties;
+import com.faforever.client.game.LaunchTracer;
+import com.faforever.client.os.ProcessOutputPump;
+import com.faforever.client.player.Player;
+import com.faforever.client.player.PlayerBuilder;
 import com.faforever.client.player.PlayerService;
+import com.faforever.client.preferences.PreferencesBuilder;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.FafService;
 import com.google.common.eventbus.EventBus;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class IceAdapterImplTest {
@@ -29,10 +59,24 @@ public class IceAdapterImplTest {
   private FafService fafService;
   @Mock
   private PreferencesService preferencesService;
+  @Mock
+  private TaskScheduler taskScheduler;
+  @Mock
+  private ProcessOutputPump processOutputPump;
+  @Mock
+  private ScheduledFuture<?> idleShutdown;
+
+  private Player player;
 
   @Before
   public void setUp() throws Exception {
-    instance = new IceAdapterImpl(applicationContext, clientProperties, playerService, eventBus, fafService, preferencesService);
+    instance = spy(new IceAdapterImpl(applicationContext, clientProperties, playerService, eventBus, fafService, preferencesService, new LaunchTracer(eventBus), taskScheduler, processOutputPump));
+    player = PlayerBuilder.create("junit").defaultValues().get();
+  }
+
+  @After
+  public void tearDown() {
+    instance.stop();
   }
 
   @Test
@@ -51,4 +95,147 @@ public class IceAdapterImplTest {
   public void stop() throws Exception {
   }
 
+  @Test
+  public void testPrewarmDoesNothingIfWarmStartIsDisabled() {
+    when(clientProperties.isIceAdapterWarmStart()).thenReturn(false);
+
+    instance.prewarm();
+
+    verifyNoInteractions(playerService, taskScheduler);
+  }
+
+  @Test
+  public void testStartTakesOverPrewarmedAdapterOfSamePlayer() throws Exception {
+    StubProcess process = new StubProcess();
+    doReturn(process).when(instance).startAdapterProcess(any(), anyInt(), anyInt());
+    prewarm();
+
+    instance.start();
+
+    verify(idleShutdown).cancel(false);
+    verify(instance, after(500)).startAdapterProcess(any(), anyInt(), anyInt());
+    assertTrue(process.isAlive());
+  }
+
+  @Test
+  public void testStartLaunchesAdapterIfPrewarmedForOtherPlayer() throws Exception {
+    StubProcess prewarmedProcess = new StubProcess();
+    doReturn(prewarmedProcess).doReturn(new StubProcess()).when(instance).startAdapterProcess(any(), anyInt(), anyInt());
+    prewarm();
+    Player otherPlayer = PlayerBuilder.create("other").defaultValues().id(2).get();
+    when(playerService.getCurrentPlayer()).thenReturn(Optional.of(otherPlayer));
+
+    instance.start();
+
+    verify(instance, timeout(5000)).startAdapterProcess(eq(otherPlayer), anyInt(), anyInt());
+    assertTrue(prewarmedProcess.destroyed.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testStartLaunchesAdapterIfPrewarmedProcessHasDied() throws Exception {
+    StubProcess prewarmedProcess = new StubProcess();
+    doReturn(prewarmedProcess).doReturn(new StubProcess()).when(instance).startAdapterProcess(any(), anyInt(), anyInt());
+    prewarm();
+    prewarmedProcess.destroy();
+
+    instance.start();
+
+    verify(instance, timeout(5000).times(2)).startAdapterProcess(eq(player), anyInt(), anyInt());
+  }
+
+  @Test
+  public void testIdleShutdownStopsUnusedAdapter() throws Exception {
+    StubProcess process = new StubProcess();
+    doReturn(process).when(instance).startAdapterProcess(any(), anyInt(), anyInt());
+    prewarm();
+    ArgumentCaptor<Runnable> idleShutdownCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(taskScheduler).schedule(idleShutdownCaptor.capture(), any(Instant.class));
+
+    idleShutdownCaptor.getValue().run();
+
+    assertFalse(process.isAlive());
+  }
+
+  @Test
+  public void testIdleShutdownKeepsAdapterInUse() throws Exception {
+    StubProcess process = new StubProcess();
+    doReturn(process).when(instance).startAdapterProcess(any(), anyInt(), anyInt());
+    prewarm();
+    ArgumentCaptor<Runnable> idleShutdownCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(taskScheduler).schedule(idleShutdownCaptor.capture(), any(Instant.class));
+    instance.start();
+
+    idleShutdownCaptor.getValue().run();
+
+    assertTrue(process.isAlive());
+  }
+
+  @Test
+  public void testStartFailsWithoutPlayer() {
+    when(playerService.getCurrentPlayer()).thenReturn(Optional.empty());
+
+    assertTrue(instance.start().isCompletedExceptionally());
+  }
+
+  /**
+   * Prewarms an adapter for {@link #player} and waits until its process has been started.
+   */
+  private void prewarm() throws Exception {
+    when(clientProperties.isIceAdapterWarmStart()).thenReturn(true);
+    when(clientProperties.getIceAdapterIdleTimeout()).thenReturn(Duration.ofMinutes(10));
+    when(playerService.getCurrentPlayer()).thenReturn(Optional.of(player));
+    when(preferencesService.getPreferences()).thenReturn(PreferencesBuilder.create().defaultValues().get());
+    doReturn(idleShutdown).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+    instance.prewarm();
+
+    verify(processOutputPump, timeout(5000)).pump(any(), any(), any());
+  }
+
+  /**
+   * Stands in for the adapter process, which keeps running until it's destroyed.
+   */
+  private static class StubProcess extends Process {
+    private final CountDownLatch destroyed = new CountDownLatch(1);
+
+    @Override
+    public OutputStream getOutputStream() {
+      return OutputStream.nullOutputStream();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return InputStream.nullInputStream();
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+      return InputStream.nullInputStream();
+    }
+
+    @Override
+    public int waitFor() throws InterruptedException {
+      destroyed.await();
+      return 0;
+    }
+
+    @Override
+    public int exitValue() {
+      if (isAlive()) {
+        throw new IllegalThreadStateException("Process is still running");
+      }
+      return 0;
+    }
+
+    @Override
+    public boolean isAlive() {
+      return destroyed.getCount() > 0;
+    }
+
+    @Override
+    public void destroy() {
+      destroyed.countDown();
+    }
+  }
+
 }
@@ -3,6 +3,7 @@ package com.faforever.client.game;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.discord.DiscordRichPresenceService;
 import com.faforever.client.fa.ForgedAllianceService;
+import com.faforever.client.fa.GamePrefsService;
 import com.faforever.client.fa.relay.LobbyMode;
 import com.faforever.client.fa.relay.event.RehostRequestEvent;
 import com.faforever.client.fa.relay.ice.IceAdapter;
@@ -137,6 +138,8 @@ public class GameServiceTest extends AbstractPlainJavaFxTest {
   @Mock
   private DiscordRichPresenceService discordRichPresenceService;
   @Mock
+  private GamePrefsService gamePrefsService;
+  @Mock
   private Process process;
 
   @Captor
@@ -146,6 +149,7 @@ public class GameServiceTest extends AbstractPlainJavaFxTest {
 
   private Player junitPlayer;
   private Preferences preferences;
+  private LaunchTracer launchTracer;
 
   @Before
   public void setUp() throws Exception {
@@ -153,6 +157,7 @@ public class GameServiceTest extends AbstractPlainJavaFxTest {
     preferences = PreferencesBuilder.create().defaultValues().get();
 
     ClientProperties clientProperties = new ClientProperties();
+    launchTracer = new LaunchTracer(eventBus);
 
     when(preferencesService.getPreferences()).thenReturn(preferences);
     when(preferencesService.isGamePathValid()).thenReturn(true);
@@ -173,7 +178,7 @@ public class GameServiceTest extends AbstractPlainJavaFxTest {
     instance = new GameService(clientProperties, fafService, forgedAllianceService, mapService,
         preferencesService, gameUpdater, notificationService, i18n, executorService, playerService,
         reportingService, eventBus, iceAdapter, modService, platformService, discordRichPresenceService,
-        replayService, reconnectTimerService);
+        replayService, reconnectTimerService, gamePrefsService, launchTracer, new LaunchPlanner(launchTracer, clientProperties));
 
     instance.afterPropertiesSet();
 
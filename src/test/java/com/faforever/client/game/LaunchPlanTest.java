@@ -0,0 +1,119 @@
+package com.faforever.client.game;
+
+import com.google.common.eventbus.EventBus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LaunchPlanTest {
+
+  @Mock
+  private EventBus eventBus;
+
+  private LaunchTracer launchTracer;
+  private List<String> startedSteps;
+
+  @Before
+  public void setUp() {
+    launchTracer = new LaunchTracer(eventBus);
+    startedSteps = new CopyOnWriteArrayList<>();
+  }
+
+  @Test
+  public void testIndependentStepsRunConcurrentlyAndDependentsWaitForTheirDependencies() {
+    LaunchPlan instance = new LaunchPlan(launchTracer, 4);
+    CompletableFuture<String> lookup = new CompletableFuture<>();
+    CompletableFuture<Void> mapDownload = new CompletableFuture<>();
+
+    LaunchPlan.Step<String> lookupStep = instance.step("lookup", () -> started("lookup", lookup));
+    instance.step("update", () -> started("update:" + lookupStep.getResult(), CompletableFuture.completedFuture(null)), lookupStep);
+    instance.step("map", () -> started("map", mapDownload));
+    CompletableFuture<Void> future = instance.run();
+
+    assertThat(startedSteps, contains("lookup", "map"));
+
+    lookup.complete("faf");
+    assertThat(startedSteps, contains("lookup", "map", "update:faf"));
+    assertFalse(future.isDone());
+
+    mapDownload.complete(null);
+    assertTrue(future.isDone());
+  }
+
+  @Test
+  public void testParallelismIsBounded() {
+    LaunchPlan instance = new LaunchPlan(launchTracer, 1);
+    CompletableFuture<Void> first = new CompletableFuture<>();
+
+    instance.step("first", () -> started("first", first));
+    instance.step("second", () -> started("second", CompletableFuture.completedFuture(null)));
+    CompletableFuture<Void> future = instance.run();
+
+    assertThat(startedSteps, contains("first"));
+
+    first.complete(null);
+    assertThat(startedSteps, contains("first", "second"));
+    assertTrue(future.isDone());
+  }
+
+  @Test
+  public void testFailureSkipsPendingStepsAndLeavesRunningOnesAlone() throws Exception {
+    LaunchPlan instance = new LaunchPlan(launchTracer, 4);
+    CompletableFuture<Void> lookup = new CompletableFuture<>();
+    CompletableFuture<Void> mapDownload = new CompletableFuture<>();
+
+    LaunchPlan.Step<Void> lookupStep = instance.step("lookup", () -> started("lookup", lookup));
+    instance.step("update", () -> started("update", CompletableFuture.completedFuture(null)), lookupStep);
+    instance.step("map", () -> started("map", mapDownload));
+    CompletableFuture<Void> future = instance.run();
+
+    IOException failure = new IOException("Map not found");
+    mapDownload.completeExceptionally(failure);
+
+    assertFalse(lookup.isCancelled());
+    lookup.complete(null);
+    assertThat(startedSteps, contains("lookup", "map"));
+    try {
+      future.get();
+      fail("Plan should have failed");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(IOException.class));
+      assertThat(e.getCause(), is(failure));
+    }
+  }
+
+  @Test
+  public void testCancellingThePlanSkipsPendingSteps() {
+    LaunchPlan instance = new LaunchPlan(launchTracer, 4);
+    CompletableFuture<Void> lookup = new CompletableFuture<>();
+
+    LaunchPlan.Step<Void> lookupStep = instance.step("lookup", () -> started("lookup", lookup));
+    instance.step("update", () -> started("update", CompletableFuture.completedFuture(null)), lookupStep);
+    instance.run().cancel(true);
+    lookup.complete(null);
+
+    assertThat(startedSteps, contains("lookup"));
+  }
+
+  private <T> CompletableFuture<T> started(String name, CompletableFuture<T> future) {
+    startedSteps.add(name);
+    return future;
+  }
+}
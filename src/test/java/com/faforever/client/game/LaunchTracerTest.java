@@ -0,0 +1,78 @@
+package com.faforever.client.game;
+
+import com.google.common.eventbus.EventBus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LaunchTracerTest {
+
+  @Mock
+  private EventBus eventBus;
+
+  private LaunchTracer instance;
+
+  @Before
+  public void setUp() {
+    instance = new LaunchTracer(eventBus);
+  }
+
+  @Test
+  public void testSpansAreRecordedUntilLaunchFinishes() {
+    instance.begin("join");
+    CompletableFuture<Void> serverResponse = new CompletableFuture<>();
+    instance.trace("server.joinGame", () -> serverResponse);
+    LaunchTrace.Span span = instance.startSpan("forgedAlliance.start");
+    span.end();
+    serverResponse.complete(null);
+    instance.finish(null);
+
+    LaunchTrace launchTrace = captureFinishedTrace();
+    assertThat(launchTrace.getLaunchType(), is("join"));
+    assertThat(launchTrace.getFailure(), is(nullValue()));
+    assertThat(launchTrace.getDurationMillis(), greaterThanOrEqualTo(0L));
+    assertThat(launchTrace.getSpans().stream().map(LaunchTrace.Span::getName).collect(Collectors.toList()),
+        contains("server.joinGame", "forgedAlliance.start"));
+    assertThat(launchTrace.getSpans().get(0).getDurationMillis(), greaterThanOrEqualTo(0L));
+    assertThat(launchTrace.toLogLine(), containsString(" join "));
+  }
+
+  @Test
+  public void testFailureIsRecorded() {
+    instance.begin("host");
+    instance.finish(new IOException("Map not found"));
+
+    assertThat(captureFinishedTrace().getFailure(), containsString("Map not found"));
+  }
+
+  @Test
+  public void testNothingIsRecordedOutsideOfLaunch() {
+    instance.startSpan("update.featuredMod").end();
+    instance.finish(null);
+
+    verifyNoInteractions(eventBus);
+  }
+
+  private LaunchTrace captureFinishedTrace() {
+    ArgumentCaptor<LaunchTraceFinishedEvent> captor = ArgumentCaptor.forClass(LaunchTraceFinishedEvent.class);
+    verify(eventBus).post(captor.capture());
+    return captor.getValue().getLaunchTrace();
+  }
+}
@@ -0,0 +1,116 @@
+package com.faforever.client.io;
+
+import com.faforever.client.preferences.PreferencesService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ContentStoreTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Mock
+  private PreferencesService preferencesService;
+
+  private ContentStore instance;
+  private Path mapsDirectory;
+  private Path archivesDirectory;
+
+  @Before
+  public void setUp() throws Exception {
+    mapsDirectory = temporaryFolder.newFolder("maps").toPath();
+    archivesDirectory = temporaryFolder.newFolder("archives").toPath();
+    when(preferencesService.getFafDataDirectory()).thenReturn(temporaryFolder.newFolder("data").toPath());
+
+    instance = new ContentStore(preferencesService);
+    instance.setPurgeGracePeriod(Duration.ZERO);
+  }
+
+  @Test
+  public void testVersionsShareUnchangedFiles() throws Exception {
+    Map<String, Set<String>> firstHashes = install(createArchive("map.v0001", "map_scenario.lua", "version = 1", "textures/rock.dds", "rock"));
+    Map<String, Set<String>> secondHashes = install(createArchive("map.v0002", "map_scenario.lua", "version = 2", "textures/rock.dds", "rock"));
+
+    assertThat(firstHashes, hasKey("map.v0001"));
+    assertThat(secondHashes.get("map.v0002"), hasSize(2));
+    assertThat(Files.readString(mapsDirectory.resolve("map.v0002/map_scenario.lua")), is("version = 2"));
+    assertThat(Files.isSameFile(mapsDirectory.resolve("map.v0001/textures/rock.dds"), mapsDirectory.resolve("map.v0002/textures/rock.dds")), is(true));
+    assertThat(countStoredFiles(), is(3L));
+  }
+
+  @Test
+  public void testPurgeDeletesFilesOfRemovedDirectoriesOnly() throws Exception {
+    install(createArchive("map.v0001", "map_scenario.lua", "version = 1", "textures/rock.dds", "rock"));
+    install(createArchive("map.v0002", "map_scenario.lua", "version = 2", "textures/rock.dds", "rock"));
+
+    FileUtils.deleteRecursively(mapsDirectory.resolve("map.v0001"));
+    instance.purge();
+
+    assertThat(countStoredFiles(), is(2L));
+    assertThat(Files.readString(mapsDirectory.resolve("map.v0002/textures/rock.dds")), is("rock"));
+  }
+
+  @Test
+  public void testEntriesOutsideOfTargetDirectoryAreRejected() throws Exception {
+    Path archive = createArchive("../evil", "file.txt", "evil");
+
+    assertThrows(IOException.class, () -> instance.extract(archive, mapsDirectory, (written, total) -> {
+    }));
+  }
+
+  private Map<String, Set<String>> install(Path archive) throws IOException {
+    Map<String, Set<String>> hashes = instance.extract(archive, mapsDirectory, (written, total) -> {
+    });
+    for (Map.Entry<String, Set<String>> entry : hashes.entrySet()) {
+      instance.register(mapsDirectory.resolve(entry.getKey()), entry.getValue());
+    }
+    return hashes;
+  }
+
+  private long countStoredFiles() throws IOException {
+    try (Stream<Path> files = Files.walk(preferencesService.getFafDataDirectory().resolve("content/files"))) {
+      return files.filter(Files::isRegularFile).count();
+    }
+  }
+
+  /**
+   * @param namesAndContents alternating file names, relative to the folder, and their contents
+   */
+  private Path createArchive(String folderName, String... namesAndContents) throws IOException {
+    Path archive = Files.createTempFile(archivesDirectory, "archive", ".zip");
+    try (OutputStream outputStream = Files.newOutputStream(archive);
+         ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+      for (int i = 0; i < namesAndContents.length; i += 2) {
+        zipOutputStream.putNextEntry(new ZipEntry(folderName + "/" + namesAndContents[i]));
+        zipOutputStream.write(namesAndContents[i + 1].getBytes(UTF_8));
+        zipOutputStream.closeEntry();
+      }
+    }
+    return archive;
+  }
+}
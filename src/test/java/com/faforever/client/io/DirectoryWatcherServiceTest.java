@@ -0,0 +1,69 @@
+package com.faforever.client.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class DirectoryWatcherServiceTest {
+
+  @Rule
+  public TemporaryFolder watchedDirectory = new TemporaryFolder();
+
+  private DirectoryWatcherService instance;
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newSingleThreadExecutor();
+    instance = new DirectoryWatcherService(executorService);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    instance.destroy();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testCreatedFolderIsReportedOnceSettled() throws Exception {
+    Path directory = watchedDirectory.getRoot().toPath();
+    CompletableFuture<List<Path>> changedFuture = new CompletableFuture<>();
+    instance.watch(directory, (changedPaths, removedPaths) -> changedFuture.complete(changedPaths));
+
+    Path mapFolder = Files.createDirectory(directory.resolve("some_map"));
+    Files.writeString(mapFolder.resolve("some_map_scenario.lua"), "ScenarioInfo = {}");
+
+    assertThat(changedFuture.get(10, TimeUnit.SECONDS), contains(mapFolder));
+  }
+
+  @Test
+  public void testDeletedFolderIsReportedAsRemoved() throws Exception {
+    Path directory = watchedDirectory.getRoot().toPath();
+    Path mapFolder = Files.createDirectory(directory.resolve("some_map"));
+    CompletableFuture<List<Path>> removedFuture = new CompletableFuture<>();
+    CompletableFuture<List<Path>> changedFuture = new CompletableFuture<>();
+    instance.watch(directory, (changedPaths, removedPaths) -> {
+      changedFuture.complete(changedPaths);
+      removedFuture.complete(removedPaths);
+    });
+
+    Files.delete(mapFolder);
+
+    assertThat(removedFuture.get(10, TimeUnit.SECONDS), contains(mapFolder));
+    assertThat(changedFuture.get(), empty());
+  }
+}
@@ -0,0 +1,270 @@
+package com.faforever.client.io;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.hash.Hashing;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DownloadServiceTest {
+
+  private static final int FILE_SIZE = 256 * 1024;
+
+  @Rule
+  public TemporaryFolder targetDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+  @Mock
+  private PreferencesService preferencesService;
+  @Mock
+  private ContentStore contentStore;
+
+  private DownloadService instance;
+  private HttpServer server;
+  private ExecutorService executorService;
+  private ClientProperties clientProperties;
+  private byte[] content;
+  private final List<String> rangeHeaders = new ArrayList<>();
+  private final AtomicInteger connectionsToDrop = new AtomicInteger();
+  private final List<String> ifRangeHeaders = new ArrayList<>();
+  private volatile String eTag = "\"v1\"";
+  private volatile boolean ignoreRanges;
+
+  @Before
+  public void setUp() throws Exception {
+    content = new byte[FILE_SIZE];
+    new Random(42).nextBytes(content);
+
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/file", this::serveFile);
+    server.start();
+
+    executorService = Executors.newCachedThreadPool();
+    clientProperties = new ClientProperties();
+    clientProperties.getDownload().setParallelSegments(1);
+    instance = new DownloadService(preferencesService, clientProperties, executorService, contentStore);
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testDownloadResumesAfterConnectionDrop() throws Exception {
+    connectionsToDrop.set(1);
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("file.nx2");
+
+    instance.downloadFile(getUrl(), targetFile, (written, total) -> {
+    }, Hashing.md5().hashBytes(content).toString());
+
+    assertArrayEquals(content, Files.readAllBytes(targetFile));
+    assertThat(rangeHeaders, hasItem("bytes=" + FILE_SIZE / 2 + "-"));
+    assertThat(ifRangeHeaders, hasItem(eTag));
+    assertThat(Files.exists(targetFile.resolveSibling("file.nx2.part")), is(false));
+  }
+
+  @Test
+  public void testPartialFileOfChangedFileIsNotResumed() throws Exception {
+    connectionsToDrop.set(3);
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("file.nx2");
+    assertThrows(IOException.class, () -> instance.downloadFile(getUrl(), targetFile, (written, total) -> {
+    }));
+
+    byte[] oldContent = content;
+    content = new byte[FILE_SIZE];
+    new Random(43).nextBytes(content);
+    eTag = "\"v2\"";
+    instance.downloadFile(getUrl(), targetFile, (written, total) -> {
+    });
+
+    assertThat(ifRangeHeaders, hasItem("\"v1\""));
+    assertArrayEquals(content, Files.readAllBytes(targetFile));
+    assertThat(Arrays.equals(oldContent, content), is(false));
+  }
+
+  @Test
+  public void testSegmentAnsweredWithWholeFileIsRejected() throws Exception {
+    clientProperties.getDownload().setParallelSegments(4);
+    clientProperties.getDownload().setParallelSegmentsThreshold(1024);
+    ignoreRanges = true;
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("file.nx2");
+
+    assertThrows(IOException.class, () -> instance.downloadFile(getUrl(), targetFile, (written, total) -> {
+    }));
+
+    assertThat(Files.exists(targetFile), is(false));
+  }
+
+  @Test
+  public void testDownloadWithWrongHashDoesNotReplaceTarget() throws Exception {
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("file.nx2");
+    Files.writeString(targetFile, "old");
+
+    assertThrows(IOException.class, () -> instance.downloadFile(getUrl(), targetFile, (written, total) -> {
+    }, "00000000000000000000000000000000"));
+
+    assertThat(Files.readString(targetFile), is("old"));
+    assertThat(Files.exists(targetFile.resolveSibling("file.nx2.part")), is(false));
+  }
+
+  @Test
+  public void testDownloadInParallelSegments() throws Exception {
+    clientProperties.getDownload().setParallelSegments(4);
+    clientProperties.getDownload().setParallelSegmentsThreshold(1024);
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("file.nx2");
+
+    instance.downloadFile(getUrl(), targetFile, (written, total) -> {
+    });
+
+    assertArrayEquals(content, Files.readAllBytes(targetFile));
+    assertThat(rangeHeaders, containsInAnyOrder("bytes=0-65535", "bytes=65536-131071", "bytes=131072-196607", "bytes=196608-262143"));
+  }
+
+  @Test
+  public void testLimitedDownloadIsFetchedInOnePieceAtTheLimit() throws Exception {
+    clientProperties.getDownload().setParallelSegments(4);
+    clientProperties.getDownload().setParallelSegmentsThreshold(1024);
+    content = zip(content);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+
+    long startTime = System.nanoTime();
+    instance.downloadAndExtract(getUrl(), targetDirectory.getRoot().toPath(), (written, total) -> {
+    }, (written, total) -> {
+    }, 4 * FILE_SIZE);
+
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), greaterThanOrEqualTo(200L));
+    assertThat(rangeHeaders, contains(nullValue()));
+  }
+
+  @Test(timeout = 10_000)
+  public void testDownloadWithoutLimitLiftsLimitOfSameArchive() throws Exception {
+    content = zip(content);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+    Path mapsDirectory = targetDirectory.getRoot().toPath();
+    CountDownLatch limitedDownloadStarted = new CountDownLatch(1);
+
+    CompletableFuture<Void> limitedDownload = CompletableFuture.runAsync(() -> {
+      try {
+        instance.downloadAndExtract(getUrl(), mapsDirectory, (written, total) -> limitedDownloadStarted.countDown(), (written, total) -> {
+        }, 1024);
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }, executorService);
+    limitedDownloadStarted.await();
+    instance.downloadAndExtract(getUrl(), mapsDirectory, (written, total) -> {
+    });
+
+    limitedDownload.join();
+  }
+
+  private static byte[] zip(byte[] entryContent) throws IOException {
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(archive)) {
+      zipOutputStream.putNextEntry(new ZipEntry("map/map_scenario.lua"));
+      zipOutputStream.write(entryContent);
+      zipOutputStream.closeEntry();
+    }
+    return archive.toByteArray();
+  }
+
+  private URL getUrl() throws Exception {
+    return new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/file");
+  }
+
+  private void serveFile(HttpExchange exchange) throws IOException {
+    exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+    exchange.getResponseHeaders().add("ETag", eTag);
+    String range = exchange.getRequestHeaders().getFirst("Range");
+    String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+    if (!"HEAD".equals(exchange.getRequestMethod())) {
+      synchronized (rangeHeaders) {
+        rangeHeaders.add(range);
+      }
+    }
+    if (ifRange != null) {
+      synchronized (ifRangeHeaders) {
+        ifRangeHeaders.add(ifRange);
+      }
+      if (!ifRange.equals(eTag)) {
+        range = null;
+      }
+    }
+    if (ignoreRanges) {
+      range = null;
+    }
+    if ("HEAD".equals(exchange.getRequestMethod())) {
+      exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+      return;
+    }
+
+    int start = 0;
+    int end = content.length - 1;
+    if (range != null) {
+      String[] bounds = range.substring("bytes=".length()).split("-", -1);
+      start = Integer.parseInt(bounds[0]);
+      if (!bounds[1].isEmpty()) {
+        end = Integer.parseInt(bounds[1]);
+      }
+      exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+      exchange.sendResponseHeaders(206, end - start + 1);
+    } else {
+      exchange.sendResponseHeaders(200, content.length);
+    }
+
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      if (connectionsToDrop.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+        outputStream.write(content, start, (end - start + 1) / 2);
+        outputStream.flush();
+        throw new IOException("Simulated connection drop");
+      }
+      outputStream.write(content, start, end - start + 1);
+    }
+  }
+}
@@ -4,6 +4,7 @@ import com.faforever.client.preferences.Preferences;
 import com.faforever.client.preferences.PreferencesBuilder;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.commons.api.dto.FeaturedModFile;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -15,9 +16,18 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
@@ -29,16 +39,27 @@ public class FeaturedModFileCacheServiceTest {
   public TemporaryFolder cacheDirectory = new TemporaryFolder();
   @Rule
   public TemporaryFolder targetDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder clientCacheDirectory = new TemporaryFolder();
   @Mock
   private PreferencesService preferenceService;
+  private ExecutorService executorService;
+  private Preferences preferences;
   private FeaturedModFileCacheService instance;
 
   @Before
   public void setUp() throws Exception {
-    Preferences preferences = PreferencesBuilder.create().defaultValues().gameDataCacheActivated(true).get();
+    preferences = PreferencesBuilder.create().defaultValues().gameDataCacheActivated(true).cacheLifeTimeInDays(30).get();
     when(preferenceService.getPreferences()).thenReturn(preferences);
     when(preferenceService.getFeaturedModCachePath()).thenReturn(cacheDirectory.getRoot().toPath());
-    instance = new FeaturedModFileCacheService(preferenceService);
+    when(preferenceService.getCacheDirectory()).thenReturn(clientCacheDirectory.getRoot().toPath());
+    executorService = Executors.newCachedThreadPool();
+    instance = new FeaturedModFileCacheService(preferenceService, executorService);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
   }
 
   @Test
@@ -74,4 +95,103 @@ public class FeaturedModFileCacheServiceTest {
     assertTrue(Files.isRegularFile(targetPath));
     assertEquals(hashNewFile, instance.readHashFromFile(targetPath));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testReadHashesFromFilesSkipsMissingFiles() throws IOException {
+    Path existingFile = Files.writeString(targetDirectory.getRoot().toPath().resolve("existing.nx2"), "content");
+    Path missingFile = targetDirectory.getRoot().toPath().resolve("missing.nx2");
+
+    Map<Path, String> hashes = instance.readHashesFromFiles(List.of(existingFile, missingFile));
+
+    assertThat(hashes, is(Map.of(existingFile, "9a0364b9e99bb480dd25e1f0284c8555")));
+  }
+
+  @Test
+  public void testUnchangedFilesAreNotHashedAgain() throws IOException {
+    Path file = Files.writeString(targetDirectory.getRoot().toPath().resolve("unchanged.nx2"), "content");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+    instance.readHashFromFile(file);
+
+    // Same size and modification time but different content; only possible if someone cheats, like this test
+    FileTime lastModifiedTime = Files.getLastModifiedTime(file);
+    Files.writeString(file, "CONTENT");
+    Files.setLastModifiedTime(file, lastModifiedTime);
+
+    FeaturedModFileCacheService restartedInstance = new FeaturedModFileCacheService(preferenceService, executorService);
+    assertThat(restartedInstance.readHashFromFile(file), is("9a0364b9e99bb480dd25e1f0284c8555"));
+
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+    assertThat(restartedInstance.readHashFromFile(file), is(not("9a0364b9e99bb480dd25e1f0284c8555")));
+  }
+
+  @Test
+  public void testEvictionKeepsRecentlyUsedFiles() throws IOException {
+    FeaturedModFile usedFile = cacheFile("used", "used content");
+    FeaturedModFile unusedFile = cacheFile("unused", "unused content");
+
+    assertThat(instance.isCached(usedFile), is(true));
+    instance.evictCachedFiles();
+
+    assertThat(Files.exists(instance.getCachedFilePath(usedFile)), is(true));
+    assertThat(Files.exists(instance.getCachedFilePath(unusedFile)), is(false));
+  }
+
+  @Test
+  public void testEvictionDeletesLeastRecentlyUsedFilesOverBudget() throws IOException {
+    FeaturedModFile file = cacheFile("file", "content");
+    Files.setLastModifiedTime(instance.getCachedFilePath(file), FileTime.from(Instant.now()));
+    preferences.setGameDataCacheMaxSizeInGigabytes(0);
+
+    instance.evictCachedFiles();
+
+    assertThat(Files.exists(instance.getCachedFilePath(file)), is(false));
+  }
+
+  @Test
+  public void testEvictionKeepsOnlyStagedFilesIfCacheIsDeactivated() throws IOException {
+    FeaturedModFile oldFile = cacheFile("old", "content");
+    Files.setLastModifiedTime(instance.getCachedFilePath(oldFile), FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+    FeaturedModFile stagedFile = cacheFile("staged", "content");
+    Files.setLastModifiedTime(instance.getCachedFilePath(stagedFile), FileTime.from(Instant.now()));
+    preferences.setGameDataCacheActivated(false);
+
+    instance.evictCachedFiles();
+
+    assertThat(Files.exists(instance.getCachedFilePath(oldFile)), is(false));
+    assertThat(Files.exists(instance.getCachedFilePath(stagedFile)), is(true));
+  }
+
+  @Test
+  public void testEvictionLeavesTemporaryFilesAlone() throws IOException {
+    FeaturedModFile file = cacheFile("file", "content");
+    Path cachedFilePath = instance.getCachedFilePath(file);
+    List<Path> temporaryFiles = new ArrayList<>();
+    for (String suffix : List.of(".part", ".part.validator", ".part.0", ".bsdiff", ".patched")) {
+      Path temporaryFile = cachedFilePath.resolveSibling(cachedFilePath.getFileName() + suffix);
+      Files.writeString(temporaryFile, "partial content");
+      Files.setLastModifiedTime(temporaryFile, FileTime.from(Instant.now().minus(Duration.ofDays(60))));
+      temporaryFiles.add(temporaryFile);
+    }
+
+    instance.evictCachedFiles();
+
+    assertThat(Files.exists(cachedFilePath), is(false));
+    for (Path temporaryFile : temporaryFiles) {
+      assertThat(Files.exists(temporaryFile), is(true));
+    }
+  }
+
+  /**
+   * Creates a cached file that was last modified longer ago than the cache life time.
+   */
+  private FeaturedModFile cacheFile(String md5, String content) throws IOException {
+    FeaturedModFile featuredModFile = new FeaturedModFile();
+    featuredModFile.setMd5(md5);
+    featuredModFile.setGroup("gamedata");
+    Path cachedFilePath = instance.getCachedFilePath(featuredModFile);
+    Files.createDirectories(cachedFilePath.getParent());
+    Files.writeString(cachedFilePath, content);
+    Files.setLastModifiedTime(cachedFilePath, FileTime.from(Instant.now().minus(Duration.ofDays(60))));
+    return featuredModFile;
+  }
+}
@@ -8,16 +8,13 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
-import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,6 +24,8 @@ public class LeaderboardServiceImplTest {
   private static final int PLAYER_ID = 123;
   @Mock
   private FafService fafService;
+  @Mock
+  private LeaderboardStore leaderboardStore;
 
   private LeaderboardServiceImpl instance;
 
@@ -36,42 +35,20 @@ public class LeaderboardServiceImplTest {
   public void setUp() throws Exception {
     leaderboard = LeaderboardBuilder.create().defaultValues().get();
 
-    instance = new LeaderboardServiceImpl(fafService);
-  }
-
-  @Test
-  public void testGetLeaderboardEntries() {
-    List<LeaderboardEntry> ladder1V1Entries = Collections.emptyList();
-    when(fafService.getAllLeaderboardEntries(leaderboard.getTechnicalName())).thenReturn(CompletableFuture.completedFuture(ladder1V1Entries));
-
-    List<LeaderboardEntry> result = instance.getEntries(leaderboard).toCompletableFuture().join();
-
-    verify(fafService).getAllLeaderboardEntries(leaderboard.getTechnicalName());
-    assertThat(result, is(ladder1V1Entries));
+    instance = new LeaderboardServiceImpl(fafService, leaderboardStore);
   }
 
   @Test
   public void testGetLeaderboardStats() {
-    LeaderboardEntry leaderboardEntry1 = new LeaderboardEntry();
-    leaderboardEntry1.setRating(151);
-    leaderboardEntry1.setGamesPlayed(LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN);
+    LeaderboardColumns columns = new LeaderboardColumns();
+    columns.put(1, "player1", 151, LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN, 0, 0);
+    columns.put(2, "player2", 121, LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN + 42, 0, 0);
+    columns.put(3, "player3", 221, LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN, 0, 0);
 
-    LeaderboardEntry leaderboardEntry2 = new LeaderboardEntry();
-    leaderboardEntry2.setRating(121);
-    leaderboardEntry2.setGamesPlayed(LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN + 42);
-
-    LeaderboardEntry leaderboardEntry3 = new LeaderboardEntry();
-    leaderboardEntry3.setRating(221);
-    leaderboardEntry3.setGamesPlayed(LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN);
-
-    when(fafService.getAllLeaderboardEntries(leaderboard.getTechnicalName())).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
-        leaderboardEntry1, leaderboardEntry2, leaderboardEntry3
-    )));
+    when(leaderboardStore.sync(eq(leaderboard.getTechnicalName()), any())).thenReturn(CompletableFuture.completedFuture(columns.toTable()));
 
     List<RatingStat> result = instance.getLeaderboardStats(leaderboard.getTechnicalName()).join();
-    verify(fafService).getAllLeaderboardEntries(leaderboard.getTechnicalName());
-
-    result.sort(Comparator.comparingInt(RatingStat::getRating));
+    verify(leaderboardStore).sync(eq(leaderboard.getTechnicalName()), any());
 
     assertEquals(2, result.size());
     assertEquals(2, result.get(0).getTotalCount());
@@ -85,24 +62,15 @@ public class LeaderboardServiceImplTest {
 
   @Test
   public void testStatsOnlyShowsPlayersWithEnoughGamesPlayed() throws Exception {
-    LeaderboardEntry leaderboardEntry1 = new LeaderboardEntry();
-    leaderboardEntry1.setRating(151);
-    leaderboardEntry1.setGamesPlayed(LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN);
-
-    LeaderboardEntry leaderboardEntry2 = new LeaderboardEntry();
-    leaderboardEntry2.setRating(121);
-    leaderboardEntry2.setGamesPlayed(LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN - 1);
-
-    LeaderboardEntry leaderboardEntry3 = new LeaderboardEntry();
-    leaderboardEntry3.setRating(221);
-    leaderboardEntry3.setGamesPlayed(LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN - 1);
+    LeaderboardColumns columns = new LeaderboardColumns();
+    columns.put(1, "player1", 151, LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN, 0, 0);
+    columns.put(2, "player2", 121, LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN - 1, 0, 0);
+    columns.put(3, "player3", 221, LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN - 1, 0, 0);
 
-    when(fafService.getAllLeaderboardEntries(leaderboard.getTechnicalName())).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
-        leaderboardEntry1, leaderboardEntry2, leaderboardEntry3
-    )));
+    when(leaderboardStore.sync(eq(leaderboard.getTechnicalName()), any())).thenReturn(CompletableFuture.completedFuture(columns.toTable()));
 
     List<RatingStat> result = instance.getLeaderboardStats(leaderboard.getTechnicalName()).toCompletableFuture().get(2, TimeUnit.SECONDS);
-    verify(fafService).getAllLeaderboardEntries(leaderboard.getTechnicalName());
+    verify(leaderboardStore).sync(eq(leaderboard.getTechnicalName()), any());
 
     assertEquals(2, result.size());
     assertEquals(2, result.get(0).getTotalCount());
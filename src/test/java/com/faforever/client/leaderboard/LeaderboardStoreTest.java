@@ -0,0 +1,130 @@
+package com.faforever.client.leaderboard;
+
+import com.faforever.client.remote.FafService;
+import com.faforever.commons.api.dto.Player;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LeaderboardStoreTest {
+
+  private static final String LEADERBOARD = "global";
+  private static final OffsetDateTime NOW = OffsetDateTime.now(ZoneOffset.UTC);
+
+  @Mock
+  private FafService fafService;
+
+  private LeaderboardStore instance;
+  private List<List<com.faforever.commons.api.dto.LeaderboardEntry>> pages;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new LeaderboardStore(fafService);
+    pages = new ArrayList<>();
+
+    when(fafService.streamLeaderboardEntriesUpdatedSince(eq(LEADERBOARD), any(), any())).thenAnswer(invocation -> {
+      Consumer<List<com.faforever.commons.api.dto.LeaderboardEntry>> pageConsumer = invocation.getArgument(2);
+      pages.forEach(pageConsumer);
+      pages.clear();
+      return CompletableFuture.completedFuture(null);
+    });
+  }
+
+  @Test
+  public void testFirstSyncPassesTableAfterEachPage() {
+    pages.add(List.of(entry(1, "top", 2100, 10, NOW)));
+    pages.add(List.of(entry(2, "second", 1850, 5, NOW), entry(3, "third", 1899, 30, NOW)));
+    List<LeaderboardTable> progress = new ArrayList<>();
+
+    LeaderboardTable table = instance.sync(LEADERBOARD, progress::add).join();
+
+    assertThat(progress.size(), is(2));
+    assertThat(progress.get(0).size(), is(1));
+    assertThat(progress.get(1).getUsernames(), is(List.of("top", "second", "third")));
+    assertThat(table.getUsernames(), is(List.of("top", "third", "second")));
+    assertThat(table.getRatingStats(), is(List.of(new RatingStat(1800, 2, 1), new RatingStat(2100, 1, 1))));
+  }
+
+  @Test
+  public void testLaterSyncOnlyFetchesChangedEntries() {
+    pages.add(List.of(entry(1, "player1", 1500, 20, NOW.minusDays(2)), entry(2, "player2", 1600, 20, NOW.minusDays(1))));
+    Instant firstSyncStart = Instant.now();
+    instance.sync(LEADERBOARD, table -> {
+    }).join();
+    Instant firstSyncEnd = Instant.now();
+
+    pages.add(List.of(entry(1, "player1", 1750, 21, NOW)));
+    List<LeaderboardTable> progress = new ArrayList<>();
+    LeaderboardTable table = instance.sync(LEADERBOARD, progress::add).join();
+
+    ArgumentCaptor<Instant> sinceCaptor = ArgumentCaptor.forClass(Instant.class);
+    verify(fafService, times(2)).streamLeaderboardEntriesUpdatedSince(eq(LEADERBOARD), sinceCaptor.capture(), any());
+    Instant secondSince = sinceCaptor.getAllValues().get(1);
+    assertThat(secondSince, is(greaterThanOrEqualTo(firstSyncStart.minus(LeaderboardStore.SYNC_OVERLAP))));
+    assertThat(secondSince, is(lessThanOrEqualTo(firstSyncEnd.minus(LeaderboardStore.SYNC_OVERLAP))));
+
+    assertThat(progress.size(), is(0));
+    assertThat(table.size(), is(2));
+    assertThat(table.getUsername(0), is("player1"));
+    assertThat(table.getGamesPlayed(0), is(21));
+    assertThat(table.getRatingStats(), is(List.of(new RatingStat(1600, 1, 1), new RatingStat(1700, 1, 1))));
+  }
+
+  @Test
+  public void testEntriesNotUpdatedForAMonthAreDropped() {
+    pages.add(List.of(entry(1, "active", 1500, 20, NOW), entry(2, "inactive", 1600, 20, NOW.minusMonths(2))));
+
+    LeaderboardTable table = instance.sync(LEADERBOARD, tableSoFar -> {
+    }).join();
+
+    assertThat(table.getUsernames(), is(List.of("active")));
+    assertThat(table.getRatingStats(), is(List.of(new RatingStat(1500, 1, 1))));
+  }
+
+  @Test
+  public void testTableIsSortedByRating() {
+    pages.add(List.of(entry(1, "a", 1200, 20, NOW), entry(2, "b", 1900, 20, NOW), entry(3, "c", 1500, 20, NOW),
+        entry(4, "d", 1500, 20, NOW), entry(5, "e", 2200, 20, NOW), entry(6, "f", 800, 20, NOW)));
+
+    LeaderboardTable table = instance.sync(LEADERBOARD, tableSoFar -> {
+    }).join();
+
+    assertThat(table.getUsernames(), is(List.of("e", "b", "c", "d", "a", "f")));
+  }
+
+  private static com.faforever.commons.api.dto.LeaderboardEntry entry(int playerId, String login, double rating, int totalGames, OffsetDateTime updateTime) {
+    Player player = new Player();
+    player.setId(String.valueOf(playerId));
+    player.setLogin(login);
+
+    com.faforever.commons.api.dto.LeaderboardEntry entry = new com.faforever.commons.api.dto.LeaderboardEntry();
+    entry.setPlayer(player);
+    entry.setRating(rating);
+    entry.setTotalGames(totalGames);
+    entry.setWonGames(totalGames / 2);
+    entry.setUpdateTime(updateTime);
+    return entry;
+  }
+}
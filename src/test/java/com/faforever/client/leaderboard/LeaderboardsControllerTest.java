@@ -7,16 +7,19 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
-import static com.faforever.client.leaderboard.LeaderboardEntryBuilder.create;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -33,26 +36,17 @@ public class LeaderboardsControllerTest extends AbstractPlainJavaFxTest {
   private I18n i18n;
 
   private final Leaderboard leaderboardGlobal = LeaderboardBuilder.create().defaultValues().id(1).technicalName("global").get();
-  private final List<LeaderboardEntry> entriesGlobal = List.of(
-      create().defaultValues().username("MarcSpector").get(),
-      create().defaultValues().username("Sheikah").get(),
-      create().defaultValues().username("ZLO").get()
-  );
+  private final LeaderboardTable tableGlobal = tableOf("MarcSpector", "Sheikah", "ZLO");
 
   private final Leaderboard leaderboard1v1 = LeaderboardBuilder.create().defaultValues().id(2).technicalName("1v1").get();
-  private final List<LeaderboardEntry> entries1v1 = List.of(
-      create().defaultValues().username("Lenkin").get(),
-      create().defaultValues().username("Nexus").get(),
-      create().defaultValues().username("FtXCommando").get(),
-      create().defaultValues().username("Tex").get()
-  );
+  private final LeaderboardTable table1v1 = tableOf("Lenkin", "Nexus", "FtXCommando", "Tex");
 
   @Before
   public void setUp() throws Exception {
     when(leaderboardService.getLeaderboards())
         .thenReturn(CompletableFuture.completedFuture(List.of(leaderboardGlobal, leaderboard1v1)));
-    when(leaderboardService.getEntries(leaderboardGlobal)).thenReturn(CompletableFuture.completedFuture(entriesGlobal));
-    when(leaderboardService.getEntries(leaderboard1v1)).thenReturn(CompletableFuture.completedFuture(entries1v1));
+    when(leaderboardService.getTable(eq(leaderboardGlobal), any())).thenReturn(CompletableFuture.completedFuture(tableGlobal));
+    when(leaderboardService.getTable(eq(leaderboard1v1), any())).thenReturn(CompletableFuture.completedFuture(table1v1));
 
     instance = new LeaderboardsController(leaderboardService, notificationService, i18n);
 
@@ -75,7 +69,7 @@ public class LeaderboardsControllerTest extends AbstractPlainJavaFxTest {
   @Test
   public void testOnDisplayWhenThrowException() {
     Exception exception = new RuntimeException("error of loading leaderboard entries");
-    when(leaderboardService.getEntries(leaderboard1v1))
+    when(leaderboardService.getTable(eq(leaderboard1v1), any()))
         .thenReturn(CompletableFuture.failedFuture(exception));
     showLeaderboard(leaderboard1v1);
     assertFalse(instance.contentPane.isVisible());
@@ -88,7 +82,7 @@ public class LeaderboardsControllerTest extends AbstractPlainJavaFxTest {
     assertNull(instance.ratingTable.getSelectionModel().getSelectedItem());
     setSearchText("Sheikah");
     assertEquals(3, instance.ratingTable.getItems().size());
-    assertEquals("Sheikah", instance.ratingTable.getSelectionModel().getSelectedItem().getUsername());
+    assertEquals("Sheikah", tableGlobal.getUsername(instance.ratingTable.getSelectionModel().getSelectedItem()));
   }
 
   @Test
@@ -97,7 +91,7 @@ public class LeaderboardsControllerTest extends AbstractPlainJavaFxTest {
     assertNull(instance.ratingTable.getSelectionModel().getSelectedItem());
     setSearchText("z");
     assertEquals(3, instance.ratingTable.getItems().size());
-    assertEquals("ZLO", instance.ratingTable.getSelectionModel().getSelectedItem().getUsername());
+    assertEquals("ZLO", tableGlobal.getUsername(instance.ratingTable.getSelectionModel().getSelectedItem()));
   }
 
   @Test
@@ -118,6 +112,40 @@ public class LeaderboardsControllerTest extends AbstractPlainJavaFxTest {
     assertSearchSuggestions("Nexus", "Tex");
   }
 
+  @Test
+  public void testEntriesAreShownWhileTheyArrive() {
+    CompletableFuture<LeaderboardTable> future = new CompletableFuture<>();
+    List<Consumer<LeaderboardTable>> progressListeners = new ArrayList<>();
+    when(leaderboardService.getTable(eq(leaderboard1v1), any())).thenAnswer(invocation -> {
+      progressListeners.add(invocation.getArgument(1));
+      return future;
+    });
+
+    showLeaderboard(leaderboard1v1);
+    runOnFxThreadAndWait(() -> progressListeners.get(0).accept(tableOf("Lenkin", "Nexus")));
+
+    assertTrue(instance.contentPane.isVisible());
+    assertEquals(2, instance.ratingTable.getItems().size());
+    assertNull(instance.usernamesAutoCompletion);
+
+    runOnFxThreadAndWait(() -> future.complete(table1v1));
+
+    assertEquals(4, instance.ratingTable.getItems().size());
+    assertEquals("Tex", instance.leaderboardTable.getUsername(3));
+    assertNotNull(instance.usernamesAutoCompletion);
+  }
+
+  /**
+   * Creates a table with the players in the specified order.
+   */
+  private static LeaderboardTable tableOf(String... usernames) {
+    LeaderboardColumns columns = new LeaderboardColumns();
+    for (int i = 0; i < usernames.length; i++) {
+      columns.put(i, usernames[i], 2000 - i, 20, 10, 0);
+    }
+    return columns.toTable();
+  }
+
   private void showLeaderboard(Leaderboard leaderboard) {
     runOnFxThreadAndWait(() -> {
       instance.leaderboardComboBox.setValue(leaderboard);
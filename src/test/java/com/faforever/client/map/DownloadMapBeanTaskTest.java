@@ -1,10 +1,15 @@
 package com.faforever.client.map;
 
+import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.ContentStore;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.FileUtils;
 import com.faforever.client.preferences.Preferences;
 import com.faforever.client.preferences.PreferencesBuilder;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.test.AbstractPlainJavaFxTest;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -17,7 +22,10 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.net.URL;
 import java.nio.file.Files;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -27,6 +35,8 @@ public class DownloadMapBeanTaskTest extends AbstractPlainJavaFxTest {
   public ExpectedException expectedException = ExpectedException.none();
   @Rule
   public TemporaryFolder customMapsDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
 
   private DownloadMapTask instance;
 
@@ -44,7 +54,9 @@ public class DownloadMapBeanTaskTest extends AbstractPlainJavaFxTest {
         .then()
         .get();
 
-    instance = new DownloadMapTask(preferencesService, i18n);
+    DownloadService downloadService = new DownloadService(preferencesService, new ClientProperties(), MoreExecutors.newDirectExecutorService(),
+        mock(ContentStore.class));
+    instance = new DownloadMapTask(preferencesService, i18n, downloadService);
 
 
     when(preferencesService.getPreferences()).thenReturn(preferences);
@@ -70,10 +82,12 @@ public class DownloadMapBeanTaskTest extends AbstractPlainJavaFxTest {
 
   @Test
   public void testCall() throws Exception {
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
     instance.setMapUrl(getClass().getResource("/maps/theta_passage_5.v0001.zip").toURI().toURL());
     instance.setFolderName("");
     instance.call();
 
     assertTrue(Files.exists(customMapsDirectory.getRoot().toPath().resolve("theta_passage_5.v0001").resolve("theta_passage_5_scenario.lua")));
+    assertThat(Files.list(customMapsDirectory.getRoot().toPath().resolve(FileUtils.STAGING_DIRECTORY_NAME)).count(), is(0L));
   }
 }
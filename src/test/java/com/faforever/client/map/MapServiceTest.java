@@ -2,6 +2,8 @@ package com.faforever.client.map;
 
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.ContentStore;
+import com.faforever.client.io.DirectoryWatcherService;
 import com.faforever.client.map.MapService.PreviewSize;
 import com.faforever.client.map.generator.MapGeneratorService;
 import com.faforever.client.player.PlayerService;
@@ -47,7 +49,9 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.isEmptyOrNullString;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
@@ -92,6 +96,10 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
   private PlayerService playerService;
   @Mock
   private EventBus eventBus;
+  @Mock
+  private DirectoryWatcherService directoryWatcherService;
+  @Mock
+  private ContentStore contentStore;
 
   @Before
   public void setUp() throws Exception {
@@ -109,7 +117,8 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
     mapsDirectory = gameDirectory.newFolder("maps").toPath();
     when(preferencesService.getPreferences()).thenReturn(preferences);
     instance = new MapService(preferencesService, taskService, applicationContext,
-        fafService, assetService, i18n, uiService, mapGeneratorService, clientProperties, eventBus, playerService);
+        fafService, assetService, i18n, uiService, mapGeneratorService, clientProperties, eventBus, playerService,
+        directoryWatcherService, contentStore);
     instance.afterPropertiesSet();
 
     doAnswer(invocation -> {
@@ -147,6 +156,20 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
     assertThat(mapBean.getSize(), equalTo(MapSize.valueOf(1024, 1024)));
   }
 
+  @Test
+  public void testReadingMapFolderAgainReplacesInstalledMap() throws Exception {
+    Path mapPath = customMapsDirectory.newFolder("SCMP_001").toPath();
+    Files.copy(getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua"), mapPath.resolve("SCMP_001_scenario.lua"));
+
+    instance.addInstalledMap(mapPath);
+    MapBean firstRead = instance.getInstalledMaps().get(0);
+    instance.addInstalledMap(mapPath);
+
+    assertThat(instance.getInstalledMaps(), hasSize(1));
+    assertThat(instance.getInstalledMaps().get(0), not(sameInstance(firstRead)));
+    assertThat(instance.getMapLocallyFromName("scmp_001").orElseThrow(), sameInstance(instance.getInstalledMaps().get(0)));
+  }
+
   @Test
   public void testReadMapOfNonFolderThrowsException() {
     expectedException.expect(MapLoadException.class);
@@ -332,7 +355,7 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
   }
 
   private void prepareUninstallMapTask(MapBean mapToDelete) {
-    UninstallMapTask task = new UninstallMapTask(instance);
+    UninstallMapTask task = new UninstallMapTask(instance, contentStore);
     task.setMap(mapToDelete);
     when(applicationContext.getBean(UninstallMapTask.class)).thenReturn(task);
   }
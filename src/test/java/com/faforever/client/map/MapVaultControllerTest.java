@@ -109,6 +109,8 @@ public class MapVaultControllerTest extends AbstractPlainJavaFxTest {
   public void testSetSupplier() {
     instance.searchType = SearchType.SEARCH;
     instance.setSupplier(standardSearchConfig);
+    instance.searchType = SearchType.INSTALLED;
+    instance.setSupplier(standardSearchConfig);
     instance.searchType = SearchType.NEWEST;
     instance.setSupplier(null);
     instance.searchType = SearchType.HIGHEST_RATED;
@@ -121,6 +123,7 @@ public class MapVaultControllerTest extends AbstractPlainJavaFxTest {
     instance.setSupplier(null);
 
     verify(mapService).findByQueryWithPageCount(standardSearchConfig, instance.pageSize, 1);
+    verify(mapService).findInstalledByQueryWithPageCount(standardSearchConfig, instance.pageSize, 1);
     verify(mapService).getHighestRatedMapsWithPageCount(instance.pageSize, 1);
     verify(mapService).getRecommendedMapsWithPageCount(instance.pageSize, 1);
     verify(mapService).getNewestMapsWithPageCount(instance.pageSize, 1);
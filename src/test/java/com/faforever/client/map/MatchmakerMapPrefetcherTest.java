@@ -0,0 +1,133 @@
+package com.faforever.client.map;
+
+import com.faforever.client.game.GameService;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.map.generator.MapGeneratorService;
+import com.faforever.client.preferences.Preferences;
+import com.faforever.client.preferences.PreferencesBuilder;
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.teammatchmaking.MatchmakingQueue;
+import com.faforever.client.util.Tuple;
+import com.faforever.commons.io.ByteCountListener;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MatchmakerMapPrefetcherTest {
+
+  @Rule
+  public TemporaryFolder customMapsDirectory = new TemporaryFolder();
+
+  @Mock
+  private MapService mapService;
+  @Mock
+  private MapGeneratorService mapGeneratorService;
+  @Mock
+  private DownloadService downloadService;
+  @Mock
+  private GameService gameService;
+  @Mock
+  private PreferencesService preferencesService;
+
+  private MatchmakerMapPrefetcher instance;
+  private Preferences preferences;
+  private MatchmakingQueue queue;
+  private BooleanProperty gameRunning;
+
+  @Before
+  public void setUp() {
+    preferences = PreferencesBuilder.create().defaultValues()
+        .forgedAlliancePrefs()
+        .customMapsDirectory(customMapsDirectory.getRoot().toPath())
+        .then()
+        .get();
+    when(preferencesService.getPreferences()).thenReturn(preferences);
+
+    queue = new MatchmakingQueue();
+    queue.setQueueName("ladder1v1");
+
+    gameRunning = new SimpleBooleanProperty();
+    when(gameService.gameRunningProperty()).thenReturn(gameRunning);
+
+    instance = new MatchmakerMapPrefetcher(mapService, mapGeneratorService, downloadService, gameService, preferencesService);
+  }
+
+  @After
+  public void tearDown() {
+    instance.destroy();
+  }
+
+  @Test
+  public void testPrefetchPoolDownloadsMissingMapsOnly() throws Exception {
+    MapBean installedMap = MapBuilder.create().defaultValues().folderName("installed.v0001").get();
+    MapBean missingMap = MapBuilder.create().defaultValues().folderName("missing.v0001").get();
+    missingMap.setDownloadUrl(new URL("http://127.0.0.1:65534/missing.v0001.zip"));
+    when(mapService.getMatchmakerMapsWithPageCount(eq(queue), anyInt(), eq(1)))
+        .thenReturn(CompletableFuture.completedFuture(new Tuple<>(List.of(installedMap, missingMap), 1)));
+    when(mapService.isInstalled("installed.v0001")).thenReturn(true);
+
+    instance.prefetchPool(queue);
+
+    Path customMaps = customMapsDirectory.getRoot().toPath();
+    verify(downloadService, timeout(5000)).downloadAndExtract(eq(missingMap.getDownloadUrl()), eq(customMaps), any(), any(), eq(1024L * 1024));
+    verify(downloadService, never()).downloadAndExtract(eq(installedMap.getDownloadUrl()), any(), any(), any(), anyLong());
+  }
+
+  @Test
+  public void testDownloadAbortedByGameIsResumedAfterGame() throws Exception {
+    MapBean map = MapBuilder.create().defaultValues().folderName("missing.v0001").get();
+    map.setDownloadUrl(new URL("http://127.0.0.1:65534/missing.v0001.zip"));
+    when(mapService.getMatchmakerMapsWithPageCount(eq(queue), anyInt(), eq(1)))
+        .thenReturn(CompletableFuture.completedFuture(new Tuple<>(List.of(map), 1)));
+    when(gameService.isGameRunning()).thenAnswer(invocation -> gameRunning.get());
+    doAnswer(invocation -> {
+      ByteCountListener downloadListener = invocation.getArgument(2);
+      gameRunning.set(true);
+      downloadListener.updateBytesProcessed(1024, 2048);
+      return null;
+    }).doAnswer(invocation -> {
+      ByteCountListener downloadListener = invocation.getArgument(2);
+      downloadListener.updateBytesProcessed(2048, 2048);
+      return null;
+    }).when(downloadService).downloadAndExtract(eq(map.getDownloadUrl()), any(), any(), any(), anyLong());
+
+    instance.prefetchPool(queue);
+    verify(downloadService, timeout(5000)).downloadAndExtract(eq(map.getDownloadUrl()), any(), any(), any(), anyLong());
+
+    gameRunning.set(false);
+    verify(downloadService, timeout(5000).times(2)).downloadAndExtract(eq(map.getDownloadUrl()), any(), any(), any(), anyLong());
+  }
+
+  @Test
+  public void testPrefetchPoolDisabled() {
+    preferences.getMatchmaker().setMapPoolPrefetchEnabled(false);
+
+    instance.prefetchPool(queue);
+
+    verifyNoInteractions(mapService, downloadService);
+  }
+}
@@ -13,7 +13,7 @@ public class StubDownloadMapTask extends DownloadMapTask {
   public MapBean mapToDownload;
 
   public StubDownloadMapTask(PreferencesService preferencesService, I18n i18n, TemporaryFolder customMapsDirectory) {
-    super(preferencesService, i18n);
+    super(preferencesService, i18n, null);
     this.customMapsDirectory = customMapsDirectory;
   }
 
@@ -0,0 +1,30 @@
+package com.faforever.client.map.generator;
+
+import java.net.URLClassLoader;
+
+/**
+ * Stands in for the map generator jar in tests. Counts its runs in a static field, like the real generator keeps its
+ * state, and must not depend on anything but the JDK.
+ */
+public class FakeMapGenerator {
+
+  private static int runs;
+
+  public static void main(String[] args) throws Exception {
+    runs++;
+    if (args.length > 0 && args[0].equals("--sleep")) {
+      Thread.sleep(60_000);
+    }
+    System.out.println("Saving map neroxis_map_generator_1.0.0_run" + runs);
+    if (args.length > 0 && args[0].equals("--exit")) {
+      System.exit(0);
+    }
+    if (args.length > 0 && args[0].equals("--crash-worker") && FakeMapGenerator.class.getClassLoader() instanceof URLClassLoader) {
+      // Exits that the worker doesn't trap, like a crash of its JVM
+      Thread exitThread = new Thread(() -> System.exit(1));
+      exitThread.setContextClassLoader(null);
+      exitThread.start();
+      exitThread.join();
+    }
+  }
+}
@@ -2,7 +2,6 @@ package com.faforever.client.map.generator;
 
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.notification.NotificationService;
-import com.faforever.client.preferences.PreferencesService;
 import com.google.common.eventbus.EventBus;
 import org.junit.Before;
 import org.junit.Rule;
@@ -25,7 +24,7 @@ public class GenerateMapTaskTest {
   private GenerateMapTask instance;
 
   @Mock
-  private PreferencesService preferencesService;
+  private MapGeneratorRunner mapGeneratorRunner;
   @Mock
   private NotificationService notificationService;
   @Mock
@@ -35,7 +34,7 @@ public class GenerateMapTaskTest {
 
   @Before
   public void setUp() throws Exception {
-    instance = new GenerateMapTask(preferencesService, notificationService, i18n, eventBus);
+    instance = new GenerateMapTask(mapGeneratorRunner, notificationService, i18n, eventBus);
   }
 
   @Test
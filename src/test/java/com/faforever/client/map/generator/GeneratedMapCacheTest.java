@@ -0,0 +1,122 @@
+package com.faforever.client.map.generator;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.Preferences;
+import com.faforever.client.preferences.PreferencesBuilder;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.eventbus.EventBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GeneratedMapCacheTest {
+
+  private static final String MAP_NAME = "neroxis_map_generator_1.2.3_abc";
+  private static final String OTHER_MAP_NAME = "neroxis_map_generator_1.2.3_def";
+
+  @Rule
+  public TemporaryFolder customMapsDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder clientCacheDirectory = new TemporaryFolder();
+  @Mock
+  private PreferencesService preferencesService;
+  @Mock
+  private EventBus eventBus;
+
+  private ExecutorService executorService;
+  private ClientProperties clientProperties;
+  private GeneratedMapCache instance;
+
+  @Before
+  public void setUp() {
+    Preferences preferences = PreferencesBuilder.create().defaultValues()
+        .forgedAlliancePrefs()
+        .customMapsDirectory(customMapsDirectory.getRoot().toPath())
+        .then()
+        .get();
+    when(preferencesService.getPreferences()).thenReturn(preferences);
+    when(preferencesService.getCacheDirectory()).thenReturn(clientCacheDirectory.getRoot().toPath());
+    clientProperties = new ClientProperties();
+    executorService = Executors.newCachedThreadPool();
+
+    instance = new GeneratedMapCache(preferencesService, clientProperties, executorService, eventBus);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testGeneratedMapsAreCachedAndRestored() throws Exception {
+    Path mapDirectory = createMap(customMapsDirectory.getRoot().toPath(), MAP_NAME, 10, Instant.now());
+    Path otherMapDirectory = customMapsDirectory.newFolder("some_other_map").toPath();
+
+    instance.cacheGeneratedMaps();
+
+    assertFalse(Files.exists(mapDirectory));
+    assertTrue(Files.exists(getCacheDirectory().resolve(MAP_NAME).resolve(MAP_NAME + "_scenario.lua")));
+    assertTrue(Files.exists(otherMapDirectory));
+    try (Stream<Path> files = Files.walk(customMapsDirectory.getRoot().toPath())) {
+      assertTrue(files.noneMatch(file -> file.getFileName().toString().startsWith(MAP_NAME)));
+    }
+
+    assertThat(instance.restore(MAP_NAME).get(), is(true));
+
+    assertTrue(Files.exists(mapDirectory.resolve(MAP_NAME + "_scenario.lua")));
+    assertFalse(Files.exists(getCacheDirectory().resolve(MAP_NAME)));
+    verify(eventBus).post(new MapGeneratedEvent(MAP_NAME));
+  }
+
+  @Test
+  public void testRestoreUncachedMap() throws Exception {
+    assertThat(instance.restore(MAP_NAME).get(), is(false));
+  }
+
+  @Test
+  public void testEvictionDeletesLeastRecentlyUsedMapsBeyondSizeBudget() throws Exception {
+    clientProperties.getMapGenerator().setMaxCacheSizeInMegabytes(1);
+    Instant now = Instant.now();
+    createMap(getCacheDirectory(), MAP_NAME, 600 * 1024, now.minus(Duration.ofDays(1)));
+    createMap(getCacheDirectory(), OTHER_MAP_NAME, 600 * 1024, now);
+
+    instance.evictCachedMaps();
+
+    assertFalse(Files.exists(getCacheDirectory().resolve(MAP_NAME)));
+    assertTrue(Files.exists(getCacheDirectory().resolve(OTHER_MAP_NAME)));
+  }
+
+  private Path getCacheDirectory() {
+    return clientCacheDirectory.getRoot().toPath().resolve(GeneratedMapCache.CACHE_DIRECTORY_NAME);
+  }
+
+  private Path createMap(Path parentDirectory, String mapName, int size, Instant lastUse) throws IOException {
+    Path mapDirectory = Files.createDirectories(parentDirectory.resolve(mapName));
+    Files.write(mapDirectory.resolve(mapName + "_scenario.lua"), new byte[size]);
+    Files.setLastModifiedTime(mapDirectory, FileTime.from(lastUse));
+    return mapDirectory;
+  }
+}
@@ -0,0 +1,146 @@
+package com.faforever.client.map.generator;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.os.ProcessOutputPump;
+import com.faforever.client.preferences.Preferences;
+import com.faforever.client.preferences.PreferencesBuilder;
+import com.faforever.client.preferences.PreferencesService;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MapGeneratorRunnerTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  @Rule
+  public TemporaryFolder customMapsDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder fafDataDirectory = new TemporaryFolder();
+  @Mock
+  private PreferencesService preferencesService;
+  @Mock
+  private TaskScheduler taskScheduler;
+
+  private ClientProperties clientProperties;
+  private Path generatorExecutableFile;
+  private MapGeneratorRunner instance;
+
+  @Before
+  public void setUp() throws Exception {
+    Preferences preferences = PreferencesBuilder.create().defaultValues()
+        .forgedAlliancePrefs()
+        .customMapsDirectory(customMapsDirectory.getRoot().toPath())
+        .then()
+        .get();
+    when(preferencesService.getPreferences()).thenReturn(preferences);
+    when(preferencesService.getFafLogDirectory()).thenReturn(fafDataDirectory.getRoot().toPath());
+    clientProperties = new ClientProperties();
+    generatorExecutableFile = createGeneratorJar();
+
+    instance = new MapGeneratorRunner(preferencesService, clientProperties, taskScheduler, new ProcessOutputPump(clientProperties));
+  }
+
+  @After
+  public void tearDown() {
+    instance.destroy();
+  }
+
+  @Test
+  public void testWorkerIsReusedWithFreshGeneratorState() throws Exception {
+    List<String> output = new CopyOnWriteArrayList<>();
+
+    assertTrue(instance.run(command(), TIMEOUT, output::add));
+    assertTrue(instance.run(command("--exit"), TIMEOUT, output::add));
+    assertTrue(instance.run(command(), TIMEOUT, output::add));
+
+    assertThat(output, contains(
+        "Saving map neroxis_map_generator_1.0.0_run1",
+        "Saving map neroxis_map_generator_1.0.0_run1",
+        "Saving map neroxis_map_generator_1.0.0_run1"
+    ));
+    assertTrue(instance.isWorkerRunning());
+  }
+
+  @Test
+  public void testWorkerIsKilledOnTimeout() throws Exception {
+    assertFalse(instance.run(command("--sleep"), Duration.ofSeconds(1), line -> {
+    }));
+
+    assertFalse(instance.isWorkerRunning());
+  }
+
+  @Test
+  public void testRunInProcessIfWorkerIsDisabled() throws Exception {
+    clientProperties.getMapGenerator().setWarmWorker(false);
+
+    assertTrue(instance.run(command(), TIMEOUT, line -> {
+    }));
+
+    assertFalse(instance.isWorkerRunning());
+  }
+
+  @Test
+  public void testRunInProcessIfWorkerDiesBeforeAnswering() throws Exception {
+    List<String> output = new CopyOnWriteArrayList<>();
+
+    assertTrue(instance.run(command("--crash-worker"), TIMEOUT, output::add));
+    assertThat(output, contains("Saving map neroxis_map_generator_1.0.0_run1"));
+
+    assertTrue(instance.run(command(), TIMEOUT, line -> {
+    }));
+    assertFalse(instance.isWorkerRunning());
+  }
+
+  private GeneratorCommand command(String... commandLineArgs) {
+    return GeneratorCommand.builder()
+        .version(new ComparableVersion("1.0.0"))
+        .generatorExecutableFile(generatorExecutableFile)
+        .mapFilename("neroxis_map_generator_1.0.0_run")
+        .commandLineArgs(commandLineArgs.length == 0 ? null : String.join(" ", commandLineArgs))
+        .build();
+  }
+
+  private Path createGeneratorJar() throws Exception {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, FakeMapGenerator.class.getName());
+
+    Path jarFile = fafDataDirectory.getRoot().toPath().resolve("MapGenerator_1.0.0.jar");
+    String classFileName = FakeMapGenerator.class.getName().replace('.', '/') + ".class";
+    try (OutputStream outputStream = Files.newOutputStream(jarFile);
+         JarOutputStream jarOutputStream = new JarOutputStream(outputStream, manifest);
+         InputStream classFile = FakeMapGenerator.class.getClassLoader().getResourceAsStream(classFileName)) {
+      jarOutputStream.putNextEntry(new JarEntry(classFileName));
+      classFile.transferTo(jarOutputStream);
+      jarOutputStream.closeEntry();
+    }
+    return jarFile;
+  }
+}
@@ -29,9 +29,12 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -78,6 +81,8 @@ public class MapGeneratorServiceTest extends AbstractPlainJavaFxTest {
   private ClientProperties clientProperties;
   @Mock
   private MapGenerator mapGenerator;
+  @Mock
+  private GeneratedMapCache generatedMapCache;
 
   @Before
   public void setUp() throws Exception {
@@ -101,12 +106,13 @@ public class MapGeneratorServiceTest extends AbstractPlainJavaFxTest {
     when(mapGenerator.getMaxSupportedMajorVersion()).thenReturn(maxVersion);
     when(mapGenerator.getMinSupportedMajorVersion()).thenReturn(minVersion);
 
-    instance = new MapGeneratorService(applicationContext, preferencesService, taskService, clientProperties);
+    instance = new MapGeneratorService(applicationContext, preferencesService, taskService, clientProperties, generatedMapCache);
 
     instance.afterPropertiesSet();
 
     when(downloadMapGeneratorTask.getFuture()).thenReturn(CompletableFuture.completedFuture(null));
     when(generateMapTask.getFuture()).thenReturn(CompletableFuture.completedFuture(null));
+    when(generatedMapCache.restore(any())).thenReturn(CompletableFuture.completedFuture(false));
     when(generatorOptionsTask.getFuture()).thenReturn(CompletableFuture.completedFuture(new ArrayList<>(List.of("TEST"))));
     doAnswer(invocation -> {
       CompletableTask<Void> task = invocation.getArgument(0);
@@ -142,6 +148,20 @@ public class MapGeneratorServiceTest extends AbstractPlainJavaFxTest {
     verifyNoMoreInteractions(taskService);
   }
 
+  @Test
+  public void testGenerateMapRestoresCachedMap() throws Exception {
+    when(generatedMapCache.restore(testMapNameGenerator)).thenReturn(CompletableFuture.completedFuture(true));
+
+    assertThat(instance.generateMap(testMapNameGenerator).get(), is(testMapNameGenerator));
+
+    verifyNoInteractions(taskService);
+  }
+
+  @Test
+  public void testCachesGeneratedMapsOnStartup() {
+    verify(generatedMapCache).cacheGeneratedMaps();
+  }
+
   @Test
   public void testWrongMapNameThrowsException() {
     expectedException.expect(CompletionException.class);
@@ -1,10 +1,14 @@
 package com.faforever.client.mod;
 
+import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.ContentStore;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.preferences.Preferences;
 import com.faforever.client.preferences.PreferencesBuilder;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.test.AbstractPlainJavaFxTest;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -17,6 +21,7 @@ import java.nio.file.Path;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class InstallModTaskTest extends AbstractPlainJavaFxTest {
@@ -41,7 +46,9 @@ public class InstallModTaskTest extends AbstractPlainJavaFxTest {
         .then()
         .get();
 
-    instance = new InstallModTask(preferencesService, i18n);
+    DownloadService downloadService = new DownloadService(preferencesService, new ClientProperties(), MoreExecutors.newDirectExecutorService(),
+        mock(ContentStore.class));
+    instance = new InstallModTask(preferencesService, i18n, downloadService);
 
     when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
     when(preferencesService.getPreferences()).thenReturn(preferences);
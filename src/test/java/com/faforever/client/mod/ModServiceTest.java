@@ -1,7 +1,11 @@
 package com.faforever.client.mod;
 
+import com.faforever.client.fa.GamePrefsService;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.ContentStore;
+import com.faforever.client.io.DirectoryWatcherService;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.mod.ModVersion.ModType;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.preferences.Preferences;
@@ -38,6 +42,7 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -78,6 +83,8 @@ public class ModServiceTest extends AbstractPlainJavaFxTest {
   public TemporaryFolder faDataDirectory = new TemporaryFolder();
   @Rule
   public TemporaryFolder corruptedModsDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
 
   @Mock
   private PreferencesService preferencesService;
@@ -95,6 +102,10 @@ public class ModServiceTest extends AbstractPlainJavaFxTest {
   private AssetService assetService;
   @Mock
   private PlatformService platformService;
+  @Mock
+  private DirectoryWatcherService directoryWatcherService;
+  @Mock
+  private ContentStore contentStore;
 
   private ModService instance;
   private Path gamePrefsPath;
@@ -111,9 +122,10 @@ public class ModServiceTest extends AbstractPlainJavaFxTest {
         .get();
 
     instance = new ModService(fafService, preferencesService, taskService, applicationContext, notificationService, i18n,
-        platformService, assetService);
+        platformService, assetService, directoryWatcherService, contentStore, new GamePrefsService(preferencesService));
 
     when(preferencesService.getPreferences()).thenReturn(preferences);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
     when(taskService.submitTask(any(CompletableTask.class))).then(invocation -> {
       CompletableTask<?> completableTask = invocation.getArgument(0);
       completableTask.run();
@@ -384,6 +396,52 @@ public class ModServiceTest extends AbstractPlainJavaFxTest {
     assertThat(instance.getPathForMod(ModVersionBuilder.create().uid("1").get()), Matchers.nullValue());
   }
 
+  @Test
+  public void testUnchangedModsAreRestoredFromPersistedRegistry() throws Exception {
+    Path modInfo = blackopsSupportPath.resolve("mod_info.lua");
+    FileTime lastModifiedTime = Files.getLastModifiedTime(modInfo);
+    // Same size and modification time but no longer parseable, so the mod can only come from the registry
+    Files.writeString(modInfo, " ".repeat((int) Files.size(modInfo)));
+    Files.setLastModifiedTime(modInfo, lastModifiedTime);
+
+    ModService restoredInstance = new ModService(fafService, preferencesService, taskService, applicationContext, notificationService, i18n,
+        platformService, assetService, directoryWatcherService, contentStore, new GamePrefsService(preferencesService));
+    restoredInstance.afterPropertiesSet();
+
+    assertThat(restoredInstance.getInstalledModVersions(), hasSize(1));
+    ModVersion modVersion = restoredInstance.getInstalledModVersions().get(0);
+    assertThat(modVersion.getDisplayName(), is("BlackOps Unleashed"));
+    assertThat(modVersion.getVersion(), is(new ComparableVersion("8")));
+    assertThat(modVersion.getImagePath(), is(blackopsSupportPath.resolve("icons/yoda_icon.bmp")));
+    assertThat(modVersion.getMountInfos(), hasSize(10));
+    assertThat(modVersion.getMountInfos().get(3).getFile(), is(Paths.get("effects")));
+    assertThat(modVersion.getHookDirectories(), contains("/blackops"));
+    assertThat(restoredInstance.getPathForMod(modVersion), is(blackopsSupportPath));
+  }
+
+  @Test
+  public void testChangedModsAreReadAgain() throws Exception {
+    Path modInfo = blackopsSupportPath.resolve("mod_info.lua");
+    Files.writeString(modInfo, Files.readString(modInfo).replace("BlackOps Unleashed", "BlackOps Leashed"));
+
+    ModService restoredInstance = new ModService(fafService, preferencesService, taskService, applicationContext, notificationService, i18n,
+        platformService, assetService, directoryWatcherService, contentStore, new GamePrefsService(preferencesService));
+    restoredInstance.afterPropertiesSet();
+
+    assertThat(restoredInstance.getInstalledModVersions().get(0).getDisplayName(), is("BlackOps Leashed"));
+  }
+
+  @Test
+  public void testModUpdatedInPlaceReplacesInstalledVersion() throws Exception {
+    Path modInfo = blackopsSupportPath.resolve("mod_info.lua");
+    Files.writeString(modInfo, Files.readString(modInfo).replace("BlackOps Unleashed", "BlackOps Leashed"));
+
+    instance.loadInstalledMods();
+
+    assertThat(instance.getInstalledModVersions(), hasSize(1));
+    assertThat(instance.getInstalledModVersions().get(0).getDisplayName(), is("BlackOps Leashed"));
+  }
+
   @Test
   public void testUploadMod() {
     ModUploadTask modUploadTask = mock(ModUploadTask.class);
@@ -479,7 +537,7 @@ public class ModServiceTest extends AbstractPlainJavaFxTest {
   }
 
   private InstallModTask stubInstallModTask() {
-    return new InstallModTask(preferencesService, i18n) {
+    return new InstallModTask(preferencesService, i18n, mock(DownloadService.class)) {
       @Override
       protected Void call() {
         return null;
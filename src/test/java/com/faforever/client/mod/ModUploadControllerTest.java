@@ -3,8 +3,8 @@ package com.faforever.client.mod;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.UploadService;
 import com.faforever.client.notification.NotificationService;
-import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.reporting.ReportingService;
 import com.faforever.client.test.AbstractPlainJavaFxTest;
@@ -56,7 +56,7 @@ public class ModUploadControllerTest extends AbstractPlainJavaFxTest {
   @Mock
   private EventBus eventBus;
   @Mock
-  private PreferencesService preferencesService;
+  private UploadService uploadService;
   @Mock
   private FafService fafService;
 
@@ -69,7 +69,7 @@ public class ModUploadControllerTest extends AbstractPlainJavaFxTest {
       return null;
     }).when(executorService).execute(any());
 
-    modUploadTask = new ModUploadTask(preferencesService, fafService, i18n) {
+    modUploadTask = new ModUploadTask(uploadService, fafService, i18n) {
       @Override
       protected Void call() {
         return null;
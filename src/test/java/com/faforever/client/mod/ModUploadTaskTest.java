@@ -1,10 +1,14 @@
 package com.faforever.client.mod;
 
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.CountingFileSystemResource;
+import com.faforever.client.io.StreamingZipResource;
+import com.faforever.client.io.UploadService;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.test.AbstractPlainJavaFxTest;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -12,14 +16,29 @@ import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.collection.IsArrayWithSize.emptyArray;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -35,14 +54,24 @@ public class ModUploadTaskTest extends AbstractPlainJavaFxTest{
   @Mock
   private I18n i18n;
 
+  private ExecutorService executorService;
+  private final List<Resource> uploadedResources = new ArrayList<>();
+  private final List<List<String>> uploadedEntries = new ArrayList<>();
+
   @Before
   public void setUp() throws Exception {
-    instance = new ModUploadTask(preferencesService, fafService, i18n);
+    executorService = Executors.newCachedThreadPool();
+    instance = new ModUploadTask(new UploadService(preferencesService, executorService), fafService, i18n);
 
     when(preferencesService.getCacheDirectory()).thenReturn(tempFolder.getRoot().toPath().resolve("cache"));
     when(i18n.get(any())).thenReturn("");
   }
 
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
   @Test(expected = NullPointerException.class)
   public void testModPathNull() throws Exception {
     instance.call();
@@ -55,13 +84,52 @@ public class ModUploadTaskTest extends AbstractPlainJavaFxTest{
   }
 
   @Test
-  public void testCall() throws Exception {
-    instance.setModPath(tempFolder.newFolder("test-mod").toPath());
+  public void testCallStreamsZipWithoutTemporaryFile() throws Exception {
+    instance.setModPath(createMod());
+    doAnswer(invocation -> readUpload(invocation.getArgument(0))).when(fafService).uploadMod(any());
 
     instance.call();
 
-    verify(fafService).uploadMod(any(), any());
+    assertThat(uploadedResources, contains(instanceOf(StreamingZipResource.class)));
+    assertThat(uploadedEntries.get(0), contains("test-mod/", "test-mod/mod_info.lua", "test-mod/units/", "test-mod/units/unit.bp"));
+    assertThat(Files.exists(preferencesService.getCacheDirectory()), is(false));
+  }
+
+  @Test
+  public void testCallFallsBackToTemporaryFileIfLengthRequired() throws Exception {
+    instance.setModPath(createMod());
+    doAnswer(invocation -> {
+      uploadedResources.add(invocation.getArgument(0));
+      throw new HttpClientErrorException(HttpStatus.LENGTH_REQUIRED);
+    }).doAnswer(invocation -> readUpload(invocation.getArgument(0))).when(fafService).uploadMod(any());
+
+    instance.call();
 
+    assertThat(uploadedResources, contains(instanceOf(StreamingZipResource.class), instanceOf(CountingFileSystemResource.class)));
+    assertThat(uploadedEntries.get(0), contains("test-mod/", "test-mod/mod_info.lua", "test-mod/units/", "test-mod/units/unit.bp"));
     assertThat(Files.list(preferencesService.getCacheDirectory()).toArray(), emptyArray());
   }
+
+  private Path createMod() throws IOException {
+    Path modPath = tempFolder.newFolder("test-mod").toPath();
+    Files.writeString(modPath.resolve("mod_info.lua"), "name = 'Test'");
+    Files.createDirectories(modPath.resolve("units"));
+    Files.write(modPath.resolve("units/unit.bp"), new byte[64 * 1024]);
+    return modPath;
+  }
+
+  private Void readUpload(Resource resource) throws IOException {
+    uploadedResources.add(resource);
+    List<String> entries = new ArrayList<>();
+    try (InputStream inputStream = resource.getInputStream();
+         ZipInputStream zipInputStream = new ZipInputStream(inputStream)) {
+      ZipEntry entry;
+      while ((entry = zipInputStream.getNextEntry()) != null) {
+        entries.add(entry.getName());
+        zipInputStream.readAllBytes();
+      }
+    }
+    uploadedEntries.add(entries);
+    return null;
+  }
 }
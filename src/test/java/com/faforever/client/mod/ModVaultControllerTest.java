@@ -102,6 +102,8 @@ public class ModVaultControllerTest extends AbstractPlainJavaFxTest {
     SearchConfig standardSearchConfig = new SearchConfig(sortOrder, "query");
     instance.searchType = SearchType.SEARCH;
     instance.setSupplier(standardSearchConfig);
+    instance.searchType = SearchType.INSTALLED;
+    instance.setSupplier(standardSearchConfig);
     instance.searchType = SearchType.NEWEST;
     instance.setSupplier(null);
     instance.searchType = SearchType.HIGHEST_RATED;
@@ -110,6 +112,7 @@ public class ModVaultControllerTest extends AbstractPlainJavaFxTest {
     instance.setSupplier(null);
 
     verify(modService).findByQueryWithPageCount(standardSearchConfig, instance.pageSize, 1);
+    verify(modService).findInstalledByQueryWithPageCount(standardSearchConfig, instance.pageSize, 1);
     verify(modService).getHighestRatedModsWithPageCount(instance.pageSize, 1);
     verify(modService).getHighestRatedUiModsWithPageCount(instance.pageSize, 1);
     verify(modService).getNewestModsWithPageCount(instance.pageSize, 1);
@@ -1,5 +1,6 @@
 package com.faforever.client.mod;
 
+import com.faforever.client.io.ContentStore;
 import com.faforever.commons.io.ByteCopier;
 import org.junit.Before;
 import org.junit.Rule;
@@ -34,12 +35,14 @@ public class UninstallModTaskTest {
 
   @Mock
   private ModService modService;
+  @Mock
+  private ContentStore contentStore;
 
   private UninstallModTask instance;
 
   @Before
   public void setUp() throws Exception {
-    instance = new UninstallModTask(modService);
+    instance = new UninstallModTask(modService, contentStore);
   }
 
   @Test
@@ -0,0 +1,95 @@
+package com.faforever.client.os;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.os.ProcessOutputPump.ProcessOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class ProcessOutputPumpTest {
+
+  private ClientProperties clientProperties;
+  private ProcessOutputPump instance;
+
+  @Before
+  public void setUp() {
+    clientProperties = new ClientProperties();
+    instance = new ProcessOutputPump(clientProperties);
+  }
+
+  @After
+  public void tearDown() {
+    instance.destroy();
+  }
+
+  @Test
+  public void testLinesOfBothStreamsArePassedToListeners() throws Exception {
+    List<String> output = new CopyOnWriteArrayList<>();
+    List<String> errors = new CopyOnWriteArrayList<>();
+
+    ProcessOutput processOutput = instance.pump(startPrinter("2"), output::add, errors::add);
+    processOutput.getClosedFuture().get(30, TimeUnit.SECONDS);
+
+    assertThat(output, contains("line 1", "line 2", "windows line", "unterminated"));
+    assertThat(errors, contains("error"));
+  }
+
+  @Test
+  public void testOnlyRecentLinesAreKept() throws Exception {
+    clientProperties.setProcessOutputHistoryLines(2);
+
+    ProcessOutput processOutput = instance.pump(startPrinter("1"), line -> {
+    }, line -> {
+    });
+    processOutput.getClosedFuture().get(30, TimeUnit.SECONDS);
+
+    assertThat(processOutput.getRecentLines(), contains("windows line", "unterminated"));
+  }
+
+  @Test
+  public void testSeveralProcessesArePumpedAtOnce() throws Exception {
+    List<String> firstOutput = new CopyOnWriteArrayList<>();
+    List<String> secondOutput = new CopyOnWriteArrayList<>();
+
+    ProcessOutput first = instance.pump(startPrinter("1"), firstOutput::add, line -> {
+    });
+    ProcessOutput second = instance.pump(startPrinter("1"), secondOutput::add, line -> {
+    });
+    first.getClosedFuture().get(30, TimeUnit.SECONDS);
+    second.getClosedFuture().get(30, TimeUnit.SECONDS);
+
+    assertThat(firstOutput, contains("line 1", "windows line", "unterminated"));
+    assertThat(secondOutput, contains("line 1", "windows line", "unterminated"));
+  }
+
+  private Process startPrinter(String lines) throws Exception {
+    String java = ProcessHandle.current().info().command().orElse("java");
+    return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Printer.class.getName(), lines).start();
+  }
+
+  /**
+   * Writes the specified number of lines and a few with other line terminators.
+   */
+  public static class Printer {
+    public static void main(String[] args) throws Exception {
+      for (int i = 1; i <= Integer.parseInt(args[0]); i++) {
+        System.out.print("line " + i + "\n");
+      }
+      System.out.flush();
+      Thread.sleep(100);
+      System.out.print("windows line\r\nunterminated");
+      System.out.flush();
+      if (args[0].equals("2")) {
+        System.err.print("error\n");
+        System.err.flush();
+      }
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.faforever.client.patch;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.FeaturedModFileCacheService;
+import com.faforever.commons.api.dto.FeaturedModFile;
+import com.faforever.commons.io.ByteCountListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FeaturedModFileDownloaderTest {
+
+  private static final Path INSTALLATION_DIRECTORY = Paths.get("installation");
+
+  @Mock
+  private DownloadService downloadService;
+  @Mock
+  private FeaturedModFileCacheService featuredModFileCacheService;
+
+  private FeaturedModFileDownloader instance;
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() throws Exception {
+    executorService = Executors.newCachedThreadPool();
+    when(featuredModFileCacheService.getCachedFilePath(any(FeaturedModFile.class)))
+        .thenAnswer(invocation -> Paths.get("cache", invocation.<FeaturedModFile>getArgument(0).getMd5()));
+
+    instance = new FeaturedModFileDownloader(downloadService, featuredModFileCacheService, executorService, new ClientProperties());
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testProgressIsAggregatedOverAllFiles() throws Exception {
+    doAnswer(invocation -> {
+      invocation.<ByteCountListener>getArgument(2).updateBytesProcessed(10, 10);
+      return null;
+    }).when(downloadService).downloadFile(any(), any(), any(), any());
+    AtomicLong lastWritten = new AtomicLong();
+
+    instance.downloadToCache(List.of(file("a"), file("b"), file("c"), file("a")), INSTALLATION_DIRECTORY,
+        (written, total) -> lastWritten.accumulateAndGet(written, Math::max), featuredModFile -> {
+        });
+
+    assertThat(lastWritten.get(), is(30L));
+    verify(downloadService).downloadFile(eq(new URL("http://localhost/a")), eq(Paths.get("cache", "a")), any(), eq("a"));
+    verify(downloadService, times(3)).downloadFile(any(), any(), any(), any());
+  }
+
+  @Test
+  public void testFailedFileIsRetried() throws Exception {
+    Path cachePath = Paths.get("cache", "a");
+    doThrow(new IOException("MD5 mismatch"))
+        .doNothing()
+        .when(downloadService).downloadFile(any(), eq(cachePath), any(), any());
+
+    instance.downloadToCache(List.of(file("a")), INSTALLATION_DIRECTORY, (written, total) -> {
+    }, featuredModFile -> {
+    });
+
+    verify(downloadService, times(2)).downloadFile(any(), eq(cachePath), any(), any());
+  }
+
+  @Test
+  public void testFailureIsThrownAfterRetries() throws Exception {
+    doThrow(new IOException("Connection refused")).when(downloadService).downloadFile(any(), any(), any(), any());
+
+    IOException exception = assertThrows(IOException.class, () -> instance.downloadToCache(List.of(file("a")), INSTALLATION_DIRECTORY,
+        (written, total) -> {
+        }, featuredModFile -> {
+        }));
+
+    assertThat(exception.getMessage(), is("Connection refused"));
+  }
+
+  @Test
+  public void testUnexpectedFailureStopsFurtherDownloads() throws Exception {
+    ClientProperties clientProperties = new ClientProperties();
+    clientProperties.getDownload().setParallelFiles(2);
+    instance = new FeaturedModFileDownloader(downloadService, featuredModFileCacheService, executorService, clientProperties);
+    CountDownLatch failing = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      // Keeps the other worker busy until this one has failed
+      failing.await(5, TimeUnit.SECONDS);
+      Thread.sleep(200);
+      return null;
+    }).when(downloadService).downloadFile(any(), eq(Paths.get("cache", "a")), any(), any());
+    doAnswer(invocation -> {
+      failing.countDown();
+      throw new IllegalStateException("Unexpected");
+    }).when(downloadService).downloadFile(any(), eq(Paths.get("cache", "b")), any(), any());
+
+    IOException exception = assertThrows(IOException.class, () -> instance.downloadToCache(List.of(file("a"), file("b"), file("c")),
+        INSTALLATION_DIRECTORY, (written, total) -> {
+        }, featuredModFile -> {
+        }));
+
+    assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+    verify(downloadService, never()).downloadFile(any(), eq(Paths.get("cache", "c")), any(), any());
+  }
+
+  private static FeaturedModFile file(String md5) {
+    FeaturedModFile featuredModFile = new FeaturedModFile();
+    featuredModFile.setName(md5 + ".nx2");
+    featuredModFile.setGroup("gamedata");
+    featuredModFile.setMd5(md5);
+    featuredModFile.setUrl("http://localhost/" + md5);
+    return featuredModFile;
+  }
+}
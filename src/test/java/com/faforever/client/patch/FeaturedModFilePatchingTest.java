@@ -0,0 +1,146 @@
+package com.faforever.client.patch;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.io.ContentStore;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.FeaturedModFileCacheService;
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.commons.api.dto.FeaturedModFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FeaturedModFilePatchingTest {
+
+  private static final String GROUP = "gamedata";
+  private static final String FILE_NAME = "units.nx2";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Mock
+  private PreferencesService preferencesService;
+  @Mock
+  private ContentStore contentStore;
+
+  private FeaturedModFileDownloader instance;
+  private FeaturedModFileServer server;
+  private ExecutorService executorService;
+  private Path installationDirectory;
+  private byte[] installedContent;
+  private byte[] newContent;
+
+  @Before
+  public void setUp() throws Exception {
+    Random random = new Random(42);
+    installedContent = new byte[64 * 1024];
+    random.nextBytes(installedContent);
+    newContent = new byte[80 * 1024];
+    random.nextBytes(newContent);
+    System.arraycopy(installedContent, 0, newContent, 0, 32 * 1024);
+
+    installationDirectory = temporaryFolder.newFolder("fa").toPath();
+    Files.createDirectories(installationDirectory.resolve(GROUP));
+    Files.write(installationDirectory.resolve(GROUP).resolve(FILE_NAME), installedContent);
+
+    when(preferencesService.getFeaturedModCachePath()).thenReturn(temporaryFolder.newFolder("featured-mod-cache").toPath());
+    when(preferencesService.getCacheDirectory()).thenReturn(temporaryFolder.newFolder("cache").toPath());
+
+    server = new FeaturedModFileServer();
+    executorService = Executors.newCachedThreadPool();
+    ClientProperties clientProperties = new ClientProperties();
+    clientProperties.getVault().setFeaturedModPatchUrlFormat(server.getPatchUrlFormat());
+
+    FeaturedModFileCacheService featuredModFileCacheService = new FeaturedModFileCacheService(preferencesService, executorService);
+    DownloadService downloadService = new DownloadService(preferencesService, clientProperties, executorService, contentStore);
+    instance = new FeaturedModFileDownloader(downloadService, featuredModFileCacheService, executorService, clientProperties);
+  }
+
+  @After
+  public void tearDown() {
+    server.close();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testInstalledFileIsPatched() throws Exception {
+    FeaturedModFile featuredModFile = featuredModFile(server.addFile(FILE_NAME, newContent));
+    server.addPatch(GROUP, installedContent, newContent);
+
+    downloadToCache(featuredModFile);
+
+    assertArrayEquals(newContent, Files.readAllBytes(getCachedFile()));
+    assertThat(server.getRequestedPaths(), not(hasItem("/files/" + FILE_NAME)));
+    assertThat(listCacheDirectory(), is(List.of(FeaturedModFileServer.md5(newContent))));
+  }
+
+  @Test
+  public void testFileIsDownloadedFullyWithoutPatch() throws Exception {
+    FeaturedModFile featuredModFile = featuredModFile(server.addFile(FILE_NAME, newContent));
+
+    downloadToCache(featuredModFile);
+
+    assertArrayEquals(newContent, Files.readAllBytes(getCachedFile()));
+    assertThat(server.getRequestedPaths(), hasItem("/files/" + FILE_NAME));
+  }
+
+  @Test
+  public void testFileIsDownloadedFullyIfPatchedFileDoesNotMatch() throws Exception {
+    FeaturedModFile featuredModFile = featuredModFile(server.addFile(FILE_NAME, newContent));
+    byte[] wrongPatch = FeaturedModFileServer.createPatch(installedContent, new byte[]{1, 2, 3});
+    server.addPatch(GROUP, FeaturedModFileServer.md5(installedContent), FeaturedModFileServer.md5(newContent), wrongPatch);
+
+    downloadToCache(featuredModFile);
+
+    assertArrayEquals(newContent, Files.readAllBytes(getCachedFile()));
+    assertThat(server.getRequestedPaths(), hasItem("/files/" + FILE_NAME));
+    assertThat(listCacheDirectory(), is(List.of(FeaturedModFileServer.md5(newContent))));
+  }
+
+  private void downloadToCache(FeaturedModFile featuredModFile) throws Exception {
+    instance.downloadToCache(List.of(featuredModFile), installationDirectory, (written, total) -> {
+    }, file -> {
+    });
+  }
+
+  private Path getCachedFile() {
+    return preferencesService.getFeaturedModCachePath().resolve(GROUP).resolve(FeaturedModFileServer.md5(newContent));
+  }
+
+  private List<String> listCacheDirectory() throws Exception {
+    try (Stream<Path> files = Files.list(preferencesService.getFeaturedModCachePath().resolve(GROUP))) {
+      return files.map(path -> path.getFileName().toString()).collect(Collectors.toList());
+    }
+  }
+
+  private FeaturedModFile featuredModFile(String url) {
+    FeaturedModFile featuredModFile = new FeaturedModFile();
+    featuredModFile.setGroup(GROUP);
+    featuredModFile.setName(FILE_NAME);
+    featuredModFile.setMd5(FeaturedModFileServer.md5(newContent));
+    featuredModFile.setUrl(url);
+    return featuredModFile;
+  }
+}
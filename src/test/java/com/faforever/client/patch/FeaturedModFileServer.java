@@ -0,0 +1,144 @@
+package com.faforever.client.patch;
+
+import com.google.common.hash.Hashing;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Local HTTP server that serves full featured mod files and bsdiff patches between their versions, the way the
+ * content server does. Everything else is answered with 404.
+ */
+final class FeaturedModFileServer implements AutoCloseable {
+
+  private final HttpServer server;
+  private final Map<String, byte[]> contentsByPath = new ConcurrentHashMap<>();
+  private final List<String> requestedPaths = new ArrayList<>();
+
+  FeaturedModFileServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", this::serve);
+    server.start();
+  }
+
+  /**
+   * @return the URL of the file
+   */
+  String addFile(String name, byte[] content) {
+    String path = "/files/" + name;
+    contentsByPath.put(path, content);
+    return getBaseUrl() + path;
+  }
+
+  /**
+   * Serves a patch from the source to the target content.
+   */
+  void addPatch(String group, byte[] source, byte[] target) throws IOException {
+    addPatch(group, md5(source), md5(target), createPatch(source, target));
+  }
+
+  void addPatch(String group, String sourceMd5, String targetMd5, byte[] patch) {
+    contentsByPath.put(String.format("/patches/%s/%s/%s", group, sourceMd5, targetMd5), patch);
+  }
+
+  String getPatchUrlFormat() {
+    return getBaseUrl() + "/patches/%s/%s/%s";
+  }
+
+  List<String> getRequestedPaths() {
+    synchronized (requestedPaths) {
+      return new ArrayList<>(requestedPaths);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  static String md5(byte[] content) {
+    return Hashing.md5().hashBytes(content).toString();
+  }
+
+  /**
+   * Creates a valid, if not very compact, bsdiff patch: a single control tuple that adds the byte-wise difference
+   * over the common length and inserts the rest of the target.
+   */
+  static byte[] createPatch(byte[] source, byte[] target) throws IOException {
+    int diffLength = Math.min(source.length, target.length);
+    byte[] diff = new byte[diffLength];
+    for (int i = 0; i < diffLength; i++) {
+      diff[i] = (byte) (target[i] - source[i]);
+    }
+    byte[] extra = new byte[target.length - diffLength];
+    System.arraycopy(target, diffLength, extra, 0, extra.length);
+
+    ByteBuffer control = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+    control.putLong(diffLength).putLong(extra.length).putLong(0);
+    byte[] compressedControl = bzip2(control.array());
+    byte[] compressedDiff = bzip2(diff);
+    byte[] compressedExtra = bzip2(extra);
+
+    ByteBuffer header = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+    header.put("BSDIFF40".getBytes(US_ASCII))
+        .putLong(compressedControl.length)
+        .putLong(compressedDiff.length)
+        .putLong(target.length);
+
+    ByteArrayOutputStream patch = new ByteArrayOutputStream();
+    patch.writeBytes(header.array());
+    patch.writeBytes(compressedControl);
+    patch.writeBytes(compressedDiff);
+    patch.writeBytes(compressedExtra);
+    return patch.toByteArray();
+  }
+
+  private static byte[] bzip2(byte[] content) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (OutputStream bzip2OutputStream = new BZip2CompressorOutputStream(outputStream)) {
+      bzip2OutputStream.write(content);
+    }
+    return outputStream.toByteArray();
+  }
+
+  private String getBaseUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  private void serve(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    synchronized (requestedPaths) {
+      requestedPaths.add(path);
+    }
+
+    byte[] content = contentsByPath.get(path);
+    if (content == null) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+    if ("HEAD".equals(exchange.getRequestMethod())) {
+      exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+      return;
+    }
+    exchange.sendResponseHeaders(200, content.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(content);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.faforever.client.patch;
+
+import com.faforever.client.game.FeaturedModBeanBuilder;
+import com.faforever.client.game.GameService;
+import com.faforever.client.io.FeaturedModFileCacheService;
+import com.faforever.client.mod.FeaturedMod;
+import com.faforever.client.mod.ModService;
+import com.faforever.client.preferences.Preferences;
+import com.faforever.client.preferences.PreferencesBuilder;
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.remote.FafService;
+import com.faforever.commons.api.dto.FeaturedModFile;
+import com.google.common.eventbus.EventBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FeaturedModPrePatcherTest {
+
+  @Mock
+  private FafService fafService;
+  @Mock
+  private ModService modService;
+  @Mock
+  private GameService gameService;
+  @Mock
+  private PreferencesService preferencesService;
+  @Mock
+  private FeaturedModFileCacheService featuredModFileCacheService;
+  @Mock
+  private FeaturedModFileDownloader featuredModFileDownloader;
+  @Mock
+  private TaskScheduler taskScheduler;
+
+  private FeaturedModPrePatcher instance;
+  private Preferences preferences;
+
+  @Before
+  public void setUp() {
+    preferences = PreferencesBuilder.create().defaultValues()
+        .lastGamePrefs()
+        .lastGameType("coop")
+        .then()
+        .get();
+
+    instance = new FeaturedModPrePatcher(fafService, modService, gameService, preferencesService,
+        featuredModFileCacheService, featuredModFileDownloader, taskScheduler, new EventBus());
+  }
+
+  @After
+  public void tearDown() {
+    instance.destroy();
+  }
+
+  @Test
+  public void testLikelyFeaturedModsIncludeLastGameType() {
+    when(preferencesService.getPreferences()).thenReturn(preferences);
+
+    assertThat(instance.getLikelyFeaturedMods(), contains("faf", "coop"));
+  }
+
+  @Test
+  public void testPrePatchStagesOnlyChangedAndUncachedFiles() throws Exception {
+    Path fafDataDirectory = Paths.get("fa");
+    when(preferencesService.getFafDataDirectory()).thenReturn(fafDataDirectory);
+    FeaturedMod featuredMod = FeaturedModBeanBuilder.create().defaultValues().get();
+    when(modService.getFeaturedMod("faf")).thenReturn(CompletableFuture.completedFuture(featuredMod));
+
+    FeaturedModFile upToDateFile = featuredModFile("units.nx2", "1");
+    FeaturedModFile cachedFile = featuredModFile("env.nx2", "2");
+    FeaturedModFile changedFile = featuredModFile("lua.nx2", "3");
+    when(fafService.getFeaturedModFiles(featuredMod, null))
+        .thenReturn(CompletableFuture.completedFuture(List.of(upToDateFile, cachedFile, changedFile)));
+    when(featuredModFileCacheService.readHashesFromFiles(anyCollection())).thenReturn(Map.of(
+        fafDataDirectory.resolve("gamedata").resolve("units.nx2"), "1",
+        fafDataDirectory.resolve("gamedata").resolve("env.nx2"), "old",
+        fafDataDirectory.resolve("gamedata").resolve("lua.nx2"), "old"
+    ));
+    when(featuredModFileCacheService.isCached(cachedFile)).thenReturn(true);
+
+    instance.prePatch("faf");
+
+    verify(featuredModFileDownloader).downloadToCache(eq(List.of(changedFile)), eq(fafDataDirectory), any(), any());
+  }
+
+  @Test
+  public void testPrePatchSkippedWhileGameIsRunning() {
+    when(gameService.isGameRunning()).thenReturn(true);
+
+    instance.prePatch("faf");
+
+    verifyNoInteractions(modService, fafService, featuredModFileDownloader);
+  }
+
+  private FeaturedModFile featuredModFile(String name, String md5) {
+    FeaturedModFile featuredModFile = new FeaturedModFile();
+    featuredModFile.setGroup("gamedata");
+    featuredModFile.setName(name);
+    featuredModFile.setMd5(md5);
+    return featuredModFile;
+  }
+}
@@ -6,6 +6,7 @@ import com.faforever.client.i18n.I18n;
 import com.faforever.client.preferences.Preferences;
 import com.faforever.client.preferences.PreferencesBuilder;
 import com.faforever.client.preferences.PreferencesService;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -17,7 +18,12 @@ import org.mockito.MockitoAnnotations;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -38,12 +44,16 @@ public class GameBinariesUpdateTaskTest {
   private I18n i18n;
 
   private GameBinariesUpdateTaskImpl instance;
+  private ExecutorService executorService;
+  private ClientProperties clientProperties;
 
   @Before
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
 
-    instance = new GameBinariesUpdateTaskImpl(i18n, preferencesService, platformService, new ClientProperties());
+    executorService = Executors.newCachedThreadPool();
+    clientProperties = new ClientProperties();
+    instance = new GameBinariesUpdateTaskImpl(i18n, preferencesService, platformService, executorService, clientProperties);
 
     Path faPath = faDirectory.getRoot().toPath();
     java.nio.file.Files.createDirectories(faPath.resolve("bin"));
@@ -58,6 +68,11 @@ public class GameBinariesUpdateTaskTest {
     when(preferencesService.getPreferences()).thenReturn(preferences);
   }
 
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testNoVersionThrowsException() throws Exception {
     instance.call();
@@ -84,6 +99,62 @@ public class GameBinariesUpdateTaskTest {
     }
   }
 
+  @Test
+  public void testGameFilesAreLinked() throws Exception {
+    Path faBinPath = faDirectory.getRoot().toPath().resolve("bin");
+    String fileName = GameBinariesUpdateTaskImpl.BINARIES_TO_COPY.iterator().next();
+    createFileWithSize(faBinPath.resolve(fileName), 1024);
+
+    instance.copyGameFilesToFafBinDirectory();
+
+    assertTrue(java.nio.file.Files.isSameFile(faBinPath.resolve(fileName), fafBinDirectory.getRoot().toPath().resolve(fileName)));
+  }
+
+  @Test
+  public void testGameFilesAreCopiedIfLinkingIsDisabled() throws Exception {
+    clientProperties.getForgedAlliance().setLinkBinaries(false);
+    instance = new GameBinariesUpdateTaskImpl(i18n, preferencesService, platformService, executorService, clientProperties);
+    Path faBinPath = faDirectory.getRoot().toPath().resolve("bin");
+    String fileName = GameBinariesUpdateTaskImpl.BINARIES_TO_COPY.iterator().next();
+    createFileWithSize(faBinPath.resolve(fileName), 1024);
+
+    instance.copyGameFilesToFafBinDirectory();
+
+    Path destination = fafBinDirectory.getRoot().toPath().resolve(fileName);
+    assertThat(java.nio.file.Files.isSameFile(faBinPath.resolve(fileName), destination), is(false));
+    assertThat(java.nio.file.Files.size(destination), is(1024L));
+  }
+
+  @Test
+  public void testOutdatedGameFilesAreReplaced() throws Exception {
+    Path faBinPath = faDirectory.getRoot().toPath().resolve("bin");
+    Path fafBinPath = fafBinDirectory.getRoot().toPath();
+    String fileName = GameBinariesUpdateTaskImpl.BINARIES_TO_COPY.iterator().next();
+    createFileWithSize(faBinPath.resolve(fileName), 1024);
+    createFileWithSize(fafBinPath.resolve(fileName), 512);
+
+    instance.copyGameFilesToFafBinDirectory();
+
+    assertThat(java.nio.file.Files.size(fafBinPath.resolve(fileName)), is(1024L));
+  }
+
+  @Test
+  public void testUpToDateGameFilesAreKept() throws Exception {
+    Path faBinPath = faDirectory.getRoot().toPath().resolve("bin");
+    Path fafBinPath = fafBinDirectory.getRoot().toPath();
+    String fileName = GameBinariesUpdateTaskImpl.BINARIES_TO_COPY.iterator().next();
+    FileTime lastModifiedTime = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+    createFileWithSize(faBinPath.resolve(fileName), 1024);
+    java.nio.file.Files.setLastModifiedTime(faBinPath.resolve(fileName), lastModifiedTime);
+    createFileWithSize(fafBinPath.resolve(fileName), 1024);
+    java.nio.file.Files.setLastModifiedTime(fafBinPath.resolve(fileName), lastModifiedTime);
+    Object fileKey = java.nio.file.Files.readAttributes(fafBinPath.resolve(fileName), BasicFileAttributes.class).fileKey();
+
+    instance.copyGameFilesToFafBinDirectory();
+
+    assertThat(java.nio.file.Files.readAttributes(fafBinPath.resolve(fileName), BasicFileAttributes.class).fileKey(), is(fileKey));
+  }
+
   @Test
   public void testUnixExecutableBitIsSet() throws Exception {
     Path faExePath = fafBinDirectory.newFile("ForgedAlliance.exe").toPath();
@@ -1,5 +1,6 @@
 package com.faforever.client.remote;
 
+import com.faforever.client.api.ApiEntityLoader;
 import com.faforever.client.api.FafApiAccessor;
 import com.faforever.client.chat.avatar.AvatarBean;
 import com.faforever.client.chat.avatar.event.AvatarChangedEvent;
@@ -35,11 +36,13 @@ public class FafServiceTest {
   private EventBus eventBus;
   @Mock
   private FafApiAccessor fafApiAccessor;
+  @Mock
+  private ApiEntityLoader apiEntityLoader;
 
   @Before
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
-    instance = new FafService(fafServerAccessor, fafApiAccessor, eventBus);
+    instance = new FafService(fafServerAccessor, fafApiAccessor, eventBus, apiEntityLoader);
   }
 
   @Test
@@ -1,10 +1,12 @@
 package com.faforever.client.teammatchmaking;
 
 import com.faforever.client.fa.relay.LobbyMode;
+import com.faforever.client.fa.relay.ice.IceAdapter;
 import com.faforever.client.game.GameService;
 import com.faforever.client.game.PlayerStatus;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.main.event.OpenTeamMatchmakingEvent;
+import com.faforever.client.map.MatchmakerMapPrefetcher;
 import com.faforever.client.net.ConnectionState;
 import com.faforever.client.notification.ImmediateNotification;
 import com.faforever.client.notification.NotificationService;
@@ -84,6 +86,10 @@ public class TeamMatchmakingServiceTest extends AbstractPlainJavaFxTest {
   @Mock
   private GameService gameService;
   @Mock
+  private IceAdapter iceAdapter;
+  @Mock
+  private MatchmakerMapPrefetcher matchmakerMapPrefetcher;
+  @Mock
   private Player player;
   @Mock
   private Player otherPlayer;
@@ -104,7 +110,7 @@ public class TeamMatchmakingServiceTest extends AbstractPlainJavaFxTest {
     when(playerService.currentPlayerProperty()).thenReturn(playerProperty);
     when(gameService.getInOthersPartyProperty()).thenReturn(new SimpleBooleanProperty());
     instance = new TeamMatchmakingService(fafServerAccessor, playerService, notificationService, preferencesService,
-        fafService, eventBus, i18n, taskScheduler, gameService);
+        fafService, eventBus, i18n, taskScheduler, gameService, matchmakerMapPrefetcher, iceAdapter);
 
     when(preferencesService.isGamePathValid()).thenReturn(true);
     when(playerService.getCurrentPlayer()).thenReturn(Optional.of(player));
@@ -239,6 +245,7 @@ public class TeamMatchmakingServiceTest extends AbstractPlainJavaFxTest {
     WaitForAsyncUtils.waitForFxEvents();
 
     verify(gameService).startSearchMatchmaker();
+    verify(matchmakerMapPrefetcher).prefetchPool(testQueue);
     assertThat(instance.getMatchmakingQueues().stream()
         .filter(queue -> queue.getQueueName().equals("testQueue")).findFirst().get().isJoined(), is(true));
   }
@@ -256,6 +263,7 @@ public class TeamMatchmakingServiceTest extends AbstractPlainJavaFxTest {
     assertThat(instance.getMatchmakingQueues().get(0).getMatchingStatus(), is(MatchingStatus.MATCH_FOUND));
     assertThat(instance.getMatchmakingQueues().get(1).getMatchingStatus(), is(nullValue()));
     assertThat(instance.isCurrentlyInQueue(), is(false));
+    verify(matchmakerMapPrefetcher).cancel();
   }
 
   private void setTwoQueues() {
@@ -360,6 +368,7 @@ public class TeamMatchmakingServiceTest extends AbstractPlainJavaFxTest {
     instance.acceptPartyInvite(player);
 
     verify(fafServerAccessor).acceptPartyInvite(player);
+    verify(iceAdapter).prewarm();
     verify(eventBus).post(new OpenTeamMatchmakingEvent());
 
 
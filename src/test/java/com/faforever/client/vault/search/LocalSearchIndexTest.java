@@ -0,0 +1,102 @@
+package com.faforever.client.vault.search;
+
+import com.faforever.client.map.MapBean;
+import com.faforever.client.map.MapSize;
+import com.faforever.client.util.Tuple;
+import com.faforever.client.vault.search.SearchController.SearchConfig;
+import com.faforever.client.vault.search.SearchController.SortConfig;
+import com.faforever.client.vault.search.SearchController.SortOrder;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class LocalSearchIndexTest {
+
+  private ObservableList<MapBean> maps;
+  private LocalSearchIndex<MapBean> instance;
+
+  @Before
+  public void setUp() {
+    maps = FXCollections.observableArrayList(
+        map("Seton's Clutch", "setons_clutch.v0003", 8, 1024),
+        map("Dual Gap", "dual_gap.v0002", 2, 256),
+        map("Twin Rivers", "twin_rivers.v0005", 4, 512)
+    );
+    instance = new LocalSearchIndex<>(maps)
+        .textAttribute("displayName", MapBean::getDisplayName)
+        .numberAttribute("latestVersion.maxPlayers", MapBean::getPlayers)
+        .numberAttribute("latestVersion.width", map -> map.getSize().getWidthInPixels());
+  }
+
+  @Test
+  public void testFuzzyNameMatch() {
+    assertThat(search("displayName==\"*stns*\""), contains("Seton's Clutch"));
+    assertThat(search("displayName==\"*twin rivres*\""), contains("Twin Rivers"));
+    assertThat(search("displayName==\"*map6*\""), empty());
+  }
+
+  @Test
+  public void testRangeAndCategoryFilters() {
+    assertThat(search("latestVersion.maxPlayers=ge=4;latestVersion.maxPlayers=le=8;latestVersion.width=in=(\"512\",\"2048\")"),
+        contains("Twin Rivers"));
+    assertThat(search("(latestVersion.maxPlayers==2,latestVersion.maxPlayers==8);displayName==\"*gap*\""), contains("Dual Gap"));
+  }
+
+  @Test
+  public void testUnknownPropertiesAreIgnored() {
+    assertThat(search("latestVersion.updateTime=ge=\"2020-01-01T00:00:00Z\";latestVersion.maxPlayers=gt=2"),
+        contains("Seton's Clutch", "Twin Rivers"));
+  }
+
+  @Test
+  public void testSortingAndPaging() {
+    SearchConfig searchConfig = new SearchConfig(new SortConfig("latestVersion.maxPlayers", SortOrder.DESC), "");
+
+    Tuple<List<MapBean>, Integer> firstPage = instance.search(searchConfig, 2, 1);
+    Tuple<List<MapBean>, Integer> secondPage = instance.search(searchConfig, 2, 2);
+
+    assertThat(names(firstPage.getFirst()), contains("Seton's Clutch", "Twin Rivers"));
+    assertThat(names(secondPage.getFirst()), contains("Dual Gap"));
+    assertThat(firstPage.getSecond(), is(2));
+  }
+
+  @Test
+  public void testIndexFollowsSourceList() {
+    maps.remove(0);
+    maps.add(map("Setons Remake", "setons_remake.v0001", 8, 1024));
+
+    assertThat(search("displayName==\"*setons*\""), contains("Setons Remake"));
+  }
+
+  @Test
+  public void testInvalidQuery() {
+    assertThrows(IllegalArgumentException.class, () -> search("displayName==\"unterminated"));
+  }
+
+  private List<String> search(String query) {
+    return names(instance.search(new SearchConfig(null, query), 100, 1).getFirst());
+  }
+
+  private static List<String> names(List<MapBean> maps) {
+    return maps.stream().map(MapBean::getDisplayName).collect(Collectors.toList());
+  }
+
+  private static MapBean map(String displayName, String folderName, int players, int size) {
+    MapBean map = new MapBean();
+    map.setDisplayName(displayName);
+    map.setFolderName(folderName);
+    map.setPlayers(players);
+    map.setSize(MapSize.valueOf(size, size));
+    return map;
+  }
+}